@@ -2,6 +2,7 @@ package enterprises.orbital.evekit.model;
 
 import enterprises.orbital.base.OrbitalProperties;
 import enterprises.orbital.base.PersistentProperty;
+import enterprises.orbital.eve.esi.client.invoker.ApiCallback;
 import enterprises.orbital.eve.esi.client.invoker.ApiException;
 import enterprises.orbital.eve.esi.client.invoker.ApiResponse;
 import enterprises.orbital.evekit.account.AccountNotFoundException;
@@ -13,13 +14,41 @@ import org.apache.http.client.utils.DateUtils;
 import org.joda.time.DateTime;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract base class for ESI account endpoint synchronizers.
@@ -50,21 +79,49 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
   private static final String PROP_MAX_DELAY = "enterprises.orbital.evekit.sync_mgr.max_sync_delay";
   private static final long DEF_MAX_DELAY = TimeUnit.MILLISECONDS.convert(20, TimeUnit.MINUTES);
 
-  // Batch size for bulk commits
-  private static final String PROP_REF_COMMIT_BATCH_SIZE = "enterprises.orbital.evekit.sync_mgr.commit_batch_size";
-  private static final int DEF_REF_COMMIT_BATCH_SIZE = 200;
+  // Maximum number of pages retrieved concurrently by pagedResultRetriever.  This may be specialized
+  // per endpoint by appending "." and the endpoint name.  A value of 1 retrieves pages sequentially.
+  private static final String PROP_PAGE_CONCURRENCY = "enterprises.orbital.evekit.sync_mgr.page_concurrency";
+  private static final int DEF_PAGE_CONCURRENCY = 1;
 
-  // Default required valid time for ESI token
-  private static final String PROP_MIN_ESI_VALID_TIME = "enterprises.orbital.evekit.sync_mgr.min_token_valid";
-  private static final long DEF_MIN_ESI_VALID_TIME = TimeUnit.MILLISECONDS.convert(2, TimeUnit.MINUTES);
+  // Issues ESI calls asynchronously for synchronizers which support it.  This may be specialized per endpoint
+  // by appending "." and the endpoint name.
+  private static final String PROP_ASYNC_CALLS = "enterprises.orbital.evekit.sync_mgr.async_calls";
+  private static final boolean DEF_ASYNC_CALLS = false;
 
-  // ESI client ID and key
-  private static final String PROP_ESI_CLIENT_ID = "enterprises.orbital.token.eve_client_id";
-  private static final String PROP_ESI_SECRET_KEY = "enterprises.orbital.token.eve_secret_key";
+  // Maximum number of asynchronous ESI calls in flight for a single synchronizer.  This may be specialized
+  // per endpoint by appending "." and the endpoint name.
+  private static final String PROP_MAX_IN_FLIGHT = "enterprises.orbital.evekit.sync_mgr.max_in_flight";
+  private static final int DEF_MAX_IN_FLIGHT = 16;
+
+  // Enables streaming synchronization for endpoints which support it.  This may be specialized
+  // per endpoint by appending "." and the endpoint name.
+  private static final String PROP_STREAMING_SYNC = "enterprises.orbital.evekit.sync_mgr.streaming_sync";
+  private static final boolean DEF_STREAMING_SYNC = false;
+
+  // Skips processing and commit when server data is unchanged since the last full reconcile, for synchronizers
+  // which support payload digests.  This may be specialized per endpoint by appending "." and the endpoint name.
+  private static final String PROP_PAYLOAD_DIGEST = "enterprises.orbital.evekit.sync_mgr.payload_digest";
+  private static final boolean DEF_PAYLOAD_DIGEST = false;
+
+  // Maximum number of blocks queued to the commit worker during streaming synchronization.  This may be
+  // specialized per endpoint by appending "." and the endpoint name.  A value of 0 commits each block on
+  // the synchronization thread.
+  private static final String PROP_COMMIT_PIPELINE_DEPTH = "enterprises.orbital.evekit.sync_mgr.commit_pipeline_depth";
+  private static final int DEF_COMMIT_PIPELINE_DEPTH = 0;
+
+  // Maximum number of keys included in a single prefetch query for existing entities.  A value of 0
+  // disables prefetching, in which case existing entities are retrieved one at a time in commit.
+  private static final String PROP_PREFETCH_BATCH_SIZE = "enterprises.orbital.evekit.sync_mgr.prefetch_batch_size";
+  private static final int DEF_PREFETCH_BATCH_SIZE = 500;
 
   // Convenient attribute selector which matches any attribute
   public static final AttributeSelector ANY_SELECTOR = new AttributeSelector("{ any: true }");
 
+  // Page size used when retrieving existing data for comparison or end of life processing
+  public static final String PROP_RETRIEVE_BATCH_SIZE = "enterprises.orbital.evekit.sync_mgr.retrieve_batch_size";
+  public static final int DEF_RETRIEVE_BATCH_SIZE = 1000;
+
   // List of endpoints we should skip during synchronization (separate with '|')
   public static final String PROP_EXCLUDE_SYNC = "enterprises.orbital.evekit.account.exclude_sync";
 
@@ -76,24 +133,99 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
   // Cache creator.  Can be overridden for testing.
   private static SDECacheCreator sdeCacheCreator;
 
+  // Parsed value of the excluded endpoints setting
+  private static class ExcludedEndpoints {
+    final String setting;
+    final Set<ESISyncEndpoint> endpoints;
+
+    ExcludedEndpoints(String setting, Set<ESISyncEndpoint> endpoints) {
+      this.setting = setting;
+      this.endpoints = endpoints;
+    }
+  }
+
+  private static volatile ExcludedEndpoints excludedEndpoints;
+
   // Shared cache for SDE data
-  private static SDECache sdeCache;
+  private static volatile SDECache sdeCache;
+
+  // Guards creation of the SDE cache, which may load a snapshot from disk.  A lock rather than a monitor so that
+  // waiting virtual threads don't pin their carriers.
+  private static final ReentrantLock sdeCacheLock = new ReentrantLock();
+
+  // Locatable asset types, resolved through the shared SDE cache
+  private static volatile LocatableTypes locatableTypes;
+
+  // Existing entities prefetched for the commit block currently being processed.  The outer map is keyed by
+  // entity type, the inner map by natural key.  Keys with no live entity map to null.
+  private final Map<Class<?>, Map<Object, CachedData>> prefetched = new HashMap<>();
 
   // Account to be synchronized
   protected SynchronizedEveAccount account;
 
+  // Set when an orchestrator has already refreshed the account for the next synchronization
+  private volatile boolean accountShared = false;
+
+  // Deadline for the synchronization in progress
+  private volatile SyncDeadline deadline = SyncDeadline.none();
+
+  // Set when the synchronization in progress stopped early at its deadline with partial data
+  private volatile boolean stoppedAtDeadline = false;
+
+  // Set when cancel is called before the next synchronization has started
+  private volatile boolean cancelRequested = false;
+
+  // Executor which starts asynchronous calls once they have been throttled.  Set by synch when asynchronous
+  // calls are enabled.
+  private volatile Executor asyncExecutor;
+
   public static void setCacheCreator(SDECacheCreator creator) {
-    synchronized (AbstractESIAccountSync.class) {
+    sdeCacheLock.lock();
+    try {
       sdeCacheCreator = creator;
+    } finally {
+      sdeCacheLock.unlock();
     }
   }
 
   protected SDECache getSDECache() {
-    synchronized (AbstractESIAccountSync.class) {
+    SDECache cache = sdeCache;
+    if (cache != null) return cache;
+    sdeCacheLock.lock();
+    try {
       if (sdeCache == null) {
-        sdeCache = sdeCacheCreator == null ? new StandardSDECache() : sdeCacheCreator.createCache();
+        SDECache created = sdeCacheCreator == null ? createDefaultSDECache() : sdeCacheCreator.createCache();
+        locatableTypes = new LocatableTypes(created);
+        sdeCache = created;
       }
       return sdeCache;
+    } finally {
+      sdeCacheLock.unlock();
+    }
+  }
+
+  // Use a snapshot backed cache if a snapshot file is configured, otherwise a purely in-memory cache.
+  private static SDECache createDefaultSDECache() {
+    String snapshot = PersistentProperty.getPropertyWithFallback(SnapshotSDECache.PROP_SDE_SNAPSHOT_FILE, "");
+    return snapshot.isEmpty() ? new StandardSDECache() : new SnapshotSDECache(Paths.get(snapshot));
+  }
+
+  /**
+   * Determine which of a set of asset types are locatable, i.e. ships (categoryName = "Ship") or
+   * containers (groupName ends with "Container").  Types not seen before are resolved with bulk SDE
+   * lookups, after which eligibility is a single bit test.  Types which can not be resolved are treated as
+   * not locatable.
+   *
+   * @param typeIDs asset types which will be tested.
+   * @return bitset of locatable type IDs.  The result is shared and must not be modified.
+   */
+  protected BitSet resolveLocatableTypes(Collection<Integer> typeIDs) {
+    getSDECache();
+    try {
+      return locatableTypes.resolve(typeIDs);
+    } catch (enterprises.orbital.evekit.sde.client.invoker.ApiException e) {
+      log.log(Level.WARNING, getContext() + " SDE Api error while trying to resolve type information, skipping asset types: " + typeIDs, e);
+      return new BitSet();
     }
   }
 
@@ -107,15 +239,35 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
   }
 
   /**
-   * Retrieve the ESI endpoints that have been excluded from synchronization by the admin.
+   * Use an account snapshot which has already been refreshed, and which may be shared with other synchronizers
+   * for the same account.  The next synchronization skips its own account refresh.
+   *
+   * @param snapshot refreshed account.
+   */
+  void shareAccount(SynchronizedEveAccount snapshot) {
+    account = snapshot;
+    accountShared = true;
+  }
+
+  /**
+   * Retrieve the ESI endpoints that have been excluded from synchronization by the admin.  The setting is
+   * read through {@link SyncConfig}, and only re-parsed when it changes.
    *
-   * @return the set of excluded ESI endpoints.
+   * @return the unmodifiable set of excluded ESI endpoints.
    */
   public static Set<ESISyncEndpoint> getExcludedEndpoints() {
-    String[] excludedStates = PersistentProperty.getPropertyWithFallback(PROP_EXCLUDE_SYNC, "")
-                                                .split("\\|");
-    Set<ESISyncEndpoint> excluded = new HashSet<>();
-    for (String next : excludedStates) {
+    String setting = SyncConfig.get(PROP_EXCLUDE_SYNC, "");
+    ExcludedEndpoints current = excludedEndpoints;
+    if (current == null || !current.setting.equals(setting)) {
+      current = new ExcludedEndpoints(setting, parseExcludedEndpoints(setting));
+      excludedEndpoints = current;
+    }
+    return current.endpoints;
+  }
+
+  private static Set<ESISyncEndpoint> parseExcludedEndpoints(String setting) {
+    Set<ESISyncEndpoint> excluded = EnumSet.noneOf(ESISyncEndpoint.class);
+    for (String next : setting.split("\\|")) {
       if (!next.isEmpty()) {
         try {
           ESISyncEndpoint val = ESISyncEndpoint.valueOf(next);
@@ -126,20 +278,18 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
         }
       }
     }
-    return excluded;
+    return Collections.unmodifiableSet(excluded);
   }
 
   /**
-   * Retrieve an access token guaranteed to be valid for at least DEF_MIN_ESI_VALID_TIME milliseconds.
+   * Retrieve an access token guaranteed to be valid for at least DEF_MIN_ESI_VALID_TIME milliseconds.  Tokens are
+   * shared by all synchronizers for the same account through {@link ESITokenCache}.
    *
    * @return a valid access token.
    * @throws IOException if a failure occurs while refreshing the access token.
    */
   protected String accessToken() throws IOException {
-    return account.refreshToken(
-        PersistentProperty.getLongPropertyWithFallback(PROP_MIN_ESI_VALID_TIME, DEF_MIN_ESI_VALID_TIME),
-        OrbitalProperties.getGlobalProperty(PROP_ESI_CLIENT_ID),
-        OrbitalProperties.getGlobalProperty(PROP_ESI_SECRET_KEY));
+    return ESITokenCache.get(account);
   }
 
   // Convenience function to construct a time selector for the give time.
@@ -152,6 +302,75 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
     List<A> query(long contid, AttributeSelector at) throws IOException;
   }
 
+  /**
+   * Page size for queries which retrieve existing data.  Call sites pass this as the maximum number of
+   * results for each query made by {@link #retrieveAll(long, QueryCaller)} and
+   * {@link #iterateAll(long, QueryCaller)}.
+   *
+   * @return maximum number of results to retrieve in a single query.
+   */
+  public static int retrieveBatchSize() {
+    return Math.max(SyncConfig.getInt(PROP_RETRIEVE_BATCH_SIZE, DEF_RETRIEVE_BATCH_SIZE), 1);
+  }
+
+  /**
+   * Lazily retrieve all data items of the specified type live at the specified time.  The next page is
+   * only retrieved once the previous page has been consumed, so callers scanning large histories use
+   * constant memory and may stop early.  DB errors are thrown as {@link UncheckedIOException} during
+   * iteration.
+   *
+   * @param time  the "live" time for the retrieval.
+   * @param query an interface which performs the type appropriate query call.
+   * @param <A>   class of the object which will be returned.
+   * @return an iterable over all results.  Each iterator issues its own queries.
+   */
+  public static <A extends CachedData> Iterable<A> iterateAll(long time, QueryCaller<A> query) {
+    final AttributeSelector ats = makeAtSelector(time);
+    return () -> new Iterator<A>() {
+      private long contid = 0;
+      private Iterator<A> page = Collections.emptyIterator();
+      private boolean done = false;
+
+      @Override
+      public boolean hasNext() {
+        while (!done && !page.hasNext()) {
+          List<A> nextBatch;
+          try {
+            nextBatch = query.query(contid, ats);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          if (nextBatch.isEmpty()) {
+            done = true;
+          } else {
+            contid = nextBatch.get(nextBatch.size() - 1)
+                              .getCid();
+            page = nextBatch.iterator();
+          }
+        }
+        return page.hasNext();
+      }
+
+      @Override
+      public A next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return page.next();
+      }
+    };
+  }
+
+  /**
+   * Stream version of {@link #iterateAll(long, QueryCaller)}.
+   *
+   * @param time  the "live" time for the retrieval.
+   * @param query an interface which performs the type appropriate query call.
+   * @param <A>   class of the object which will be returned.
+   * @return a sequential stream over all results.
+   */
+  public static <A extends CachedData> Stream<A> streamAll(long time, QueryCaller<A> query) {
+    return StreamSupport.stream(iterateAll(time, query).spliterator(), false);
+  }
+
   /**
    * Retrieve all data items of the specified type live at the specified time.
    * This function continues to accumulate results until a query returns no results.
@@ -213,11 +432,90 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
                                                                                         DEF_DEFAULT_SYNC_DELAY);
   }
 
+  /**
+   * Retrieve an integer setting for this synchronizer.  The setting may be overridden for the account by an
+   * account scoped property with the same key, or specialized for this endpoint by appending "." and the endpoint
+   * name.  Settings are read through {@link SyncConfig}, so this is cheap enough to call in inner loops.
+   *
+   * @param prop setting key.
+   * @param def  value to use if the setting is not set.
+   * @return setting value.
+   */
+  protected int endpointSetting(String prop, int def) {
+    return SyncConfig.getInt(account, prop, SyncConfig.getInt(prop, endpoint(), def));
+  }
+
   /**
    * {@inheritDoc}
    */
   public long maxDelay() {
-    return PersistentProperty.getLongPropertyWithFallback(PROP_MAX_DELAY, DEF_MAX_DELAY);
+    return SyncConfig.getLong(PROP_MAX_DELAY, DEF_MAX_DELAY);
+  }
+
+  /**
+   * Deadline for the synchronization in progress.  The deadline is the tracker start time plus
+   * {@link #maxDelay()}, after which the tracker would be terminated anyway.  Fetch helpers check the deadline
+   * before each ESI call.  Synchronizers with their own crawl loops should do the same with
+   * {@link #checkDeadline()} or {@link #stopAtDeadline()}.
+   *
+   * @return deadline for the synchronization in progress.
+   */
+  protected SyncDeadline deadline() {
+    return deadline;
+  }
+
+  /**
+   * Cancel the synchronization in progress, or the next synchronization if none is in progress.  The
+   * synchronization stops before its next ESI call, exactly as if its deadline had passed.
+   */
+  public void cancel() {
+    cancelRequested = true;
+    deadline.cancel();
+  }
+
+  /**
+   * Throw if the deadline for the synchronization in progress has passed.  Nothing retrieved so far is stored,
+   * and the next synchronization is scheduled immediately using the context from
+   * {@link #getResumeContext(ESIEndpointSyncTracker)}.  Streaming synchronizers keep blocks already committed.
+   *
+   * @throws SyncDeadlineExceededException if the deadline has passed.
+   */
+  protected void checkDeadline() throws SyncDeadlineExceededException {
+    deadline.check();
+  }
+
+  /**
+   * Check whether a crawl should stop early because the deadline for the synchronization in progress has passed.
+   * If so, the synchronization is marked as partial: data retrieved so far is processed and stored, and the next
+   * synchronization is scheduled immediately using the context from {@link #getNextSyncContext()}.  Only use this
+   * where storing partial data is safe, i.e. where missing data is not treated as deleted.
+   *
+   * @return true if the crawl should stop.
+   */
+  protected boolean stopAtDeadline() {
+    if (!deadline.expired()) return false;
+    stoppedAtDeadline = true;
+    return true;
+  }
+
+  /**
+   * Check whether the synchronization in progress stopped early at its deadline (see {@link #stopAtDeadline()}).
+   *
+   * @return true if the synchronization stopped early.
+   */
+  protected boolean stoppedAtDeadline() {
+    return stoppedAtDeadline;
+  }
+
+  /**
+   * Context for the next tracker when a synchronization is stopped by {@link #checkDeadline()}.  The default
+   * re-uses the context of the current tracker, so that the next synchronization retries from the same point.
+   *
+   * @param tracker tracker for the synchronization which stopped.
+   * @return the context to be attached to the next tracker.
+   */
+  protected String getResumeContext(ESIEndpointSyncTracker tracker) {
+    return tracker.getContext();
   }
 
   /**
@@ -241,6 +539,16 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
       long time,
       CachedData item) throws IOException {
     CachedData.update(item);
+    metrics().rowWritten();
+  }
+
+  /**
+   * Metrics for this synchronizer's endpoint.
+   *
+   * @return endpoint metrics.
+   */
+  protected EndpointMetrics metrics() {
+    return SyncMetrics.get(endpoint());
   }
 
   /**
@@ -254,6 +562,26 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
   protected abstract ESIAccountServerResult<ServerDataType> getServerData(ESIAccountClientProvider cp)
       throws ApiException, IOException;
 
+  /**
+   * Asynchronous variant of {@link #getServerData(ESIAccountClientProvider)}, used in its place when
+   * {@link #useAsyncCalls()} is enabled.  The default simply calls getServerData on the calling thread.
+   * Synchronizers which issue many ESI calls may override this to compose calls made with
+   * {@link #callAsync(AsyncCall)}, so that many calls are in flight without a thread per call.
+   *
+   * @param cp client provider for the current synchronization.
+   * @return a future which completes with server data, or fails with an ApiException or IOException.
+   */
+  protected CompletableFuture<ESIAccountServerResult<ServerDataType>> getServerDataAsync(
+      ESIAccountClientProvider cp) {
+    CompletableFuture<ESIAccountServerResult<ServerDataType>> result = new CompletableFuture<>();
+    try {
+      result.complete(getServerData(cp));
+    } catch (ApiException | IOException | RuntimeException e) {
+      result.completeExceptionally(e);
+    }
+    return result;
+  }
+
   /**
    * Process server data.  Normally, the subclass will extract server data into appropriate types
    * which are added to the update list (and later processed in the "commit" call).
@@ -269,6 +597,146 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
       List<CachedData> updates)
       throws IOException;
 
+  // Interface used by streaming synchronizers to hand off each page of server data as it is retrieved
+  public interface ServerPageConsumer<A> {
+    void accept(A page) throws ApiException, IOException;
+  }
+
+  /**
+   * Check whether this synchronizer implements the streaming variant of synchronization, i.e.
+   * {@link #streamServerData(ESIAccountClientProvider, ServerPageConsumer)},
+   * {@link #processServerPage(long, Object, List)} and {@link #processEndOfLife(long, List)}.
+   * Sub-classes which implement these methods should override and return true.
+   *
+   * @return true if this synchronizer supports streaming synchronization, false otherwise.
+   */
+  protected boolean supportsStreaming() {
+    return false;
+  }
+
+  /**
+   * Check whether this synchronization should be performed in streaming mode.  Streaming must be supported
+   * by the synchronizer and enabled by the admin, either globally or for this endpoint.
+   *
+   * @return true if this synchronization should stream server data, false otherwise.
+   */
+  protected boolean useStreaming() {
+    if (!supportsStreaming()) return false;
+    return SyncConfig.getBoolean(PROP_STREAMING_SYNC, endpoint(), DEF_STREAMING_SYNC);
+  }
+
+  /**
+   * Check whether this synchronizer may skip processing when server data is unchanged (see {@link PayloadDigest}).
+   * Only synchronizers whose stored data is fully determined by server data, and which do not compute their next
+   * sync context while processing server data, should override and return true.  This is normally the case for
+   * low churn endpoints.
+   *
+   * @return true if this synchronizer supports payload digests, false otherwise.
+   */
+  protected boolean supportsPayloadDigest() {
+    return false;
+  }
+
+  /**
+   * Check whether processing should be skipped when server data is unchanged since the last full reconcile (see
+   * {@link PayloadDigest}).  Digests must be supported by the synchronizer and enabled by the admin, either
+   * globally or for this endpoint.  This check only applies to non-streaming synchronization.
+   *
+   * @return true if unchanged server data should skip processing and commit.
+   */
+  protected boolean usePayloadDigest() {
+    if (!supportsPayloadDigest()) return false;
+    return SyncConfig.getBoolean(PROP_PAYLOAD_DIGEST, endpoint(), DEF_PAYLOAD_DIGEST);
+  }
+
+  /**
+   * Compute a digest of server data.  The default digests the string form of the data, which is stable for ESI
+   * client model objects and lists of them.  Sub-classes with other server data types should either provide a
+   * stable toString or override this method.
+   *
+   * @param data server data.
+   * @return digest of server data, or null if no digest can be computed.
+   */
+  protected String payloadDigest(ServerDataType data) {
+    return PayloadDigest.digest(data);
+  }
+
+  /**
+   * Streaming variant of {@link #getServerData(ESIAccountClientProvider)}.  Rather than accumulating all server
+   * data, each page of server data should be passed to the consumer as soon as it is retrieved.  The consumer
+   * processes and commits the page before returning.  The default retrieves all server data with getServerData
+   * and passes it to the consumer as a single page.  Sub-classes which support streaming should override.
+   *
+   * @param cp       client provider for the current synchronization.
+   * @param consumer consumer which processes and commits each page of server data.
+   * @return the expiry time of the server data.
+   * @throws ApiException if a client error occurs while retrieving data.
+   * @throws IOException  on any other error which occurs while retrieving or consuming data.
+   */
+  protected long streamServerData(ESIAccountClientProvider cp, ServerPageConsumer<ServerDataType> consumer)
+      throws ApiException, IOException {
+    ESIAccountServerResult<ServerDataType> data = getServerData(cp);
+    consumer.accept(data.getData());
+    return data.getExpiryTime();
+  }
+
+  /**
+   * Streaming variant of {@link #processServerData(long, ESIAccountServerResult, List)}.  Process a single page
+   * of server data, adding objects to be updated to the update list.  Sub-classes will normally record the keys
+   * of all processed objects so that end of life processing can be performed in
+   * {@link #processEndOfLife(long, List)}.  The default processes the page exactly as
+   * {@link #processServerData(long, ESIAccountServerResult, List)} would, which is correct when all server data
+   * arrives as a single page (see {@link #streamServerData(ESIAccountClientProvider, ServerPageConsumer)}).
+   * Sub-classes which support streaming should override.
+   *
+   * @param time    synchronization time.
+   * @param page    a single page of server data.
+   * @param updates list of objects to be updated as a result of processing.
+   * @throws IOException on any error which occurs while processing server data
+   */
+  protected void processServerPage(long time, ServerDataType page, List<CachedData> updates) throws IOException {
+    processServerData(time, new ESIAccountServerResult<>(-1, page), updates);
+  }
+
+  /**
+   * Final step of streaming synchronization.  Called once all pages have been processed and committed.
+   * Sub-classes should add any stored objects which were not seen during synchronization to the update
+   * list after marking them end of life.
+   *
+   * @param time    synchronization time.
+   * @param updates list of objects to be updated as a result of processing.
+   * @throws IOException on any error which occurs while processing end of life objects.
+   */
+  protected void processEndOfLife(long time, List<CachedData> updates) throws IOException {}
+
+  /**
+   * Stream all pages of a paged endpoint to a consumer, one page at a time, in page order.  The deadline for the
+   * synchronization in progress is checked before each page is retrieved (see {@link #checkDeadline()}).
+   *
+   * @param pageFetcher retriever for a single page.
+   * @param consumer    consumer for each retrieved page.
+   * @param <A>         type of the elements of each page.
+   * @return the expiry time of the final page.
+   * @throws ApiException if a client error occurs while retrieving or consuming a page.
+   * @throws IOException  on any other error which occurs while retrieving or consuming a page.
+   */
+  protected <A> long pagedResultStreamer(
+      GetNextPage<A> pageFetcher,
+      ServerPageConsumer<List<A>> consumer) throws ApiException, IOException {
+    int page = 1, maxPages = 1;
+    long expiry = 0L;
+    while (page <= maxPages) {
+      checkDeadline();
+      ApiResponse<List<A>> result = pageFetcher.retrievePage(page);
+      checkCommonProblems(result);
+      expiry = extractExpiry(result, -1);
+      maxPages = extractXPages(result, 1);
+      consumer.accept(result.getData());
+      page++;
+    }
+    return expiry;
+  }
+
   /**
    * Convenience method for handling the common case where we should commit and EOL item
    * (if update.getLifeStart() != 0), evolve an existing item if it is different from an
@@ -283,17 +751,22 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
     if (update.getLifeStart() != 0) {
       // Existing element that is end of life (basically a delete).
       CachedData.update(update);
+      metrics().rowEndOfLife();
     } else if (existing != null) {
       if (!existing.equivalent(update)) {
         // Evolve
         existing.evolve(update, time);
         CachedData.update(existing);
         CachedData.update(update);
+        metrics().rowWritten();
+      } else {
+        metrics().rowUnchanged();
       }
     } else {
       // New entity
       update.setup(account, time);
       CachedData.update(update);
+      metrics().rowWritten();
     }
   }
 
@@ -348,6 +821,8 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
    * @throws IOException if a common problem is found in the response.
    */
   protected static void checkCommonProblems(ApiResponse<?> response) throws IOException {
+    // Every response reports the remaining error budget, use it to pace future calls
+    ESIThrottle.observe(response.getHeaders());
     if (response.getStatusCode() != HttpStatus.SC_OK)
       throw new IOException("Unexpected return code: " + response.getStatusCode());
     if (response.getData() == null) throw new IOException("Response data is null");
@@ -365,6 +840,292 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
     return null;
   }
 
+  /**
+   * Number of updates to commit in the next transaction.  The batch size adapts to the observed commit
+   * rate for this endpoint when a target transaction time is configured (see {@link CommitBatchController}).
+   * Otherwise, the reference batch size is used.
+   *
+   * @return the commit batch size for this synchronizer.
+   */
+  protected int commitBatchSize() {
+    return CommitBatchController.get(endpoint())
+                                .getBatchSize();
+  }
+
+  /**
+   * Commit a list of updates in batches.  Each batch is committed in a separate transaction.  The batch
+   * size is re-evaluated before each batch.
+   *
+   * @param syncTime synchronization time at which updates will occur.
+   * @param updates  list of updates to commit.
+   * @throws IOException on any error committing updates.
+   */
+  protected void commitUpdates(long syncTime, List<CachedData> updates) throws IOException {
+    int count = updates.size();
+    if (count == 0) return;
+    log.fine("Processing " + count + " total updates: " + getContext());
+    for (int i = 0, endIndex; i < count; i = endIndex) {
+      endIndex = Math.min(i + commitBatchSize(), count);
+      commitBlock(syncTime, updates.subList(i, endIndex));
+    }
+  }
+
+  /**
+   * Commit a single block of updates in one transaction.
+   *
+   * @param syncTime  synchronization time at which updates will occur.
+   * @param nextBlock block of updates to commit.
+   * @throws IOException on any error committing updates.
+   */
+  protected void commitBlock(long syncTime, List<CachedData> nextBlock) throws IOException {
+    long txStart = OrbitalProperties.getCurrentTime();
+    try {
+      EveKitUserAccountProvider.getFactory()
+                               .runTransaction(() -> {
+                                 // Handle next block of commits.
+                                 log.fine("Processing " + nextBlock.size() + " updates: " + getContext());
+                                 long start = OrbitalProperties.getCurrentTime();
+                                 try {
+                                   if (prefetchBatchSize() > 0)
+                                     prefetch(syncTime, nextBlock);
+                                   for (CachedData obj : nextBlock) {
+                                     commit(syncTime, obj);
+                                   }
+                                 } finally {
+                                   prefetched.clear();
+                                 }
+                                 long end = OrbitalProperties.getCurrentTime();
+                                 if (log.isLoggable(Level.FINE)) {
+                                   // Commit commit rate if FINE if debugging
+                                   long delay = end - start;
+                                   double rate = delay / (double) nextBlock.size();
+                                   log.fine(
+                                       "Process rate = " + rate + " milliseconds/update: " + getContext());
+                                 }
+                               });
+      CommitBatchController.get(endpoint())
+                           .record(nextBlock.size(), OrbitalProperties.getCurrentTime() - txStart);
+    } catch (Exception e) {
+      if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+      log.log(Level.SEVERE, "query error: " + getContext(), e);
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Prefetch existing entities needed to commit a block of updates.  This method is called in the same
+   * transaction as the block commit, before any call to {@link #commit(long, CachedData)}.  Subclasses which
+   * look up existing entities in commit should override this method and call
+   * {@link #prefetchExisting(long, List, Class, Function, Function, KeyedQueryCaller)} for each type they
+   * look up, then retrieve existing entities with {@link #getExisting(Class, Object, ExistingLoader)}.
+   * The default does nothing.
+   *
+   * @param time  synchronization time at which updates will occur.
+   * @param block block of updates about to be committed.
+   * @throws IOException on any database error.
+   */
+  protected void prefetch(long time, List<CachedData> block) throws IOException {}
+
+  // Interface which forwards a call to the class specific query function, selecting on the first key column
+  public interface KeyedQueryCaller<A extends CachedData> {
+    List<A> query(long contid, AttributeSelector at, AttributeSelector keys) throws IOException;
+  }
+
+  // Interface which retrieves a single existing entity when it was not prefetched
+  public interface ExistingLoader<A extends CachedData> {
+    A load() throws IOException;
+  }
+
+  /**
+   * Maximum number of keys included in a single prefetch query.  May be specialized per endpoint by
+   * appending "." and the endpoint name.  A value of 0 disables prefetching.
+   *
+   * @return prefetch query batch size.
+   */
+  protected int prefetchBatchSize() {
+    return endpointSetting(PROP_PREFETCH_BATCH_SIZE, DEF_PREFETCH_BATCH_SIZE);
+  }
+
+  // Convenience function to construct a selector matching any of the given numeric values.
+  public static AttributeSelector makeValuesSelector(Collection<? extends Number> values) {
+    StringBuilder selector = new StringBuilder("{values: [");
+    boolean first = true;
+    for (Number next : values) {
+      if (!first) selector.append(", ");
+      selector.append(next);
+      first = false;
+    }
+    return new AttributeSelector(selector.append("]}")
+                                         .toString());
+  }
+
+  /**
+   * Retrieve all live entities of the given type which match updates in a block of updates.  Only updates of
+   * the given type which are not end of life (i.e. updates which would normally be looked up in commit) are
+   * considered.  Entities are retrieved in as few queries as possible by selecting on the first key column, then
+   * recorded by natural key for retrieval with {@link #getExisting(Class, Object, ExistingLoader)}.
+   *
+   * @param time       synchronization time at which updates will occur.
+   * @param block      block of updates about to be committed.
+   * @param type       type of entity to prefetch.
+   * @param keyOf      extracts the natural key of an entity.  Keys must implement equals and hashCode.
+   * @param selectorOf extracts the first key column of an entity, used to select entities in the query.
+   * @param query      performs the type appropriate query call.
+   * @param <A>        class of entity to prefetch.
+   * @throws IOException on any database error.
+   */
+  protected <A extends CachedData> void prefetchExisting(long time, List<CachedData> block, Class<A> type,
+                                                         Function<A, Object> keyOf,
+                                                         Function<A, ? extends Number> selectorOf,
+                                                         KeyedQueryCaller<A> query) throws IOException {
+    Map<Object, CachedData> existing = new HashMap<>();
+    Set<Number> selectors = new LinkedHashSet<>();
+    for (CachedData next : block) {
+      if (type.isInstance(next) && next.getLifeStart() == 0) {
+        A update = type.cast(next);
+        existing.put(keyOf.apply(update), null);
+        selectors.add(selectorOf.apply(update));
+      }
+    }
+    if (selectors.isEmpty()) return;
+    List<Number> selectorList = new ArrayList<>(selectors);
+    int batchSize = Math.max(prefetchBatchSize(), 1);
+    for (int i = 0; i < selectorList.size(); i += batchSize) {
+      final AttributeSelector keys = makeValuesSelector(
+          selectorList.subList(i, Math.min(i + batchSize, selectorList.size())));
+      for (A next : iterateAll(time, (long contid, AttributeSelector at) -> query.query(contid, at, keys))) {
+        Object key = keyOf.apply(next);
+        // Only record entities we'll actually look up
+        if (existing.containsKey(key))
+          existing.put(key, next);
+      }
+    }
+    prefetched.put(type, existing);
+  }
+
+  /**
+   * Retrieve an existing entity which may have been prefetched for the current commit block.  Each prefetched
+   * entity is returned at most once.  If the entity type or key was not prefetched, or the key has already
+   * been retrieved, then the loader is used to retrieve the entity instead.
+   *
+   * @param type   type of entity to retrieve.
+   * @param key    natural key of entity as produced by the prefetch key function.
+   * @param loader retrieves the entity when it was not prefetched.
+   * @param <A>    class of entity to retrieve.
+   * @return existing entity, or null if none exists.
+   * @throws IOException on any database error.
+   */
+  protected <A extends CachedData> A getExisting(Class<A> type, Object key, ExistingLoader<A> loader)
+      throws IOException {
+    Map<Object, CachedData> existing = prefetched.get(type);
+    if (existing != null && existing.containsKey(key))
+      return type.cast(existing.remove(key));
+    return loader.load();
+  }
+
+  /**
+   * Remove updates of the given type which would not change stored data.  Live entities matching updates are
+   * retrieved in as few queries as possible, as in
+   * {@link #prefetchExisting(long, List, Class, Function, Function, KeyedQueryCaller)}, and any update which is
+   * equivalent to its stored counterpart is dropped.  End of life updates are never dropped.  Call this from
+   * {@link #processServerData(long, ESIAccountServerResult, List)} so that unchanged rows are filtered before
+   * any commit transaction starts.  Synchronizers which already scan all live entities while processing server
+   * data should use {@link KeyedReconciler} instead.
+   *
+   * @param time       synchronization time at which updates will occur.
+   * @param updates    list of updates to filter.
+   * @param type       type of entity to filter.
+   * @param keyOf      extracts the natural key of an entity.  Keys must implement equals and hashCode.
+   * @param selectorOf extracts the first key column of an entity, used to select entities in the query.
+   * @param query      performs the type appropriate query call.
+   * @param <A>        class of entity to filter.
+   * @throws IOException on any database error.
+   */
+  protected <A extends CachedData> void dropUnchanged(long time, List<CachedData> updates, Class<A> type,
+                                                      Function<A, Object> keyOf,
+                                                      Function<A, ? extends Number> selectorOf,
+                                                      KeyedQueryCaller<A> query) throws IOException {
+    Map<Object, CachedData> candidates = new HashMap<>();
+    Set<Number> selectors = new LinkedHashSet<>();
+    for (CachedData next : updates) {
+      if (type.isInstance(next) && next.getLifeStart() == 0) {
+        A update = type.cast(next);
+        candidates.put(keyOf.apply(update), update);
+        selectors.add(selectorOf.apply(update));
+      }
+    }
+    if (selectors.isEmpty()) return;
+    Set<CachedData> unchanged = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<Number> selectorList = new ArrayList<>(selectors);
+    int batchSize = prefetchBatchSize() > 0 ? prefetchBatchSize() : DEF_PREFETCH_BATCH_SIZE;
+    for (int i = 0; i < selectorList.size(); i += batchSize) {
+      final AttributeSelector keys = makeValuesSelector(
+          selectorList.subList(i, Math.min(i + batchSize, selectorList.size())));
+      for (A next : iterateAll(time, (long contid, AttributeSelector at) -> query.query(contid, at, keys))) {
+        CachedData update = candidates.get(keyOf.apply(next));
+        if (update != null && next.equivalent(update))
+          unchanged.add(update);
+      }
+    }
+    if (unchanged.isEmpty()) return;
+    log.fine("Dropping " + unchanged.size() + " unchanged " + type.getSimpleName() + " updates: " + getContext());
+    updates.removeIf(unchanged::contains);
+    for (int i = unchanged.size(); i > 0; i--) metrics().rowUnchanged();
+  }
+
+  /**
+   * Maximum number of blocks which may be queued for commit during streaming synchronization.  A value of zero
+   * or less disables pipelining so that each block is committed on the synchronization thread.
+   *
+   * @return the commit pipeline depth for this synchronizer.
+   */
+  protected int commitPipelineDepth() {
+    return endpointSetting(PROP_COMMIT_PIPELINE_DEPTH, DEF_COMMIT_PIPELINE_DEPTH);
+  }
+
+  // Page consumer used for streaming synchronization.  Each page is processed and then either committed
+  // directly or handed off to a commit pipeline before the next page is retrieved.  Only a single page of
+  // updates (plus any blocks queued in the pipeline) is held at any time.
+  private class StreamingConsumer implements ServerPageConsumer<ServerDataType> {
+    private final long time;
+    private final CommitPipeline pipeline;
+    private final List<CachedData> updates = new ArrayList<>();
+    private long processTime;
+    private long commitTime;
+
+    StreamingConsumer(long time, CommitPipeline pipeline) {
+      this.time = time;
+      this.pipeline = pipeline;
+    }
+
+    @Override
+    public void accept(ServerDataType page) throws IOException {
+      long start = OrbitalProperties.getCurrentTime();
+      processServerPage(time, page, updates);
+      long processed = OrbitalProperties.getCurrentTime();
+      metrics().page();
+      metrics().rowsConverted(updates.size());
+      store(updates);
+      long committed = OrbitalProperties.getCurrentTime();
+      processTime += processed - start;
+      commitTime += committed - processed;
+      updates.clear();
+    }
+
+    // Commit or enqueue a list of updates.  Enqueued blocks are copied since the caller may reuse the list.
+    void store(List<CachedData> toStore) throws IOException {
+      if (pipeline == null) {
+        commitUpdates(time, toStore);
+        return;
+      }
+      int count = toStore.size();
+      for (int i = 0, endIndex; i < count; i = endIndex) {
+        endIndex = Math.min(i + commitBatchSize(), count);
+        pipeline.submit(new ArrayList<>(toStore.subList(i, endIndex)));
+      }
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -374,28 +1135,29 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
     log.fine("Starting synchronization: " + getContext());
     long syncStart = OrbitalProperties.getCurrentTime();
     long syncEnd = 0;
-    long syncServerCallStart = 0;
-    long syncServerCallEnd = 0;
-    long syncProcessDataStart = 0;
-    long syncProcessDataEnd = 0;
-    long syncCommitStart = 0;
-    long syncCommitEnd = 0;
+    long serverTime = -1;
+    long processTime = -1;
+    long commitTime = -1;
+    long commitStallTime = -1;
 
     try {
       // We may have been queued for a while and may have a stale account reference.
-      // Refresh to make sure we have proper credentials.
-      try {
-        account = SynchronizedEveAccount.getSynchronizedAccount(account.getUserAccount(), account.getAid(), false);
-      } catch (AccountNotFoundException e) {
-        // This could potentially happen if this account was marked for delete while we had a tracker
-        // queued.  In this case, just finish the tracker and exit.
-        log.log(Level.FINE, "Error refreshing account, ending synch: " + getContext(), e);
-        ESIEndpointSyncTracker tracker = getCurrentTracker();
-        tracker.setStatus(ESISyncState.ERROR);
-        tracker.setDetail("Account appears to be in a bad state, this synch will be skipped");
-        ESIEndpointSyncTracker.finishTracker(tracker);
-        return;
+      // Refresh to make sure we have proper credentials, unless an orchestrator has just done so.
+      if (!accountShared) {
+        try {
+          account = AccountSnapshotCache.get(account);
+        } catch (AccountNotFoundException e) {
+          // This could potentially happen if this account was marked for delete while we had a tracker
+          // queued.  In this case, just finish the tracker and exit.
+          log.log(Level.FINE, "Error refreshing account, ending synch: " + getContext(), e);
+          ESIEndpointSyncTracker tracker = getCurrentTracker();
+          tracker.setStatus(ESISyncState.ERROR);
+          tracker.setDetail("Account appears to be in a bad state, this synch will be skipped");
+          ESIEndpointSyncTracker.finishTracker(tracker);
+          return;
+        }
       }
+      accountShared = false;
 
       // Get the current tracker.  If no tracker exists, then we'll exit in the catch block below.
       ESIEndpointSyncTracker tracker = getCurrentTracker();
@@ -432,68 +1194,111 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
 
       // Set syncTime to the start of the current tracker
       long syncTime = tracker.getSyncStart();
+      deadline = new SyncDeadline(syncTime + maxDelay());
+      stoppedAtDeadline = false;
+      if (cancelRequested) {
+        cancelRequested = false;
+        deadline.cancel();
+      }
+      asyncExecutor = useAsyncCalls() ? cp.getScheduler() : null;
       long nextEvent;
       String nextContext;
+      // Set when the synchronization stopped at its deadline and should resume immediately
+      boolean resume = false;
 
       try {
-        // Retrieve server and process server data.  Any client or processing
-        // errors will result in marking the tracker as in error with an endpoint
-        // specific time for the next scheduled event.  Otherwise, the schedule time
-        // returned by the data processor is used.
-        List<CachedData> updateList = new ArrayList<>();
-        log.fine("Retrieving server data: " + getContext());
-        syncServerCallStart = OrbitalProperties.getCurrentTime();
-        ESIAccountServerResult<ServerDataType> serverData = getServerData(cp);
-        syncServerCallEnd = OrbitalProperties.getCurrentTime();
-        nextEvent = serverData.getExpiryTime();
-        log.fine("Processing server data: " + getContext());
-        syncProcessDataStart = OrbitalProperties.getCurrentTime();
-        processServerData(syncTime, serverData, updateList);
-        syncProcessDataEnd = OrbitalProperties.getCurrentTime();
-        nextContext = getNextSyncContext();
-
         // Commit all updates.  We process updates in batches with sizes that can be varied dynamically by the
-        // admin as needed.  Smaller batches prevent long running transactions from tying up contended resources.
-        log.fine("Storing updates: " + getContext());
-        syncCommitStart = OrbitalProperties.getCurrentTime();
-        int batchSize = PersistentProperty.getIntegerPropertyWithFallback(PROP_REF_COMMIT_BATCH_SIZE,
-                                                                          DEF_REF_COMMIT_BATCH_SIZE);
-        int count = updateList.size();
-        if (count > 0) {
-          log.fine("Processing " + updateList.size() + " total updates: " + getContext());
-          for (int i = 0, endIndex = Math.min(i + batchSize, count); i < count; i = endIndex, endIndex = Math.min(
-              i + batchSize, count)) {
-            List<CachedData> nextBlock = updateList.subList(i, endIndex);
-            try {
-              EveKitUserAccountProvider.getFactory()
-                                       .runTransaction(() -> {
-                                         // Handle next block of commits.
-                                         log.fine("Processing " + nextBlock.size() + " updates: " + getContext());
-                                         long start = OrbitalProperties.getCurrentTime();
-                                         for (CachedData obj : nextBlock) {
-                                           commit(syncTime, obj);
-                                         }
-                                         long end = OrbitalProperties.getCurrentTime();
-                                         if (log.isLoggable(Level.FINE)) {
-                                           // Commit commit rate if FINE if debugging
-                                           long delay = end - start;
-                                           double rate = delay / (double) nextBlock.size();
-                                           log.fine(
-                                               "Process rate = " + rate + " milliseconds/update: " + getContext());
-                                         }
-                                       });
-            } catch (Exception e) {
-              if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
-              log.log(Level.SEVERE, "query error: " + getContext(), e);
-              throw new IOException(e.getCause());
+        // admin as needed, or adapted to a target transaction time (see commitBatchSize).  Smaller batches
+        // prevent long running transactions from tying up contended resources.
+        if (useStreaming()) {
+          // Process and commit each page as it arrives, then handle end of life once all pages are stored.
+          // If pipelining is enabled, blocks are committed by a separate worker so that DB latency overlaps
+          // with retrieving and processing the next page.
+          log.fine("Streaming server data: " + getContext());
+          int depth = commitPipelineDepth();
+          CommitPipeline pipeline = depth > 0 ?
+              new CommitPipeline(depth, cp.getScheduler(), (block) -> commitBlock(syncTime, block)) : null;
+          StreamingConsumer consumer = new StreamingConsumer(syncTime, pipeline);
+          try {
+            long streamStart = OrbitalProperties.getCurrentTime();
+            nextEvent = streamServerData(cp, consumer);
+            long streamEnd = OrbitalProperties.getCurrentTime();
+            nextContext = getNextSyncContext();
+            log.fine("Processing end of life updates: " + getContext());
+            List<CachedData> updateList = new ArrayList<>();
+            processEndOfLife(syncTime, updateList);
+            long eolEnd = OrbitalProperties.getCurrentTime();
+            metrics().rowsConverted(updateList.size());
+            consumer.store(updateList);
+            if (pipeline != null) pipeline.finish();
+            long commitEnd = OrbitalProperties.getCurrentTime();
+            serverTime = streamEnd - streamStart - consumer.processTime - consumer.commitTime;
+            processTime = consumer.processTime + eolEnd - streamEnd;
+            if (pipeline != null) {
+              // Commit time is time spent by the worker, most of which overlaps the other stages.
+              // Stall time is time the producer spent blocked waiting for the worker.
+              commitTime = pipeline.getCommitTime();
+              commitStallTime = pipeline.getStallTime();
+            } else {
+              commitTime = consumer.commitTime + commitEnd - eolEnd;
             }
+          } finally {
+            if (pipeline != null) pipeline.abort();
+          }
+        } else {
+          // Retrieve server and process server data.  Any client or processing
+          // errors will result in marking the tracker as in error with an endpoint
+          // specific time for the next scheduled event.  Otherwise, the schedule time
+          // returned by the data processor is used.
+          List<CachedData> updateList = new ArrayList<>();
+          log.fine("Retrieving server data: " + getContext());
+          long serverStart = OrbitalProperties.getCurrentTime();
+          ESIAccountServerResult<ServerDataType> serverData = useAsyncCalls() ? awaitAsync(getServerDataAsync(cp)) :
+              getServerData(cp);
+          long serverEnd = OrbitalProperties.getCurrentTime();
+          serverTime = serverEnd - serverStart;
+          nextEvent = serverData.getExpiryTime();
+          String digest = usePayloadDigest() ? payloadDigest(serverData.getData()) : null;
+          if (digest != null && PayloadDigest.unchanged(account, endpoint(), digest, syncTime)) {
+            // Server data is identical to the last fully processed payload so stored data is already current
+            log.fine("Server data unchanged, skipping processing: " + getContext());
+            metrics().digestSkip();
+            nextContext = getNextSyncContext();
+          } else {
+            log.fine("Processing server data: " + getContext());
+            processServerData(syncTime, serverData, updateList);
+            long processEnd = OrbitalProperties.getCurrentTime();
+            processTime = processEnd - serverEnd;
+            metrics().rowsConverted(updateList.size());
+            nextContext = getNextSyncContext();
+            log.fine("Storing updates: " + getContext());
+            commitUpdates(syncTime, updateList);
+            commitTime = OrbitalProperties.getCurrentTime() - processEnd;
+            if (digest != null && !stoppedAtDeadline) PayloadDigest.record(account, endpoint(), digest, syncTime);
           }
         }
-        syncCommitEnd = OrbitalProperties.getCurrentTime();
 
-        log.fine("Update and store finished normally: " + getContext());
-        tracker.setStatus(ESISyncState.FINISHED);
-        tracker.setDetail("Updated successfully");
+        if (stoppedAtDeadline) {
+          // Partial data was stored, continue immediately
+          log.fine("Update and store stopped at deadline: " + getContext());
+          resume = true;
+          tracker.setStatus(ESISyncState.WARNING);
+          tracker.setDetail("Partially updated, stopped at deadline");
+          metrics().error("deadline");
+        } else {
+          log.fine("Update and store finished normally: " + getContext());
+          tracker.setStatus(ESISyncState.FINISHED);
+          tracker.setDetail("Updated successfully");
+        }
+      } catch (SyncDeadlineExceededException e) {
+        // Out of time, continue immediately from the same point
+        log.log(Level.FINE, "Stopped at deadline: " + getContext(), e);
+        nextEvent = -1;
+        resume = true;
+        nextContext = getResumeContext(tracker);
+        tracker.setStatus(ESISyncState.WARNING);
+        tracker.setDetail("Stopped at deadline, will resume");
+        metrics().error("deadline");
       } catch (ApiException e) {
         // Client error while updating, mark the error in the tracker and exit
         log.log(Level.WARNING, "ESI client error: " + getContext(), e);
@@ -501,9 +1306,10 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
         nextContext = null;
         tracker.setStatus(ESISyncState.ERROR);
         tracker.setDetail("ESI client error, contact the site admin if this problem persists");
+        metrics().error("esi_" + e.getCode());
         // Throttle in case we're about to exhaust the error limit
         ESIThrottle.throttle(e);
-      } catch (IOException e) {
+      } catch (IOException | UncheckedIOException e) {
         // Other error while updating, mark the error in the tracker and exit
         // Database errors during the update should end up here.
         log.log(Level.WARNING, "Error during update: " + getContext(), e);
@@ -511,18 +1317,17 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
         nextContext = null;
         tracker.setStatus(ESISyncState.ERROR);
         tracker.setDetail("Server error, contact the site admin if this problem persists");
+        metrics().error("update");
       }
 
       // Complete the tracker
       ESIEndpointSyncTracker.finishTracker(tracker);
       syncEnd = OrbitalProperties.getCurrentTime();
 
-      // Report timing
-      if (log.isLoggable(Level.INFO)) {
+      // Report timing.  Detailed statistics are available from SyncMetrics.
+      metrics().recordSync(syncEnd - syncStart, serverTime, processTime, commitTime);
+      if (log.isLoggable(Level.FINE)) {
         long totalSync = syncEnd - syncStart;
-        long serverTime = syncServerCallEnd > 0 ? syncServerCallEnd - syncServerCallStart : -1;
-        long processTime = syncProcessDataEnd > 0 ? syncProcessDataEnd - syncProcessDataStart : -1;
-        long commitTime = syncCommitEnd > 0 ? syncCommitEnd - syncCommitStart : -1;
         StringBuilder builder = new StringBuilder();
         builder.append("SYNC STATS:");
         builder.append(" ENDPOINT: ").append(endpoint().name());
@@ -532,7 +1337,8 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
         if (serverTime > -1) builder.append(" SERVER (ms): ").append(serverTime);
         if (processTime > -1) builder.append(" PROCESS (ms): ").append(processTime);
         if (commitTime > -1) builder.append(" COMMIT (ms): ").append(commitTime);
-        log.log(Level.INFO, builder.toString());
+        if (commitStallTime > -1) builder.append(" COMMIT STALL (ms): ").append(commitStallTime);
+        log.log(Level.FINE, builder.toString());
       }
 
       // Exit without scheduling if:
@@ -550,8 +1356,15 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
         return;
       }
 
-      // Schedule the next event
-      nextEvent = nextEvent < 0 ? defaultNextEvent() : nextEvent;
+      if (resume) {
+        // Continue from where we stopped right away.  Resumes are not spread since they are not tied to
+        // cache expiry.
+        nextEvent = OrbitalProperties.getCurrentTime();
+      } else {
+        // Schedule the next event, spread to avoid bursts of calls at cache expiry
+        nextEvent = nextEvent < 0 ? defaultNextEvent() : nextEvent;
+        nextEvent = NextEventPlanner.plan(account, endpoint(), nextEvent);
+      }
       ESIEndpointSyncTracker.getOrCreateUnfinishedTracker(account, endpoint(), nextEvent, nextContext);
 
     } catch (TrackerNotFoundException e) {
@@ -560,6 +1373,7 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
     } catch (IOException e) {
       // Database errors during the update or access to the tracker will end up here.
       log.log(Level.WARNING, "Error during synchronization, tracker may not be updated: " + getContext(), e);
+      metrics().error("tracker");
     }
   }
 
@@ -602,6 +1416,143 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
     ApiResponse<List<A>> retrievePage(int page) throws ApiException, IOException;
   }
 
+  /**
+   * Maximum number of pages this synchronizer may retrieve concurrently from a paged endpoint.  The
+   * default is controlled by PROP_PAGE_CONCURRENCY, which may be specialized per endpoint.
+   *
+   * @return maximum number of concurrent page retrievals, 1 for sequential retrieval.
+   */
+  protected int pageConcurrency() {
+    return endpointSetting(PROP_PAGE_CONCURRENCY, DEF_PAGE_CONCURRENCY);
+  }
+
+  /**
+   * Retrieve all pages of a paged endpoint, retrieving pages concurrently on the client provider's scheduler
+   * if this synchronizer has been configured to do so (see {@link #pageConcurrency()}).  Otherwise, pages are
+   * retrieved sequentially.
+   *
+   * @param cp          client provider for the current synchronization.
+   * @param pageFetcher retriever for a single page.
+   * @param <A>         type of the elements of each page.
+   * @return a pair containing the expiry time of the final page and the concatenation of all pages in page order.
+   * @throws ApiException if a client error occurs while retrieving a page.
+   * @throws IOException  on any other error which occurs while retrieving a page.
+   */
+  protected <A> Pair<Long, List<A>> pagedResultRetriever(
+      ESIAccountClientProvider cp,
+      GetNextPage<A> pageFetcher) throws ApiException, IOException {
+    EndpointMetrics metrics = metrics();
+    GetNextPage<A> counted = (page) -> {
+      checkDeadline();
+      metrics.page();
+      return pageFetcher.retrievePage(page);
+    };
+    int concurrency = pageConcurrency();
+    if (concurrency <= 1) return pagedResultRetriever(counted);
+    return pagedResultRetriever(counted, cp.getScheduler(), concurrency);
+  }
+
+  /**
+   * Retrieve all pages of a paged endpoint.  The first page is always retrieved on the calling thread in order
+   * to determine the number of pages.  The remaining pages are retrieved by at most maxConcurrency workers,
+   * one of which is always the calling thread so that progress is guaranteed even if the executor is
+   * saturated.  Results are returned in page order.  If any page fails, then pages not yet started are
+   * abandoned and the first failure is thrown.
+   * <p>
+   * Callers are responsible for throttling in the page fetcher, exactly as with sequential retrieval.
+   *
+   * @param pageFetcher    retriever for a single page.
+   * @param executor       executor used to run additional page workers.  If null, pages are retrieved sequentially.
+   * @param maxConcurrency maximum number of pages in flight at any time.
+   * @param <A>            type of the elements of each page.
+   * @return a pair containing the expiry time of the final page and the concatenation of all pages in page order.
+   * @throws ApiException if a client error occurs while retrieving a page.
+   * @throws IOException  on any other error which occurs while retrieving a page.
+   */
+  @SuppressWarnings("unchecked")
+  protected static <A> Pair<Long, List<A>> pagedResultRetriever(
+      GetNextPage<A> pageFetcher,
+      ExecutorService executor,
+      int maxConcurrency) throws ApiException, IOException {
+    ApiResponse<List<A>> first = pageFetcher.retrievePage(1);
+    checkCommonProblems(first);
+    final int maxPages = extractXPages(first, 1);
+    if (maxPages <= 1 || maxConcurrency <= 1 || executor == null) {
+      // Nothing to parallelize, finish sequentially
+      List<A> results = new ArrayList<>(first.getData());
+      long expiry = extractExpiry(first, -1);
+      for (int page = 2; page <= maxPages; page++) {
+        ApiResponse<List<A>> result = pageFetcher.retrievePage(page);
+        checkCommonProblems(result);
+        expiry = extractExpiry(result, -1);
+        results.addAll(result.getData());
+      }
+      return Pair.of(expiry, results);
+    }
+
+    // Fan out remaining pages.  Each worker claims the next unclaimed page until all pages are claimed.
+    // Every claimed page counts down the latch exactly once, whether it succeeds, fails or is skipped.
+    final ApiResponse<List<A>>[] pages = new ApiResponse[maxPages + 1];
+    pages[1] = first;
+    final AtomicInteger nextPage = new AtomicInteger(2);
+    final AtomicReference<Exception> failure = new AtomicReference<>();
+    final CountDownLatch remaining = new CountDownLatch(maxPages - 1);
+    final List<Future<?>> workers = Collections.synchronizedList(new ArrayList<>());
+    Runnable worker = () -> {
+      int page;
+      while ((page = nextPage.getAndIncrement()) <= maxPages) {
+        try {
+          if (failure.get() == null) {
+            ApiResponse<List<A>> result = pageFetcher.retrievePage(page);
+            checkCommonProblems(result);
+            pages[page] = result;
+          }
+        } catch (Exception e) {
+          if (failure.compareAndSet(null, e)) {
+            // Cancel any workers which have not yet started
+            synchronized (workers) {
+              for (Future<?> next : workers) next.cancel(false);
+            }
+          }
+        } finally {
+          remaining.countDown();
+        }
+      }
+    };
+    int workerCount = Math.min(maxConcurrency, maxPages - 1);
+    for (int i = 1; i < workerCount; i++) {
+      workers.add(executor.submit(worker));
+    }
+    worker.run();
+    try {
+      remaining.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+            .interrupt();
+      failure.compareAndSet(null, e);
+      // Interrupt workers which are still retrieving pages
+      synchronized (workers) {
+        for (Future<?> next : workers) next.cancel(true);
+      }
+    } finally {
+      synchronized (workers) {
+        for (Future<?> next : workers) next.cancel(false);
+      }
+    }
+
+    Exception error = failure.get();
+    if (error instanceof ApiException) throw (ApiException) error;
+    if (error instanceof IOException) throw (IOException) error;
+    if (error instanceof RuntimeException) throw (RuntimeException) error;
+    if (error != null) throw new IOException(error);
+
+    List<A> results = new ArrayList<>();
+    for (int page = 1; page <= maxPages; page++) {
+      results.addAll(pages[page].getData());
+    }
+    return Pair.of(extractExpiry(pages[maxPages], -1), results);
+  }
+
   protected static <A> Pair<Long, List<A>> pagedResultRetriever(
       GetNextPage<A> pageFetcher) throws ApiException, IOException {
     List<A> results = new ArrayList<>();
@@ -618,4 +1569,246 @@ public abstract class AbstractESIAccountSync<ServerDataType> implements ESIAccou
     return Pair.of(expiry, results);
   }
 
+  /**
+   * Check whether this synchronizer should issue ESI calls asynchronously.  Must be enabled by the admin, either
+   * globally or for this endpoint.  When disabled, synchronizers only use blocking client calls.
+   *
+   * @return true if ESI calls should be made asynchronously.
+   */
+  protected boolean useAsyncCalls() {
+    return SyncConfig.getBoolean(PROP_ASYNC_CALLS, endpoint(), DEF_ASYNC_CALLS);
+  }
+
+  /**
+   * Maximum number of asynchronous ESI calls this synchronizer may have in flight at any time.
+   *
+   * @return maximum number of calls in flight.
+   */
+  protected int maxInFlight() {
+    return Math.max(endpointSetting(PROP_MAX_IN_FLIGHT, DEF_MAX_IN_FLIGHT), 1);
+  }
+
+  // Interface which starts an asynchronous ESI call, normally by invoking one of the generated "...Async"
+  // client methods with the supplied callback.
+  public interface AsyncCall<T> {
+    void start(ApiCallback<T> callback) throws ApiException, IOException;
+  }
+
+  // Interface which creates the asynchronous call for a single page
+  public interface GetNextPageAsync<A> {
+    AsyncCall<List<A>> retrievePage(int page);
+  }
+
+  /**
+   * Start an asynchronous ESI call without throttling.  The response headers of every call, successful or not,
+   * are observed by {@link ESIThrottle}.  Successful responses are checked for common problems (see
+   * {@link #checkCommonProblems(ApiResponse)}).
+   *
+   * @param call call to start.
+   * @param <T>  type of response data.
+   * @return a future which completes with the response, or fails with an ApiException or IOException.
+   */
+  protected static <T> CompletableFuture<ApiResponse<T>> startAsync(AsyncCall<T> call) {
+    CompletableFuture<ApiResponse<T>> response = new CompletableFuture<>();
+    try {
+      call.start(new ApiCallback<T>() {
+        @Override
+        public void onFailure(ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
+          ESIThrottle.observe(responseHeaders);
+          response.completeExceptionally(e);
+        }
+
+        @Override
+        public void onSuccess(T result, int statusCode, Map<String, List<String>> responseHeaders) {
+          ApiResponse<T> next = new ApiResponse<>(statusCode, responseHeaders, result);
+          try {
+            checkCommonProblems(next);
+            response.complete(next);
+          } catch (IOException e) {
+            response.completeExceptionally(e);
+          }
+        }
+
+        @Override
+        public void onUploadProgress(long bytesWritten, long contentLength, boolean done) {}
+
+        @Override
+        public void onDownloadProgress(long bytesRead, long contentLength, boolean done) {}
+      });
+    } catch (ApiException | IOException | RuntimeException e) {
+      response.completeExceptionally(e);
+    }
+    return response;
+  }
+
+  /**
+   * Throttle (see {@link ESIThrottle#throttleAsync(String, SynchronizedEveAccount)}), then start an asynchronous
+   * ESI call for this synchronizer.  No thread waits while the call is throttled or in flight.  Starting a call
+   * may block (e.g. to refresh the access token), so calls are started on the client provider's scheduler rather
+   * than on the throttle's timer thread.
+   *
+   * @param call call to start.
+   * @param <T>  type of response data.
+   * @return a future which completes with the response, or fails with an ApiException or IOException.
+   */
+  protected <T> CompletableFuture<ApiResponse<T>> callAsync(AsyncCall<T> call) {
+    return ESIThrottle.throttleAsync(endpoint().name(), account)
+                      .thenComposeAsync(v -> {
+                        // The throttle may have waited past the deadline
+                        try {
+                          checkDeadline();
+                        } catch (SyncDeadlineExceededException e) {
+                          stoppedAtDeadline = true;
+                          CompletableFuture<ApiResponse<T>> expired = new CompletableFuture<>();
+                          expired.completeExceptionally(e);
+                          return expired;
+                        }
+                        return startAsync(call);
+                      }, asyncExecutor());
+  }
+
+  // Executor which starts throttled asynchronous calls.  Falls back to the common pool when called outside of
+  // synch, e.g. in tests.
+  private Executor asyncExecutor() {
+    Executor current = asyncExecutor;
+    return current == null ? ForkJoinPool.commonPool() : current;
+  }
+
+  /**
+   * Make one asynchronous ESI call per key, keeping at most {@link #maxInFlight()} calls in flight.  Only the
+   * calling thread waits, and only when the in flight limit is reached or for the final results.  Failed calls
+   * are passed to the failure handler and omitted from the result.  Note that an ApiException has already been
+   * observed by the throttle, so handlers should not throttle again.  No new calls are started once the deadline
+   * has passed (see {@link #stopAtDeadline()}), so callers must be able to store partial results.
+   *
+   * @param keys      keys for which calls should be made.
+   * @param callOf    creates the call for a key.
+   * @param onFailure receives the key and cause of each failed call.
+   * @param <K>       key type.
+   * @param <T>       type of response data.
+   * @return successful responses keyed by key, in key iteration order.
+   * @throws IOException if interrupted while waiting for calls to complete.
+   */
+  protected <K, T> Map<K, ApiResponse<T>> callAllAsync(
+      Collection<K> keys,
+      Function<K, AsyncCall<T>> callOf,
+      BiConsumer<K, Exception> onFailure) throws IOException {
+    Semaphore slots = new Semaphore(maxInFlight());
+    Map<K, CompletableFuture<ApiResponse<T>>> calls = new LinkedHashMap<>();
+    try {
+      for (K next : keys) {
+        if (stopAtDeadline()) break;
+        slots.acquire();
+        CompletableFuture<ApiResponse<T>> call = callAsync(callOf.apply(next));
+        call.whenComplete((r, t) -> slots.release());
+        calls.put(next, call);
+      }
+      Map<K, ApiResponse<T>> results = new LinkedHashMap<>();
+      for (Map.Entry<K, CompletableFuture<ApiResponse<T>>> next : calls.entrySet()) {
+        try {
+          results.put(next.getKey(), next.getValue()
+                                         .get());
+        } catch (ExecutionException e) {
+          onFailure.accept(next.getKey(), asException(e.getCause()));
+        }
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+            .interrupt();
+      for (CompletableFuture<?> next : calls.values()) next.cancel(false);
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Asynchronous version of {@link #pagedResultRetriever(ESIAccountClientProvider, GetNextPage)}.  The first page
+   * is retrieved to determine the number of pages, after which at most {@link #maxInFlight()} pages are in flight
+   * at any time.  Pages are throttled by {@link #callAsync(AsyncCall)}.  If any page fails, then pages not yet
+   * started are abandoned and the future fails.
+   *
+   * @param pageFetcher creates the call for a single page.
+   * @param <A>         type of the elements of each page.
+   * @return a future which completes with a pair containing the expiry time of the final page and the
+   * concatenation of all pages in page order.
+   */
+  protected <A> CompletableFuture<Pair<Long, List<A>>> pagedResultRetrieverAsync(GetNextPageAsync<A> pageFetcher) {
+    EndpointMetrics metrics = metrics();
+    Function<Integer, CompletableFuture<ApiResponse<List<A>>>> fetch = (page) -> {
+      metrics.page();
+      return callAsync(pageFetcher.retrievePage(page));
+    };
+    int maxConcurrency = maxInFlight();
+    return fetch.apply(1)
+                .thenCompose(first -> {
+                  int maxPages = extractXPages(first, 1);
+                  @SuppressWarnings("unchecked")
+                  ApiResponse<List<A>>[] pages = new ApiResponse[maxPages + 1];
+                  pages[1] = first;
+                  AtomicInteger nextPage = new AtomicInteger(2);
+                  List<CompletableFuture<Void>> lanes = new ArrayList<>();
+                  for (int i = Math.min(maxConcurrency, maxPages - 1); i > 0; i--)
+                    lanes.add(pageLane(fetch, pages, nextPage, maxPages));
+                  return CompletableFuture.allOf(lanes.toArray(new CompletableFuture[0]))
+                                          .thenApply(v -> {
+                                            List<A> results = new ArrayList<>();
+                                            for (int page = 1; page <= maxPages; page++)
+                                              results.addAll(pages[page].getData());
+                                            return Pair.of(extractExpiry(pages[maxPages], -1), results);
+                                          });
+                });
+  }
+
+  // Retrieve unclaimed pages one at a time until all pages are claimed.  A failure stops all lanes from claiming
+  // further pages.
+  private static <A> CompletableFuture<Void> pageLane(
+      Function<Integer, CompletableFuture<ApiResponse<List<A>>>> fetch,
+      ApiResponse<List<A>>[] pages,
+      AtomicInteger nextPage,
+      int maxPages) {
+    int page = nextPage.getAndIncrement();
+    if (page > maxPages) return CompletableFuture.completedFuture(null);
+    return fetch.apply(page)
+                .whenComplete((r, t) -> {
+                  if (t != null) nextPage.set(maxPages + 1);
+                })
+                .thenCompose(result -> {
+                  pages[page] = result;
+                  return pageLane(fetch, pages, nextPage, maxPages);
+                });
+  }
+
+  /**
+   * Wait for an asynchronous result, rethrowing the cause of any failure.
+   *
+   * @param future future to wait for.
+   * @param <T>    type of result.
+   * @return result of the future.
+   * @throws ApiException if the future failed with a client error.
+   * @throws IOException  if the future failed with any other error, or the wait was interrupted.
+   */
+  protected static <T> T awaitAsync(CompletableFuture<T> future) throws ApiException, IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+            .interrupt();
+      future.cancel(false);
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      Exception cause = asException(e.getCause());
+      if (cause instanceof ApiException) throw (ApiException) cause;
+      if (cause instanceof IOException) throw (IOException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  // Unwrap the cause of a failed future
+  private static Exception asException(Throwable t) {
+    while (t instanceof CompletionException && t.getCause() != null) t = t.getCause();
+    if (t instanceof Error) throw (Error) t;
+    return t instanceof Exception ? (Exception) t : new IOException(t);
+  }
+
 }
@@ -126,6 +126,10 @@ public class AccountDeleter {
     CachedData.cleanup(toDelete, "StructureService");
     try {
       SynchronizedEveAccount.remove(toDelete);
+      ESIThrottle.evict(toDelete);
+      PayloadDigest.evict(toDelete);
+      ESITokenCache.evict(toDelete);
+      AccountSnapshotCache.invalidate(toDelete);
     } catch (IOException e) {
       log.log(Level.SEVERE, "Failed to delete account", e);
     }
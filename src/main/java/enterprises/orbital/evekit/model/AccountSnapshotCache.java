@@ -0,0 +1,89 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.evekit.account.AccountNotFoundException;
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short lived cache of refreshed accounts.  Every synchronization starts by refreshing its account, which for a
+ * full refresh of a single account means dozens of identical reads.  Within the TTL, these reads return the same
+ * snapshot instead.  Code which changes an account should call {@link #invalidate(SynchronizedEveAccount)} so
+ * that the next synchronization sees the change immediately.  Changes made elsewhere (e.g. by the web front end)
+ * are seen once the TTL expires.
+ */
+public class AccountSnapshotCache {
+
+  // Time (in milliseconds) for which a refreshed account is re-used.  A value of 0 disables caching.
+  private static final String PROP_ACCOUNT_SNAPSHOT_TTL = "enterprises.orbital.evekit.sync_mgr.account_snapshot_ttl";
+  private static final long DEF_ACCOUNT_SNAPSHOT_TTL = TimeUnit.MILLISECONDS.convert(30, TimeUnit.SECONDS);
+
+  private static class Entry {
+    final SynchronizedEveAccount account;
+    final long loadedAt;
+
+    Entry(SynchronizedEveAccount account, long loadedAt) {
+      this.account = account;
+      this.loadedAt = loadedAt;
+    }
+  }
+
+  // Keyed by account ID
+  private static final Map<Long, Entry> snapshots = new ConcurrentHashMap<>();
+
+  // Singleton
+  private AccountSnapshotCache() {}
+
+  /**
+   * Time (in milliseconds) for which a refreshed account is re-used.
+   *
+   * @return snapshot TTL.
+   */
+  static long ttl() {
+    return SyncConfig.getLong(PROP_ACCOUNT_SNAPSHOT_TTL, DEF_ACCOUNT_SNAPSHOT_TTL);
+  }
+
+  /**
+   * Retrieve a refreshed copy of an account, re-using a recent snapshot if one exists.
+   *
+   * @param account account to refresh.
+   * @return refreshed account.
+   * @throws AccountNotFoundException if the account no longer exists.
+   * @throws IOException              on any database error.
+   */
+  public static SynchronizedEveAccount get(SynchronizedEveAccount account)
+      throws AccountNotFoundException, IOException {
+    long now = OrbitalProperties.getCurrentTime();
+    long ttl = ttl();
+    Entry current = snapshots.get(account.getAid());
+    if (current != null && now - current.loadedAt < ttl && now >= current.loadedAt) return current.account;
+    SynchronizedEveAccount refreshed;
+    try {
+      refreshed = SynchronizedEveAccount.getSynchronizedAccount(account.getUserAccount(), account.getAid(), false);
+    } catch (AccountNotFoundException e) {
+      snapshots.remove(account.getAid());
+      throw e;
+    }
+    if (ttl > 0) snapshots.put(account.getAid(), new Entry(refreshed, now));
+    return refreshed;
+  }
+
+  /**
+   * Discard the snapshot for an account, e.g. after the account has been changed or deleted.
+   *
+   * @param account account to discard.
+   */
+  public static void invalidate(SynchronizedEveAccount account) {
+    snapshots.remove(account.getAid());
+  }
+
+  // Discard all snapshots.  Used for testing.
+  static void clear() {
+    snapshots.clear();
+  }
+
+}
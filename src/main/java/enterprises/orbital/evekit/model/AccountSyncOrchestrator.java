@@ -0,0 +1,151 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Synchronize the due endpoints of a single account concurrently.  The account is refreshed once and the same
+ * snapshot is shared by all synchronizers, and {@link ESITokenCache} refreshes the access token at most once
+ * for the whole run.
+ * <p>
+ * Endpoints are ordered by their pre-requisites.  An endpoint is started once
+ * {@link AbstractESIAccountSync#prereqSatisfied()} returns true, and pre-requisites of waiting endpoints are
+ * re-checked each time a running endpoint finishes.  Endpoints whose pre-requisites are still not satisfied once
+ * nothing else is running are not started, and are left for the scheduler to retry as usual.  With enough
+ * threads, a full refresh takes roughly as long as the slowest chain of dependent endpoints.
+ * <p>
+ * Synchronizers submit their own work (paged retrieval, commit pipelines) to the client provider's scheduler.
+ * The executor used by the orchestrator should therefore be distinct from that scheduler so that the two can
+ * not starve each other.
+ */
+public class AccountSyncOrchestrator {
+  private static final Logger log = Logger.getLogger(AccountSyncOrchestrator.class.getName());
+
+  // Maximum number of endpoints synchronized concurrently for a single account.  A value of 1 synchronizes
+  // endpoints one at a time.
+  private static final String PROP_ACCOUNT_CONCURRENCY = "enterprises.orbital.evekit.sync_mgr.account_concurrency";
+  private static final int DEF_ACCOUNT_CONCURRENCY = 8;
+
+  // Creates the synchronizer for an endpoint of an account, or returns null if the endpoint is not supported
+  public interface HandlerFactory {
+    AbstractESIAccountSync<?> create(SynchronizedEveAccount account, ESISyncEndpoint endpoint);
+  }
+
+  private final ExecutorService executor;
+  private final HandlerFactory factory;
+
+  /**
+   * Create a new orchestrator.
+   *
+   * @param executor executor used to run synchronizers.
+   * @param factory  creates synchronizers for due endpoints.
+   */
+  public AccountSyncOrchestrator(ExecutorService executor, HandlerFactory factory) {
+    this.executor = executor;
+    this.factory = factory;
+  }
+
+  /**
+   * Maximum number of endpoints synchronized concurrently for a single account.
+   *
+   * @return the concurrency limit for a single account.
+   */
+  protected int concurrency() {
+    return Math.max(SyncConfig.getInt(PROP_ACCOUNT_CONCURRENCY, DEF_ACCOUNT_CONCURRENCY), 1);
+  }
+
+  /**
+   * Synchronize the given endpoints of an account.  Returns once all started synchronizers have finished.
+   * Errors are handled by each synchronizer as usual.
+   *
+   * @param account   account to synchronize.
+   * @param endpoints endpoints which are due for synchronization.
+   * @param cp        client provider passed to each synchronizer.
+   * @return endpoints which were not started because their pre-requisites were not satisfied.
+   * @throws InterruptedException if interrupted while waiting for synchronizers to finish.  Synchronizers
+   *                              which were already started are cancelled, and stop before their next ESI call.
+   */
+  public List<ESISyncEndpoint> synch(SynchronizedEveAccount account, Collection<ESISyncEndpoint> endpoints,
+                                     ESIAccountClientProvider cp) throws InterruptedException {
+    long start = OrbitalProperties.getCurrentTime();
+    SynchronizedEveAccount snapshot = refresh(account);
+
+    List<AbstractESIAccountSync<?>> waiting = new ArrayList<>();
+    for (ESISyncEndpoint next : new LinkedHashSet<>(endpoints)) {
+      AbstractESIAccountSync<?> handler = factory.create(snapshot == null ? account : snapshot, next);
+      if (handler == null) {
+        log.warning("No synchronizer for endpoint " + next + ", skipping: " + account);
+        continue;
+      }
+      if (snapshot != null) handler.shareAccount(snapshot);
+      waiting.add(handler);
+    }
+
+    int limit = concurrency();
+    int running = 0;
+    List<AbstractESIAccountSync<?>> started = new ArrayList<>();
+    CompletionService<AbstractESIAccountSync<?>> finished = new ExecutorCompletionService<>(executor);
+    while (true) {
+      // Start any waiting endpoints whose pre-requisites are now satisfied
+      for (Iterator<AbstractESIAccountSync<?>> it = waiting.iterator(); it.hasNext() && running < limit; ) {
+        AbstractESIAccountSync<?> next = it.next();
+        if (!next.prereqSatisfied()) continue;
+        it.remove();
+        started.add(next);
+        finished.submit(() -> {
+          next.synch(cp);
+          return next;
+        });
+        running++;
+      }
+      if (running == 0) break;
+
+      // Wait for the next endpoint to finish, then re-check pre-requisites
+      try {
+        AbstractESIAccountSync<?> done = finished.take()
+                                                 .get();
+        log.fine("Endpoint finished: " + done.getContext());
+      } catch (ExecutionException e) {
+        // synch is expected to handle all errors, but don't let one endpoint stop the others
+        log.log(Level.WARNING, "Unexpected synchronization failure: " + account, e.getCause());
+      } catch (InterruptedException e) {
+        for (AbstractESIAccountSync<?> next : started) next.cancel();
+        throw e;
+      }
+      running--;
+    }
+
+    List<ESISyncEndpoint> notStarted = new ArrayList<>();
+    for (AbstractESIAccountSync<?> next : waiting) notStarted.add(next.endpoint());
+    if (!notStarted.isEmpty())
+      log.fine("Pre-reqs not satisfied for " + notStarted + ": " + account);
+    log.fine("Account synchronization finished in " + (OrbitalProperties.getCurrentTime() - start) + " ms: " +
+                 account);
+    return notStarted;
+  }
+
+  // Refresh the account once for all synchronizers.  Returns null if the account can not be refreshed, in which
+  // case each synchronizer handles the failure itself.
+  private static SynchronizedEveAccount refresh(SynchronizedEveAccount account) {
+    try {
+      return AccountSnapshotCache.get(account);
+    } catch (Exception e) {
+      // Usually because the account was deleted while synchronization was queued
+      log.log(Level.FINE, "Error refreshing account, synchronizers will refresh individually: " + account, e);
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,176 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.base.PersistentProperty;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Adaptive commit batch size for a single synchronization endpoint.  Each committed block reports its size
+ * and transaction duration.  The controller tracks a moving average of milliseconds per row and adjusts the
+ * batch size so that a full block takes roughly the target transaction time.  Batch sizes are bounded by
+ * admin-set minimum and maximum values, and never change by more than a factor of two after a single block.
+ * <p>
+ * Adaptive sizing is disabled unless a target transaction time is set, in which case the reference commit
+ * batch size is used unchanged.  The learned batch size is periodically persisted so that it survives restarts.
+ */
+public class CommitBatchController {
+  private static final Logger log = Logger.getLogger(CommitBatchController.class.getName());
+
+  // Reference commit batch size.  Used when adaptive sizing is disabled, and as the initial size for
+  // endpoints which have not yet learned a batch size.
+  public static final String PROP_REF_COMMIT_BATCH_SIZE = "enterprises.orbital.evekit.sync_mgr.commit_batch_size";
+  public static final int DEF_REF_COMMIT_BATCH_SIZE = 200;
+
+  // Target transaction time in milliseconds.  This may be specialized per endpoint by appending "." and the
+  // endpoint name.  A value of 0 disables adaptive sizing.
+  public static final String PROP_COMMIT_TARGET_TIME = "enterprises.orbital.evekit.sync_mgr.commit_target_time";
+  public static final long DEF_COMMIT_TARGET_TIME = 0;
+
+  // Bounds on adaptive batch size.  These may be specialized per endpoint by appending "." and the endpoint name.
+  public static final String PROP_COMMIT_MIN_BATCH_SIZE = "enterprises.orbital.evekit.sync_mgr.commit_min_batch_size";
+  public static final int DEF_COMMIT_MIN_BATCH_SIZE = 10;
+  public static final String PROP_COMMIT_MAX_BATCH_SIZE = "enterprises.orbital.evekit.sync_mgr.commit_max_batch_size";
+  public static final int DEF_COMMIT_MAX_BATCH_SIZE = 5000;
+
+  // Learned batch size, stored per endpoint by appending "." and the endpoint name.
+  public static final String PROP_LEARNED_BATCH_SIZE = "enterprises.orbital.evekit.sync_mgr.learned_commit_batch_size";
+
+  // Minimum interval between writes of the learned batch size
+  public static final String PROP_LEARNED_PERSIST_INTERVAL = "enterprises.orbital.evekit.sync_mgr.learned_commit_batch_size_interval";
+  public static final long DEF_LEARNED_PERSIST_INTERVAL = TimeUnit.MILLISECONDS.convert(10, TimeUnit.MINUTES);
+
+  // Weight given to the most recent block when updating the average cost per row
+  private static final double SMOOTHING = 0.2;
+
+  private static final Map<ESISyncEndpoint, CommitBatchController> controllers = new ConcurrentHashMap<>();
+
+  private final ESISyncEndpoint endpoint;
+  // Guards the fields below.  A lock rather than a monitor, since settings may be loaded while it is held and
+  // a monitor would pin virtual threads for the duration of the load.
+  private final ReentrantLock lock = new ReentrantLock();
+  private int batchSize = -1;
+  private double msPerRow = -1;
+  private int persistedSize = -1;
+  private long lastPersist;
+
+  CommitBatchController(ESISyncEndpoint endpoint) {
+    this.endpoint = endpoint;
+    this.lastPersist = OrbitalProperties.getCurrentTime();
+  }
+
+  /**
+   * Retrieve the batch controller for an endpoint, creating it if necessary.
+   *
+   * @param endpoint the endpoint to control.
+   * @return the controller for the given endpoint.
+   */
+  public static CommitBatchController get(ESISyncEndpoint endpoint) {
+    return controllers.computeIfAbsent(endpoint, CommitBatchController::new);
+  }
+
+  private int endpointProperty(String prop, int def) {
+    return SyncConfig.getInt(prop, endpoint, def);
+  }
+
+  private long targetTime() {
+    return SyncConfig.getLong(PROP_COMMIT_TARGET_TIME, endpoint, DEF_COMMIT_TARGET_TIME);
+  }
+
+  private int referenceSize() {
+    return SyncConfig.getInt(PROP_REF_COMMIT_BATCH_SIZE, DEF_REF_COMMIT_BATCH_SIZE);
+  }
+
+  /**
+   * Current batch size for this endpoint.
+   *
+   * @return the number of updates to commit in the next transaction.
+   */
+  public int getBatchSize() {
+    if (targetTime() <= 0) return Math.max(referenceSize(), 1);
+    int min = endpointProperty(PROP_COMMIT_MIN_BATCH_SIZE, DEF_COMMIT_MIN_BATCH_SIZE);
+    int max = endpointProperty(PROP_COMMIT_MAX_BATCH_SIZE, DEF_COMMIT_MAX_BATCH_SIZE);
+    lock.lock();
+    try {
+      if (batchSize < 0) {
+        // First use, start from the last learned size if we have one
+        batchSize = endpointProperty(PROP_LEARNED_BATCH_SIZE, referenceSize());
+        persistedSize = batchSize;
+      }
+      return clamp(batchSize, min, max);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Record the outcome of committing a block of updates.
+   *
+   * @param rows    number of updates in the block.
+   * @param elapsed transaction time in milliseconds.
+   */
+  public void record(int rows, long elapsed) {
+    long target = targetTime();
+    if (target <= 0 || rows <= 0) return;
+    int min = endpointProperty(PROP_COMMIT_MIN_BATCH_SIZE, DEF_COMMIT_MIN_BATCH_SIZE);
+    int max = endpointProperty(PROP_COMMIT_MAX_BATCH_SIZE, DEF_COMMIT_MAX_BATCH_SIZE);
+    int toPersist = -1;
+    lock.lock();
+    try {
+      double sample = Math.max(elapsed, 0) / (double) rows;
+      msPerRow = msPerRow < 0 ? sample : SMOOTHING * sample + (1 - SMOOTHING) * msPerRow;
+      // Partial blocks (e.g. the last block of a sync) are too small to say much about transaction length,
+      // so only use them to update the cost per row.
+      if (batchSize > 0 && rows >= batchSize / 2) {
+        batchSize = adjust(batchSize, msPerRow, target, min, max);
+        log.fine("Commit batch size for " + endpoint + " now " + batchSize + " (" + msPerRow + " ms/row)");
+      }
+      long now = OrbitalProperties.getCurrentTime();
+      if (batchSize > 0 && batchSize != persistedSize && now - lastPersist >= persistInterval()) {
+        toPersist = batchSize;
+        persistedSize = batchSize;
+        lastPersist = now;
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (toPersist > 0) {
+      try {
+        PersistentProperty.setProperty(PROP_LEARNED_BATCH_SIZE + "." + endpoint.name(), String.valueOf(toPersist));
+      } catch (Exception e) {
+        log.log(Level.WARNING, "Failed to store learned commit batch size for " + endpoint, e);
+      }
+    }
+  }
+
+  private static long persistInterval() {
+    return SyncConfig.getLong(PROP_LEARNED_PERSIST_INTERVAL, DEF_LEARNED_PERSIST_INTERVAL);
+  }
+
+  private static int clamp(int value, int min, int max) {
+    return Math.max(Math.max(min, 1), Math.min(value, Math.max(max, min)));
+  }
+
+  /**
+   * Compute the next batch size given the current batch size and average cost per row.  The result
+   * aims for the target transaction time, changes by at most a factor of two, and is bounded by min and max.
+   *
+   * @param current  current batch size.
+   * @param msPerRow average milliseconds per row.
+   * @param target   target transaction time in milliseconds.
+   * @param min      minimum batch size.
+   * @param max      maximum batch size.
+   * @return the next batch size.
+   */
+  static int adjust(int current, double msPerRow, long target, int min, int max) {
+    double desired = msPerRow <= 0 ? current * 2.0 : target / msPerRow;
+    desired = Math.max(current / 2.0, Math.min(desired, current * 2.0));
+    return clamp((int) Math.round(desired), min, max);
+  }
+
+}
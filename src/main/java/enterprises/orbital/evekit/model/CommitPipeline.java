@@ -0,0 +1,224 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded producer/consumer pipeline for committing blocks of updates.  A producer (normally a synchronizer
+ * converting server data) submits blocks of updates which are committed in order by a single commit worker
+ * running on a separate thread.  This allows database latency to overlap with retrieving and converting the
+ * next block of server data.  When the queue is full, the producer blocks until the worker catches up.
+ * <p>
+ * If the worker can not be started (e.g. the executor is saturated) then the producer commits blocks itself
+ * so that progress is always guaranteed.  The first commit failure is reported to the producer on the next
+ * call to {@link #submit(List)} or {@link #finish()}.
+ */
+public class CommitPipeline {
+  private static final Logger log = Logger.getLogger(CommitPipeline.class.getName());
+
+  // Interval at which waiting threads re-check pipeline state
+  private static final long POLL_INTERVAL = 50;
+
+  // Interface which commits a single block of updates, normally in a single transaction.
+  public interface BlockCommitter {
+    void commitBlock(List<CachedData> block) throws IOException;
+  }
+
+  private final BlockingQueue<List<CachedData>> queue;
+  private final BlockCommitter committer;
+
+  // Set by whichever thread becomes the sole consumer of the queue
+  private final AtomicBoolean claimed = new AtomicBoolean(false);
+  private final CountDownLatch workerDone = new CountDownLatch(1);
+  private final AtomicReference<IOException> failure = new AtomicReference<>();
+  private volatile boolean closed = false;
+
+  // True if the producer is committing blocks itself.  Only accessed by the producer.
+  private boolean inline = false;
+
+  // Time spent committing blocks, and time the producer spent waiting on the commit worker
+  private final AtomicLong commitTime = new AtomicLong(0);
+  private long stallTime = 0;
+
+  /**
+   * Create a new commit pipeline.
+   *
+   * @param depth     maximum number of blocks queued for commit before the producer blocks.
+   * @param executor  executor used to run the commit worker.  If null, blocks are committed by the producer.
+   * @param committer commits a single block of updates.
+   */
+  public CommitPipeline(int depth, ExecutorService executor, BlockCommitter committer) {
+    this.queue = new ArrayBlockingQueue<>(Math.max(depth, 1));
+    this.committer = committer;
+    if (executor == null) {
+      claimInline();
+    } else {
+      try {
+        executor.submit(this::drain);
+      } catch (RejectedExecutionException e) {
+        log.log(Level.FINE, "Commit worker rejected, committing on producer thread", e);
+        claimInline();
+      }
+    }
+  }
+
+  /**
+   * Submit a block of updates for commit.  Blocks if the pipeline is full.
+   *
+   * @param block block of updates to commit.
+   * @throws IOException if a previously submitted block failed to commit, or if interrupted while waiting.
+   */
+  public void submit(List<CachedData> block) throws IOException {
+    checkFailure();
+    if (inline) {
+      commitTimed(block);
+      checkFailure();
+      return;
+    }
+    long start = OrbitalProperties.getCurrentTime();
+    try {
+      while (!queue.offer(block, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+        checkFailure();
+        if (claimInline()) {
+          // The worker never started, so commit everything on this thread from now on.
+          drainInline();
+          commitTimed(block);
+          checkFailure();
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      throw new IOException("Interrupted while waiting on commit pipeline", e);
+    } finally {
+      stallTime += OrbitalProperties.getCurrentTime() - start;
+    }
+  }
+
+  /**
+   * Wait for all submitted blocks to be committed.
+   *
+   * @throws IOException if any submitted block failed to commit, or if interrupted while waiting.
+   */
+  public void finish() throws IOException {
+    closed = true;
+    claimInline();
+    long start = OrbitalProperties.getCurrentTime();
+    try {
+      if (inline)
+        drainInline();
+      else
+        workerDone.await();
+    } catch (InterruptedException e) {
+      throw new IOException("Interrupted while waiting on commit pipeline", e);
+    } finally {
+      stallTime += OrbitalProperties.getCurrentTime() - start;
+    }
+    checkFailure();
+  }
+
+  /**
+   * Discard any blocks which have not yet been committed and wait for the worker to exit.  Used when
+   * the producer fails and no further commits should be attempted.
+   */
+  public void abort() {
+    closed = true;
+    queue.clear();
+    if (!claimInline() && !inline) {
+      try {
+        workerDone.await();
+      } catch (InterruptedException e) {
+        log.log(Level.FINE, "Interrupted while aborting commit pipeline", e);
+      }
+    }
+  }
+
+  /**
+   * Total time (in milliseconds) spent committing blocks.
+   *
+   * @return total commit time.
+   */
+  public long getCommitTime() {
+    return commitTime.get();
+  }
+
+  /**
+   * Total time (in milliseconds) the producer spent blocked waiting on the commit worker.
+   *
+   * @return total producer stall time.
+   */
+  public long getStallTime() {
+    return stallTime;
+  }
+
+  // Attempt to make the producer the consumer of the queue.  Returns true if successful.
+  private boolean claimInline() {
+    if (claimed.compareAndSet(false, true)) {
+      inline = true;
+      workerDone.countDown();
+      return true;
+    }
+    return false;
+  }
+
+  private void checkFailure() throws IOException {
+    IOException e = failure.get();
+    if (e != null) throw e;
+  }
+
+  private void commitTimed(List<CachedData> block) {
+    if (failure.get() != null) return;
+    long start = OrbitalProperties.getCurrentTime();
+    try {
+      committer.commitBlock(block);
+    } catch (IOException e) {
+      failure.compareAndSet(null, e);
+    } catch (RuntimeException e) {
+      failure.compareAndSet(null, new IOException(e));
+    } finally {
+      commitTime.addAndGet(OrbitalProperties.getCurrentTime() - start);
+    }
+  }
+
+  // Commit anything left in the queue on the current thread.
+  private void drainInline() {
+    List<List<CachedData>> remaining = new ArrayList<>();
+    queue.drainTo(remaining);
+    for (List<CachedData> next : remaining) {
+      commitTimed(next);
+    }
+  }
+
+  // Commit worker.  Runs until the pipeline is closed and empty.
+  private void drain() {
+    if (!claimed.compareAndSet(false, true)) return;
+    try {
+      while (true) {
+        List<CachedData> block = queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        if (block == null) {
+          if (closed && queue.isEmpty()) break;
+          continue;
+        }
+        commitTimed(block);
+      }
+    } catch (InterruptedException e) {
+      failure.compareAndSet(null, new IOException("Commit worker interrupted", e));
+    } finally {
+      workerDone.countDown();
+    }
+  }
+
+}
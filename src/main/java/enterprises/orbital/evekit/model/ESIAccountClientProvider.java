@@ -10,6 +10,13 @@ import java.util.concurrent.ExecutorService;
  * also makes it easier to inject test code.
  */
 public interface ESIAccountClientProvider {
+  /**
+   * Executor used to run concurrent work on behalf of synchronizers, e.g. page retrieval.  Implementations
+   * should normally create this with {@link SyncExecutors#newScheduler(String, int)} so that it runs tasks on
+   * virtual threads when virtual thread mode is enabled.
+   *
+   * @return executor for synchronization tasks.
+   */
   ExecutorService getScheduler();
 
   WalletApi getWalletApi();
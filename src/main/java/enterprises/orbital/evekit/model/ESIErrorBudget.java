@@ -0,0 +1,98 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared view of the remaining ESI error budget.  ESI reports the number of errors remaining in the current
+ * window (X-Esi-Error-Limit-Remain) and the time until the window resets (X-Esi-Error-Limit-Reset) on every
+ * response.  The most recent observation is recorded here and used to pace all ESI callers.
+ * <p>
+ * While the remaining budget is above a soft threshold, calls are not paced.  Below the soft threshold,
+ * calls are spaced by a minimum interval (shared by all callers) which grows smoothly as the budget falls,
+ * reaching a configured maximum at the hard threshold where {@link ESIThrottle} pauses all calls.  Pacing
+ * stops as soon as the error window resets.
+ */
+public class ESIErrorBudget {
+
+  // Remaining error budget below which calls are paced
+  private static final String PROP_SOFT_REMAIN = "enterprises.orbital.evekit.sync.esi_error_budget_soft_remain";
+  private static final int DEF_SOFT_REMAIN = 50;
+
+  // Spacing (in milliseconds) between calls as the budget approaches the hard threshold
+  private static final String PROP_MAX_SPACING = "enterprises.orbital.evekit.sync.esi_error_budget_max_spacing";
+  private static final long DEF_MAX_SPACING = TimeUnit.MILLISECONDS.convert(1, TimeUnit.SECONDS);
+
+  // Most recently observed remaining budget, and wall clock time at which the window resets
+  private static volatile int remain = Integer.MAX_VALUE;
+  private static volatile long windowEnd = 0;
+
+  // Earliest wall clock time at which the next paced call may proceed
+  private static final AtomicLong nextSlot = new AtomicLong(0);
+
+  // Singleton
+  private ESIErrorBudget() {}
+
+  /**
+   * Record an observation of the error budget.
+   *
+   * @param remaining    errors remaining in the current window.
+   * @param resetSeconds seconds until the current window resets.
+   */
+  public static void update(int remaining, int resetSeconds) {
+    windowEnd = OrbitalProperties.getCurrentTime() + TimeUnit.MILLISECONDS.convert(resetSeconds, TimeUnit.SECONDS);
+    remain = remaining;
+  }
+
+  /**
+   * Remaining error budget in the current window.
+   *
+   * @return remaining budget, or Integer.MAX_VALUE if there is no current observation.
+   */
+  public static int getRemain() {
+    return OrbitalProperties.getCurrentTime() >= windowEnd ? Integer.MAX_VALUE : remain;
+  }
+
+  /**
+   * Spacing between calls for a given remaining budget.  The spacing grows quadratically from zero at the soft
+   * threshold to maxSpacing at the hard threshold, so that pacing is gentle while there is still plenty of
+   * budget.
+   *
+   * @param remaining  remaining error budget.
+   * @param soft       soft threshold.
+   * @param hard       hard threshold.
+   * @param maxSpacing spacing at or below the hard threshold.
+   * @return spacing between calls in milliseconds.
+   */
+  static long spacing(int remaining, int soft, int hard, long maxSpacing) {
+    if (remaining >= soft) return 0;
+    if (remaining <= hard || soft <= hard) return maxSpacing;
+    double fraction = (soft - remaining) / (double) (soft - hard);
+    return Math.round(maxSpacing * fraction * fraction);
+  }
+
+  /**
+   * Reserve the next paced call slot.
+   *
+   * @param hard hard threshold at which calls are paused altogether.
+   * @return wall clock time at which the caller may proceed.  A time in the past means no pacing is required.
+   */
+  public static long reserve(int hard) {
+    int current = getRemain();
+    if (current == Integer.MAX_VALUE) return 0;
+    long gap = spacing(current,
+                       SyncConfig.getInt(PROP_SOFT_REMAIN, DEF_SOFT_REMAIN),
+                       hard,
+                       SyncConfig.getLong(PROP_MAX_SPACING, DEF_MAX_SPACING));
+    if (gap <= 0) return 0;
+    long now = OrbitalProperties.getCurrentTime();
+    while (true) {
+      long slot = nextSlot.get();
+      long start = Math.max(slot, now);
+      if (nextSlot.compareAndSet(slot, start + gap)) return start;
+    }
+  }
+
+}
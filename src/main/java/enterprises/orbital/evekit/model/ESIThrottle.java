@@ -1,17 +1,19 @@
 package enterprises.orbital.evekit.model;
 
 import enterprises.orbital.base.OrbitalProperties;
-import enterprises.orbital.base.PersistentProperty;
 import enterprises.orbital.eve.esi.client.invoker.ApiException;
 import enterprises.orbital.evekit.account.SynchronizedEveAccount;
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
 
-import java.time.Duration;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -20,6 +22,20 @@ import java.util.logging.Logger;
  * a synchronized account to a token bucket which is used to enforce rate.  Each token
  * bucket has a default rate that can be customized according to the string key and/or
  * the specific account.
+ * <p>
+ * Rates are enforced at three levels: a global bucket shared by all ESI calls, an aggregate
+ * bucket per string key (i.e. endpoint class), and a bucket per key and account.  Each call takes
+ * a permit from every level, starting with the account level.  Each broader level grants its permit
+ * no earlier than the time the narrower levels allow the call, so that calls delayed by an account
+ * limit still count against the aggregate and global limits at the time they actually run.  The global
+ * and aggregate levels are unlimited unless configured.  Rates at all levels are re-read periodically.
+ * <p>
+ * The bucket registry is lock free.  Buckets for accounts which have not made a call in a while
+ * are evicted, as are all buckets for an account when it is deleted.  When the ESI error limit is nearly
+ * exhausted, all callers pause until a shared "resume at" time has passed.
+ * <p>
+ * Asynchronous callers use {@link #throttleAsync(String, SynchronizedEveAccount)}, which observes the same limits
+ * but returns a future completed by a shared timer rather than parking the calling thread.
  */
 public class ESIThrottle {
   private static final Logger log = Logger.getLogger(ESIThrottle.class.getName());
@@ -28,135 +44,366 @@ public class ESIThrottle {
   private static final String PROP_DEFAULT_ESI_RATE = "enterprises.orbital.evekit.sync.default_esi_rate";
   private static final int DEF_DEFAULT_ESI_RATE = 3; // 3 calls/second
 
+  // Global and per-class aggregate rates.  Aggregate rates may be specialized per class by appending
+  // "." and the class name.  A rate of 0 or less means unlimited.
+  private static final String PROP_GLOBAL_ESI_RATE = PROP_DEFAULT_ESI_RATE + ".global";
+  private static final int DEF_GLOBAL_ESI_RATE = 0;
+  private static final String PROP_AGGREGATE_ESI_RATE = PROP_DEFAULT_ESI_RATE + ".aggregate";
+  private static final int DEF_AGGREGATE_ESI_RATE = 0;
+
+  // Interval at which global and aggregate rates are re-read from properties
+  private static final long RATE_REFRESH_INTERVAL = TimeUnit.MILLISECONDS.convert(1, TimeUnit.MINUTES);
+
   // Default error limit remaining threshold
   private static final String PROP_DEFAULT_ERROR_LIMIT_REMAIN = "enterprises.orbital.evekit.sync.default_esi_error_limit_remain";
   private static final int DEF_DEFAULT_ERROR_LIMIT_REMAIN = 5;
 
-  // Throttle map
-  private static final Map<String, Map<SynchronizedEveAccount, Bucket>> throttleMap = new HashMap<>();
+  // Buckets unused for longer than this interval are evicted
+  private static final String PROP_BUCKET_IDLE_EVICT = "enterprises.orbital.evekit.sync.esi_bucket_idle_evict";
+  private static final long DEF_BUCKET_IDLE_EVICT = TimeUnit.MILLISECONDS.convert(1, TimeUnit.HOURS);
+
+  // Maximum additional random delay after an error limit pause.  This avoids a surge after the pause
+  // is lifted so that we don't immediately hit the error limit again.
+  private static final String PROP_RESUME_SPREAD = "enterprises.orbital.evekit.sync.esi_resume_spread";
+  private static final long DEF_RESUME_SPREAD = TimeUnit.MILLISECONDS.convert(10, TimeUnit.SECONDS);
+
+  // Interval between sweeps for idle buckets
+  private static final long SWEEP_INTERVAL = TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES);
+
+  // Token bucket for an account and the last time it was used
+  private static class ThrottleEntry {
+    final SynchronizedEveAccount account;
+    volatile TokenBucket bucket;
+    volatile long lastUsed;
+
+    ThrottleEntry(SynchronizedEveAccount account, TokenBucket bucket) {
+      this.account = account;
+      this.bucket = bucket;
+      this.lastUsed = OrbitalProperties.getCurrentTime();
+    }
+  }
+
+  // Throttle map: class -> account ID -> bucket
+  private static final Map<String, Map<Long, ThrottleEntry>> throttleMap = new ConcurrentHashMap<>();
+
+  // Aggregate buckets per class.  Classes without an aggregate limit map to UNLIMITED.
+  private static final Map<String, TokenBucket> aggregateMap = new ConcurrentHashMap<>();
 
-  // Global throttling lock
-  private static final ReentrantLock globalThrottle = new ReentrantLock(true);
+  // Global bucket, or null if unlimited
+  private static volatile TokenBucket globalBucket;
+
+  // Marker for classes with no aggregate limit
+  private static final TokenBucket UNLIMITED = new TokenBucket(1);
+
+  // Time of the last refresh of global and aggregate rates.  Zero forces a refresh on first use.
+  private static final AtomicLong lastRateRefresh = new AtomicLong(0);
+
+  // Time of the last sweep for idle buckets
+  private static final AtomicLong lastSweep = new AtomicLong(OrbitalProperties.getCurrentTime());
+
+  // Wall clock time (in milliseconds) before which no ESI calls should be made.  This is
+  // advanced when an error shows we're close to exhausting the error limit.
+  private static final AtomicLong resumeAt = new AtomicLong(0);
+
+  // Completes asynchronous throttle waits.  Created on first use.
+  private static class Timer {
+    static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "esi-throttle-timer");
+      t.setDaemon(true);
+      return t;
+    });
+  }
 
   // Singleton
   private ESIThrottle() {}
 
-  protected static Bucket get(String cls, SynchronizedEveAccount acct) {
-    synchronized (throttleMap) {
-      Map<SynchronizedEveAccount, Bucket> bMap = throttleMap.computeIfAbsent(cls, k -> new HashMap<>());
-      Bucket b = bMap.get(acct);
-      if (b == null) {
-        int rate = PersistentProperty.getIntegerPropertyWithFallback(acct, cls + "_esi_rate",
-                                                                     PersistentProperty.getIntegerPropertyWithFallback(
-                                                                         PROP_DEFAULT_ESI_RATE + "." + cls,
-                                                                         PersistentProperty.getIntegerPropertyWithFallback(
-                                                                             PROP_DEFAULT_ESI_RATE,
-                                                                             DEF_DEFAULT_ESI_RATE)));
-        Bandwidth limit = Bandwidth.simple(rate, Duration.ofSeconds(1));
-        b = Bucket4j.builder()
-                    .addLimit(limit)
-                    .build();
-        bMap.put(acct, b);
+  private static int accountRate(String cls, SynchronizedEveAccount acct) {
+    return SyncConfig.getInt(acct, cls + "_esi_rate",
+                             SyncConfig.getInt(PROP_DEFAULT_ESI_RATE + "." + cls,
+                                               SyncConfig.getInt(PROP_DEFAULT_ESI_RATE, DEF_DEFAULT_ESI_RATE)));
+  }
+
+  private static int aggregateRate(String cls) {
+    return SyncConfig.getInt(PROP_AGGREGATE_ESI_RATE + "." + cls,
+                             SyncConfig.getInt(PROP_AGGREGATE_ESI_RATE, DEF_AGGREGATE_ESI_RATE));
+  }
+
+  // Create or update a bucket to reflect a configured rate.  Returns UNLIMITED if rate is 0 or less.
+  private static TokenBucket rebuild(TokenBucket current, int rate) {
+    if (rate <= 0) return UNLIMITED;
+    if (current == null || current == UNLIMITED) return new TokenBucket(rate);
+    if (current.getRate() != rate) current.setRate(rate);
+    return current;
+  }
+
+  // Periodically re-read rates at every level.  At most one thread refreshes per interval.
+  private static void refreshRates() {
+    long now = OrbitalProperties.getCurrentTime();
+    long last = lastRateRefresh.get();
+    if (now - last < RATE_REFRESH_INTERVAL || !lastRateRefresh.compareAndSet(last, now)) return;
+    int globalRate = SyncConfig.getInt(PROP_GLOBAL_ESI_RATE, DEF_GLOBAL_ESI_RATE);
+    TokenBucket global = rebuild(globalBucket, globalRate);
+    globalBucket = global == UNLIMITED ? null : global;
+    for (Map.Entry<String, TokenBucket> next : aggregateMap.entrySet()) {
+      next.setValue(rebuild(next.getValue(), aggregateRate(next.getKey())));
+    }
+    for (Map.Entry<String, Map<Long, ThrottleEntry>> next : throttleMap.entrySet()) {
+      for (ThrottleEntry entry : next.getValue()
+                                     .values()) {
+        entry.bucket = rebuild(entry.bucket, accountRate(next.getKey(), entry.account));
       }
-      return b;
     }
   }
 
-  private static int extractErrorLimitRemain(ApiException e, int def) {
-    try {
-      String expireHeader = e.getResponseHeaders()
-                             .get("X-Esi-Error-Limit-Remain")
-                             .get(0);
-      return Integer.valueOf(expireHeader);
-    } catch (Exception f) {
-      log.log(Level.FINE, "Error parsing header, will return default: " + def, f);
+  private static TokenBucket getAggregate(String cls) {
+    TokenBucket bucket = aggregateMap.get(cls);
+    if (bucket == null) {
+      // As with account buckets, read properties outside of any map operation.
+      TokenBucket created = rebuild(null, aggregateRate(cls));
+      bucket = aggregateMap.putIfAbsent(cls, created);
+      if (bucket == null) bucket = created;
     }
-    return def;
+    return bucket;
+  }
+
+  protected static TokenBucket get(String cls, SynchronizedEveAccount acct) {
+    Map<Long, ThrottleEntry> bMap = throttleMap.computeIfAbsent(cls, k -> new ConcurrentHashMap<>());
+    ThrottleEntry entry = bMap.get(acct.getAid());
+    if (entry == null) {
+      // Build the bucket outside of any map operation since this may require property lookups.
+      // If we race with another thread, the first bucket stored wins.
+      ThrottleEntry created = new ThrottleEntry(acct, rebuild(null, accountRate(cls, acct)));
+      entry = bMap.putIfAbsent(acct.getAid(), created);
+      if (entry == null) entry = created;
+    }
+    entry.lastUsed = OrbitalProperties.getCurrentTime();
+    sweep();
+    return entry.bucket;
   }
 
-  private static int extractErrorLimitReset(ApiException e, int def) {
+  /**
+   * Remove all buckets for an account.  Called when an account is deleted.
+   *
+   * @param acct the account to evict.
+   */
+  public static void evict(SynchronizedEveAccount acct) {
+    for (Map<Long, ThrottleEntry> bMap : throttleMap.values()) {
+      bMap.remove(acct.getAid());
+    }
+  }
+
+  // Evict idle buckets.  At most one thread sweeps per interval, and callers never wait on a sweep.
+  private static void sweep() {
+    long now = OrbitalProperties.getCurrentTime();
+    long last = lastSweep.get();
+    if (now - last < SWEEP_INTERVAL || !lastSweep.compareAndSet(last, now)) return;
+    long idleLimit = now - SyncConfig.getLong(PROP_BUCKET_IDLE_EVICT, DEF_BUCKET_IDLE_EVICT);
+    for (Map<Long, ThrottleEntry> bMap : throttleMap.values()) {
+      bMap.values()
+          .removeIf(e -> e.lastUsed < idleLimit);
+    }
+  }
+
+  private static int extractIntHeader(Map<String, List<String>> headers, String name, int def) {
+    if (headers == null) return def;
+    List<String> values = headers.get(name);
+    if (values == null) values = headers.get(name.toLowerCase());
+    if (values == null || values.isEmpty()) return def;
     try {
-      String expireHeader = e.getResponseHeaders()
-                             .get("X-Esi-Error-Limit-Reset")
-                             .get(0);
-      return Integer.valueOf(expireHeader);
+      return Integer.valueOf(values.get(0));
     } catch (Exception f) {
       log.log(Level.FINE, "Error parsing header, will return default: " + def, f);
     }
     return def;
   }
 
+  private static int hardErrorLimitRemain() {
+    return SyncConfig.getInt(PROP_DEFAULT_ERROR_LIMIT_REMAIN, DEF_DEFAULT_ERROR_LIMIT_REMAIN);
+  }
+
+  /**
+   * Record the error budget reported in the headers of an ESI response (successful or not).  A low remaining
+   * budget slows all callers of {@link #throttle(String, SynchronizedEveAccount)}.  Once the budget falls
+   * below the hard threshold, all callers are paused until the error limit resets.
+   *
+   * @param headers response headers.  May be null.
+   * @return true if the budget is below the hard threshold.
+   */
+  public static boolean observe(Map<String, List<String>> headers) {
+    int remain = extractIntHeader(headers, "X-Esi-Error-Limit-Remain", Integer.MAX_VALUE);
+    if (remain == Integer.MAX_VALUE) return false;
+    int reset = extractIntHeader(headers, "X-Esi-Error-Limit-Reset", 5);
+    ESIErrorBudget.update(remain, reset);
+    if (remain < hardErrorLimitRemain()) {
+      // Too close to error limit, pause everyone until the limit resets.  If someone else already paused
+      // for at least as long, then there's nothing more to do.
+      long target = OrbitalProperties.getCurrentTime() + reset * 1000L + 5000;
+      long previous = resumeAt.getAndAccumulate(target, Math::max);
+      if (previous < target)
+        log.fine("Near error rate threshold, pausing ESI calls until " + target + " by thread: " +
+                     Thread.currentThread()
+                           .getName());
+      return true;
+    }
+    return false;
+  }
+
+  // Reserve a permit from each level and return the time (System.nanoTime) at which all are available.
+  private static long reserve(String cls, SynchronizedEveAccount acct) {
+    return reserve(cls, acct, System.nanoTime());
+  }
+
+  // Reserve a permit from each level for a call which may run no earlier than the given time (System.nanoTime).
+  // Levels are reserved from narrowest to broadest, and each level reserves its permit at the time allowed by
+  // the previous levels.  Returns the time at which the call may run.
+  static long reserve(String cls, SynchronizedEveAccount acct, long now) {
+    refreshRates();
+    long at = now;
+    TokenBucket account = get(cls, acct);
+    if (account != UNLIMITED) at += account.reserve(at);
+    TokenBucket aggregate = getAggregate(cls);
+    if (aggregate != UNLIMITED) at += aggregate.reserve(at);
+    TokenBucket global = globalBucket;
+    if (global != null) at += global.reserve(at);
+    return at;
+  }
+
+  // Park the current thread until System.nanoTime reaches the given time.  Returns false if interrupted.
+  private static boolean parkUntilNanos(long wakeAt) {
+    long remaining;
+    while ((remaining = wakeAt - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+      if (Thread.currentThread()
+                .isInterrupted()) return false;
+    }
+    return true;
+  }
+
+  // Park the current thread until the wall clock reaches the given time.  The wait is measured with
+  // System.nanoTime once the delay is known.  Returns false if interrupted.
+  private static boolean parkUntil(long wakeAt) {
+    long remaining = wakeAt - OrbitalProperties.getCurrentTime();
+    if (remaining <= 0) return true;
+    return parkUntilNanos(System.nanoTime() + TimeUnit.NANOSECONDS.convert(remaining, TimeUnit.MILLISECONDS));
+  }
+
+  // Wait until any error limit pause has passed.  Threads which had to wait add a random delay
+  // so that they don't all resume at once.  Returns time spent waiting.
+  private static long awaitResume() {
+    long start = OrbitalProperties.getCurrentTime();
+    long resume = resumeAt.get();
+    if (resume <= start) return 0;
+    log.fine("Error limit pause active for thread: " + Thread.currentThread()
+                                                             .getName());
+    long spread = SyncConfig.getLong(PROP_RESUME_SPREAD, DEF_RESUME_SPREAD);
+    // The pause may be extended while we wait, so keep waiting until it stops moving.
+    while (true) {
+      long jitter = spread > 0 ? ThreadLocalRandom.current()
+                                                  .nextLong(spread) : 0;
+      if (!parkUntil(resume + jitter)) {
+        log.fine("Interrupted while waiting on error limit pause");
+        break;
+      }
+      long next = resumeAt.get();
+      if (next <= resume) break;
+      resume = next;
+    }
+    return OrbitalProperties.getCurrentTime() - start;
+  }
+
   /**
-   * Observe the rate limit for the next call of the current class and account.
+   * Observe the rate limit for the next call of the current class and account.  This also observes
+   * any error limit pause and paces calls when the error budget is running low.
    *
    * @param cls  class for next call
    * @param acct account for next call
    */
   public static void throttle(String cls, SynchronizedEveAccount acct) {
-    // If an exception reveals that we're close to exhausting the error limit,
-    // then this synchronize call will block until the thread which hit the error
-    // limit has finished sleeping.
-    try {
-      int queueLength = -1;
-      if (globalThrottle.isLocked()) {
-        log.fine("Global throttle active for thread: " + Thread.currentThread()
-                                                               .getName());
-        queueLength = globalThrottle.getQueueLength();
-      }
-      globalThrottle.lockInterruptibly();
-      globalThrottle.unlock();
-      if (queueLength > 0) {
-        // Wait an additional 200ms for every thread in front of us capped at 20-30 seconds.
-        // This avoids a surge after the throttle is lifted so that we don't immediately hit
-        // the rate limit again.
-        long randomDelay = OrbitalProperties.getCurrentTime() % 10000;
-        long delay = Math.min(queueLength * 200, 20000 + randomDelay);
-        Thread.sleep(delay);
-      }
-    } catch (InterruptedException e) {
-      log.log(Level.FINE, "Interrupted while waiting on global throttle", e);
-    } finally {
-      if (globalThrottle.isHeldByCurrentThread()) globalThrottle.unlock();
-    }
-    get(cls, acct).tryConsume(1);
+    EndpointMetrics metrics = SyncMetrics.get(cls);
+    long start = OrbitalProperties.getCurrentTime();
+    metrics.esiCall();
+    // If an exception revealed that we're close to exhausting the error limit,
+    // then wait until the error limit has reset.
+    awaitResume();
+    // Pace calls if the error budget is running low.
+    if (!parkUntil(ESIErrorBudget.reserve(hardErrorLimitRemain())))
+      log.fine("Interrupted while pacing on error budget");
+    // Wait for a permit at every rate level.  Parking (rather than holding a lock or monitor) keeps
+    // waiting threads cheap, including virtual threads.
+    if (!parkUntilNanos(reserve(cls, acct)))
+      log.fine("Interrupted while waiting on rate limit");
+    metrics.throttleBlocked(OrbitalProperties.getCurrentTime() - start);
+  }
+
+  // Discard all buckets and any error limit pause.  Used for testing.
+  static void reset() {
+    throttleMap.clear();
+    aggregateMap.clear();
+    globalBucket = null;
+    lastRateRefresh.set(0);
+    resumeAt.set(0);
+  }
+
+  // Future completed once the given number of nanoseconds has passed.
+  private static CompletableFuture<Void> delayNanos(long nanos) {
+    if (nanos <= 0) return CompletableFuture.completedFuture(null);
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    Timer.INSTANCE.schedule(() -> done.complete(null), nanos, TimeUnit.NANOSECONDS);
+    return done;
+  }
+
+  // Asynchronous version of awaitResume.  Waits until any error limit pause has passed, re-checking in case
+  // the pause was extended while waiting.
+  private static CompletableFuture<Void> awaitResumeAsync() {
+    return awaitResumeAsync(0);
+  }
+
+  // Wait for a pause which ends later than the end of the pause already waited for
+  private static CompletableFuture<Void> awaitResumeAsync(long waited) {
+    long now = OrbitalProperties.getCurrentTime();
+    long resume = resumeAt.get();
+    if (resume <= now || resume <= waited) return CompletableFuture.completedFuture(null);
+    long spread = SyncConfig.getLong(PROP_RESUME_SPREAD, DEF_RESUME_SPREAD);
+    long jitter = spread > 0 ? ThreadLocalRandom.current()
+                                                .nextLong(spread) : 0;
+    return delayNanos(TimeUnit.NANOSECONDS.convert(resume + jitter - now, TimeUnit.MILLISECONDS))
+        .thenCompose(v -> awaitResumeAsync(resume));
+  }
+
+  /**
+   * Asynchronous version of {@link #throttle(String, SynchronizedEveAccount)}.  The returned future completes
+   * once the next call of the current class and account may proceed.  No thread waits in the meantime.
+   *
+   * @param cls  class for next call
+   * @param acct account for next call
+   * @return a future which completes when the call may proceed.
+   */
+  public static CompletableFuture<Void> throttleAsync(String cls, SynchronizedEveAccount acct) {
+    EndpointMetrics metrics = SyncMetrics.get(cls);
+    long start = OrbitalProperties.getCurrentTime();
+    metrics.esiCall();
+    return awaitResumeAsync()
+        .thenCompose(v -> {
+          long paced = ESIErrorBudget.reserve(hardErrorLimitRemain()) - OrbitalProperties.getCurrentTime();
+          return delayNanos(TimeUnit.NANOSECONDS.convert(paced, TimeUnit.MILLISECONDS));
+        })
+        .thenCompose(v -> delayNanos(reserve(cls, acct) - System.nanoTime()))
+        .whenComplete((v, t) -> metrics.throttleBlocked(OrbitalProperties.getCurrentTime() - start));
   }
 
   /**
-   * Observe the rate limit if an exception includes a low remaining error limit.
+   * Observe the rate limit if an exception includes a low remaining error limit.  If so, all callers
+   * of {@link #throttle(String, SynchronizedEveAccount)} (including the current thread) are paused until the
+   * error limit resets.
    *
    * @param e ApiException we recently caught
    */
   public static void throttle(ApiException e) {
-    int remain = extractErrorLimitRemain(e, Integer.MAX_VALUE);
-    if (remain < PersistentProperty.getIntegerPropertyWithFallback(PROP_DEFAULT_ERROR_LIMIT_REMAIN,
-                                                                   DEF_DEFAULT_ERROR_LIMIT_REMAIN)) {
-      // Too close to error limit, force current thread to sleep
-      long startTime = OrbitalProperties.getCurrentTime();
-      long delay = extractErrorLimitReset(e, 5) * 1000 + 5000;
-      try {
-        globalThrottle.lockInterruptibly();
-
-        // Decrease our delay based on when we decided to throttle in case someone else already throttled for
-        // us.  If we don't do this, then we may over throttle unnecessarily.
-        delay -= OrbitalProperties.getCurrentTime() - startTime;
-        if (delay <= 0) {
-          log.fine("Cancelled throttling due to previous throttler: " + Thread.currentThread().getName());
-          return;
-        }
-
-        log.fine("Near error rate threshold, throttling thread: " + Thread.currentThread()
-                                                                          .getName() + " sleeping for " + delay + " ms");
-        try {
-          Thread.sleep(delay);
-        } catch (InterruptedException f) {
-          // NOP
-        }
-        log.fine("Throttling complete: " + Thread.currentThread().getName());
-      } catch (InterruptedException g) {
-        log.log(Level.FINE, "Interrupted while throttling", g);
-      } finally {
-        if (globalThrottle.isHeldByCurrentThread()) globalThrottle.unlock();
-      }
+    if (observe(e.getResponseHeaders())) {
+      long waited = awaitResume();
+      SyncMetrics.errorLimitPause(waited);
+      log.fine("Throttling complete: " + Thread.currentThread()
+                                                .getName());
     }
   }
 }
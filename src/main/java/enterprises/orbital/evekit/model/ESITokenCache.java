@@ -0,0 +1,222 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process wide cache of ESI access tokens, keyed by account.
+ * <p>
+ * A token is refreshed through {@link SynchronizedEveAccount#refreshToken(long, String, String)} with a validity
+ * window of the configured minimum valid time plus a reuse interval.  The returned token is therefore valid for at
+ * least the minimum valid time throughout the reuse interval, and may be handed out without any further checks
+ * until the interval ends.  Reads of a reusable token never lock.  When a token is not reusable, one caller per
+ * account refreshes it while other callers for the same account wait for the result.  Callers which see a token
+ * close to the end of its reuse interval also schedule a background refresh, so that synchronizers rarely wait
+ * on SSO.  At most one background refresh is pending per account, and a failed background refresh is not retried
+ * until the retry delay has passed.
+ * <p>
+ * Settings are read through {@link SyncConfig}, so checking a reusable token never touches the database.
+ */
+public class ESITokenCache {
+  private static final Logger log = Logger.getLogger(ESITokenCache.class.getName());
+
+  // Default required valid time for ESI token
+  private static final String PROP_MIN_ESI_VALID_TIME = "enterprises.orbital.evekit.sync_mgr.min_token_valid";
+  private static final long DEF_MIN_ESI_VALID_TIME = TimeUnit.MILLISECONDS.convert(2, TimeUnit.MINUTES);
+
+  // Interval (in milliseconds) during which a refreshed token is handed out without checks
+  private static final String PROP_TOKEN_REUSE = "enterprises.orbital.evekit.sync_mgr.token_reuse";
+  private static final long DEF_TOKEN_REUSE = TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES);
+
+  // A background refresh is scheduled once a token is within this many milliseconds of the end of its reuse interval
+  private static final String PROP_TOKEN_REFRESH_AHEAD = "enterprises.orbital.evekit.sync_mgr.token_refresh_ahead";
+  private static final long DEF_TOKEN_REFRESH_AHEAD = TimeUnit.MILLISECONDS.convert(1, TimeUnit.MINUTES);
+
+  // Delay (in milliseconds) after a failed background refresh before another background refresh is attempted
+  private static final String PROP_TOKEN_RETRY_DELAY = "enterprises.orbital.evekit.sync_mgr.token_retry_delay";
+  private static final long DEF_TOKEN_RETRY_DELAY = TimeUnit.MILLISECONDS.convert(10, TimeUnit.SECONDS);
+
+  // ESI client ID and key
+  private static final String PROP_ESI_CLIENT_ID = "enterprises.orbital.token.eve_client_id";
+  private static final String PROP_ESI_SECRET_KEY = "enterprises.orbital.token.eve_secret_key";
+
+  // Interface which refreshes the token for an account.  Can be overridden for testing.
+  interface Refresher {
+    String refresh(SynchronizedEveAccount account, long window, String clientID, String secretKey)
+        throws IOException;
+  }
+
+  private static final Refresher DEFAULT_REFRESHER = SynchronizedEveAccount::refreshToken;
+
+  private static volatile Refresher refresher = DEFAULT_REFRESHER;
+
+  // Settings used by a single refresh
+  private static class Settings {
+    final long minValid;
+    final long reuse;
+    final long retryDelay;
+    final String clientID;
+    final String secretKey;
+
+    Settings() {
+      minValid = SyncConfig.getLong(PROP_MIN_ESI_VALID_TIME, DEF_MIN_ESI_VALID_TIME);
+      reuse = Math.max(SyncConfig.getLong(PROP_TOKEN_REUSE, DEF_TOKEN_REUSE), 0);
+      retryDelay = SyncConfig.getLong(PROP_TOKEN_RETRY_DELAY, DEF_TOKEN_RETRY_DELAY);
+      clientID = OrbitalProperties.getGlobalProperty(PROP_ESI_CLIENT_ID);
+      secretKey = OrbitalProperties.getGlobalProperty(PROP_ESI_SECRET_KEY);
+    }
+  }
+
+  // A token which may be handed out without checks until reusableUntil
+  private static class Entry {
+    final String token;
+    final long reusableUntil;
+
+    Entry(String token, long reusableUntil) {
+      this.token = token;
+      this.reusableUntil = reusableUntil;
+    }
+  }
+
+  // Refresh state for an account
+  private static class RefreshState {
+    // Held while refreshing
+    final ReentrantLock lock = new ReentrantLock();
+    // Set while a background refresh is queued or running
+    final AtomicBoolean backgroundPending = new AtomicBoolean(false);
+    // Time before which no background refresh is attempted after a failure
+    volatile long retryAfter = 0;
+  }
+
+  // Keyed by account ID
+  private static final Map<Long, Entry> tokens = new ConcurrentHashMap<>();
+  private static final Map<Long, RefreshState> refreshStates = new ConcurrentHashMap<>();
+
+  // Runs background refreshes
+  private static volatile ExecutorService background;
+
+  // Singleton
+  private ESITokenCache() {}
+
+  /**
+   * Retrieve an access token for an account which is guaranteed to be valid for at least the configured minimum
+   * valid time.
+   *
+   * @param account account for which a token is needed.
+   * @return a valid access token.
+   * @throws IOException if a failure occurs while refreshing the access token.
+   */
+  public static String get(SynchronizedEveAccount account) throws IOException {
+    long now = OrbitalProperties.getCurrentTime();
+    Entry current = tokens.get(account.getAid());
+    if (current != null && now < current.reusableUntil) {
+      if (current.reusableUntil - now <= SyncConfig.getLong(PROP_TOKEN_REFRESH_AHEAD, DEF_TOKEN_REFRESH_AHEAD))
+        refreshInBackground(account, current, now);
+      return current.token;
+    }
+    return refresh(account, current);
+  }
+
+  /**
+   * Discard the cached token for an account, e.g. when the account is deleted or the token was rejected.
+   *
+   * @param account account to discard.
+   */
+  public static void evict(SynchronizedEveAccount account) {
+    // Refresh state is kept since a refresh may be in progress, and a new lock would allow a second refresh
+    tokens.remove(account.getAid());
+  }
+
+  private static RefreshState refreshState(SynchronizedEveAccount account) {
+    return refreshStates.computeIfAbsent(account.getAid(), k -> new RefreshState());
+  }
+
+  // Refresh the token for an account unless another caller already replaced the stale entry.
+  private static String refresh(SynchronizedEveAccount account, Entry stale) throws IOException {
+    ReentrantLock lock = refreshState(account).lock;
+    lock.lock();
+    try {
+      Entry current = tokens.get(account.getAid());
+      long now = OrbitalProperties.getCurrentTime();
+      if (current != null && current != stale && now < current.reusableUntil) return current.token;
+      Settings config = new Settings();
+      String token = refresher.refresh(account, config.minValid + config.reuse, config.clientID, config.secretKey);
+      tokens.put(account.getAid(), new Entry(token, now + config.reuse));
+      return token;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // Schedule a refresh of a token which is nearly done, unless a refresh is already pending or a recent
+  // background refresh failed.
+  private static void refreshInBackground(SynchronizedEveAccount account, Entry current, long now) {
+    RefreshState state = refreshState(account);
+    if (now < state.retryAfter || state.lock.isLocked() || !state.backgroundPending.compareAndSet(false, true))
+      return;
+    try {
+      backgroundExecutor().submit(() -> {
+        try {
+          // Only refresh if no other caller is refreshing or has already replaced the token
+          if (!state.lock.tryLock()) return;
+          try {
+            if (tokens.get(account.getAid()) != current) return;
+            long start = OrbitalProperties.getCurrentTime();
+            Settings config = new Settings();
+            try {
+              String token = refresher.refresh(account, config.minValid + config.reuse, config.clientID,
+                                               config.secretKey);
+              tokens.put(account.getAid(), new Entry(token, start + config.reuse));
+            } catch (Exception e) {
+              // Back off, the next caller after the reuse interval will retry in the foreground
+              state.retryAfter = OrbitalProperties.getCurrentTime() + config.retryDelay;
+              log.log(Level.FINE, "Background token refresh failed: " + account, e);
+            }
+          } finally {
+            state.lock.unlock();
+          }
+        } finally {
+          state.backgroundPending.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      state.backgroundPending.set(false);
+      log.log(Level.FINE, "Background token refresh rejected: " + account, e);
+    }
+  }
+
+  private static ExecutorService backgroundExecutor() {
+    ExecutorService current = background;
+    if (current != null) return current;
+    synchronized (ESITokenCache.class) {
+      if (background == null) {
+        background = Executors.newSingleThreadExecutor(r -> {
+          Thread t = new Thread(r, "esi-token-refresh");
+          t.setDaemon(true);
+          return t;
+        });
+      }
+      return background;
+    }
+  }
+
+  // Override the refresher for testing.  A null value restores the default.
+  static void setRefresher(Refresher override) {
+    refresher = override == null ? DEFAULT_REFRESHER : override;
+    tokens.clear();
+    refreshStates.clear();
+  }
+
+}
@@ -0,0 +1,234 @@
+package enterprises.orbital.evekit.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Synchronization metrics for a single endpoint.  All updates are lock free so that metrics can be
+ * recorded on hot paths (e.g. before every ESI call) from many synchronization threads.
+ */
+public class EndpointMetrics implements EndpointMetricsMXBean {
+
+  // Upper bounds (in milliseconds) of histogram buckets.  A final bucket captures all larger values.
+  static final long[] BOUNDS = {10, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000, 120000, 300000,
+                                600000};
+
+  /**
+   * Simple fixed bucket histogram.
+   */
+  public static class Histogram {
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder count = new LongAdder();
+
+    Histogram() {
+      for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+    }
+
+    public void observe(long value) {
+      int i = 0;
+      while (i < BOUNDS.length && value > BOUNDS[i]) i++;
+      buckets[i].increment();
+      sum.add(value);
+      count.increment();
+    }
+
+    // Cumulative bucket counts, the last entry is the total count
+    public long[] cumulative() {
+      long[] result = new long[buckets.length];
+      long total = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        total += buckets[i].sum();
+        result[i] = total;
+      }
+      return result;
+    }
+
+    public long getSum() {
+      return sum.sum();
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+  }
+
+  private final String endpoint;
+
+  final Histogram totalTime = new Histogram();
+  final Histogram serverTime = new Histogram();
+  final Histogram processTime = new Histogram();
+  final Histogram commitTime = new Histogram();
+
+  private final LongAdder esiCalls = new LongAdder();
+  private final LongAdder pages = new LongAdder();
+  private final LongAdder rowsConverted = new LongAdder();
+  private final LongAdder rowsWritten = new LongAdder();
+  private final LongAdder rowsUnchanged = new LongAdder();
+  private final LongAdder rowsEndOfLife = new LongAdder();
+  private final LongAdder digestSkips = new LongAdder();
+  private final LongAdder throttleBlockedTime = new LongAdder();
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+  EndpointMetrics(String endpoint) {
+    this.endpoint = endpoint;
+  }
+
+  /**
+   * Record the phase timings of a completed synchronization.  Phases which did not run should be
+   * passed as -1 and are not recorded.
+   *
+   * @param total   total synchronization time.
+   * @param server  time retrieving server data.
+   * @param process time processing server data.
+   * @param commit  time committing updates.
+   */
+  public void recordSync(long total, long server, long process, long commit) {
+    totalTime.observe(total);
+    if (server > -1) serverTime.observe(server);
+    if (process > -1) processTime.observe(process);
+    if (commit > -1) commitTime.observe(commit);
+  }
+
+  public void esiCall() {
+    esiCalls.increment();
+  }
+
+  public void page() {
+    pages.increment();
+  }
+
+  public void rowsConverted(int count) {
+    rowsConverted.add(count);
+  }
+
+  public void rowWritten() {
+    rowsWritten.increment();
+  }
+
+  public void rowUnchanged() {
+    rowsUnchanged.increment();
+  }
+
+  public void rowEndOfLife() {
+    rowsEndOfLife.increment();
+  }
+
+  public void digestSkip() {
+    digestSkips.increment();
+  }
+
+  public void throttleBlocked(long time) {
+    throttleBlockedTime.add(time);
+  }
+
+  public void error(String type) {
+    errors.computeIfAbsent(type, k -> new LongAdder())
+          .increment();
+  }
+
+  @Override
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  @Override
+  public long[] getHistogramBounds() {
+    return BOUNDS.clone();
+  }
+
+  @Override
+  public long getSyncCount() {
+    return totalTime.getCount();
+  }
+
+  @Override
+  public long[] getTotalTimeBuckets() {
+    return totalTime.cumulative();
+  }
+
+  @Override
+  public long getTotalTimeSum() {
+    return totalTime.getSum();
+  }
+
+  @Override
+  public long[] getServerTimeBuckets() {
+    return serverTime.cumulative();
+  }
+
+  @Override
+  public long getServerTimeSum() {
+    return serverTime.getSum();
+  }
+
+  @Override
+  public long[] getProcessTimeBuckets() {
+    return processTime.cumulative();
+  }
+
+  @Override
+  public long getProcessTimeSum() {
+    return processTime.getSum();
+  }
+
+  @Override
+  public long[] getCommitTimeBuckets() {
+    return commitTime.cumulative();
+  }
+
+  @Override
+  public long getCommitTimeSum() {
+    return commitTime.getSum();
+  }
+
+  @Override
+  public long getEsiCalls() {
+    return esiCalls.sum();
+  }
+
+  @Override
+  public long getPages() {
+    return pages.sum();
+  }
+
+  @Override
+  public long getRowsConverted() {
+    return rowsConverted.sum();
+  }
+
+  @Override
+  public long getRowsWritten() {
+    return rowsWritten.sum();
+  }
+
+  @Override
+  public long getRowsUnchanged() {
+    return rowsUnchanged.sum();
+  }
+
+  @Override
+  public long getRowsEndOfLife() {
+    return rowsEndOfLife.sum();
+  }
+
+  @Override
+  public long getDigestSkips() {
+    return digestSkips.sum();
+  }
+
+  @Override
+  public long getThrottleBlockedTime() {
+    return throttleBlockedTime.sum();
+  }
+
+  @Override
+  public Map<String, Long> getErrors() {
+    Map<String, Long> result = new TreeMap<>();
+    errors.forEach((k, v) -> result.put(k, v.sum()));
+    return result;
+  }
+
+}
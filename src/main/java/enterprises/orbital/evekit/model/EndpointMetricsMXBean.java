@@ -0,0 +1,52 @@
+package enterprises.orbital.evekit.model;
+
+import java.util.Map;
+
+/**
+ * JMX view of synchronization metrics for a single endpoint.  Times are in milliseconds.  Histogram bucket
+ * arrays are cumulative counts aligned with {@link #getHistogramBounds()}, with a final bucket for all
+ * larger values.
+ */
+public interface EndpointMetricsMXBean {
+
+  String getEndpoint();
+
+  long[] getHistogramBounds();
+
+  long getSyncCount();
+
+  long[] getTotalTimeBuckets();
+
+  long getTotalTimeSum();
+
+  long[] getServerTimeBuckets();
+
+  long getServerTimeSum();
+
+  long[] getProcessTimeBuckets();
+
+  long getProcessTimeSum();
+
+  long[] getCommitTimeBuckets();
+
+  long getCommitTimeSum();
+
+  long getEsiCalls();
+
+  long getPages();
+
+  long getRowsConverted();
+
+  long getRowsWritten();
+
+  long getRowsUnchanged();
+
+  long getRowsEndOfLife();
+
+  long getDigestSkips();
+
+  long getThrottleBlockedTime();
+
+  Map<String, Long> getErrors();
+
+}
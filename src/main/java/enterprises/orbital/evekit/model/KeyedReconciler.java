@@ -0,0 +1,243 @@
+package enterprises.orbital.evekit.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reconcile incoming server data against stored live data in a single hash join.  Each incoming item is
+ * classified as added (no stored item with the same key), changed (stored item exists but is not equivalent)
+ * or unchanged.  Stored items with no incoming match are end of life.
+ * <p>
+ * Keys are primitive where possible.  A {@link LongKey} covers single numeric keys and pairs of ints (see
+ * {@link #pack(int, int)}), a {@link WideKey} covers up to 128 bits, e.g. a long and two ints.  Primitive keys
+ * are stored in an open addressing table so no key objects are allocated.  Keys which don't fit use
+ * {@link #reconcileObjects(Iterable, Iterable, Function)}.
+ */
+public class KeyedReconciler {
+
+  // Extract a 64 bit natural key
+  public interface LongKey<A> {
+    long key(A value);
+  }
+
+  // Extract a 128 bit natural key
+  public interface WideKey<A> {
+    long high(A value);
+
+    long low(A value);
+  }
+
+  /**
+   * Result of a reconciliation.
+   *
+   * @param <A> type of reconciled items.
+   */
+  public static class Result<A extends CachedData> {
+    // Incoming items with no stored counterpart
+    public final List<A> added = new ArrayList<>();
+    // Incoming items which differ from their stored counterpart
+    public final List<A> changed = new ArrayList<>();
+    // Stored items with no incoming counterpart
+    public final List<A> removed = new ArrayList<>();
+
+    /**
+     * Add all required changes to an update list.  Added and changed items are stored as is, removed items
+     * are end of lifed at the given time.
+     *
+     * @param time    time at which removed items should be end of lifed.
+     * @param updates list of updates to which changes are added.
+     */
+    public void apply(long time, List<CachedData> updates) {
+      updates.addAll(added);
+      updates.addAll(changed);
+      for (A next : removed) {
+        next.evolve(null, time);
+        updates.add(next);
+      }
+    }
+  }
+
+  // Singleton
+  private KeyedReconciler() {}
+
+  /**
+   * Pack two ints into a single long key.
+   *
+   * @param high high order value.
+   * @param low  low order value.
+   * @return packed key.
+   */
+  public static long pack(int high, int low) {
+    return ((long) high << 32) | (low & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Reconcile using a 64 bit key.
+   *
+   * @param incoming items retrieved from the server.
+   * @param stored   items currently live in storage.
+   * @param key      natural key extractor.
+   * @param <A>      type of reconciled items.
+   * @return reconciliation result.
+   */
+  public static <A extends CachedData> Result<A> reconcile(Iterable<A> incoming, Iterable<A> stored,
+                                                           LongKey<A> key) {
+    return reconcile(incoming, stored, new WideKey<A>() {
+      @Override
+      public long high(A value) {
+        return 0;
+      }
+
+      @Override
+      public long low(A value) {
+        return key.key(value);
+      }
+    });
+  }
+
+  /**
+   * Reconcile using a 128 bit key.
+   *
+   * @param incoming items retrieved from the server.
+   * @param stored   items currently live in storage.
+   * @param key      natural key extractor.
+   * @param <A>      type of reconciled items.
+   * @return reconciliation result.
+   */
+  public static <A extends CachedData> Result<A> reconcile(Iterable<A> incoming, Iterable<A> stored,
+                                                           WideKey<A> key) {
+    Table<A> table = new Table<>(stored instanceof Collection ? ((Collection<A>) stored).size() : 16);
+    for (A next : stored) table.insert(key.high(next), key.low(next), next);
+    Result<A> result = new Result<>();
+    for (A next : incoming) {
+      int slot = table.find(key.high(next), key.low(next));
+      if (slot < 0) {
+        result.added.add(next);
+        continue;
+      }
+      table.seen[slot] = true;
+      if (!next.equivalent((CachedData) table.values[slot])) result.changed.add(next);
+    }
+    table.collectUnseen(result.removed);
+    return result;
+  }
+
+  /**
+   * Reconcile using arbitrary key objects.  Use this only when keys can not be expressed in 128 bits.
+   *
+   * @param incoming items retrieved from the server.
+   * @param stored   items currently live in storage.
+   * @param key      natural key extractor.  Keys must implement equals and hashCode.
+   * @param <A>      type of reconciled items.
+   * @param <K>      type of keys.
+   * @return reconciliation result.
+   */
+  public static <A extends CachedData, K> Result<A> reconcileObjects(Iterable<A> incoming, Iterable<A> stored,
+                                                                     Function<A, K> key) {
+    Map<K, A> storedMap = new HashMap<>();
+    for (A next : stored) storedMap.putIfAbsent(key.apply(next), next);
+    Set<K> seen = new HashSet<>();
+    Result<A> result = new Result<>();
+    for (A next : incoming) {
+      K nextKey = key.apply(next);
+      A existing = storedMap.get(nextKey);
+      seen.add(nextKey);
+      if (existing == null) {
+        result.added.add(next);
+      } else if (!next.equivalent(existing)) {
+        result.changed.add(next);
+      }
+    }
+    for (Map.Entry<K, A> next : storedMap.entrySet()) {
+      if (!seen.contains(next.getKey())) result.removed.add(next.getValue());
+    }
+    return result;
+  }
+
+  // Open addressing hash table keyed by a pair of longs with linear probing
+  private static class Table<A> {
+    private long[] high;
+    private long[] low;
+    private Object[] values;
+    private boolean[] seen;
+    private int size;
+
+    Table(int expected) {
+      allocate(capacityFor(expected));
+    }
+
+    private static int capacityFor(int expected) {
+      // Keep load factor at or below 0.5
+      int capacity = 16;
+      while (capacity < expected * 2) capacity <<= 1;
+      return capacity;
+    }
+
+    private void allocate(int capacity) {
+      high = new long[capacity];
+      low = new long[capacity];
+      values = new Object[capacity];
+      seen = new boolean[capacity];
+      size = 0;
+    }
+
+    private static int hash(long h, long l) {
+      long x = h * 0x9E3779B97F4A7C15L + l;
+      x ^= x >>> 33;
+      x *= 0xFF51AFD7ED558CCDL;
+      x ^= x >>> 33;
+      return (int) x;
+    }
+
+    // Insert a value unless the key is already present
+    void insert(long h, long l, A value) {
+      if ((size + 1) * 2 > values.length) grow();
+      int mask = values.length - 1;
+      int slot = hash(h, l) & mask;
+      while (values[slot] != null) {
+        if (high[slot] == h && low[slot] == l) return;
+        slot = (slot + 1) & mask;
+      }
+      high[slot] = h;
+      low[slot] = l;
+      values[slot] = value;
+      size++;
+    }
+
+    // Find the slot for a key, or -1 if not present
+    int find(long h, long l) {
+      int mask = values.length - 1;
+      int slot = hash(h, l) & mask;
+      while (values[slot] != null) {
+        if (high[slot] == h && low[slot] == l) return slot;
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    void collectUnseen(List<A> target) {
+      for (int i = 0; i < values.length; i++) {
+        if (values[i] != null && !seen[i]) target.add((A) values[i]);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void grow() {
+      long[] oldHigh = high;
+      long[] oldLow = low;
+      Object[] oldValues = values;
+      allocate(values.length << 1);
+      for (int i = 0; i < oldValues.length; i++) {
+        if (oldValues[i] != null) insert(oldHigh[i], oldLow[i], (A) oldValues[i]);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,165 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.base.PersistentProperty;
+import enterprises.orbital.evekit.sde.client.invoker.ApiException;
+import enterprises.orbital.evekit.sde.client.model.InvCategory;
+import enterprises.orbital.evekit.sde.client.model.InvGroup;
+import enterprises.orbital.evekit.sde.client.model.InvType;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Compact set of "locatable" asset types, i.e. ships (categoryName = "Ship") and containers (groupName ends
+ * with "Container").  These are the only assets for which ESI can return a location or name.
+ * <p>
+ * Each type is resolved through the SDE (type, group and category) at most once, after which eligibility is a
+ * single bit test.  The bitsets are copy-on-write so readers never lock.  When the configured SDE version
+ * changes, the bitsets and the underlying SDE cache are discarded and rebuilt on demand.
+ */
+public class LocatableTypes {
+  private static final Logger log = Logger.getLogger(LocatableTypes.class.getName());
+
+  // SDE version currently deployed.  Changing this property discards all resolved types.
+  public static final String PROP_SDE_VERSION = "enterprises.orbital.evekit.sync.sde_version";
+
+  // Interval (in milliseconds) at which the SDE version property is checked
+  private static final String PROP_SDE_VERSION_CHECK_INTERVAL = "enterprises.orbital.evekit.sync.sde_version_check_interval";
+  private static final long DEF_SDE_VERSION_CHECK_INTERVAL = TimeUnit.MILLISECONDS.convert(1, TimeUnit.MINUTES);
+
+  // Immutable snapshot of resolved types
+  private static class Bits {
+    final String version;
+    // Types which have been resolved
+    final BitSet known;
+    // Resolved types which are locatable
+    final BitSet locatable;
+
+    Bits(String version, BitSet known, BitSet locatable) {
+      this.version = version;
+      this.known = known;
+      this.locatable = locatable;
+    }
+  }
+
+  private final SDECache cache;
+  private final AtomicReference<Bits> bits;
+  private final AtomicLong lastVersionCheck = new AtomicLong(0);
+
+  public LocatableTypes(SDECache cache) {
+    this.cache = cache;
+    this.bits = new AtomicReference<>(new Bits(currentVersion(), new BitSet(), new BitSet()));
+  }
+
+  private static String currentVersion() {
+    return PersistentProperty.getPropertyWithFallback(PROP_SDE_VERSION, "");
+  }
+
+  /**
+   * Eligibility rule for location and name lookups.
+   *
+   * @param group    group of the asset type.
+   * @param category category of the asset type.
+   * @return true if assets of this group and category are locatable.
+   */
+  public static boolean isLocatable(InvGroup group, InvCategory category) {
+    return "Ship".equals(category.getCategoryName()) ||
+        (group.getGroupName() != null && group.getGroupName().endsWith("Container"));
+  }
+
+  // Discard all resolved types if the SDE version has changed.
+  private void checkVersion() {
+    long now = OrbitalProperties.getCurrentTime();
+    long last = lastVersionCheck.get();
+    long interval = SyncConfig.getLong(PROP_SDE_VERSION_CHECK_INTERVAL, DEF_SDE_VERSION_CHECK_INTERVAL);
+    if (now - last < interval || !lastVersionCheck.compareAndSet(last, now)) return;
+    String version = currentVersion();
+    Bits current = bits.get();
+    if (version.equals(current.version)) return;
+    log.info("SDE version changed from \"" + current.version + "\" to \"" + version + "\", resetting type cache");
+    cache.clear();
+    bits.set(new Bits(version, new BitSet(), new BitSet()));
+  }
+
+  /**
+   * Ensure all of the given types have been resolved, then return the set of locatable types.  Types which
+   * can not be resolved are logged, treated as not locatable, and retried on the next call.
+   *
+   * @param typeIDs types which must be resolved.
+   * @return bitset of locatable type IDs.  The result is shared and must not be modified.
+   * @throws ApiException if an error occurs resolving types from the SDE.
+   */
+  public BitSet resolve(Collection<Integer> typeIDs) throws ApiException {
+    checkVersion();
+    Bits current = bits.get();
+    Collection<Integer> unknown = typeIDs.stream()
+                                         .filter(x -> x != null && x >= 0 && !current.known.get(x))
+                                         .collect(Collectors.toSet());
+    if (unknown.isEmpty()) return current.locatable;
+
+    // Resolve the type chain for all unknown types with bulk lookups
+    Map<Integer, InvType> types = cache.getTypes(unknown);
+    Map<Integer, InvGroup> groups = cache.getGroups(types.values()
+                                                         .stream()
+                                                         .filter(x -> x != null && x.getGroupID() != null)
+                                                         .map(InvType::getGroupID)
+                                                         .collect(Collectors.toSet()));
+    Map<Integer, InvCategory> categories = cache.getCategories(groups.values()
+                                                                     .stream()
+                                                                     .filter(x -> x != null && x.getCategoryID() != null)
+                                                                     .map(InvGroup::getCategoryID)
+                                                                     .collect(Collectors.toSet()));
+    BitSet resolved = new BitSet();
+    BitSet locatable = new BitSet();
+    for (int nextType : unknown) {
+      InvType assetType = types.get(nextType);
+      if (assetType == null) {
+        log.warning("Asset type can not be resolved for asset type: " + nextType);
+        continue;
+      }
+      InvGroup assetGroup = groups.get(assetType.getGroupID());
+      if (assetGroup == null) {
+        log.warning("Asset group can not be resolved for asset type: " + nextType);
+        continue;
+      }
+      InvCategory assetCategory = categories.get(assetGroup.getCategoryID());
+      if (assetCategory == null) {
+        log.warning("Asset category can not be resolved for asset type: " + nextType);
+        continue;
+      }
+      resolved.set(nextType);
+      if (isLocatable(assetGroup, assetCategory)) locatable.set(nextType);
+    }
+
+    // Publish a new snapshot, merging with any concurrent updates
+    while (true) {
+      Bits base = bits.get();
+      if (!base.version.equals(current.version)) {
+        // Version changed while we were resolving, don't publish stale results
+        return locatable;
+      }
+      BitSet nextKnown = (BitSet) base.known.clone();
+      nextKnown.or(resolved);
+      BitSet nextLocatable = (BitSet) base.locatable.clone();
+      nextLocatable.or(locatable);
+      if (bits.compareAndSet(base, new Bits(base.version, nextKnown, nextLocatable))) return nextLocatable;
+    }
+  }
+
+  /**
+   * Number of resolved types.
+   *
+   * @return number of types for which eligibility is known.
+   */
+  public int size() {
+    return bits.get().known.cardinality();
+  }
+
+}
@@ -0,0 +1,136 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plans the start time of the next tracker for an endpoint.  Scheduling every tracker exactly at ESI cache expiry
+ * keeps accounts which were created together, or which recovered from the same outage, phase locked so that their
+ * calls arrive in bursts.  When a spreading window is configured, the next event is instead placed in one of the
+ * fixed size slots which make up the window following expiry.
+ * <p>
+ * Each account and endpoint starts from a deterministic preferred slot derived from a hash of the account and
+ * endpoint, so that schedules are stable from one sync to the next.  Starting from the preferred slot, the
+ * planner picks the slot with the fewest trackers already scheduled by this process, which flattens the call rate
+ * even when many accounts hash to the same slot.  Slot counts are held in memory only and are discarded once
+ * the slot has passed.
+ * <p>
+ * Spreading is disabled by default.  The window and slot size may be specialized for an endpoint by appending "."
+ * and the endpoint name to the property.
+ */
+public class NextEventPlanner {
+
+  // Width (milliseconds) of the window after expiry in which next events are spread.  Zero disables spreading.
+  private static final String PROP_WINDOW = "enterprises.orbital.evekit.sync_mgr.next_event_window";
+  private static final long DEF_WINDOW = 0;
+
+  // Width (milliseconds) of each slot in the spreading window
+  private static final String PROP_SLOT = "enterprises.orbital.evekit.sync_mgr.next_event_slot";
+  private static final long DEF_SLOT = TimeUnit.MILLISECONDS.convert(5, TimeUnit.SECONDS);
+
+  // Number of trackers scheduled in each slot, keyed by slot width and then slot index (start time / width).
+  // Endpoints may use different slot widths, so counts for different widths are kept apart.
+  private static final Map<Long, Map<Long, AtomicInteger>> slotCounts = new ConcurrentHashMap<>();
+
+  // Time of the last removal of past slots
+  private static final AtomicLong lastPrune = new AtomicLong(0);
+
+  // Singleton
+  private NextEventPlanner() {}
+
+  /**
+   * Plan the next event for an endpoint.
+   *
+   * @param account  account being synchronized.
+   * @param endpoint endpoint being synchronized.
+   * @param expiry   earliest time at which the next event may occur, normally ESI cache expiry.
+   * @return time of the next event.  This is never earlier than expiry, and is exactly expiry if spreading is
+   * disabled.
+   */
+  public static long plan(SynchronizedEveAccount account, ESISyncEndpoint endpoint, long expiry) {
+    long window = SyncConfig.getLong(PROP_WINDOW, endpoint, DEF_WINDOW);
+    long slot = SyncConfig.getLong(PROP_SLOT, endpoint, DEF_SLOT);
+    if (window <= 0 || slot <= 0) return expiry;
+    prune(OrbitalProperties.getCurrentTime(), slot);
+    return plan(mix(account.getAid() * 31 + endpoint.ordinal()), expiry, window, slot);
+  }
+
+  /**
+   * Place an event in the least loaded slot of the window following expiry.  Slots are visited in order starting
+   * from the preferred slot, so the preferred slot wins ties.
+   *
+   * @param seed   hash which determines the preferred slot and the offset within a slot.
+   * @param expiry earliest time at which the event may occur.
+   * @param window width of the spreading window.
+   * @param slot   width of each slot.
+   * @return time of the event.
+   */
+  static long plan(long seed, long expiry, long window, long slot) {
+    long slots = Math.max(window / slot, 1);
+    long first = Math.floorDiv(expiry + slot - 1, slot);
+    long preferred = Math.floorMod(seed, slots);
+    long best = first + preferred;
+    int bestCount = Integer.MAX_VALUE;
+    Map<Long, AtomicInteger> counts = slotCounts.computeIfAbsent(slot, k -> new ConcurrentHashMap<>());
+    for (long i = 0; i < slots && bestCount > 0; i++) {
+      long candidate = first + (preferred + i) % slots;
+      AtomicInteger count = counts.get(candidate);
+      int current = count == null ? 0 : count.get();
+      if (current < bestCount) {
+        best = candidate;
+        bestCount = current;
+      }
+    }
+    counts.computeIfAbsent(best, k -> new AtomicInteger(0))
+          .incrementAndGet();
+    return best * slot + Math.floorMod(seed >>> 32, slot);
+  }
+
+  /**
+   * Number of events this process has scheduled in the slot containing the given time.
+   *
+   * @param time time in the slot.
+   * @param slot width of each slot.
+   * @return number of events scheduled in the slot.
+   */
+  static int scheduled(long time, long slot) {
+    Map<Long, AtomicInteger> counts = slotCounts.get(slot);
+    AtomicInteger count = counts == null ? null : counts.get(Math.floorDiv(time, slot));
+    return count == null ? 0 : count.get();
+  }
+
+  // Discard all slot counts.  Used for testing.
+  static void reset() {
+    slotCounts.clear();
+    lastPrune.set(0);
+  }
+
+  // Discard counts for slots of every width which have passed, at most once per slot
+  private static void prune(long now, long slot) {
+    long last = lastPrune.get();
+    if (now - last < slot || !lastPrune.compareAndSet(last, now)) return;
+    for (Map.Entry<Long, Map<Long, AtomicInteger>> next : slotCounts.entrySet()) {
+      long current = Math.floorDiv(now, next.getKey());
+      next.getValue()
+          .keySet()
+          .removeIf(k -> k < current);
+    }
+  }
+
+  // Spread the bits of a key so that adjacent account IDs land in unrelated slots
+  private static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+
+}
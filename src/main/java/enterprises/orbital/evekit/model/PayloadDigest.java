@@ -0,0 +1,115 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Digests of the most recent server payload for each account and endpoint.  When a new payload has the same
+ * digest as the last payload which was fully processed, processing and committing can be skipped since stored
+ * data must already be up to date.  A full reconcile is still forced periodically in case stored data was changed
+ * by some other means.
+ * <p>
+ * Digests are computed from the string form of the payload.  ESI client model objects render all fields, so
+ * identical payloads have identical digests.  Payloads whose string form is not stable (e.g. default
+ * Object.toString) never match, which is safe but provides no benefit.  Digests are held in memory only, so the
+ * first sync after a restart always performs a full reconcile.
+ */
+public class PayloadDigest {
+
+  // Force a full reconcile at least this often (milliseconds) even if the payload has not changed
+  private static final String PROP_FORCED_RECONCILE_INTERVAL = "enterprises.orbital.evekit.sync_mgr.payload_digest_reconcile_interval";
+  private static final long DEF_FORCED_RECONCILE_INTERVAL = TimeUnit.MILLISECONDS.convert(6, TimeUnit.HOURS);
+
+  private static class Entry {
+    final String digest;
+    final long reconciledAt;
+
+    Entry(String digest, long reconciledAt) {
+      this.digest = digest;
+      this.reconciledAt = reconciledAt;
+    }
+  }
+
+  // Keyed by account ID, then endpoint
+  private static final Map<Long, Map<ESISyncEndpoint, Entry>> digests = new ConcurrentHashMap<>();
+
+  // Singleton
+  private PayloadDigest() {}
+
+  /**
+   * Compute the digest of a payload.
+   *
+   * @param payload server payload.
+   * @return hex encoded SHA-256 digest of the string form of the payload.
+   */
+  public static String digest(Object payload) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      byte[] hash = md.digest(String.valueOf(payload)
+                                    .getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(hash.length * 2);
+      for (byte next : hash) hex.append(String.format("%02x", next & 0xFF));
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      // Every JVM is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Check whether a payload digest matches the last fully processed payload, and a full reconcile is not due.
+   *
+   * @param account  account being synchronized.
+   * @param endpoint endpoint being synchronized.
+   * @param digest   digest of the current payload.
+   * @param now      current time.
+   * @return true if processing of the current payload may be skipped.
+   */
+  public static boolean unchanged(SynchronizedEveAccount account, ESISyncEndpoint endpoint, String digest, long now) {
+    Map<ESISyncEndpoint, Entry> byEndpoint = digests.get(account.getAid());
+    Entry last = byEndpoint == null ? null : byEndpoint.get(endpoint);
+    if (last == null || !last.digest.equals(digest)) return false;
+    long interval = SyncConfig.getLong(PROP_FORCED_RECONCILE_INTERVAL, DEF_FORCED_RECONCILE_INTERVAL);
+    return now - last.reconciledAt < interval;
+  }
+
+  /**
+   * Record the digest of a payload which has been fully processed and committed.
+   *
+   * @param account  account being synchronized.
+   * @param endpoint endpoint being synchronized.
+   * @param digest   digest of the committed payload.
+   * @param now      time of the commit.
+   */
+  public static void record(SynchronizedEveAccount account, ESISyncEndpoint endpoint, String digest, long now) {
+    digests.computeIfAbsent(account.getAid(), k -> new ConcurrentHashMap<>())
+           .put(endpoint, new Entry(digest, now));
+  }
+
+  /**
+   * Forget the digest for an account and endpoint, forcing a full reconcile on the next sync.
+   *
+   * @param account  account being synchronized.
+   * @param endpoint endpoint being synchronized.
+   */
+  public static void forget(SynchronizedEveAccount account, ESISyncEndpoint endpoint) {
+    Map<ESISyncEndpoint, Entry> byEndpoint = digests.get(account.getAid());
+    if (byEndpoint != null) byEndpoint.remove(endpoint);
+  }
+
+  /**
+   * Discard all digests for an account, e.g. when the account is deleted.
+   *
+   * @param account account to discard.
+   */
+  public static void evict(SynchronizedEveAccount account) {
+    digests.remove(account.getAid());
+  }
+
+}
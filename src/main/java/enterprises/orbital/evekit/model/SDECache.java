@@ -5,8 +5,36 @@ import enterprises.orbital.evekit.sde.client.model.InvCategory;
 import enterprises.orbital.evekit.sde.client.model.InvGroup;
 import enterprises.orbital.evekit.sde.client.model.InvType;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface SDECache {
   InvType getType(int typeID) throws ApiException;
   InvGroup getGroup(int groupID) throws ApiException;
   InvCategory getCategory(int categoryID) throws ApiException;
+
+  // Bulk lookups.  The result maps each requested ID to its value, or to null if the ID can not be resolved.
+  // Implementations should override these to resolve many IDs with as few remote calls as possible.
+
+  default Map<Integer, InvType> getTypes(Collection<Integer> typeIDs) throws ApiException {
+    Map<Integer, InvType> result = new HashMap<>();
+    for (int next : typeIDs) result.put(next, getType(next));
+    return result;
+  }
+
+  default Map<Integer, InvGroup> getGroups(Collection<Integer> groupIDs) throws ApiException {
+    Map<Integer, InvGroup> result = new HashMap<>();
+    for (int next : groupIDs) result.put(next, getGroup(next));
+    return result;
+  }
+
+  default Map<Integer, InvCategory> getCategories(Collection<Integer> categoryIDs) throws ApiException {
+    Map<Integer, InvCategory> result = new HashMap<>();
+    for (int next : categoryIDs) result.put(next, getCategory(next));
+    return result;
+  }
+
+  // Discard all cached values, e.g. when the SDE version changes.
+  default void clear() {}
 }
@@ -0,0 +1,234 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.evekit.sde.client.invoker.ApiException;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Concurrent loading cache for SDE data keyed by integer ID.
+ * <ul>
+ * <li>Hits never lock.</li>
+ * <li>Concurrent misses on the same key share a single load.  The first thread to miss performs the load,
+ * other threads wait only for that key.</li>
+ * <li>Missing values (load returns null) are cached for a limited time.  Load failures are not cached.</li>
+ * <li>The cache is bounded.  When full, the oldest entries are evicted first.</li>
+ * </ul>
+ *
+ * @param <V> type of cached values.
+ */
+public class SDELoadingCache<V> {
+
+  // Interface which loads a single value.  Returns null if no value exists.
+  public interface Loader<V> {
+    V load(int key) throws ApiException;
+  }
+
+  private static class Entry<V> {
+    final CompletableFuture<V> value = new CompletableFuture<>();
+    final long sequence;
+    volatile long loadedAt;
+
+    Entry(long sequence) {
+      this.sequence = sequence;
+    }
+  }
+
+  // Position of an entry in insertion order.  Stale if the key now maps to a different entry.
+  private static class Queued {
+    final int key;
+    final long sequence;
+
+    Queued(int key, long sequence) {
+      this.key = key;
+      this.sequence = sequence;
+    }
+  }
+
+  private final Map<Integer, Entry<V>> cache = new ConcurrentHashMap<>();
+  private final Queue<Queued> insertionOrder = new ConcurrentLinkedQueue<>();
+  private final AtomicLong nextSequence = new AtomicLong(0);
+  // Number of stale items in insertionOrder, i.e. entries removed other than by eviction
+  private final AtomicInteger stale = new AtomicInteger(0);
+  // Incremented whenever a value is added or removed
+  private final AtomicLong modifications = new AtomicLong(0);
+  private final int maxSize;
+  private final long negativeTTL;
+
+  /**
+   * Create a new cache.
+   *
+   * @param maxSize     maximum number of entries.
+   * @param negativeTTL time (in milliseconds) to cache missing values.
+   */
+  public SDELoadingCache(int maxSize, long negativeTTL) {
+    this.maxSize = Math.max(maxSize, 1);
+    this.negativeTTL = negativeTTL;
+  }
+
+  /**
+   * Retrieve a cached value, loading it if necessary.
+   *
+   * @param key    key to retrieve.
+   * @param loader loads the value on a miss.
+   * @return the cached or loaded value, or null if no value exists.
+   * @throws ApiException if the load fails.
+   */
+  public V get(int key, Loader<V> loader) throws ApiException {
+    while (true) {
+      Entry<V> entry = cache.get(key);
+      if (entry != null) {
+        if (!entry.value.isDone()) return await(entry);
+        V value = entry.value.getNow(null);
+        if (value != null || OrbitalProperties.getCurrentTime() - entry.loadedAt < negativeTTL) return value;
+        // Expired negative entry, remove and retry
+        if (cache.remove(key, entry)) stale.incrementAndGet();
+        continue;
+      }
+      Entry<V> created = new Entry<>(nextSequence.incrementAndGet());
+      if (cache.putIfAbsent(key, created) != null) continue;
+      // We own the load for this key
+      insertionOrder.add(new Queued(key, created.sequence));
+      try {
+        V value = loader.load(key);
+        created.loadedAt = OrbitalProperties.getCurrentTime();
+        created.value.complete(value);
+        modifications.incrementAndGet();
+        evict();
+        return value;
+      } catch (Throwable e) {
+        // Don't cache failures.  Waiting threads must always be released, even if the load failed with an Error.
+        if (cache.remove(key, created)) stale.incrementAndGet();
+        created.value.completeExceptionally(e);
+        evict();
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Check whether a key is cached and not expired, without loading.
+   *
+   * @param key key to retrieve.
+   * @return true if the key is cached (the value may be null if no value exists).
+   */
+  public boolean contains(int key) {
+    Entry<V> entry = cache.get(key);
+    return entry != null && entry.value.isDone() && !entry.value.isCompletedExceptionally() &&
+        (entry.value.getNow(null) != null || OrbitalProperties.getCurrentTime() - entry.loadedAt < negativeTTL);
+  }
+
+  /**
+   * Store a value directly, e.g. as the result of a bulk load.  Has no effect if the key is already present,
+   * unless the present entry is a missing value and the new value is not.
+   *
+   * @param key   key to store.
+   * @param value value to store, or null if no value exists.
+   */
+  public void put(int key, V value) {
+    Entry<V> created = new Entry<>(nextSequence.incrementAndGet());
+    created.loadedAt = OrbitalProperties.getCurrentTime();
+    created.value.complete(value);
+    Entry<V> existing = cache.putIfAbsent(key, created);
+    if (existing == null) {
+      insertionOrder.add(new Queued(key, created.sequence));
+      modifications.incrementAndGet();
+      evict();
+    } else if (existing.value.isDone() && existing.value.getNow(null) == null && value != null) {
+      // Replace a negative entry with a real value
+      if (cache.replace(key, existing, created)) {
+        insertionOrder.add(new Queued(key, created.sequence));
+        stale.incrementAndGet();
+        modifications.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Visit all cached values.  Missing values and loads in progress are skipped.
+   *
+   * @param action called with each key and value.
+   */
+  public void forEach(BiConsumer<Integer, V> action) {
+    for (Map.Entry<Integer, Entry<V>> next : cache.entrySet()) {
+      CompletableFuture<V> value = next.getValue().value;
+      if (!value.isDone() || value.isCompletedExceptionally()) continue;
+      V present = value.getNow(null);
+      if (present != null) action.accept(next.getKey(), present);
+    }
+  }
+
+  /**
+   * Count of changes to this cache.  Callers can compare counts to detect whether the cache has changed.
+   *
+   * @return number of additions or removals since this cache was created.
+   */
+  public long getModifications() {
+    return modifications.get();
+  }
+
+  public int size() {
+    return cache.size();
+  }
+
+  public void clear() {
+    cache.clear();
+    insertionOrder.clear();
+    stale.set(0);
+    modifications.incrementAndGet();
+  }
+
+  private V await(Entry<V> entry) throws ApiException {
+    try {
+      return entry.value.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ApiException) throw (ApiException) e.getCause();
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error) throw (Error) e.getCause();
+      throw new ApiException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+            .interrupt();
+      throw new ApiException(e);
+    }
+  }
+
+  // Check whether a queued item still refers to the entry cached for its key
+  private boolean isLive(Queued queued) {
+    Entry<V> entry = cache.get(queued.key);
+    return entry != null && entry.sequence == queued.sequence;
+  }
+
+  // Evict oldest entries until we're within bounds.  Stale queue items are skipped, and are purged once there
+  // are as many of them as the cache may hold so that the queue stays bounded.
+  private void evict() {
+    int staleCount = stale.get();
+    if (staleCount > maxSize && stale.compareAndSet(staleCount, 0))
+      insertionOrder.removeIf(queued -> !isLive(queued));
+    while (cache.size() > maxSize) {
+      Queued oldest = insertionOrder.poll();
+      if (oldest == null) break;
+      Entry<V> entry = cache.get(oldest.key);
+      if (entry == null || entry.sequence != oldest.sequence) {
+        // Stale, this entry was already removed or replaced
+        stale.updateAndGet(count -> Math.max(count - 1, 0));
+        continue;
+      }
+      if (!entry.value.isDone()) {
+        // Don't evict loads in progress.  Requeue and try again on the next insert.
+        insertionOrder.add(oldest);
+        break;
+      }
+      if (cache.remove(oldest.key, entry)) modifications.incrementAndGet();
+    }
+  }
+
+}
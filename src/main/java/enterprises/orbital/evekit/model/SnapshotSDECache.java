@@ -0,0 +1,268 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.PersistentProperty;
+import enterprises.orbital.evekit.sde.client.model.InvCategory;
+import enterprises.orbital.evekit.sde.client.model.InvGroup;
+import enterprises.orbital.evekit.sde.client.model.InvType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * SDE cache backed by a local snapshot file.  At startup, types, groups and categories are loaded from a compact
+ * binary snapshot (memory mapped) so that syncs do not have to wait for remote SDE lookups after a restart.
+ * Misses fall back to the remote SDE as in {@link StandardSDECache}.  The snapshot is rewritten periodically (and
+ * at shutdown) whenever the cache has changed.
+ * <p>
+ * The snapshot records the SDE version it was built from (see {@link LocatableTypes#PROP_SDE_VERSION}) and is
+ * ignored if the version no longer matches.  Only the fields used by synchronizers are stored.
+ */
+public class SnapshotSDECache extends StandardSDECache {
+  private static final Logger log = Logger.getLogger(SnapshotSDECache.class.getName());
+
+  // Location of the snapshot file.  If unset, the standard SDE cache is used.
+  public static final String PROP_SDE_SNAPSHOT_FILE = "enterprises.orbital.evekit.sync.sde_snapshot_file";
+
+  // Interval (in milliseconds) between snapshot writes
+  private static final String PROP_SDE_SNAPSHOT_INTERVAL = "enterprises.orbital.evekit.sync.sde_snapshot_interval";
+  private static final long DEF_SDE_SNAPSHOT_INTERVAL = TimeUnit.MILLISECONDS.convert(10, TimeUnit.MINUTES);
+
+  // File header and format version
+  private static final int MAGIC = 0x45534445;
+  private static final int FORMAT = 1;
+
+  private final Path snapshot;
+  private final ScheduledExecutorService writer;
+
+  // Modification count of the cache as of the last load or write
+  private volatile long savedModifications;
+
+  /**
+   * Create a cache, loading the given snapshot if it exists and matches the current SDE version.
+   *
+   * @param snapshot snapshot file location.
+   */
+  public SnapshotSDECache(Path snapshot) {
+    this.snapshot = snapshot;
+    try {
+      if (Files.exists(snapshot)) {
+        int count = load();
+        log.info("Loaded " + count + " SDE entries from " + snapshot);
+      }
+    } catch (IOException | RuntimeException e) {
+      // A damaged snapshot is not fatal, we'll fill from the remote SDE and overwrite it later
+      log.log(Level.WARNING, "Unable to load SDE snapshot " + snapshot + ", ignoring", e);
+      clear();
+    }
+    savedModifications = modifications();
+    long interval = Math.max(PersistentProperty.getLongPropertyWithFallback(PROP_SDE_SNAPSHOT_INTERVAL,
+                                                                            DEF_SDE_SNAPSHOT_INTERVAL), 1000L);
+    writer = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread t = new Thread(r, "sde-snapshot-writer");
+      t.setDaemon(true);
+      return t;
+    });
+    writer.scheduleWithFixedDelay(this::writeIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+    Runtime.getRuntime()
+           .addShutdownHook(new Thread(this::writeIfChanged, "sde-snapshot-shutdown"));
+  }
+
+  private static String currentVersion() {
+    return PersistentProperty.getPropertyWithFallback(LocatableTypes.PROP_SDE_VERSION, "");
+  }
+
+  private long modifications() {
+    return getTypeCache().getModifications() + getGroupCache().getModifications() +
+        getCategoryCache().getModifications();
+  }
+
+  /**
+   * Write the snapshot if the cache has changed since the last load or write.
+   */
+  public void writeIfChanged() {
+    long current = modifications();
+    if (current == savedModifications) return;
+    try {
+      write();
+      savedModifications = current;
+    } catch (IOException | RuntimeException e) {
+      log.log(Level.WARNING, "Unable to write SDE snapshot " + snapshot, e);
+    }
+  }
+
+  /**
+   * Stop periodic snapshot writes.
+   */
+  public void shutdown() {
+    writer.shutdownNow();
+  }
+
+  // Load the snapshot into the cache.  Returns the number of entries loaded.
+  private int load() throws IOException {
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+      MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (data.getInt() != MAGIC || data.getInt() != FORMAT)
+        throw new IOException("not an SDE snapshot or unsupported format");
+      String version = getString(data);
+      if (!currentVersion().equals(version)) {
+        log.info("SDE snapshot version \"" + version + "\" does not match current version, ignoring");
+        return 0;
+      }
+      int total = 0;
+      int count = data.getInt();
+      for (int i = 0; i < count; i++) {
+        InvType next = new InvType();
+        next.setTypeID(getInteger(data));
+        next.setGroupID(getInteger(data));
+        next.setTypeName(getString(data));
+        next.setDescription(getString(data));
+        next.setMass(getDouble(data));
+        next.setVolume(getDouble(data));
+        next.setCapacity(getDouble(data));
+        next.setPortionSize(getInteger(data));
+        next.setRaceID(getInteger(data));
+        String price = getString(data);
+        next.setBasePrice(price == null ? null : new BigDecimal(price));
+        next.setMarketGroupID(getInteger(data));
+        next.setIconID(getInteger(data));
+        next.setSoundID(getInteger(data));
+        next.setGraphicID(getInteger(data));
+        getTypeCache().put(next.getTypeID(), next);
+      }
+      total += count;
+      count = data.getInt();
+      for (int i = 0; i < count; i++) {
+        InvGroup next = new InvGroup();
+        next.setGroupID(getInteger(data));
+        next.setCategoryID(getInteger(data));
+        next.setGroupName(getString(data));
+        next.setIconID(getInteger(data));
+        getGroupCache().put(next.getGroupID(), next);
+      }
+      total += count;
+      count = data.getInt();
+      for (int i = 0; i < count; i++) {
+        InvCategory next = new InvCategory();
+        next.setCategoryID(getInteger(data));
+        next.setCategoryName(getString(data));
+        next.setIconID(getInteger(data));
+        getCategoryCache().put(next.getCategoryID(), next);
+      }
+      total += count;
+      return total;
+    }
+  }
+
+  // Write the snapshot to a temporary file, then move it into place so readers never see a partial file.
+  private void write() throws IOException {
+    List<InvType> types = new ArrayList<>();
+    List<InvGroup> groups = new ArrayList<>();
+    List<InvCategory> categories = new ArrayList<>();
+    getTypeCache().forEach((k, v) -> types.add(v));
+    getGroupCache().forEach((k, v) -> groups.add(v));
+    getCategoryCache().forEach((k, v) -> categories.add(v));
+    Path parent = snapshot.toAbsolutePath()
+                          .getParent();
+    if (parent != null) Files.createDirectories(parent);
+    Path tmp = Files.createTempFile(parent, "sde", ".tmp");
+    try {
+      try (OutputStream os = Files.newOutputStream(tmp);
+           DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        putString(out, currentVersion());
+        out.writeInt(types.size());
+        for (InvType next : types) {
+          putInteger(out, next.getTypeID());
+          putInteger(out, next.getGroupID());
+          putString(out, next.getTypeName());
+          putString(out, next.getDescription());
+          putDouble(out, next.getMass());
+          putDouble(out, next.getVolume());
+          putDouble(out, next.getCapacity());
+          putInteger(out, next.getPortionSize());
+          putInteger(out, next.getRaceID());
+          putString(out, next.getBasePrice() == null ? null : next.getBasePrice()
+                                                                  .toString());
+          putInteger(out, next.getMarketGroupID());
+          putInteger(out, next.getIconID());
+          putInteger(out, next.getSoundID());
+          putInteger(out, next.getGraphicID());
+        }
+        out.writeInt(groups.size());
+        for (InvGroup next : groups) {
+          putInteger(out, next.getGroupID());
+          putInteger(out, next.getCategoryID());
+          putString(out, next.getGroupName());
+          putInteger(out, next.getIconID());
+        }
+        out.writeInt(categories.size());
+        for (InvCategory next : categories) {
+          putInteger(out, next.getCategoryID());
+          putString(out, next.getCategoryName());
+          putInteger(out, next.getIconID());
+        }
+      }
+      Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  // Nullable values are prefixed with a presence byte.  Strings are length prefixed UTF-8.
+
+  private static void putInteger(DataOutputStream out, Integer value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) out.writeInt(value);
+  }
+
+  private static void putDouble(DataOutputStream out, Double value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) out.writeDouble(value);
+  }
+
+  private static void putString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(encoded.length);
+    out.write(encoded);
+  }
+
+  private static Integer getInteger(ByteBuffer in) {
+    return in.get() != 0 ? in.getInt() : null;
+  }
+
+  private static Double getDouble(ByteBuffer in) {
+    return in.get() != 0 ? in.getDouble() : null;
+  }
+
+  private static String getString(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) return null;
+    byte[] encoded = new byte[length];
+    in.get(encoded);
+    return new String(encoded, StandardCharsets.UTF_8);
+  }
+
+}
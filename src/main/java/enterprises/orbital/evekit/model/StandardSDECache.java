@@ -1,68 +1,176 @@
 package enterprises.orbital.evekit.model;
 
+import enterprises.orbital.base.PersistentProperty;
 import enterprises.orbital.evekit.sde.client.api.InventoryApi;
 import enterprises.orbital.evekit.sde.client.invoker.ApiException;
 import enterprises.orbital.evekit.sde.client.model.InvCategory;
 import enterprises.orbital.evekit.sde.client.model.InvGroup;
 import enterprises.orbital.evekit.sde.client.model.InvType;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * A cache of common information needed to improve certain synchronization activities (like asset locations).
+ * Cache hits never block.  Concurrent misses on the same ID share a single remote call.  Bulk lookups
+ * resolve all uncached IDs with multi-value queries.
  */
 public class StandardSDECache implements SDECache {
 
-  private Map<Integer, InvType> inventoryTypeCache = new HashMap<>();
-  private Map<Integer, InvGroup> inventoryGroupCache = new HashMap<>();
-  private Map<Integer, InvCategory> inventoryCategoryCache = new HashMap<>();
+  // Maximum number of entries in each of the type, group and category caches
+  private static final String PROP_SDE_CACHE_SIZE = "enterprises.orbital.evekit.sync.sde_cache_size";
+  private static final int DEF_SDE_CACHE_SIZE = 100000;
 
-  public InvType getType(int typeID) throws ApiException {
-    synchronized (inventoryTypeCache) {
-      if (inventoryTypeCache.containsKey(typeID))
-        return inventoryTypeCache.get(typeID);
+  // Time to remember that an ID has no SDE entry
+  private static final String PROP_SDE_NEGATIVE_TTL = "enterprises.orbital.evekit.sync.sde_negative_ttl";
+  private static final long DEF_SDE_NEGATIVE_TTL = TimeUnit.MILLISECONDS.convert(1, TimeUnit.HOURS);
 
-      InventoryApi api = new InventoryApi();
-      List<InvType> queryResults = api.getTypes(null, null, "{values:[" + typeID + "]}",
-                                                null, null, null, null, null,
-                                                null, null, null, null, null, null,
-                                                null, null, null, null);
-      InvType result = queryResults.isEmpty() ? null : queryResults.get(0);
-      inventoryTypeCache.put(typeID, result);
-      return result;
-    }
+  // Maximum number of IDs in a single multi-value query
+  private static final String PROP_SDE_BULK_QUERY_SIZE = "enterprises.orbital.evekit.sync.sde_bulk_query_size";
+  private static final int DEF_SDE_BULK_QUERY_SIZE = 100;
+
+  // Interface which performs a multi-value query given a selector
+  private interface BulkQuery<V> {
+    List<V> query(String selector) throws ApiException;
+  }
+
+  private final SDELoadingCache<InvType> inventoryTypeCache;
+  private final SDELoadingCache<InvGroup> inventoryGroupCache;
+  private final SDELoadingCache<InvCategory> inventoryCategoryCache;
+
+  public StandardSDECache() {
+    int size = PersistentProperty.getIntegerPropertyWithFallback(PROP_SDE_CACHE_SIZE, DEF_SDE_CACHE_SIZE);
+    long ttl = PersistentProperty.getLongPropertyWithFallback(PROP_SDE_NEGATIVE_TTL, DEF_SDE_NEGATIVE_TTL);
+    inventoryTypeCache = new SDELoadingCache<>(size, ttl);
+    inventoryGroupCache = new SDELoadingCache<>(size, ttl);
+    inventoryCategoryCache = new SDELoadingCache<>(size, ttl);
+  }
+
+  SDELoadingCache<InvType> getTypeCache() {
+    return inventoryTypeCache;
+  }
+
+  SDELoadingCache<InvGroup> getGroupCache() {
+    return inventoryGroupCache;
+  }
+
+  SDELoadingCache<InvCategory> getCategoryCache() {
+    return inventoryCategoryCache;
+  }
+
+  private InvType loadType(int typeID) throws ApiException {
+    InventoryApi api = new InventoryApi();
+    List<InvType> queryResults = api.getTypes(null, null, "{values:[" + typeID + "]}",
+                                              null, null, null, null, null,
+                                              null, null, null, null, null, null,
+                                              null, null, null, null);
+    return queryResults.isEmpty() ? null : queryResults.get(0);
   }
 
   @SuppressWarnings("Duplicates")
+  private InvGroup loadGroup(int groupID) throws ApiException {
+    InventoryApi api = new InventoryApi();
+    List<InvGroup> queryResults = api.getGroups(null, null, "{values:[" + groupID + "]}",
+                                                null,null,null,null,null,
+                                                null,null,null);
+    return queryResults.isEmpty() ? null : queryResults.get(0);
+  }
+
+  private InvCategory loadCategory(int categoryID) throws ApiException {
+    InventoryApi api = new InventoryApi();
+    List<InvCategory> queryResults = api.getCategories(null, null, "{values:[" + categoryID + "]}",
+                                                null,null,null);
+    return queryResults.isEmpty() ? null : queryResults.get(0);
+  }
+
+  public InvType getType(int typeID) throws ApiException {
+    return inventoryTypeCache.get(typeID, this::loadType);
+  }
+
   public InvGroup getGroup(int groupID) throws ApiException {
-    synchronized (inventoryGroupCache) {
-      if (inventoryGroupCache.containsKey(groupID))
-        return inventoryGroupCache.get(groupID);
+    return inventoryGroupCache.get(groupID, this::loadGroup);
+  }
 
-      InventoryApi api = new InventoryApi();
-      List<InvGroup> queryResults = api.getGroups(null, null, "{values:[" + groupID + "]}",
-                                                  null,null,null,null,null,
-                                                  null,null,null);
-      InvGroup result = queryResults.isEmpty() ? null : queryResults.get(0);
-      inventoryGroupCache.put(groupID, result);
-      return result;
+  public InvCategory getCategory(int categoryID) throws ApiException {
+    return inventoryCategoryCache.get(categoryID, this::loadCategory);
+  }
+
+  @Override
+  public void clear() {
+    inventoryTypeCache.clear();
+    inventoryGroupCache.clear();
+    inventoryCategoryCache.clear();
+  }
+
+  // Resolve a collection of IDs.  Uncached IDs are loaded in chunks with multi-value queries.  IDs not
+  // returned by a query are cached as missing.
+  private static <V> Map<Integer, V> getAll(SDELoadingCache<V> cache, Collection<Integer> ids,
+                                            Function<V, Integer> idOf, BulkQuery<V> bulk,
+                                            SDELoadingCache.Loader<V> single) throws ApiException {
+    Set<Integer> unique = new LinkedHashSet<>(ids);
+    List<Integer> missing = new ArrayList<>();
+    for (Integer next : unique) {
+      if (!cache.contains(next)) missing.add(next);
+    }
+    int chunk = Math.max(SyncConfig.getInt(PROP_SDE_BULK_QUERY_SIZE, DEF_SDE_BULK_QUERY_SIZE), 1);
+    for (int i = 0; i < missing.size(); i += chunk) {
+      List<Integer> nextChunk = missing.subList(i, Math.min(i + chunk, missing.size()));
+      StringBuilder selector = new StringBuilder("{values:[");
+      for (int j = 0; j < nextChunk.size(); j++) {
+        if (j > 0) selector.append(',');
+        selector.append(nextChunk.get(j));
+      }
+      Set<Integer> unresolved = new LinkedHashSet<>(nextChunk);
+      for (V next : bulk.query(selector.append("]}")
+                                       .toString())) {
+        Integer id = idOf.apply(next);
+        if (id == null) continue;
+        cache.put(id, next);
+        unresolved.remove(id);
+      }
+      for (Integer next : unresolved) cache.put(next, null);
     }
+    // Everything should now be cached, but entries may have been evicted in the meantime
+    Map<Integer, V> result = new HashMap<>();
+    for (Integer next : unique) result.put(next, cache.get(next, single));
+    return result;
   }
 
-  public InvCategory getCategory(int categoryID) throws ApiException {
-    synchronized (inventoryCategoryCache) {
-      if (inventoryCategoryCache.containsKey(categoryID))
-        return inventoryCategoryCache.get(categoryID);
+  @Override
+  public Map<Integer, InvType> getTypes(Collection<Integer> typeIDs) throws ApiException {
+    return getAll(inventoryTypeCache, typeIDs, InvType::getTypeID, (selector) -> {
+      InventoryApi api = new InventoryApi();
+      return api.getTypes(null, null, selector,
+                          null, null, null, null, null,
+                          null, null, null, null, null, null,
+                          null, null, null, null);
+    }, this::loadType);
+  }
 
+  @Override
+  public Map<Integer, InvGroup> getGroups(Collection<Integer> groupIDs) throws ApiException {
+    return getAll(inventoryGroupCache, groupIDs, InvGroup::getGroupID, (selector) -> {
       InventoryApi api = new InventoryApi();
-      List<InvCategory> queryResults = api.getCategories(null, null, "{values:[" + categoryID + "]}",
-                                                  null,null,null);
-      InvCategory result = queryResults.isEmpty() ? null : queryResults.get(0);
-      inventoryCategoryCache.put(categoryID, result);
-      return result;
-    }
+      return api.getGroups(null, null, selector,
+                           null, null, null, null, null,
+                           null, null, null);
+    }, this::loadGroup);
+  }
+
+  @Override
+  public Map<Integer, InvCategory> getCategories(Collection<Integer> categoryIDs) throws ApiException {
+    return getAll(inventoryCategoryCache, categoryIDs, InvCategory::getCategoryID, (selector) -> {
+      InventoryApi api = new InventoryApi();
+      return api.getCategories(null, null, selector,
+                               null, null, null);
+    }, this::loadCategory);
   }
 
 }
@@ -0,0 +1,236 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.base.PersistentProperty;
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Process wide snapshot of synchronization settings.  Many settings are read for every block, page or call,
+ * and most are backed by the database.  This class reads each setting at most once per refresh interval
+ * and serves all other reads from an in-memory snapshot without locking.
+ * <p>
+ * Settings are loaded into the current snapshot the first time they are read.  Once the refresh interval
+ * has passed, the snapshot is replaced with an empty one so that the next read of each setting sees the
+ * current stored value.  Code which changes a setting and needs the change seen immediately should call
+ * {@link #invalidate()}.
+ * <p>
+ * Per-account overrides use the same account scoped properties as {@link ESIThrottle}.  Values which are not
+ * overridden for an account fall back to the global setting.
+ */
+public class SyncConfig {
+
+  // Interval (in milliseconds) after which settings are re-read
+  private static final String PROP_CONFIG_REFRESH_INTERVAL = "enterprises.orbital.evekit.sync_mgr.config_refresh_interval";
+  private static final long DEF_CONFIG_REFRESH_INTERVAL = TimeUnit.MILLISECONDS.convert(1, TimeUnit.MINUTES);
+
+  // Marker for account settings which are not set.  Never returned to callers.
+  private static final int UNSET_INT = Integer.MIN_VALUE;
+
+  // Settings read since the snapshot was created
+  private static class Snapshot {
+    final long createdAt;
+    // Settings which are not set are cached as empty
+    final Map<String, Optional<String>> values = new ConcurrentHashMap<>();
+    // Keyed by account ID
+    final Map<Long, Map<String, Integer>> accountValues = new ConcurrentHashMap<>();
+    volatile long refreshInterval = -1;
+
+    Snapshot(long createdAt) {
+      this.createdAt = createdAt;
+    }
+
+    // Settings are loaded outside of the map so that a slow read does not block readers of other settings.
+    // Concurrent first reads of the same setting may both load it, which is harmless.
+    String lookup(String key) {
+      Optional<String> value = values.get(key);
+      if (value == null) {
+        value = Optional.ofNullable(PersistentProperty.getPropertyWithFallback(key, null));
+        values.putIfAbsent(key, value);
+      }
+      return value.orElse(null);
+    }
+
+    Integer lookup(SynchronizedEveAccount account, String key) {
+      Map<String, Integer> accountMap = accountValues.computeIfAbsent(account.getAid(),
+                                                                      k -> new ConcurrentHashMap<>());
+      Integer value = accountMap.get(key);
+      if (value == null) {
+        value = PersistentProperty.getIntegerPropertyWithFallback(account, key, UNSET_INT);
+        accountMap.putIfAbsent(key, value);
+      }
+      return value == UNSET_INT ? null : value;
+    }
+
+    boolean expired(long now) {
+      if (refreshInterval < 0) {
+        refreshInterval = parseLong(lookup(PROP_CONFIG_REFRESH_INTERVAL), DEF_CONFIG_REFRESH_INTERVAL);
+      }
+      return now - createdAt >= refreshInterval || now < createdAt;
+    }
+  }
+
+  private static final AtomicReference<Snapshot> current = new AtomicReference<>(
+      new Snapshot(OrbitalProperties.getCurrentTime()));
+
+  // Singleton
+  private SyncConfig() {}
+
+  private static Snapshot snapshot() {
+    Snapshot next = current.get();
+    long now = OrbitalProperties.getCurrentTime();
+    if (next.expired(now)) {
+      // Only one caller replaces an expired snapshot, others use whichever snapshot is current
+      current.compareAndSet(next, new Snapshot(now));
+      next = current.get();
+    }
+    return next;
+  }
+
+  /**
+   * Discard all cached settings.  The next read of each setting will see its current stored value.
+   */
+  public static void invalidate() {
+    current.set(new Snapshot(OrbitalProperties.getCurrentTime()));
+  }
+
+  /**
+   * Retrieve the first setting which is set from a list of keys, in order.
+   *
+   * @param keys keys to check.
+   * @return the value of the first key which is set, or null if none are set.
+   */
+  private static String lookup(String... keys) {
+    Snapshot config = snapshot();
+    for (String next : keys) {
+      String value = config.lookup(next);
+      if (value != null) return value;
+    }
+    return null;
+  }
+
+  private static String[] endpointKeys(String key, ESISyncEndpoint endpoint) {
+    return new String[]{key + "." + endpoint.name(), key};
+  }
+
+  private static int parseInt(String value, int def) {
+    if (value == null) return def;
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return def;
+    }
+  }
+
+  private static long parseLong(String value, long def) {
+    if (value == null) return def;
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      return def;
+    }
+  }
+
+  /**
+   * Retrieve a string setting.
+   *
+   * @param key setting key.
+   * @param def value to return if the setting is not set.
+   * @return setting value.
+   */
+  public static String get(String key, String def) {
+    String value = lookup(key);
+    return value == null ? def : value;
+  }
+
+  /**
+   * Retrieve an integer setting.  Values which can't be parsed are treated as not set.
+   *
+   * @param key setting key.
+   * @param def value to return if the setting is not set.
+   * @return setting value.
+   */
+  public static int getInt(String key, int def) {
+    return parseInt(lookup(key), def);
+  }
+
+  /**
+   * Retrieve a long setting.  Values which can't be parsed are treated as not set.
+   *
+   * @param key setting key.
+   * @param def value to return if the setting is not set.
+   * @return setting value.
+   */
+  public static long getLong(String key, long def) {
+    return parseLong(lookup(key), def);
+  }
+
+  /**
+   * Retrieve a boolean setting.
+   *
+   * @param key setting key.
+   * @param def value to return if the setting is not set.
+   * @return setting value.
+   */
+  public static boolean getBoolean(String key, boolean def) {
+    String value = lookup(key);
+    return value == null ? def : Boolean.valueOf(value.trim());
+  }
+
+  /**
+   * Retrieve an integer setting which may be specialized for an endpoint by appending "." and the endpoint name.
+   *
+   * @param key      setting key.
+   * @param endpoint endpoint for which the setting is needed.
+   * @param def      value to return if neither the endpoint nor the global setting is set.
+   * @return setting value.
+   */
+  public static int getInt(String key, ESISyncEndpoint endpoint, int def) {
+    return parseInt(lookup(endpointKeys(key, endpoint)), def);
+  }
+
+  /**
+   * Retrieve a long setting which may be specialized for an endpoint by appending "." and the endpoint name.
+   *
+   * @param key      setting key.
+   * @param endpoint endpoint for which the setting is needed.
+   * @param def      value to return if neither the endpoint nor the global setting is set.
+   * @return setting value.
+   */
+  public static long getLong(String key, ESISyncEndpoint endpoint, long def) {
+    return parseLong(lookup(endpointKeys(key, endpoint)), def);
+  }
+
+  /**
+   * Retrieve a boolean setting which may be specialized for an endpoint by appending "." and the endpoint name.
+   *
+   * @param key      setting key.
+   * @param endpoint endpoint for which the setting is needed.
+   * @param def      value to return if neither the endpoint nor the global setting is set.
+   * @return setting value.
+   */
+  public static boolean getBoolean(String key, ESISyncEndpoint endpoint, boolean def) {
+    String value = lookup(endpointKeys(key, endpoint));
+    return value == null ? def : Boolean.valueOf(value.trim());
+  }
+
+  /**
+   * Retrieve an integer setting for an account.
+   *
+   * @param account account for which the setting is needed.  May be null, in which case def is returned.
+   * @param key     account scoped setting key.
+   * @param def     value to return if the setting is not set for the account.
+   * @return setting value.
+   */
+  public static int getInt(SynchronizedEveAccount account, String key, int def) {
+    if (account == null) return def;
+    Integer value = snapshot().lookup(account, key);
+    return value == null ? def : value;
+  }
+
+}
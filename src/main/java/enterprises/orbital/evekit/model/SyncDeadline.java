@@ -0,0 +1,70 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+
+/**
+ * Deadline for a single synchronization.  Synchronizers check the deadline before each ESI call so that a long
+ * crawl stops once the synchronization has run for its maximum delay (see
+ * {@link ESIAccountSynchronizationHandler#maxDelay()}), rather than continuing to hold a thread and rate budget.
+ * A deadline may also be cancelled, e.g. on shutdown, in which case it expires immediately.
+ * <p>
+ * Times are measured with {@link OrbitalProperties#getCurrentTime()}, the same clock used for tracker start times.
+ */
+public class SyncDeadline {
+
+  /**
+   * A deadline which never expires unless cancelled.
+   *
+   * @return a new deadline.
+   */
+  public static SyncDeadline none() {
+    return new SyncDeadline(Long.MAX_VALUE);
+  }
+
+  private final long expiresAt;
+  private volatile boolean cancelled = false;
+
+  /**
+   * Create a deadline.
+   *
+   * @param expiresAt time after which the deadline has expired.
+   */
+  public SyncDeadline(long expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  /**
+   * Expire this deadline immediately.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * Check whether this deadline has expired or been cancelled.
+   *
+   * @return true if work should stop.
+   */
+  public boolean expired() {
+    return cancelled || OrbitalProperties.getCurrentTime() >= expiresAt;
+  }
+
+  /**
+   * Throw if this deadline has expired or been cancelled.
+   *
+   * @throws SyncDeadlineExceededException if work should stop.
+   */
+  public void check() throws SyncDeadlineExceededException {
+    if (expired()) throw new SyncDeadlineExceededException(cancelled ? "Synchronization cancelled" :
+                                                               "Synchronization deadline passed at " + expiresAt);
+  }
+
+}
@@ -0,0 +1,14 @@
+package enterprises.orbital.evekit.model;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a synchronization stops because its {@link SyncDeadline} has expired or been cancelled.  This is an
+ * IOException so that it passes through ESI fetch code unchanged.  Code which catches IOException to skip a single
+ * failed item should check the deadline outside of the try block.
+ */
+public class SyncDeadlineExceededException extends IOException {
+  public SyncDeadlineExceededException(String message) {
+    super(message);
+  }
+}
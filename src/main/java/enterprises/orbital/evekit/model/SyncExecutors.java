@@ -0,0 +1,86 @@
+package enterprises.orbital.evekit.model;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Factory for the executors which run synchronizers and their page retrievals.  Synchronizers spend nearly all
+ * of their time blocked on ESI calls and database transactions.  On a JVM with virtual threads, enabling virtual
+ * thread mode gives each task its own virtual thread, so that thousands of synchronizations can share a handful
+ * of carrier threads.  Otherwise, tasks run on a fixed pool of daemon platform threads.
+ * <p>
+ * Virtual threads are located by reflection so that this code still builds and runs on older JVMs, where virtual
+ * thread mode is silently ignored.  Code on the synchronization path avoids holding monitors while blocking so
+ * that virtual threads are not pinned to their carriers.
+ * <p>
+ * {@link ESIAccountClientProvider} implementations should normally create their scheduler with
+ * {@link #newScheduler(String, int)}.
+ */
+public class SyncExecutors {
+  private static final Logger log = Logger.getLogger(SyncExecutors.class.getName());
+
+  // Run synchronization tasks on virtual threads, if the JVM supports them
+  private static final String PROP_VIRTUAL_THREADS = "enterprises.orbital.evekit.sync_mgr.virtual_threads";
+  private static final boolean DEF_VIRTUAL_THREADS = false;
+
+  // Executors.newVirtualThreadPerTaskExecutor, or null if this JVM does not support virtual threads
+  private static final Method VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+
+  // Singleton
+  private SyncExecutors() {}
+
+  private static Method findVirtualExecutorFactory() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Check whether this JVM supports virtual threads.
+   *
+   * @return true if virtual threads are supported.
+   */
+  public static boolean virtualThreadsSupported() {
+    return VIRTUAL_EXECUTOR_FACTORY != null;
+  }
+
+  /**
+   * Check whether new executors will run tasks on virtual threads.
+   *
+   * @return true if virtual thread mode is enabled and supported.
+   */
+  public static boolean useVirtualThreads() {
+    return virtualThreadsSupported() && SyncConfig.getBoolean(PROP_VIRTUAL_THREADS, DEF_VIRTUAL_THREADS);
+  }
+
+  /**
+   * Create an executor for synchronization tasks.  In virtual thread mode, every task runs on a new virtual
+   * thread and the platform thread count is ignored.  Otherwise, tasks run on a fixed pool of daemon threads.
+   *
+   * @param name            prefix for the names of platform threads.
+   * @param platformThreads number of platform threads to use when not in virtual thread mode.
+   * @return a new executor.  The caller is responsible for shutting it down.
+   */
+  public static ExecutorService newScheduler(String name, int platformThreads) {
+    if (useVirtualThreads()) {
+      try {
+        return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+      } catch (ReflectiveOperationException e) {
+        log.log(Level.WARNING, "Failed to create virtual thread executor, using platform threads", e);
+      }
+    }
+    AtomicInteger count = new AtomicInteger(0);
+    return Executors.newFixedThreadPool(Math.max(platformThreads, 1), r -> {
+      Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+}
@@ -0,0 +1,256 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of synchronization metrics, keyed by endpoint name.  Metrics are exposed in two ways:
+ * <ul>
+ * <li>Each endpoint is registered as an MXBean under {@link #JMX_DOMAIN}.</li>
+ * <li>All metrics can be rendered in a plain text scrape format (see {@link #render()}), which is
+ * optionally written periodically to a file and/or served from a local port.</li>
+ * </ul>
+ * The file and port exporters are configured with global properties and are disabled by default.
+ */
+public class SyncMetrics {
+  private static final Logger log = Logger.getLogger(SyncMetrics.class.getName());
+
+  public static final String JMX_DOMAIN = "enterprises.orbital.evekit.sync";
+
+  // If set, metrics are written to this file at a fixed interval
+  public static final String PROP_METRICS_FILE = "enterprises.orbital.evekit.sync.metrics_file";
+  public static final String PROP_METRICS_FILE_INTERVAL = "enterprises.orbital.evekit.sync.metrics_file_interval";
+  public static final long DEF_METRICS_FILE_INTERVAL = TimeUnit.MILLISECONDS.convert(1, TimeUnit.MINUTES);
+
+  // If non-zero, metrics are served from this port on the loopback interface
+  public static final String PROP_METRICS_PORT = "enterprises.orbital.evekit.sync.metrics_port";
+  public static final long DEF_METRICS_PORT = 0;
+
+  private static final Map<String, EndpointMetrics> registry = new ConcurrentHashMap<>();
+
+  // Time spent paused on the ESI error limit.  This is not attributable to a single endpoint.
+  private static final LongAdder errorLimitPauseTime = new LongAdder();
+
+  private static final AtomicBoolean exportersStarted = new AtomicBoolean(false);
+
+  // Singleton
+  private SyncMetrics() {}
+
+  /**
+   * Retrieve metrics for an endpoint, creating and registering them if necessary.
+   *
+   * @param endpoint endpoint name.
+   * @return metrics for the given endpoint.
+   */
+  public static EndpointMetrics get(String endpoint) {
+    EndpointMetrics metrics = registry.get(endpoint);
+    if (metrics != null) return metrics;
+    metrics = registry.computeIfAbsent(endpoint, EndpointMetrics::new);
+    register(metrics);
+    startExporters();
+    return metrics;
+  }
+
+  public static EndpointMetrics get(ESISyncEndpoint endpoint) {
+    return get(endpoint.name());
+  }
+
+  public static void errorLimitPause(long time) {
+    errorLimitPauseTime.add(time);
+  }
+
+  private static void register(EndpointMetrics metrics) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName(JMX_DOMAIN + ":type=EndpointMetrics,endpoint=" +
+                                           ObjectName.quote(metrics.getEndpoint()));
+      if (!server.isRegistered(name)) server.registerMBean(metrics, name);
+    } catch (Exception e) {
+      // Lost a registration race or JMX unavailable, metrics are still available via scrape
+      log.log(Level.FINE, "Unable to register metrics for " + metrics.getEndpoint(), e);
+    }
+  }
+
+  /**
+   * Render all metrics in plain text scrape format (compatible with the Prometheus text exposition format).
+   *
+   * @return rendered metrics.
+   */
+  public static String render() {
+    StringBuilder out = new StringBuilder();
+    Map<String, EndpointMetrics> sorted = new TreeMap<>(registry);
+    renderHistogram(out, "evekit_sync_total_ms", sorted, m -> m.totalTime);
+    renderHistogram(out, "evekit_sync_server_ms", sorted, m -> m.serverTime);
+    renderHistogram(out, "evekit_sync_process_ms", sorted, m -> m.processTime);
+    renderHistogram(out, "evekit_sync_commit_ms", sorted, m -> m.commitTime);
+    renderCounter(out, "evekit_sync_esi_calls_total", sorted, EndpointMetrics::getEsiCalls);
+    renderCounter(out, "evekit_sync_pages_total", sorted, EndpointMetrics::getPages);
+    renderCounter(out, "evekit_sync_rows_converted_total", sorted, EndpointMetrics::getRowsConverted);
+    renderCounter(out, "evekit_sync_rows_written_total", sorted, EndpointMetrics::getRowsWritten);
+    renderCounter(out, "evekit_sync_rows_unchanged_total", sorted, EndpointMetrics::getRowsUnchanged);
+    renderCounter(out, "evekit_sync_rows_eol_total", sorted, EndpointMetrics::getRowsEndOfLife);
+    renderCounter(out, "evekit_sync_digest_skips_total", sorted, EndpointMetrics::getDigestSkips);
+    renderCounter(out, "evekit_sync_throttle_blocked_ms_total", sorted, EndpointMetrics::getThrottleBlockedTime);
+    out.append("# TYPE evekit_sync_errors_total counter\n");
+    for (EndpointMetrics next : sorted.values()) {
+      for (Map.Entry<String, Long> err : next.getErrors()
+                                             .entrySet()) {
+        out.append("evekit_sync_errors_total{endpoint=\"")
+           .append(next.getEndpoint())
+           .append("\",type=\"")
+           .append(err.getKey())
+           .append("\"} ")
+           .append(err.getValue())
+           .append('\n');
+      }
+    }
+    out.append("# TYPE evekit_sync_error_limit_pause_ms_total counter\n");
+    out.append("evekit_sync_error_limit_pause_ms_total ")
+       .append(errorLimitPauseTime.sum())
+       .append('\n');
+    return out.toString();
+  }
+
+  private interface HistogramGetter {
+    EndpointMetrics.Histogram get(EndpointMetrics metrics);
+  }
+
+  private interface CounterGetter {
+    long get(EndpointMetrics metrics);
+  }
+
+  private static void renderHistogram(StringBuilder out, String name, Map<String, EndpointMetrics> metrics,
+                                      HistogramGetter getter) {
+    out.append("# TYPE ")
+       .append(name)
+       .append(" histogram\n");
+    for (EndpointMetrics next : metrics.values()) {
+      EndpointMetrics.Histogram hist = getter.get(next);
+      long[] buckets = hist.cumulative();
+      for (int i = 0; i < buckets.length; i++) {
+        String le = i < EndpointMetrics.BOUNDS.length ? String.valueOf(EndpointMetrics.BOUNDS[i]) : "+Inf";
+        out.append(name)
+           .append("_bucket{endpoint=\"")
+           .append(next.getEndpoint())
+           .append("\",le=\"")
+           .append(le)
+           .append("\"} ")
+           .append(buckets[i])
+           .append('\n');
+      }
+      out.append(name)
+         .append("_sum{endpoint=\"")
+         .append(next.getEndpoint())
+         .append("\"} ")
+         .append(hist.getSum())
+         .append('\n');
+      out.append(name)
+         .append("_count{endpoint=\"")
+         .append(next.getEndpoint())
+         .append("\"} ")
+         .append(hist.getCount())
+         .append('\n');
+    }
+  }
+
+  private static void renderCounter(StringBuilder out, String name, Map<String, EndpointMetrics> metrics,
+                                    CounterGetter getter) {
+    out.append("# TYPE ")
+       .append(name)
+       .append(" counter\n");
+    for (EndpointMetrics next : metrics.values()) {
+      out.append(name)
+         .append("{endpoint=\"")
+         .append(next.getEndpoint())
+         .append("\"} ")
+         .append(getter.get(next))
+         .append('\n');
+    }
+  }
+
+  // Start configured exporters.  Only the first call has any effect.
+  private static void startExporters() {
+    if (!exportersStarted.compareAndSet(false, true)) return;
+    try {
+      String file = OrbitalProperties.getGlobalProperty(PROP_METRICS_FILE);
+      if (file != null && !file.isEmpty()) {
+        long interval = OrbitalProperties.getLongGlobalProperty(PROP_METRICS_FILE_INTERVAL,
+                                                                DEF_METRICS_FILE_INTERVAL);
+        ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+          Thread t = new Thread(r, "sync-metrics-writer");
+          t.setDaemon(true);
+          return t;
+        });
+        writer.scheduleAtFixedRate(() -> writeFile(Paths.get(file)), interval, interval, TimeUnit.MILLISECONDS);
+      }
+      int port = (int) OrbitalProperties.getLongGlobalProperty(PROP_METRICS_PORT, DEF_METRICS_PORT);
+      if (port > 0) {
+        ServerSocket socket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread server = new Thread(() -> serve(socket), "sync-metrics-server");
+        server.setDaemon(true);
+        server.start();
+      }
+    } catch (Exception e) {
+      log.log(Level.WARNING, "Unable to start metrics exporters", e);
+    }
+  }
+
+  // Write metrics to a temporary file, then move into place so readers never see a partial file.
+  private static void writeFile(Path target) {
+    try {
+      Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+      Files.write(tmp, render().getBytes(StandardCharsets.UTF_8));
+      Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (Exception e) {
+      log.log(Level.WARNING, "Unable to write metrics to " + target, e);
+    }
+  }
+
+  // Minimal HTTP responder.  Every request receives the current metrics.
+  private static void serve(ServerSocket socket) {
+    while (!socket.isClosed()) {
+      try (Socket client = socket.accept()) {
+        client.setSoTimeout(5000);
+        InputStream in = client.getInputStream();
+        // Consume request headers up to the first blank line
+        int state = 0, next;
+        while (state < 4 && (next = in.read()) != -1) {
+          state = (next == '\r' && state % 2 == 0) || (next == '\n' && state % 2 == 1) ? state + 1 : 0;
+        }
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        OutputStream out = client.getOutputStream();
+        out.write(("HTTP/1.0 200 OK\r\nContent-Type: text/plain; version=0.0.4\r\nContent-Length: " + body.length +
+            "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(body);
+        out.flush();
+      } catch (IOException e) {
+        log.log(Level.FINE, "Error serving metrics request", e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,70 @@
+package enterprises.orbital.evekit.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free token bucket.  The bucket refills at a fixed rate and holds at most one second of permits.
+ * Rather than blocking, callers reserve a permit and are told how long to wait before using it.  This
+ * allows a caller to reserve permits from several buckets and then wait once for the latest of them.
+ * <p>
+ * The implementation tracks the "theoretical arrival time" of the next permit (the generic cell rate
+ * algorithm), so each reservation is a single compare-and-set.
+ */
+public class TokenBucket {
+  private static final long ONE_SECOND = TimeUnit.NANOSECONDS.convert(1, TimeUnit.SECONDS);
+
+  // Time (System.nanoTime) at which the bucket would be completely full
+  private final AtomicLong fullAt;
+
+  // Nanoseconds between permits
+  private volatile long interval;
+
+  /**
+   * Create a bucket which starts full.
+   *
+   * @param rate permits per second, must be positive.
+   */
+  public TokenBucket(int rate) {
+    this.interval = ONE_SECOND / Math.max(rate, 1);
+    this.fullAt = new AtomicLong(System.nanoTime());
+  }
+
+  /**
+   * Change the refill rate of this bucket.
+   *
+   * @param rate permits per second, must be positive.
+   */
+  public void setRate(int rate) {
+    interval = ONE_SECOND / Math.max(rate, 1);
+  }
+
+  /**
+   * Permits per second.
+   *
+   * @return the current refill rate.
+   */
+  public int getRate() {
+    return (int) (ONE_SECOND / interval);
+  }
+
+  /**
+   * Reserve a single permit.  The time may be later than the current time when the permit will not be used
+   * until then, for example because a caller must first wait on another bucket.
+   *
+   * @param now time (as reported by System.nanoTime) at which the permit is needed.
+   * @return nanoseconds after now the caller must wait before using the permit.  Zero if the permit is available
+   * at now.
+   */
+  public long reserve(long now) {
+    long step = interval;
+    // Capacity is one second worth of permits, so we may run up to this far ahead of the refill rate
+    long burst = Math.max(ONE_SECOND - step, 0);
+    while (true) {
+      long current = fullAt.get();
+      long start = Math.max(current, now);
+      if (fullAt.compareAndSet(current, start + step)) return Math.max(start - burst - now, 0);
+    }
+  }
+
+}
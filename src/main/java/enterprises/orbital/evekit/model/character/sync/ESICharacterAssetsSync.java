@@ -1,7 +1,6 @@
 package enterprises.orbital.evekit.model.character.sync;
 
 import enterprises.orbital.base.OrbitalProperties;
-import enterprises.orbital.base.PersistentProperty;
 import enterprises.orbital.eve.esi.client.api.AssetsApi;
 import enterprises.orbital.eve.esi.client.invoker.ApiException;
 import enterprises.orbital.eve.esi.client.invoker.ApiResponse;
@@ -12,9 +11,6 @@ import enterprises.orbital.evekit.account.SynchronizedEveAccount;
 import enterprises.orbital.evekit.model.*;
 import enterprises.orbital.evekit.model.common.Asset;
 import enterprises.orbital.evekit.model.common.Location;
-import enterprises.orbital.evekit.sde.client.model.InvCategory;
-import enterprises.orbital.evekit.sde.client.model.InvGroup;
-import enterprises.orbital.evekit.sde.client.model.InvType;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.HttpStatus;
 
@@ -45,6 +41,19 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
     return ESISyncEndpoint.CHAR_ASSETS;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, Asset.class, (Asset a) -> a.getItemID(), Asset::getItemID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         Asset.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR));
+    prefetchExisting(time, block, Location.class, (Location l) -> l.getItemID(), Location::getItemID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         Location.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -53,9 +62,11 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
     if (item.getLifeStart() == 0) {
       // Only need to check for existing item if current item is an update
       if (item instanceof Asset)
-        existing = Asset.get(account, time, ((Asset) item).getItemID());
+        existing = getExisting(Asset.class, ((Asset) item).getItemID(),
+                               () -> Asset.get(account, time, ((Asset) item).getItemID()));
       else
-        existing = Location.get(account, time, ((Location) item).getItemID());
+        existing = getExisting(Location.class, ((Location) item).getItemID(),
+                               () -> Location.get(account, time, ((Location) item).getItemID()));
     }
     evolveOrAdd(time, existing, item);
   }
@@ -63,6 +74,7 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
   private void retrieveLocationBatch(AssetsApi apiInstance, List<Long> itemBatch,
                                      List<PostCharactersCharacterIdAssetsLocations200Ok> assetLocations,
                                      List<PostCharactersCharacterIdAssetsNames200Ok> assetNames) throws ApiException, IOException {
+    checkDeadline();
     ESIThrottle.throttle(endpoint().name(), account);
     ApiResponse<List<PostCharactersCharacterIdAssetsLocations200Ok>> nextLocationBatch = apiInstance.postCharactersCharacterIdAssetsLocationsWithHttpInfo(
       (int) account.getEveCharacterID(), itemBatch, null, accessToken());
@@ -81,7 +93,7 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
       ESIAccountClientProvider cp) throws ApiException, IOException {
     AssetData resultData = new AssetData();
     AssetsApi apiInstance = cp.getAssetsApi();
-    Pair<Long, List<GetCharactersCharacterIdAssets200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCharactersCharacterIdAssets200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCharactersCharacterIdAssetsWithHttpInfo(
           (int) account.getEveCharacterID(),
@@ -92,43 +104,24 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
     });
     long expiry = result.getLeft() > 0 ? result.getLeft() : OrbitalProperties.getCurrentTime() + maxDelay();
     resultData.assets = result.getRight();
-    int BATCH_SIZE = PersistentProperty.getIntegerPropertyWithFallback(PROP_LOCATION_BATCH_SIZE,
-                                                                       DEF_LOCATION_BATCH_SIZE);
+    int BATCH_SIZE = endpointSetting(PROP_LOCATION_BATCH_SIZE, DEF_LOCATION_BATCH_SIZE);
     resultData.assetLocations = new ArrayList<>();
     resultData.assetNames = new ArrayList<>();
     for (int i = 0; i < resultData.assets.size(); i += BATCH_SIZE) {
       // Filter assets to containers and ships which are singletons.  These are the only
       // assets for which location or name can currently be retrieved.
+      List<GetCharactersCharacterIdAssets200Ok> assetBatch = resultData.assets.subList(i, Math.min(i + BATCH_SIZE, resultData.assets.size()));
+      BitSet locatable = resolveLocatableTypes(assetBatch.stream()
+                                                             .filter(GetCharactersCharacterIdAssets200Ok::getIsSingleton)
+                                                             .map(GetCharactersCharacterIdAssets200Ok::getTypeId)
+                                                             .collect(Collectors.toSet()));
       List<Long> itemBatch = new ArrayList<>();
-      for (GetCharactersCharacterIdAssets200Ok nextAsset : resultData.assets.subList(i, Math.min(i + BATCH_SIZE, resultData.assets.size()))) {
+      for (GetCharactersCharacterIdAssets200Ok nextAsset : assetBatch) {
         // Asset must be:
         // 1) a singleton
         // 2) a ship (categoryName = "Ship") or a container (groupName ends with "Container")
-        if (!nextAsset.getIsSingleton())
-          continue;
-        try {
-          InvType assetType = getSDECache().getType(nextAsset.getTypeId());
-          if (assetType == null) {
-            log.warning(getContext() + " Asset type can not be resolved for asset type: " + nextAsset.getTypeId());
-            continue;
-          }
-          InvGroup assetGroup = getSDECache().getGroup(assetType.getGroupID());
-          if (assetGroup == null) {
-            log.warning(getContext() + " Asset group can not be resolved for asset type: " + nextAsset.getTypeId());
-            continue;
-          }
-          InvCategory assetCategory = getSDECache().getCategory(assetGroup.getCategoryID());
-          if (assetCategory == null) {
-            log.warning(getContext() + " Asset category can not be resolved for asset type: " + nextAsset.getTypeId());
-            continue;
-          }
-          if (assetCategory.getCategoryName().equals("Ship") ||
-              assetGroup.getGroupName().endsWith("Container"))
-            itemBatch.add(nextAsset.getItemId());
-        } catch (enterprises.orbital.evekit.sde.client.invoker.ApiException e) {
-          log.log(Level.WARNING, getContext() + " SDE Api error while trying to resolve type information, skipping asset: " + nextAsset.getItemId(), e);
-          e.printStackTrace();
-        }
+        if (nextAsset.getIsSingleton() && locatable.get(nextAsset.getTypeId()))
+          itemBatch.add(nextAsset.getItemId());
       }
       if (itemBatch.isEmpty()) continue;
       try {
@@ -176,8 +169,8 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
     Set<Long> seenAssets = new HashSet<>();
     for (GetCharactersCharacterIdAssets200Ok next : data.getData().assets) {
       Asset nextAsset = new Asset(next.getItemId(), next.getLocationId(), next.getLocationType()
-                                                                              .toString(), next.getLocationFlag()
-                                                                                               .toString(),
+                                                                            .toString(), next.getLocationFlag()
+                                                                                             .toString(),
                                   next.getTypeId(), next.getQuantity(), next.getIsSingleton(), null,
                                   nullSafeBoolean(next.getIsBlueprintCopy(), false));
       seenAssets.add(nextAsset.getItemID());
@@ -198,8 +191,8 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
       PostCharactersCharacterIdAssetsLocations200Ok location = locationMap.get(itemID);
       if (name != null && location != null) {
         Location nextLocation = new Location(itemID, name.getName(), location.getPosition()
-                                                                             .getX(), location.getPosition()
-                                                                                              .getY(),
+                                                                           .getX(), location.getPosition()
+                                                                                            .getY(),
                                              location.getPosition()
                                                      .getZ());
         updates.add(nextLocation);
@@ -207,17 +200,18 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
     }
 
     // Check for contracts that no longer exist and schedule for EOL
-    for (Asset existing : retrieveAll(time,
-                                      (long contid, AttributeSelector at) -> Asset.accessQuery(account, contid, 1000,
-                                                                                               false, at, ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR))) {
+    for (Asset existing : iterateAll(time,
+                                     (long contid, AttributeSelector at) -> Asset.accessQuery(account, contid,
+                                                                                              retrieveBatchSize(),
+                                                                                              false, at, ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR))) {
       if (!seenAssets.contains(existing.getItemID())) {
         existing.evolve(null, time);
         updates.add(existing);
@@ -225,15 +219,15 @@ public class ESICharacterAssetsSync extends AbstractESIAccountSync<ESICharacterA
     }
 
     // Check for locations that no longer exist and schedule for EOL
-    for (Location existing : retrieveAll(time,
-                                         (long contid, AttributeSelector at) -> Location.accessQuery(account, contid,
-                                                                                                     1000,
-                                                                                                     false, at,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR))) {
+    for (Location existing : iterateAll(time,
+                                        (long contid, AttributeSelector at) -> Location.accessQuery(account, contid,
+                                                                                                    retrieveBatchSize(),
+                                                                                                    false, at,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR))) {
       if (!seenAssets.contains(existing.getItemID())) {
         existing.evolve(null, time);
         updates.add(existing);
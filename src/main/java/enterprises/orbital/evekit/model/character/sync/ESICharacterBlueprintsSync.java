@@ -28,6 +28,14 @@ public class ESICharacterBlueprintsSync extends AbstractESIAccountSync<List<GetC
     return ESISyncEndpoint.CHAR_BLUEPRINTS;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, Blueprint.class, (Blueprint b) -> b.getItemID(), Blueprint::getItemID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         Blueprint.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -35,7 +43,8 @@ public class ESICharacterBlueprintsSync extends AbstractESIAccountSync<List<GetC
     CachedData existing = null;
     if (item.getLifeStart() == 0) {
       // Only need to check for existing item if current item is an update
-      existing = Blueprint.get(account, time, ((Blueprint) item).getItemID());
+      existing = getExisting(Blueprint.class, ((Blueprint) item).getItemID(),
+                             () -> Blueprint.get(account, time, ((Blueprint) item).getItemID()));
     }
     evolveOrAdd(time, existing, item);
   }
@@ -44,7 +53,7 @@ public class ESICharacterBlueprintsSync extends AbstractESIAccountSync<List<GetC
   protected ESIAccountServerResult<List<GetCharactersCharacterIdBlueprints200Ok>> getServerData(
       ESIAccountClientProvider cp) throws ApiException, IOException {
     CharacterApi apiInstance = cp.getCharacterApi();
-    Pair<Long, List<GetCharactersCharacterIdBlueprints200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCharactersCharacterIdBlueprints200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCharactersCharacterIdBlueprintsWithHttpInfo(
           (int) account.getEveCharacterID(),
@@ -75,18 +84,18 @@ public class ESICharacterBlueprintsSync extends AbstractESIAccountSync<List<GetC
     }
 
     // Check for blueprints that no longer exist and schedule for EOL
-    for (Blueprint existing : retrieveAll(time,
-                                          (long contid, AttributeSelector at) -> Blueprint.accessQuery(account, contid,
-                                                                                                       1000,
-                                                                                                       false, at,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR))) {
+    for (Blueprint existing : iterateAll(time,
+                                         (long contid, AttributeSelector at) -> Blueprint.accessQuery(account, contid,
+                                                                                                      retrieveBatchSize(),
+                                                                                                      false, at,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR))) {
       if (!seenBlueprints.contains(existing.getItemID())) {
         existing.evolve(null, time);
         updates.add(existing);
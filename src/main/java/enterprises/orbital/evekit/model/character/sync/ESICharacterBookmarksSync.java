@@ -53,7 +53,7 @@ public class ESICharacterBookmarksSync extends AbstractESIAccountSync<ESICharact
     BookmarkData data = new BookmarkData();
     BookmarksApi apiInstance = cp.getBookmarksApi();
 
-    Pair<Long, List<GetCharactersCharacterIdBookmarksFolders200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCharactersCharacterIdBookmarksFolders200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCharactersCharacterIdBookmarksFoldersWithHttpInfo(
           (int) account.getEveCharacterID(),
@@ -65,7 +65,7 @@ public class ESICharacterBookmarksSync extends AbstractESIAccountSync<ESICharact
     long expiry = result.getLeft() > 0 ? result.getLeft() : OrbitalProperties.getCurrentTime() + maxDelay();
     data.folders = result.getRight();
 
-    Pair<Long, List<GetCharactersCharacterIdBookmarks200Ok>> bkResult = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCharactersCharacterIdBookmarks200Ok>> bkResult = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCharactersCharacterIdBookmarksWithHttpInfo(
           (int) account.getEveCharacterID(),
@@ -142,24 +142,24 @@ public class ESICharacterBookmarksSync extends AbstractESIAccountSync<ESICharact
     }
 
     // Check for bookmarks that no longer exist and schedule for EOL
-    for (Bookmark existing : retrieveAll(time,
-                                         (long contid, AttributeSelector at) -> Bookmark.accessQuery(account, contid,
-                                                                                                     1000,
-                                                                                                     false, at,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR))) {
+    for (Bookmark existing : iterateAll(time,
+                                        (long contid, AttributeSelector at) -> Bookmark.accessQuery(account, contid,
+                                                                                                    retrieveBatchSize(),
+                                                                                                    false, at,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR))) {
       if (!seenBookmarks.contains(Pair.of(existing.getFolderID(), existing.getBookmarkID()))) {
         existing.evolve(null, time);
         updates.add(existing);
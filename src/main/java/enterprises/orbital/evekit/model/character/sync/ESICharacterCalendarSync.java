@@ -64,6 +64,7 @@ public class ESICharacterCalendarSync extends AbstractESIAccountSync<ESICharacte
 
     // Retrieve calendar events
     List<GetCharactersCharacterIdCalendar200Ok> prelimResults = new ArrayList<>();
+    checkDeadline();
     ESIThrottle.throttle(endpoint().name(), account);
     ApiResponse<List<GetCharactersCharacterIdCalendar200Ok>> result = apiInstance.getCharactersCharacterIdCalendarWithHttpInfo(
         (int) account.getEveCharacterID(),
@@ -84,6 +85,7 @@ public class ESICharacterCalendarSync extends AbstractESIAccountSync<ESICharacte
                            .max(Comparator.comparingLong(GetCharactersCharacterIdCalendar200Ok::getEventId))
                            .get()
                            .getEventId();
+      checkDeadline();
       ESIThrottle.throttle(endpoint().name(), account);
       result = apiInstance.getCharactersCharacterIdCalendarWithHttpInfo((int) account.getEveCharacterID(),
                                                                         null,
@@ -94,8 +96,10 @@ public class ESICharacterCalendarSync extends AbstractESIAccountSync<ESICharacte
       expiry = Math.max(expiry, extractExpiry(result, OrbitalProperties.getCurrentTime() + maxDelay()));
     }
 
-    // Retrieve event and attendees details
+    // Retrieve event and attendees details.  Events which are not retrieved are end of lifed, so stop without
+    // storing anything if the deadline passes.
     for (GetCharactersCharacterIdCalendar200Ok next : prelimResults) {
+      checkDeadline();
       try {
         ESIThrottle.throttle(endpoint().name(), account);
         ApiResponse<GetCharactersCharacterIdCalendarEventIdOk> eventResponse = apiInstance.getCharactersCharacterIdCalendarEventIdWithHttpInfo(
@@ -179,7 +183,8 @@ public class ESICharacterCalendarSync extends AbstractESIAccountSync<ESICharacte
 
     // Look for events which no longer exist and end of life
     CachedData.SimpleStreamExceptionHandler handler = new CachedData.SimpleStreamExceptionHandler();
-    CachedData.stream(time, (contid, at) -> UpcomingCalendarEvent.accessQuery(account, contid, 1000, false, at,
+    CachedData.stream(time, (contid, at) -> UpcomingCalendarEvent.accessQuery(account, contid, retrieveBatchSize(),
+                                                                              false, at,
                                                                               AttributeSelector.any(),
                                                                               AttributeSelector.any(),
                                                                               AttributeSelector.any(),
@@ -203,7 +208,8 @@ public class ESICharacterCalendarSync extends AbstractESIAccountSync<ESICharacte
 
     // Look for attendees which no longer exist and end of life
     handler = new CachedData.SimpleStreamExceptionHandler();
-    CachedData.stream(time, (contid, at) -> CalendarEventAttendee.accessQuery(account, contid, 1000, false, at,
+    CachedData.stream(time, (contid, at) -> CalendarEventAttendee.accessQuery(account, contid, retrieveBatchSize(),
+                                                                              false, at,
                                                                               AttributeSelector.any(),
                                                                               AttributeSelector.any(),
                                                                               AttributeSelector.any()), true, handler)
@@ -44,6 +44,22 @@ public class ESICharacterContractsSync extends AbstractESIAccountSync<ESICharact
     return ESISyncEndpoint.CHAR_CONTRACTS;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, Contract.class, (Contract c) -> c.getContractID(), Contract::getContractID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         Contract.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR));
+    prefetchExisting(time, block, ContractItem.class, (ContractItem c) -> Pair.of(c.getContractID(), c.getRecordID()),
+                     ContractItem::getContractID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         ContractItem.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @SuppressWarnings("Duplicates")
   @Override
   protected void commit(long time,
@@ -53,9 +69,13 @@ public class ESICharacterContractsSync extends AbstractESIAccountSync<ESICharact
     if (item.getLifeStart() == 0) {
       // Only need to check for existing item if current item is an update
       if (item instanceof Contract)
-        existing = Contract.get(account, time, ((Contract) item).getContractID());
+        existing = getExisting(Contract.class, ((Contract) item).getContractID(),
+                               () -> Contract.get(account, time, ((Contract) item).getContractID()));
       else if (item instanceof ContractItem)
-        existing = ContractItem.get(account, time, ((ContractItem) item).getContractID(), ((ContractItem) item).getRecordID());
+        existing = getExisting(ContractItem.class,
+                               Pair.of(((ContractItem) item).getContractID(), ((ContractItem) item).getRecordID()),
+                               () -> ContractItem.get(account, time, ((ContractItem) item).getContractID(),
+                                                      ((ContractItem) item).getRecordID()));
       else
         existing = ContractBid.get(account, time, ((ContractBid) item).getContractID(), ((ContractBid) item).getBidID());
     }
@@ -69,7 +89,7 @@ public class ESICharacterContractsSync extends AbstractESIAccountSync<ESICharact
     ContractData resultData = new ContractData();
     ContractsApi apiInstance = cp.getContractsApi();
     // Retrieve contracts info
-    Pair<Long, List<GetCharactersCharacterIdContracts200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCharactersCharacterIdContracts200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCharactersCharacterIdContractsWithHttpInfo(
           (int) account.getEveCharacterID(),
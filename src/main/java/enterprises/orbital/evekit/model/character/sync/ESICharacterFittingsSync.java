@@ -10,12 +10,10 @@ import enterprises.orbital.evekit.account.SynchronizedEveAccount;
 import enterprises.orbital.evekit.model.*;
 import enterprises.orbital.evekit.model.character.Fitting;
 import enterprises.orbital.evekit.model.character.FittingItem;
-import org.apache.commons.lang3.tuple.Triple;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class ESICharacterFittingsSync extends AbstractESIAccountSync<List<GetCharactersCharacterIdFittings200Ok>> {
   protected static final Logger log = Logger.getLogger(ESICharacterFittingsSync.class.getName());
@@ -64,81 +62,57 @@ public class ESICharacterFittingsSync extends AbstractESIAccountSync<List<GetCha
                                    ESIAccountServerResult<List<GetCharactersCharacterIdFittings200Ok>> data,
                                    List<CachedData> updates) throws IOException {
 
-    Map<Integer, Fitting> existingFittingMap = CachedData.retrieveAll(time,
-                                                                      (contid, at) -> Fitting.accessQuery(account,
-                                                                                                          contid, 1000,
-                                                                                                          false, at,
-                                                                                                          AttributeSelector.any(),
-                                                                                                          AttributeSelector.any(),
-                                                                                                          AttributeSelector.any(),
-                                                                                                          AttributeSelector.any()))
-                                                         .stream()
-                                                         .map(x -> new AbstractMap.SimpleEntry<>(x.getFittingID(), x))
-                                                         .collect(Collectors.toMap(AbstractMap.SimpleEntry::getKey,
-                                                                                   AbstractMap.SimpleEntry::getValue));
-
-    Map<Triple<Integer, Integer, Integer>, FittingItem> existingItemMap = CachedData.retrieveAll(time,
-                                                                                                 (contid, at) -> FittingItem.accessQuery(
-                                                                                                     account,
-                                                                                                     contid, 1000,
-                                                                                                     false, at,
-                                                                                                     AttributeSelector.any(),
-                                                                                                     AttributeSelector.any(),
-                                                                                                     AttributeSelector.any(),
-                                                                                                     AttributeSelector.any()))
-                                                                                    .stream()
-                                                                                    .map(
-                                                                                        x -> new AbstractMap.SimpleEntry<>(
-                                                                                            Triple.of(x.getFittingID(),
-                                                                                                      x.getTypeID(),
-                                                                                                      x.getFlag()),
-                                                                                            x))
-                                                                                    .collect(Collectors.toMap(
-                                                                                        AbstractMap.SimpleEntry::getKey,
-                                                                                        AbstractMap.SimpleEntry::getValue));
-
-    Set<Integer> seenFittings = new HashSet<>();
-    Set<Triple<Integer, Integer, Integer>> seenItems = new HashSet<>();
-
+    List<Fitting> fittings = new ArrayList<>();
+    List<FittingItem> items = new ArrayList<>();
     for (GetCharactersCharacterIdFittings200Ok next : data.getData()) {
-      Fitting nextFitting = new Fitting(next.getFittingId(),
-                                        next.getName(),
-                                        next.getDescription(),
-                                        next.getShipTypeId());
-      // Only update if there is a change to reduce DB contention
-      if (!existingFittingMap.containsKey(nextFitting.getFittingID()) ||
-          !nextFitting.equivalent(existingFittingMap.get(nextFitting.getFittingID())))
-        updates.add(nextFitting);
-      seenFittings.add(next.getFittingId());
-
+      fittings.add(new Fitting(next.getFittingId(),
+                               next.getName(),
+                               next.getDescription(),
+                               next.getShipTypeId()));
       for (GetCharactersCharacterIdFittingsItem item : next.getItems()) {
-        FittingItem nextItem = new FittingItem(next.getFittingId(),
-                                               item.getTypeId(),
-                                               item.getFlag(),
-                                               item.getQuantity());
-        // Only update if there is a change to reduce DB contention
-        if (!existingItemMap.containsKey(Triple.of(nextItem.getFittingID(), nextItem.getTypeID(), nextItem.getFlag())) ||
-            !nextItem.equivalent(existingItemMap.get(Triple.of(nextItem.getFittingID(), nextItem.getTypeID(), nextItem.getFlag()))))
-          updates.add(nextItem);
-        seenItems.add(Triple.of(next.getFittingId(), item.getTypeId(), item.getFlag()));
+        items.add(new FittingItem(next.getFittingId(),
+                                  item.getTypeId(),
+                                  item.getFlag(),
+                                  item.getQuantity()));
       }
     }
 
-    // Check for deleted fittings
-    for (Fitting stored : existingFittingMap.values()) {
-      if (!seenFittings.contains(stored.getFittingID())) {
-        stored.evolve(null, time);
-        updates.add(stored);
-      }
-    }
-
-    // Check for deleted items
-    for (FittingItem stored : existingItemMap.values()) {
-      if (!seenItems.contains(Triple.of(stored.getFittingID(), stored.getTypeID(), stored.getFlag()))) {
-        stored.evolve(null, time);
-        updates.add(stored);
-      }
-    }
+    // Only update if there is a change to reduce DB contention.  Deleted fittings and items are end of lifed.
+    KeyedReconciler.reconcile(fittings,
+                              iterateAll(time,
+                                         (contid, at) -> Fitting.accessQuery(account,
+                                                                             contid,
+                                                                             retrieveBatchSize(),
+                                                                             false, at,
+                                                                             AttributeSelector.any(),
+                                                                             AttributeSelector.any(),
+                                                                             AttributeSelector.any(),
+                                                                             AttributeSelector.any())),
+                              Fitting::getFittingID)
+                   .apply(time, updates);
+
+    KeyedReconciler.reconcile(items,
+                              iterateAll(time,
+                                         (contid, at) -> FittingItem.accessQuery(
+                                             account,
+                                             contid, retrieveBatchSize(),
+                                             false, at,
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any())),
+                              new KeyedReconciler.WideKey<FittingItem>() {
+                                @Override
+                                public long high(FittingItem value) {
+                                  return value.getFittingID();
+                                }
+
+                                @Override
+                                public long low(FittingItem value) {
+                                  return KeyedReconciler.pack(value.getTypeID(), value.getFlag());
+                                }
+                              })
+                   .apply(time, updates);
 
   }
 
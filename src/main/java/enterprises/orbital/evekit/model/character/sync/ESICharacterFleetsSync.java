@@ -9,6 +9,7 @@ import enterprises.orbital.evekit.account.SynchronizedEveAccount;
 import enterprises.orbital.evekit.model.*;
 import enterprises.orbital.evekit.model.character.*;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
 import org.apache.http.HttpStatus;
 
 import java.io.IOException;
@@ -38,6 +39,16 @@ public class ESICharacterFleetsSync extends AbstractESIAccountSync<ESICharacterF
     return ESISyncEndpoint.CHAR_FLEETS;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, FleetMember.class, (FleetMember m) -> Pair.of(m.getFleetID(), m.getCharacterID()),
+                     FleetMember::getFleetID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         FleetMember.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @SuppressWarnings("Duplicates")
   @Override
   protected void commit(long time,
@@ -59,8 +70,10 @@ public class ESICharacterFleetsSync extends AbstractESIAccountSync<ESICharacterF
     else if (item instanceof FleetInfo && item.getLifeStart() == 0)
       existing = FleetInfo.get(account, time, ((FleetInfo) item).getFleetID());
     else if (item instanceof FleetMember && item.getLifeStart() == 0)
-      existing = FleetMember.get(account, time, ((FleetMember) item).getFleetID(),
-                                 ((FleetMember) item).getCharacterID());
+      existing = getExisting(FleetMember.class,
+                             Pair.of(((FleetMember) item).getFleetID(), ((FleetMember) item).getCharacterID()),
+                             () -> FleetMember.get(account, time, ((FleetMember) item).getFleetID(),
+                                                   ((FleetMember) item).getCharacterID()));
     else if (item instanceof FleetWing && item.getLifeStart() == 0)
       existing = FleetWing.get(account, time, ((FleetWing) item).getFleetID(), ((FleetWing) item).getWingID());
     else if (item instanceof FleetSquad && item.getLifeStart() == 0)
@@ -226,21 +239,22 @@ public class ESICharacterFleetsSync extends AbstractESIAccountSync<ESICharacterF
 
       // Evolve any members which have dropped out of the current fleet
       final long fleetID = currentFleet;
-      for (FleetMember f : CachedData.retrieveAll(time,
-                                                  (contid, at) -> FleetMember.accessQuery(account, contid, 1000, false,
-                                                                                          at,
-                                                                                          AttributeSelector.values(
-                                                                                              fleetID),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any(),
-                                                                                          AttributeSelector.any()))) {
+      for (FleetMember f : iterateAll(time,
+                                      (contid, at) -> FleetMember.accessQuery(account, contid, retrieveBatchSize(),
+                                                                              false,
+                                                                              at,
+                                                                              AttributeSelector.values(
+                                                                                  fleetID),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any(),
+                                                                              AttributeSelector.any()))) {
         if (!seenMembers.contains(f.getCharacterID())) {
           f.evolve(null, time);
           updates.add(f);
@@ -248,12 +262,12 @@ public class ESICharacterFleetsSync extends AbstractESIAccountSync<ESICharacterF
       }
 
       // Evolve any wings which have dropped out of the current fleet
-      for (FleetWing f : CachedData.retrieveAll(time,
-                                                (contid, at) -> FleetWing.accessQuery(account, contid, 1000, false,
-                                                                                      at,
-                                                                                      AttributeSelector.values(fleetID),
-                                                                                      AttributeSelector.any(),
-                                                                                      AttributeSelector.any()))) {
+      for (FleetWing f : iterateAll(time,
+                                    (contid, at) -> FleetWing.accessQuery(account, contid, retrieveBatchSize(), false,
+                                                                          at,
+                                                                          AttributeSelector.values(fleetID),
+                                                                          AttributeSelector.any(),
+                                                                          AttributeSelector.any()))) {
         if (!seenWings.contains(f.getWingID())) {
           f.evolve(null, time);
           updates.add(f);
@@ -261,86 +275,114 @@ public class ESICharacterFleetsSync extends AbstractESIAccountSync<ESICharacterF
       }
 
       // Evolve any squads which have dropped out of the current fleet
-      for (FleetSquad f : CachedData.retrieveAll(time,
-                                                 (contid, at) -> FleetSquad.accessQuery(account, contid, 1000, false,
-                                                                                        at,
-                                                                                        AttributeSelector.values(
-                                                                                            fleetID),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any()))) {
+      for (FleetSquad f : iterateAll(time,
+                                     (contid, at) -> FleetSquad.accessQuery(account, contid, retrieveBatchSize(), false,
+                                                                            at,
+                                                                            AttributeSelector.values(
+                                                                                fleetID),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any()))) {
         if (!seenSquads.contains(Pair.of(f.getWingID(), f.getSquadID()))) {
           f.evolve(null, time);
           updates.add(f);
         }
       }
 
+      // Drop current fleet data which has not changed to reduce DB contention
+      dropUnchanged(time, updates, CharacterFleet.class, (CharacterFleet f) -> f.getFleetID(),
+                    CharacterFleet::getFleetID,
+                    (long contid, AttributeSelector at, AttributeSelector keys) ->
+                        CharacterFleet.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                            ANY_SELECTOR, ANY_SELECTOR));
+      dropUnchanged(time, updates, FleetInfo.class, (FleetInfo f) -> f.getFleetID(), FleetInfo::getFleetID,
+                    (long contid, AttributeSelector at, AttributeSelector keys) ->
+                        FleetInfo.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                            ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+      dropUnchanged(time, updates, FleetMember.class, (FleetMember m) -> Pair.of(m.getFleetID(), m.getCharacterID()),
+                    FleetMember::getFleetID,
+                    (long contid, AttributeSelector at, AttributeSelector keys) ->
+                        FleetMember.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                            ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                            ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+      dropUnchanged(time, updates, FleetWing.class, (FleetWing w) -> Pair.of(w.getFleetID(), w.getWingID()),
+                    FleetWing::getFleetID,
+                    (long contid, AttributeSelector at, AttributeSelector keys) ->
+                        FleetWing.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                            ANY_SELECTOR));
+      dropUnchanged(time, updates, FleetSquad.class,
+                    (FleetSquad q) -> Triple.of(q.getFleetID(), q.getWingID(), q.getSquadID()),
+                    FleetSquad::getFleetID,
+                    (long contid, AttributeSelector at, AttributeSelector keys) ->
+                        FleetSquad.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                            ANY_SELECTOR, ANY_SELECTOR));
     }
 
     // Evolve any live objects which are not for the current fleet.
-    for (CharacterFleet f : CachedData.retrieveAll(time,
-                                                   (contid, at) -> CharacterFleet.accessQuery(account, contid, 1000,
-                                                                                              false, at,
-                                                                                              AttributeSelector.any(),
-                                                                                              AttributeSelector.any(),
-                                                                                              AttributeSelector.any(),
-                                                                                              AttributeSelector.any()))) {
+    for (CharacterFleet f : iterateAll(time,
+                                       (contid, at) -> CharacterFleet.accessQuery(account, contid, retrieveBatchSize(),
+                                                                                  false, at,
+                                                                                  AttributeSelector.any(),
+                                                                                  AttributeSelector.any(),
+                                                                                  AttributeSelector.any(),
+                                                                                  AttributeSelector.any()))) {
       if (currentFleet != f.getFleetID()) {
         f.evolve(null, time);
         updates.add(f);
       }
     }
 
-    for (FleetInfo f : CachedData.retrieveAll(time,
-                                              (contid, at) -> FleetInfo.accessQuery(account, contid, 1000, false, at,
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any()))) {
+    for (FleetInfo f : iterateAll(time,
+                                  (contid, at) -> FleetInfo.accessQuery(account, contid, retrieveBatchSize(), false, at,
+                                                                        AttributeSelector.any(),
+                                                                        AttributeSelector.any(),
+                                                                        AttributeSelector.any(),
+                                                                        AttributeSelector.any(),
+                                                                        AttributeSelector.any()))) {
       if (currentFleet != f.getFleetID()) {
         f.evolve(null, time);
         updates.add(f);
       }
     }
 
-    for (FleetMember f : CachedData.retrieveAll(time,
-                                                (contid, at) -> FleetMember.accessQuery(account, contid, 1000, false,
-                                                                                        at,
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any(),
-                                                                                        AttributeSelector.any()))) {
+    for (FleetMember f : iterateAll(time,
+                                    (contid, at) -> FleetMember.accessQuery(account, contid, retrieveBatchSize(), false,
+                                                                            at,
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any(),
+                                                                            AttributeSelector.any()))) {
       if (currentFleet != f.getFleetID()) {
         f.evolve(null, time);
         updates.add(f);
       }
     }
 
-    for (FleetWing f : CachedData.retrieveAll(time,
-                                              (contid, at) -> FleetWing.accessQuery(account, contid, 1000, false, at,
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any()))) {
+    for (FleetWing f : iterateAll(time,
+                                  (contid, at) -> FleetWing.accessQuery(account, contid, retrieveBatchSize(), false, at,
+                                                                        AttributeSelector.any(),
+                                                                        AttributeSelector.any(),
+                                                                        AttributeSelector.any()))) {
       if (currentFleet != f.getFleetID()) {
         f.evolve(null, time);
         updates.add(f);
       }
     }
 
-    for (FleetSquad f : CachedData.retrieveAll(time,
-                                               (contid, at) -> FleetSquad.accessQuery(account, contid, 1000, false, at,
-                                                                                      AttributeSelector.any(),
-                                                                                      AttributeSelector.any(),
-                                                                                      AttributeSelector.any(),
-                                                                                      AttributeSelector.any()))) {
+    for (FleetSquad f : iterateAll(time,
+                                   (contid, at) -> FleetSquad.accessQuery(account, contid, retrieveBatchSize(), false,
+                                                                          at,
+                                                                          AttributeSelector.any(),
+                                                                          AttributeSelector.any(),
+                                                                          AttributeSelector.any(),
+                                                                          AttributeSelector.any()))) {
       if (currentFleet != f.getFleetID()) {
         f.evolve(null, time);
         updates.add(f);
@@ -86,6 +86,15 @@ public class ESICharacterIndustryJobSync extends AbstractESIAccountSync<List<Get
                                             nullSafeInteger(next.getSuccessfulRuns(), 0));
       updates.add(nextJob);
     }
+
+    // Drop jobs which have not changed to reduce DB contention
+    dropUnchanged(time, updates, IndustryJob.class, (IndustryJob j) -> j.getJobID(), IndustryJob::getJobID,
+                  (long contid, AttributeSelector at, AttributeSelector keys) ->
+                      IndustryJob.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                          ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                          ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                          ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                          ANY_SELECTOR, ANY_SELECTOR));
   }
 
 
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -71,6 +72,7 @@ public class ESICharacterKillMailSync extends AbstractESIAccountSync<List<GetKil
 
     // Retrieve recent kill mails
     Pair<Long, List<GetCharactersCharacterIdKillmailsRecent200Ok>> result = pagedResultRetriever(
+        cp,
         (page) -> {
           ESIThrottle.throttle(endpoint().name(), account);
           return apiInstance.getCharactersCharacterIdKillmailsRecentWithHttpInfo(
@@ -110,7 +112,7 @@ public class ESICharacterKillMailSync extends AbstractESIAccountSync<List<GetKil
     context = String.valueOf(mailFilter);
 
     // Retrieve detailed kill information
-    List<GetKillmailsKillmailIdKillmailHashOk> data = new ArrayList<>();
+    List<GetCharactersCharacterIdKillmailsRecent200Ok> needed = new ArrayList<>();
     for (GetCharactersCharacterIdKillmailsRecent200Ok next : results) {
       try {
         // Skip if we already have data for this kill.  Since kills are immutable, the
@@ -120,22 +122,40 @@ public class ESICharacterKillMailSync extends AbstractESIAccountSync<List<GetKil
         // Log the error, but go ahead and retrieve the hash if possible
         log.log(Level.WARNING, "Error checking for existing kill, continuing", e);
       }
+      needed.add(next);
+    }
 
-      //noinspection Duplicates
-      try {
-        ESIThrottle.throttle(endpoint().name(), account);
-        ApiResponse<GetKillmailsKillmailIdKillmailHashOk> nextHash = apiInstance.getKillmailsKillmailIdKillmailHashWithHttpInfo(
-            next.getKillmailHash(),
-            next.getKillmailId(),
-            null,
-            null);
-        checkCommonProblems(nextHash);
-        data.add(nextHash.getData());
-      } catch (ApiException | IOException e) {
-        // Log the error, continue to next kill hash
-        log.log(Level.WARNING, "Error retrieving kill information, continuing to next kill", e);
-        if (e instanceof ApiException)
-          ESIThrottle.throttle((ApiException) e);
+    List<GetKillmailsKillmailIdKillmailHashOk> data = new ArrayList<>();
+    if (useAsyncCalls()) {
+      Map<GetCharactersCharacterIdKillmailsRecent200Ok, ApiResponse<GetKillmailsKillmailIdKillmailHashOk>> hashes =
+          callAllAsync(needed,
+                       next -> callback -> apiInstance.getKillmailsKillmailIdKillmailHashAsync(
+                           next.getKillmailHash(),
+                           next.getKillmailId(),
+                           null,
+                           null,
+                           callback),
+                       (next, e) -> log.log(Level.WARNING,
+                                            "Error retrieving kill information, continuing to next kill", e));
+      for (ApiResponse<GetKillmailsKillmailIdKillmailHashOk> nextHash : hashes.values()) data.add(nextHash.getData());
+    } else {
+      for (GetCharactersCharacterIdKillmailsRecent200Ok next : needed) {
+        //noinspection Duplicates
+        try {
+          ESIThrottle.throttle(endpoint().name(), account);
+          ApiResponse<GetKillmailsKillmailIdKillmailHashOk> nextHash = apiInstance.getKillmailsKillmailIdKillmailHashWithHttpInfo(
+              next.getKillmailHash(),
+              next.getKillmailId(),
+              null,
+              null);
+          checkCommonProblems(nextHash);
+          data.add(nextHash.getData());
+        } catch (ApiException | IOException e) {
+          // Log the error, continue to next kill hash
+          log.log(Level.WARNING, "Error retrieving kill information, continuing to next kill", e);
+          if (e instanceof ApiException)
+            ESIThrottle.throttle((ApiException) e);
+        }
       }
     }
 
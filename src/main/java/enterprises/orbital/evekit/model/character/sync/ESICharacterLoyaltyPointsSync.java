@@ -12,7 +12,6 @@ import enterprises.orbital.evekit.model.character.LoyaltyPoints;
 import java.io.IOException;
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class ESICharacterLoyaltyPointsSync extends AbstractESIAccountSync<List<GetCharactersCharacterIdLoyaltyPoints200Ok>> {
   protected static final Logger log = Logger.getLogger(ESICharacterLoyaltyPointsSync.class.getName());
@@ -57,38 +56,23 @@ public class ESICharacterLoyaltyPointsSync extends AbstractESIAccountSync<List<G
                                    ESIAccountServerResult<List<GetCharactersCharacterIdLoyaltyPoints200Ok>> data,
                                    List<CachedData> updates) throws IOException {
 
-    Map<Integer, LoyaltyPoints> existingLPMap = CachedData.retrieveAll(time,
-                                                                       (contid, at) -> LoyaltyPoints.accessQuery(
-                                                                           account,
-                                                                           contid, 1000,
-                                                                           false, at,
-                                                                           AttributeSelector.any(),
-                                                                           AttributeSelector.any()))
-                                                          .stream()
-                                                          .map(x -> new AbstractMap.SimpleEntry<>(x.getCorporationID(),
-                                                                                                  x))
-                                                          .collect(Collectors.toMap(AbstractMap.SimpleEntry::getKey,
-                                                                                    AbstractMap.SimpleEntry::getValue));
-
-    Set<Integer> seenLPs = new HashSet<>();
-
+    List<LoyaltyPoints> points = new ArrayList<>();
     for (GetCharactersCharacterIdLoyaltyPoints200Ok next : data.getData()) {
-      LoyaltyPoints nextLP = new LoyaltyPoints(next.getCorporationId(),
-                                               next.getLoyaltyPoints());
-      // Only update if there is a change to reduce DB contention
-      if (!existingLPMap.containsKey(nextLP.getCorporationID()) ||
-          !nextLP.equivalent(existingLPMap.get(nextLP.getCorporationID())))
-        updates.add(nextLP);
-      seenLPs.add(next.getCorporationId());
+      points.add(new LoyaltyPoints(next.getCorporationId(),
+                                   next.getLoyaltyPoints()));
     }
 
-    // Check for deleted LPs
-    for (LoyaltyPoints stored : existingLPMap.values()) {
-      if (!seenLPs.contains(stored.getCorporationID())) {
-        stored.evolve(null, time);
-        updates.add(stored);
-      }
-    }
+    // Only update if there is a change to reduce DB contention.  Deleted LPs are end of lifed.
+    KeyedReconciler.reconcile(points,
+                              iterateAll(time,
+                                         (contid, at) -> LoyaltyPoints.accessQuery(
+                                             account,
+                                             contid, retrieveBatchSize(),
+                                             false, at,
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any())),
+                              LoyaltyPoints::getCorporationID)
+                   .apply(time, updates);
 
   }
 
@@ -1,7 +1,6 @@
 package enterprises.orbital.evekit.model.character.sync;
 
 import enterprises.orbital.base.OrbitalProperties;
-import enterprises.orbital.base.PersistentProperty;
 import enterprises.orbital.eve.esi.client.api.MailApi;
 import enterprises.orbital.eve.esi.client.invoker.ApiException;
 import enterprises.orbital.eve.esi.client.invoker.ApiResponse;
@@ -74,10 +73,11 @@ public class ESICharacterMailSync extends AbstractESIAccountSync<ESICharacterMai
     MailApi apiInstance = cp.getMailApi();
     MailData resultData = new MailData();
     long mailIdLimit = Integer.MAX_VALUE;
-    final int mailShardCount = PersistentProperty.getIntegerPropertyWithFallback(PROP_MAIL_SHARD_COUNT, DEF_MAIL_SHARD_COUNT);
+    final int mailShardCount = endpointSetting(PROP_MAIL_SHARD_COUNT, DEF_MAIL_SHARD_COUNT);
 
     // Retrieve mail headers
     List<GetCharactersCharacterIdMail200Ok> prelimResults = new ArrayList<>();
+    checkDeadline();
     ESIThrottle.throttle(endpoint().name(), account);
     ApiResponse<List<GetCharactersCharacterIdMail200Ok>> result = apiInstance.getCharactersCharacterIdMailWithHttpInfo(
         (int) account.getEveCharacterID(),
@@ -98,6 +98,7 @@ public class ESICharacterMailSync extends AbstractESIAccountSync<ESICharacterMai
                           .min(Comparator.comparingLong(GetCharactersCharacterIdMail200Ok::getMailId))
                           .get()
                           .getMailId();
+      checkDeadline();
       ESIThrottle.throttle(endpoint().name(), account);
       result = apiInstance.getCharactersCharacterIdMailWithHttpInfo((int) account.getEveCharacterID(),
                                                                     null,
@@ -134,26 +135,55 @@ public class ESICharacterMailSync extends AbstractESIAccountSync<ESICharacterMai
     context = String.valueOf(mailFilter);
 
     // Now retrieve message bodies
-    for (GetCharactersCharacterIdMail200Ok next : prelimResults) {
-      try {
-        ESIThrottle.throttle(endpoint().name(), account);
-        ApiResponse<GetCharactersCharacterIdMailMailIdOk> bodyResponse = apiInstance.getCharactersCharacterIdMailMailIdWithHttpInfo(
-            (int) account.getEveCharacterID(),
-            next.getMailId(),
-            null,
-            null,
-            accessToken());
-        checkCommonProblems(bodyResponse);
-
-        // If we succeed then record this header and body for possible storage
+    if (useAsyncCalls()) {
+      Map<Integer, ApiResponse<GetCharactersCharacterIdMailMailIdOk>> bodies = callAllAsync(
+          prelimResults.stream()
+                       .map(GetCharactersCharacterIdMail200Ok::getMailId)
+                       .collect(Collectors.toList()),
+          mailId -> callback -> apiInstance.getCharactersCharacterIdMailMailIdAsync(
+              (int) account.getEveCharacterID(),
+              mailId,
+              null,
+              null,
+              accessToken(),
+              callback),
+          (mailId, e) -> log.log(Level.FINE, "Skipping failed header " + mailId, e));
+      for (GetCharactersCharacterIdMail200Ok next : prelimResults) {
+        ApiResponse<GetCharactersCharacterIdMailMailIdOk> bodyResponse = bodies.get(next.getMailId());
+        if (bodyResponse == null) continue;
         resultData.headers.add(next);
         resultData.bodies.put(next.getMailId(), bodyResponse.getData());
-      } catch (ApiException | IOException e) {
-        // Skip this header, try to make progress with what is left
-        log.log(Level.FINE, "Skipping failed header " + next, e);
-        if (e instanceof ApiException)
-          ESIThrottle.throttle((ApiException) e);
       }
+    } else {
+      for (GetCharactersCharacterIdMail200Ok next : prelimResults) {
+        if (stopAtDeadline()) break;
+        try {
+          ESIThrottle.throttle(endpoint().name(), account);
+          ApiResponse<GetCharactersCharacterIdMailMailIdOk> bodyResponse = apiInstance.getCharactersCharacterIdMailMailIdWithHttpInfo(
+              (int) account.getEveCharacterID(),
+              next.getMailId(),
+              null,
+              null,
+              accessToken());
+          checkCommonProblems(bodyResponse);
+
+          // If we succeed then record this header and body for possible storage
+          resultData.headers.add(next);
+          resultData.bodies.put(next.getMailId(), bodyResponse.getData());
+        } catch (ApiException | IOException e) {
+          // Skip this header, try to make progress with what is left
+          log.log(Level.FINE, "Skipping failed header " + next, e);
+          if (e instanceof ApiException)
+            ESIThrottle.throttle((ApiException) e);
+        }
+      }
+    }
+
+    // If we stopped early then retry this batch next time, bodies already retrieved will be stored.  Lists
+    // and labels will be retrieved when the batch completes.
+    if (stoppedAtDeadline()) {
+      context = String.valueOf(mailBatch);
+      return new ESIAccountServerResult<>(OrbitalProperties.getCurrentTime() + maxDelay(), resultData);
     }
 
     // Retrieve mailing lists
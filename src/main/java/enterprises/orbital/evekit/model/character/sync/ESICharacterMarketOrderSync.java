@@ -37,6 +37,16 @@ public class ESICharacterMarketOrderSync extends AbstractESIAccountSync<ESIChara
     return ESISyncEndpoint.CHAR_MARKET;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, MarketOrder.class, (MarketOrder o) -> o.getOrderID(), MarketOrder::getOrderID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         MarketOrder.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -44,7 +54,8 @@ public class ESICharacterMarketOrderSync extends AbstractESIAccountSync<ESIChara
     CachedData existing = null;
     if (item.getLifeStart() == 0) {
       // Only need to check for existing item if current item is an update
-      existing = MarketOrder.get(account, time, ((MarketOrder) item).getOrderID());
+      existing = getExisting(MarketOrder.class, ((MarketOrder) item).getOrderID(),
+                             () -> MarketOrder.get(account, time, ((MarketOrder) item).getOrderID()));
     }
     evolveOrAdd(time, existing, item);
   }
@@ -64,7 +75,7 @@ public class ESICharacterMarketOrderSync extends AbstractESIAccountSync<ESIChara
     orders.liveOrders = liveResult.getData();
 
     // Retrieve historical orders
-    Pair<Long, List<GetCharactersCharacterIdOrdersHistory200Ok>> histResult = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCharactersCharacterIdOrdersHistory200Ok>> histResult = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCharactersCharacterIdOrdersHistoryWithHttpInfo(
           (int) account.getEveCharacterID(),
@@ -119,27 +130,28 @@ public class ESICharacterMarketOrderSync extends AbstractESIAccountSync<ESIChara
     Map<Long, MarketOrder> marketHistory = new HashMap<>();
     if (minResult.isPresent()) {
       long minOrderId = minResult.getAsLong();
-      for (MarketOrder hval : retrieveAll(time,
-                                          (contid, at) -> MarketOrder.accessQuery(account, contid, 1000, false, at,
-                                                                                  AttributeSelector.range(minOrderId,
-                                                                                                          Long.MAX_VALUE),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any()))) {
+      for (MarketOrder hval : iterateAll(time,
+                                         (contid, at) -> MarketOrder.accessQuery(account, contid, retrieveBatchSize(),
+                                                                                 false, at,
+                                                                                 AttributeSelector.range(minOrderId,
+                                                                                                         Long.MAX_VALUE),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any()))) {
         marketHistory.put(hval.getOrderID(), hval);
       }
     }
@@ -27,6 +27,11 @@ public class ESICharacterMedalsSync extends AbstractESIAccountSync<List<GetChara
     return ESISyncEndpoint.CHAR_MEDALS;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -8,12 +8,10 @@ import enterprises.orbital.evekit.account.SynchronizedEveAccount;
 import enterprises.orbital.evekit.model.*;
 import enterprises.orbital.evekit.model.character.MiningLedger;
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.commons.lang3.tuple.Triple;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class ESICharacterMiningLedgerSync extends AbstractESIAccountSync<List<GetCharactersCharacterIdMining200Ok>> {
   protected static final Logger log = Logger.getLogger(ESICharacterMiningLedgerSync.class.getName());
@@ -42,6 +40,7 @@ public class ESICharacterMiningLedgerSync extends AbstractESIAccountSync<List<Ge
     IndustryApi apiInstance = cp.getIndustryApi();
 
     Pair<Long, List<GetCharactersCharacterIdMining200Ok>> result = pagedResultRetriever(
+        cp,
         (page) -> {
           ESIThrottle.throttle(endpoint().name(), account);
           return apiInstance.getCharactersCharacterIdMiningWithHttpInfo(
@@ -64,42 +63,42 @@ public class ESICharacterMiningLedgerSync extends AbstractESIAccountSync<List<Ge
                                    ESIAccountServerResult<List<GetCharactersCharacterIdMining200Ok>> data,
                                    List<CachedData> updates) throws IOException {
 
-    Map<Triple<Long, Integer, Integer>, MiningLedger> existingMLMap = CachedData.retrieveAll(time,
-                                                                                             (contid, at) -> MiningLedger.accessQuery(
-                                                                                                 account,
-                                                                                                 contid, 1000,
-                                                                                                 false, at,
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any()))
-                                                                                .stream()
-                                                                                .map(x -> new AbstractMap.SimpleEntry<>(
-                                                                                    Triple.of(x.getDate(),
-                                                                                              x.getSolarSystemID(),
-                                                                                              x.getTypeID()),
-                                                                                    x))
-                                                                                .collect(Collectors.toMap(
-                                                                                    AbstractMap.SimpleEntry::getKey,
-                                                                                    AbstractMap.SimpleEntry::getValue));
-
-    Set<Triple<Long, Integer, Integer>> seenMLs = new HashSet<>();
-
+    List<MiningLedger> ledger = new ArrayList<>();
     for (GetCharactersCharacterIdMining200Ok next : data.getData()) {
-      MiningLedger nextML = new MiningLedger(next.getDate()
-                                                 .toDate()
-                                                 .getTime(),
-                                             next.getSolarSystemId(),
-                                             next.getTypeId(),
-                                             next.getQuantity());
-      Triple<Long, Integer, Integer> key = Triple.of(nextML.getDate(), nextML.getSolarSystemID(), nextML.getTypeID());
-      // Only update if there is a change to reduce DB contention
-      if (!existingMLMap.containsKey(key) ||
-          !nextML.equivalent(existingMLMap.get(key)))
-        updates.add(nextML);
-      seenMLs.add(key);
+      ledger.add(new MiningLedger(next.getDate()
+                                      .toDate()
+                                      .getTime(),
+                                  next.getSolarSystemId(),
+                                  next.getTypeId(),
+                                  next.getQuantity()));
     }
 
+    // Only update if there is a change to reduce DB contention
+    KeyedReconciler.Result<MiningLedger> result = KeyedReconciler.reconcile(
+        ledger,
+        iterateAll(time,
+                   (contid, at) -> MiningLedger.accessQuery(
+                       account,
+                       contid, retrieveBatchSize(),
+                       false, at,
+                       AttributeSelector.any(),
+                       AttributeSelector.any(),
+                       AttributeSelector.any(),
+                       AttributeSelector.any())),
+        new KeyedReconciler.WideKey<MiningLedger>() {
+          @Override
+          public long high(MiningLedger value) {
+            return value.getDate();
+          }
+
+          @Override
+          public long low(MiningLedger value) {
+            return KeyedReconciler.pack(value.getSolarSystemID(), value.getTypeID());
+          }
+        });
+    updates.addAll(result.added);
+    updates.addAll(result.changed);
+
     // No need to check for deleted MLs.  The current day's ML may change, but they should never disappear.
     // They MAY fall off the update list after 30 days.
   }
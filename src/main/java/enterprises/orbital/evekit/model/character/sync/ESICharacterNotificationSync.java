@@ -94,16 +94,16 @@ public class ESICharacterNotificationSync extends AbstractESIAccountSync<ESIChar
     // Get list of current contact notifications.  Since these are immutable, we can
     // skip ones we already know about.
     Set<Integer> seenContactNotifications = new HashSet<>();
-    for (CharacterContactNotification existing : retrieveAll(time,
-                                                             (long contid, AttributeSelector at) -> CharacterContactNotification.accessQuery(
-                                                                 account, contid,
-                                                                 1000,
-                                                                 false, at,
-                                                                 ANY_SELECTOR,
-                                                                 ANY_SELECTOR,
-                                                                 ANY_SELECTOR,
-                                                                 ANY_SELECTOR,
-                                                                 ANY_SELECTOR))) {
+    for (CharacterContactNotification existing : iterateAll(time,
+                                                            (long contid, AttributeSelector at) -> CharacterContactNotification.accessQuery(
+                                                                account, contid,
+                                                                retrieveBatchSize(),
+                                                                false, at,
+                                                                ANY_SELECTOR,
+                                                                ANY_SELECTOR,
+                                                                ANY_SELECTOR,
+                                                                ANY_SELECTOR,
+                                                                ANY_SELECTOR))) {
       seenContactNotifications.add(existing.getNotificationID());
     }
 
@@ -122,18 +122,18 @@ public class ESICharacterNotificationSync extends AbstractESIAccountSync<ESIChar
 
     // Assemble notifications
     Map<Long, CharacterNotification> seenNotifications = new HashMap<>();
-    for (CharacterNotification existing : retrieveAll(time,
-                                                      (long contid, AttributeSelector at) -> CharacterNotification.accessQuery(
-                                                          account, contid,
-                                                          1000,
-                                                          false, at,
-                                                          ANY_SELECTOR,
-                                                          ANY_SELECTOR,
-                                                          ANY_SELECTOR,
-                                                          ANY_SELECTOR,
-                                                          ANY_SELECTOR,
-                                                          ANY_SELECTOR,
-                                                          ANY_SELECTOR))) {
+    for (CharacterNotification existing : iterateAll(time,
+                                                     (long contid, AttributeSelector at) -> CharacterNotification.accessQuery(
+                                                         account, contid,
+                                                         retrieveBatchSize(),
+                                                         false, at,
+                                                         ANY_SELECTOR,
+                                                         ANY_SELECTOR,
+                                                         ANY_SELECTOR,
+                                                         ANY_SELECTOR,
+                                                         ANY_SELECTOR,
+                                                         ANY_SELECTOR,
+                                                         ANY_SELECTOR))) {
       seenNotifications.put(existing.getNotificationID(), existing);
     }
 
@@ -33,6 +33,17 @@ public class ESICharacterPlanetsSync extends AbstractESIAccountSync<ESICharacter
     return ESISyncEndpoint.CHAR_PLANETS;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, PlanetaryPin.class, (PlanetaryPin p) -> Pair.of(p.getPlanetID(), p.getPinID()),
+                     PlanetaryPin::getPlanetID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         PlanetaryPin.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -53,8 +64,10 @@ public class ESICharacterPlanetsSync extends AbstractESIAccountSync<ESICharacter
                                      ((PlanetaryLink) item).getSourcePinID(),
                                      ((PlanetaryLink) item).getDestinationPinID());
       else
-        existing = PlanetaryPin.get(account, time, ((PlanetaryPin) item).getPlanetID(),
-                                    ((PlanetaryPin) item).getPinID());
+        existing = getExisting(PlanetaryPin.class,
+                               Pair.of(((PlanetaryPin) item).getPlanetID(), ((PlanetaryPin) item).getPinID()),
+                               () -> PlanetaryPin.get(account, time, ((PlanetaryPin) item).getPlanetID(),
+                                                      ((PlanetaryPin) item).getPinID()));
     }
     evolveOrAdd(time, existing, item);
   }
@@ -97,15 +110,15 @@ public class ESICharacterPlanetsSync extends AbstractESIAccountSync<ESICharacter
                                    ESIAccountServerResult<PlanetData> data,
                                    List<CachedData> updates) throws IOException {
 
-    // Save seen planets, routes, pins and links
-    Set<Integer> seenPlanets = new HashSet<>(); // planetID
-    Set<Pair<Integer, Long>> seenRoutes = new HashSet<>(); // planetID, routeID
-    Set<Pair<Integer, Long>> seenPins = new HashSet<>(); // planetID, pinID
-    Set<Triple<Integer, Long, Long>> seenLinks = new HashSet<>(); // planetID, srcPinID, destPinID
+    // Collect planets, routes, pins and links
+    List<PlanetaryColony> colonies = new ArrayList<>();
+    List<PlanetaryRoute> routes = new ArrayList<>();
+    List<PlanetaryPin> pins = new ArrayList<>();
+    List<PlanetaryLink> links = new ArrayList<>();
 
     // Create colonies
     for (GetCharactersCharacterIdPlanets200Ok next : data.getData().planets) {
-      updates.add(new PlanetaryColony(
+      colonies.add(new PlanetaryColony(
           next.getPlanetId(),
           next.getSolarSystemId(),
           next.getPlanetType()
@@ -116,7 +129,6 @@ public class ESICharacterPlanetsSync extends AbstractESIAccountSync<ESICharacter
           next.getUpgradeLevel(),
           next.getNumPins()
       ));
-      seenPlanets.add(next.getPlanetId());
       GetCharactersCharacterIdPlanetsPlanetIdOk pInfo = data.getData().planetData.get(next.getPlanetId());
 
       // Create routes
@@ -133,8 +145,7 @@ public class ESICharacterPlanetsSync extends AbstractESIAccountSync<ESICharacter
         for (long waypoint : route.getWaypoints())
           newRoute.getWaypoints()
                   .add(waypoint);
-        updates.add(newRoute);
-        seenRoutes.add(Pair.of(next.getPlanetId(), route.getRouteId()));
+        routes.add(newRoute);
       }
 
       // Create pins
@@ -165,107 +176,114 @@ public class ESICharacterPlanetsSync extends AbstractESIAccountSync<ESICharacter
             newPin.getHeads()
                   .add(new PlanetaryPinHead(head.getHeadId(), head.getLatitude(), head.getLongitude()));
         }
-        updates.add(newPin);
-        seenPins.add(Pair.of(next.getPlanetId(), pin.getPinId()));
+        pins.add(newPin);
       }
 
       // Create links
       for (GetCharactersCharacterIdPlanetsPlanetIdLink link : pInfo.getLinks()) {
-        updates.add(new PlanetaryLink(
+        links.add(new PlanetaryLink(
             next.getPlanetId(),
             link.getSourcePinId(),
             link.getDestinationPinId(),
             link.getLinkLevel()
         ));
-        seenLinks.add(Triple.of(next.getPlanetId(), link.getSourcePinId(), link.getDestinationPinId()));
       }
     }
 
-    // Remove non-existent colonies
-    for (PlanetaryColony existing : retrieveAll(time,
-                                                (long contid, AttributeSelector at) -> PlanetaryColony.accessQuery(
+    // Only changes are added to the update list to reduce DB contention.  Colonies, routes, pins and links
+    // which no longer exist are end of lifed.
+    KeyedReconciler.reconcile(colonies,
+                              iterateAll(time,
+                                         (contid, at) -> PlanetaryColony.accessQuery(
+                                             account, contid,
+                                             retrieveBatchSize(),
+                                             false, at,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR)),
+                              PlanetaryColony::getPlanetID)
+                   .apply(time, updates);
+
+    KeyedReconciler.reconcile(routes,
+                              iterateAll(time,
+                                         (contid, at) -> PlanetaryRoute.accessQuery(
+                                             account, contid,
+                                             retrieveBatchSize(),
+                                             false, at,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR)),
+                              new KeyedReconciler.WideKey<PlanetaryRoute>() {
+                                @Override
+                                public long high(PlanetaryRoute value) {
+                                  return value.getPlanetID();
+                                }
+
+                                @Override
+                                public long low(PlanetaryRoute value) {
+                                  return value.getRouteID();
+                                }
+                              })
+                   .apply(time, updates);
+
+    KeyedReconciler.reconcile(pins,
+                              iterateAll(time,
+                                         (contid, at) -> PlanetaryPin.accessQuery(
+                                             account, contid,
+                                             retrieveBatchSize(),
+                                             false, at,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR,
+                                             ANY_SELECTOR)),
+                              new KeyedReconciler.WideKey<PlanetaryPin>() {
+                                @Override
+                                public long high(PlanetaryPin value) {
+                                  return value.getPlanetID();
+                                }
+
+                                @Override
+                                public long low(PlanetaryPin value) {
+                                  return value.getPinID();
+                                }
+                              })
+                   .apply(time, updates);
+
+    // Planet and both pin IDs don't fit in 128 bits so use object keys
+    KeyedReconciler.reconcileObjects(links,
+                                     iterateAll(time,
+                                                (contid, at) -> PlanetaryLink.accessQuery(
                                                     account, contid,
-                                                    1000,
+                                                    retrieveBatchSize(),
                                                     false, at,
                                                     ANY_SELECTOR,
                                                     ANY_SELECTOR,
                                                     ANY_SELECTOR,
-                                                    ANY_SELECTOR,
-                                                    ANY_SELECTOR,
-                                                    ANY_SELECTOR,
-                                                    ANY_SELECTOR))) {
-      if (!seenPlanets.contains(existing.getPlanetID())) {
-        existing.evolve(null, time);
-        updates.add(existing);
-      }
-    }
-
-    // Remove non-existent routes
-    for (PlanetaryRoute existing : retrieveAll(time,
-                                               (long contid, AttributeSelector at) -> PlanetaryRoute.accessQuery(
-                                                   account, contid,
-                                                   1000,
-                                                   false, at,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR))) {
-      if (!seenRoutes.contains(Pair.of(existing.getPlanetID(), existing.getRouteID()))) {
-        existing.evolve(null, time);
-        updates.add(existing);
-      }
-    }
-
-    // Remove non-existent pins
-    for (PlanetaryPin existing : retrieveAll(time,
-                                             (long contid, AttributeSelector at) -> PlanetaryPin.accessQuery(account,
-                                                                                                             contid,
-                                                                                                             1000,
-                                                                                                             false, at,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR,
-                                                                                                             ANY_SELECTOR))) {
-      if (!seenPins.contains(Pair.of(existing.getPlanetID(), existing.getPinID()))) {
-        existing.evolve(null, time);
-        updates.add(existing);
-      }
-    }
-
-    // Remove non-existent links
-    for (PlanetaryLink existing : retrieveAll(time,
-                                              (long contid, AttributeSelector at) -> PlanetaryLink.accessQuery(account,
-                                                                                                               contid,
-                                                                                                               1000,
-                                                                                                               false,
-                                                                                                               at,
-                                                                                                               ANY_SELECTOR,
-                                                                                                               ANY_SELECTOR,
-                                                                                                               ANY_SELECTOR,
-                                                                                                               ANY_SELECTOR))) {
-      if (!seenLinks.contains(
-          Triple.of(existing.getPlanetID(), existing.getSourcePinID(), existing.getDestinationPinID()))) {
-        existing.evolve(null, time);
-        updates.add(existing);
-      }
-    }
+                                                    ANY_SELECTOR)),
+                                     x -> Triple.of(x.getPlanetID(), x.getSourcePinID(), x.getDestinationPinID()))
+                   .apply(time, updates);
   }
 
 }
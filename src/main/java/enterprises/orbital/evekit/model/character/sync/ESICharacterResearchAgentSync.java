@@ -27,6 +27,11 @@ public class ESICharacterResearchAgentSync extends AbstractESIAccountSync<List<G
     return ESISyncEndpoint.CHAR_AGENTS;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -67,17 +72,17 @@ public class ESICharacterResearchAgentSync extends AbstractESIAccountSync<List<G
     }
 
     // Check for agents that no longer exist and schedule for EOL
-    for (ResearchAgent existing : retrieveAll(time,
-                                              (long contid, AttributeSelector at) -> ResearchAgent.accessQuery(account,
-                                                                                                               contid,
-                                                                                                               1000,
-                                                                                                               false,
-                                                                                                               at,
-                                                                                                               ANY_SELECTOR,
-                                                                                                               ANY_SELECTOR,
-                                                                                                               ANY_SELECTOR,
-                                                                                                               ANY_SELECTOR,
-                                                                                                               ANY_SELECTOR))) {
+    for (ResearchAgent existing : iterateAll(time,
+                                             (long contid, AttributeSelector at) -> ResearchAgent.accessQuery(account,
+                                                                                                              contid,
+                                                                                                              retrieveBatchSize(),
+                                                                                                              false,
+                                                                                                              at,
+                                                                                                              ANY_SELECTOR,
+                                                                                                              ANY_SELECTOR,
+                                                                                                              ANY_SELECTOR,
+                                                                                                              ANY_SELECTOR,
+                                                                                                              ANY_SELECTOR))) {
       if (!seenAgents.contains(existing.getAgentID())) {
         existing.evolve(null, time);
         updates.add(existing);
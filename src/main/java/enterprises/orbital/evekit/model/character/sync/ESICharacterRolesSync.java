@@ -79,11 +79,11 @@ public class ESICharacterRolesSync extends AbstractESIAccountSync<GetCharactersC
     }
 
     // Now check for roles that should be EOL
-    for (CharacterRole existing : CachedData.retrieveAll(time,
-                                                         (contid, at) -> CharacterRole.accessQuery(account, contid,
-                                                                                                   1000, false, at,
-                                                                                                   AttributeSelector.any(),
-                                                                                                   AttributeSelector.any()))) {
+    for (CharacterRole existing : iterateAll(time,
+                                             (contid, at) -> CharacterRole.accessQuery(account, contid,
+                                                                                       retrieveBatchSize(), false, at,
+                                                                                       AttributeSelector.any(),
+                                                                                       AttributeSelector.any()))) {
       if (!seenRoles.contains(Pair.of(existing.getRoleCategory(), existing.getRoleName()))) {
         existing.evolve(null, time);
         updates.add(existing);
@@ -103,25 +103,26 @@ public class ESICharacterSheetCloneSync extends AbstractESIAccountSync<GetCharac
       }
     }
     // Delete any clones or implants no longer present
-    for (JumpClone existing : CachedData.retrieveAll(time,
-                                                     (contid, at) -> JumpClone.accessQuery(account, contid, 1000, false,
-                                                                                           at, AttributeSelector.any(),
-                                                                                           AttributeSelector.any(),
-                                                                                           AttributeSelector.any(),
-                                                                                           AttributeSelector.any()))) {
+    for (JumpClone existing : iterateAll(time,
+                                         (contid, at) -> JumpClone.accessQuery(account, contid, retrieveBatchSize(),
+                                                                               false,
+                                                                               at, AttributeSelector.any(),
+                                                                               AttributeSelector.any(),
+                                                                               AttributeSelector.any(),
+                                                                               AttributeSelector.any()))) {
       if (!seenJumpClones.contains(existing.getJumpCloneID())) {
         // Delete this clone
         existing.evolve(null, time);
         updates.add(existing);
       }
     }
-    for (JumpCloneImplant existing : CachedData.retrieveAll(time, (contid, at) -> JumpCloneImplant.accessQuery(account,
-                                                                                                               contid,
-                                                                                                               1000,
-                                                                                                               false,
-                                                                                                               at,
-                                                                                                               AttributeSelector.any(),
-                                                                                                               AttributeSelector.any()))) {
+    for (JumpCloneImplant existing : iterateAll(time, (contid, at) -> JumpCloneImplant.accessQuery(account,
+                                                                                                   contid,
+                                                                                                   retrieveBatchSize(),
+                                                                                                   false,
+                                                                                                   at,
+                                                                                                   AttributeSelector.any(),
+                                                                                                   AttributeSelector.any()))) {
       if (!seenJumpCloneImplants.contains(Pair.of(existing.getJumpCloneID(), existing.getTypeID()))) {
         // Delete this clone implant
         existing.evolve(null, time);
@@ -26,6 +26,11 @@ public class ESICharacterSheetImplantsSync extends AbstractESIAccountSync<List<I
     return ESISyncEndpoint.CHAR_IMPLANTS;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -59,9 +64,10 @@ public class ESICharacterSheetImplantsSync extends AbstractESIAccountSync<List<I
       seenImplants.add(next);
       updates.add(nextImplant);
     }
-    for (Implant stored : CachedData.retrieveAll(time,
-                                                 (contid, at) -> Implant.accessQuery(account, contid, 1000, false, at,
-                                                                                     AttributeSelector.any()))) {
+    for (Implant stored : iterateAll(time,
+                                     (contid, at) -> Implant.accessQuery(account, contid, retrieveBatchSize(), false,
+                                                                         at,
+                                                                         AttributeSelector.any()))) {
       if (!seenImplants.contains(stored.getTypeID())) {
         stored.evolve(null, time);
         updates.add(stored);
@@ -98,6 +98,7 @@ public class ESICharacterSheetSync extends AbstractESIAccountSync<GetCharactersC
       account.setEveCorporationID(corporationID);
       account.setEveCorporationName(corporationName);
       account = SynchronizedEveAccount.update(account);
+      AccountSnapshotCache.invalidate(account);
     }
   }
 
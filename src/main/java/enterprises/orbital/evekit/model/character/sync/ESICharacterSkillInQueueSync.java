@@ -71,17 +71,18 @@ public class ESICharacterSkillInQueueSync extends AbstractESIAccountSync<List<Ge
                                    nullSafeInteger(next.getTrainingStartSp(), 0)));
     }
     // Delete skills no longer in the queue
-    for (SkillInQueue existing : CachedData.retrieveAll(time,
-                                                        (contid, at) -> SkillInQueue.accessQuery(account, contid, 1000,
-                                                                                                 false, at,
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any(),
-                                                                                                 AttributeSelector.any()))) {
+    for (SkillInQueue existing : iterateAll(time,
+                                            (contid, at) -> SkillInQueue.accessQuery(account, contid,
+                                                                                     retrieveBatchSize(),
+                                                                                     false, at,
+                                                                                     AttributeSelector.any(),
+                                                                                     AttributeSelector.any(),
+                                                                                     AttributeSelector.any(),
+                                                                                     AttributeSelector.any(),
+                                                                                     AttributeSelector.any(),
+                                                                                     AttributeSelector.any(),
+                                                                                     AttributeSelector.any(),
+                                                                                     AttributeSelector.any()))) {
       if (!seenPositions.contains(existing.getQueuePosition())) {
         // Delete this clone
         existing.evolve(null, time);
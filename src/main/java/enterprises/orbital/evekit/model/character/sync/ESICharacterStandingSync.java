@@ -28,6 +28,11 @@ public class ESICharacterStandingSync extends AbstractESIAccountSync<List<GetCha
     return ESISyncEndpoint.CHAR_STANDINGS;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -68,13 +73,13 @@ public class ESICharacterStandingSync extends AbstractESIAccountSync<List<GetCha
     }
 
     // Check for standings that no longer exist and schedule for EOL
-    for (Standing existing : retrieveAll(time,
-                                         (long contid, AttributeSelector at) -> Standing.accessQuery(account, contid,
-                                                                                                     1000,
-                                                                                                     false, at,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR))) {
+    for (Standing existing : iterateAll(time,
+                                        (long contid, AttributeSelector at) -> Standing.accessQuery(account, contid,
+                                                                                                    retrieveBatchSize(),
+                                                                                                    false, at,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR))) {
       if (!seenStandings.contains(Pair.of(existing.getStandingEntity(), existing.getFromID()))) {
         existing.evolve(null, time);
         updates.add(existing);
@@ -27,6 +27,11 @@ public class ESICharacterTitlesSync extends AbstractESIAccountSync<List<GetChara
     return ESISyncEndpoint.CHAR_TITLES;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -57,11 +62,11 @@ public class ESICharacterTitlesSync extends AbstractESIAccountSync<List<GetChara
                                      next.getName()));
       seenTitles.add(nullSafeInteger(next.getTitleId(), 0));
     }
-    for (CharacterTitle stored : CachedData.retrieveAll(time,
-                                                        (contid, at) -> CharacterTitle.accessQuery(account, contid,
-                                                                                                   1000, false, at,
-                                                                                                   AttributeSelector.any(),
-                                                                                                   AttributeSelector.any()))) {
+    for (CharacterTitle stored : iterateAll(time,
+                                            (contid, at) -> CharacterTitle.accessQuery(account, contid,
+                                                                                       retrieveBatchSize(), false, at,
+                                                                                       AttributeSelector.any(),
+                                                                                       AttributeSelector.any()))) {
       if (!seenTitles.contains(stored.getTitleID())) {
         stored.evolve(null, time);
         updates.add(stored);
@@ -55,6 +55,7 @@ public class ESICharacterWalletJournalSync extends AbstractESIAccountSync<List<G
     WalletApi apiInstance = cp.getWalletApi();
 
     Pair<Long, List<GetCharactersCharacterIdWalletJournal200Ok>> result = pagedResultRetriever(
+        cp,
         (page) -> {
           ESIThrottle.throttle(endpoint().name(), account);
           return apiInstance.getCharactersCharacterIdWalletJournalWithHttpInfo(
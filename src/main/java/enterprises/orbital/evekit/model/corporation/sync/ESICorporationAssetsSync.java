@@ -1,7 +1,6 @@
 package enterprises.orbital.evekit.model.corporation.sync;
 
 import enterprises.orbital.base.OrbitalProperties;
-import enterprises.orbital.base.PersistentProperty;
 import enterprises.orbital.eve.esi.client.api.AssetsApi;
 import enterprises.orbital.eve.esi.client.invoker.ApiException;
 import enterprises.orbital.eve.esi.client.invoker.ApiResponse;
@@ -10,9 +9,6 @@ import enterprises.orbital.evekit.account.SynchronizedEveAccount;
 import enterprises.orbital.evekit.model.*;
 import enterprises.orbital.evekit.model.common.Asset;
 import enterprises.orbital.evekit.model.common.Location;
-import enterprises.orbital.evekit.sde.client.model.InvCategory;
-import enterprises.orbital.evekit.sde.client.model.InvGroup;
-import enterprises.orbital.evekit.sde.client.model.InvType;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.HttpStatus;
 
@@ -34,6 +30,9 @@ public class ESICorporationAssetsSync extends AbstractESIAccountSync<ESICorporat
     List<PostCorporationsCorporationIdAssetsNames200Ok> assetNames;
   }
 
+  // Assets seen during the current synchronization
+  private final Set<Long> seenAssets = new HashSet<>();
+
   public ESICorporationAssetsSync(SynchronizedEveAccount account) {
     super(account);
   }
@@ -43,6 +42,19 @@ public class ESICorporationAssetsSync extends AbstractESIAccountSync<ESICorporat
     return ESISyncEndpoint.CORP_ASSETS;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, Asset.class, (Asset a) -> a.getItemID(), Asset::getItemID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         Asset.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR));
+    prefetchExisting(time, block, Location.class, (Location l) -> l.getItemID(), Location::getItemID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         Location.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -51,9 +63,11 @@ public class ESICorporationAssetsSync extends AbstractESIAccountSync<ESICorporat
     if (item.getLifeStart() == 0) {
       // Only need to check for existing item if current item is an update
       if (item instanceof Asset)
-        existing = Asset.get(account, time, ((Asset) item).getItemID());
+        existing = getExisting(Asset.class, ((Asset) item).getItemID(),
+                               () -> Asset.get(account, time, ((Asset) item).getItemID()));
       else
-        existing = Location.get(account, time, ((Location) item).getItemID());
+        existing = getExisting(Location.class, ((Location) item).getItemID(),
+                               () -> Location.get(account, time, ((Location) item).getItemID()));
     }
     evolveOrAdd(time, existing, item);
   }
@@ -61,6 +75,7 @@ public class ESICorporationAssetsSync extends AbstractESIAccountSync<ESICorporat
   private void retrieveLocationBatch(AssetsApi apiInstance, List<Long> itemBatch,
                                      List<PostCorporationsCorporationIdAssetsLocations200Ok> assetLocations,
                                      List<PostCorporationsCorporationIdAssetsNames200Ok> assetNames) throws ApiException, IOException {
+    checkDeadline();
     ESIThrottle.throttle(endpoint().name(), account);
     ApiResponse<List<PostCorporationsCorporationIdAssetsLocations200Ok>> nextLocationBatch = apiInstance.postCorporationsCorporationIdAssetsLocationsWithHttpInfo(
         (int) account.getEveCorporationID(), itemBatch, null, accessToken());
@@ -73,60 +88,27 @@ public class ESICorporationAssetsSync extends AbstractESIAccountSync<ESICorporat
     assetNames.addAll(nextNameBatch.getData());
   }
 
+  // Retrieve locations and names for any locatable assets in the given asset data.
   @SuppressWarnings("Duplicates")
-  @Override
-  protected ESIAccountServerResult<ESICorporationAssetsSync.AssetData> getServerData(
-      ESIAccountClientProvider cp) throws ApiException, IOException {
-    AssetData resultData = new AssetData();
-    AssetsApi apiInstance = cp.getAssetsApi();
-    Pair<Long, List<GetCorporationsCorporationIdAssets200Ok>> result = pagedResultRetriever((page) -> {
-      ESIThrottle.throttle(endpoint().name(), account);
-      return apiInstance.getCorporationsCorporationIdAssetsWithHttpInfo(
-          (int) account.getEveCorporationID(),
-          null,
-          null,
-          page,
-          accessToken());
-    });
-    long expiry = result.getLeft() > 0 ? result.getLeft() : OrbitalProperties.getCurrentTime() + maxDelay();
-    resultData.assets = result.getRight();
-    int BATCH_SIZE = PersistentProperty.getIntegerPropertyWithFallback(PROP_LOCATION_BATCH_SIZE,
-                                                                       DEF_LOCATION_BATCH_SIZE);
+  private void retrieveLocations(AssetsApi apiInstance, AssetData resultData) throws ApiException, IOException {
+    int BATCH_SIZE = endpointSetting(PROP_LOCATION_BATCH_SIZE, DEF_LOCATION_BATCH_SIZE);
     resultData.assetLocations = new ArrayList<>();
     resultData.assetNames = new ArrayList<>();
     for (int i = 0; i < resultData.assets.size(); i += BATCH_SIZE) {
       // Filter assets to containers and ships which are singletons.  These are the only
       // assets for which location or name can currently be retrieved.
+      List<GetCorporationsCorporationIdAssets200Ok> assetBatch = resultData.assets.subList(i, Math.min(i + BATCH_SIZE, resultData.assets.size()));
+      BitSet locatable = resolveLocatableTypes(assetBatch.stream()
+                                                             .filter(GetCorporationsCorporationIdAssets200Ok::getIsSingleton)
+                                                             .map(GetCorporationsCorporationIdAssets200Ok::getTypeId)
+                                                             .collect(Collectors.toSet()));
       List<Long> itemBatch = new ArrayList<>();
-      for (GetCorporationsCorporationIdAssets200Ok nextAsset : resultData.assets.subList(i, Math.min(i + BATCH_SIZE, resultData.assets.size()))) {
+      for (GetCorporationsCorporationIdAssets200Ok nextAsset : assetBatch) {
         // Asset must be:
         // 1) a singleton
         // 2) a ship (categoryName = "Ship") or a container (groupName ends with "Container")
-        if (!nextAsset.getIsSingleton())
-          continue;
-        try {
-          InvType assetType = getSDECache().getType(nextAsset.getTypeId());
-          if (assetType == null) {
-            log.warning(getContext() + " Asset type can not be resolved for asset type: " + nextAsset.getTypeId());
-            continue;
-          }
-          InvGroup assetGroup = getSDECache().getGroup(assetType.getGroupID());
-          if (assetGroup == null) {
-            log.warning(getContext() + " Asset group can not be resolved for asset type: " + nextAsset.getTypeId());
-            continue;
-          }
-          InvCategory assetCategory = getSDECache().getCategory(assetGroup.getCategoryID());
-          if (assetCategory == null) {
-            log.warning(getContext() + " Asset category can not be resolved for asset type: " + nextAsset.getTypeId());
-            continue;
-          }
-          if (assetCategory.getCategoryName().equals("Ship") ||
-              assetGroup.getGroupName().endsWith("Container"))
-            itemBatch.add(nextAsset.getItemId());
-        } catch (enterprises.orbital.evekit.sde.client.invoker.ApiException e) {
-          log.log(Level.WARNING, getContext() + " SDE Api error while trying to resolve type information, skipping asset: " + nextAsset.getItemId(), e);
-          e.printStackTrace();
-        }
+        if (nextAsset.getIsSingleton() && locatable.get(nextAsset.getTypeId()))
+          itemBatch.add(nextAsset.getItemId());
       }
       if (itemBatch.isEmpty()) continue;
       try {
@@ -163,60 +145,122 @@ public class ESICorporationAssetsSync extends AbstractESIAccountSync<ESICorporat
         }
       }
     }
+  }
+
+  @SuppressWarnings("Duplicates")
+  @Override
+  protected ESIAccountServerResult<ESICorporationAssetsSync.AssetData> getServerData(
+      ESIAccountClientProvider cp) throws ApiException, IOException {
+    AssetData resultData = new AssetData();
+    AssetsApi apiInstance = cp.getAssetsApi();
+    Pair<Long, List<GetCorporationsCorporationIdAssets200Ok>> result = pagedResultRetriever(cp, (page) -> {
+      ESIThrottle.throttle(endpoint().name(), account);
+      return apiInstance.getCorporationsCorporationIdAssetsWithHttpInfo(
+          (int) account.getEveCorporationID(),
+          null,
+          null,
+          page,
+          accessToken());
+    });
+    long expiry = result.getLeft() > 0 ? result.getLeft() : OrbitalProperties.getCurrentTime() + maxDelay();
+    resultData.assets = result.getRight();
+    retrieveLocations(apiInstance, resultData);
     return new ESIAccountServerResult<>(expiry, resultData);
   }
 
+  @Override
+  protected boolean supportsStreaming() {
+    return true;
+  }
+
+  @Override
+  protected long streamServerData(ESIAccountClientProvider cp,
+                                  ServerPageConsumer<ESICorporationAssetsSync.AssetData> consumer)
+      throws ApiException, IOException {
+    AssetsApi apiInstance = cp.getAssetsApi();
+    seenAssets.clear();
+    long expiry = pagedResultStreamer((page) -> {
+      ESIThrottle.throttle(endpoint().name(), account);
+      return apiInstance.getCorporationsCorporationIdAssetsWithHttpInfo(
+          (int) account.getEveCorporationID(),
+          null,
+          null,
+          page,
+          accessToken());
+    }, (assets) -> {
+      // Resolve locations for this page only, then hand off for processing
+      AssetData pageData = new AssetData();
+      pageData.assets = assets;
+      retrieveLocations(apiInstance, pageData);
+      consumer.accept(pageData);
+    });
+    return expiry > 0 ? expiry : OrbitalProperties.getCurrentTime() + maxDelay();
+  }
+
   @SuppressWarnings("RedundantThrows")
   @Override
   protected void processServerData(long time, ESIAccountServerResult<ESICorporationAssetsSync.AssetData> data,
                                    List<CachedData> updates) throws IOException {
+    seenAssets.clear();
+    processServerPage(time, data.getData(), updates);
+    processEndOfLife(time, updates);
+  }
+
+  @SuppressWarnings("RedundantThrows")
+  @Override
+  protected void processServerPage(long time, ESICorporationAssetsSync.AssetData page,
+                                   List<CachedData> updates) throws IOException {
     // Add and record seen assets
-    Set<Long> seenAssets = new HashSet<>();
-    for (GetCorporationsCorporationIdAssets200Ok next : data.getData().assets) {
+    Set<Long> pageAssets = new HashSet<>();
+    for (GetCorporationsCorporationIdAssets200Ok next : page.assets) {
       Asset nextAsset = new Asset(next.getItemId(), next.getLocationId(), next.getLocationType()
-                                                                              .toString(), next.getLocationFlag()
-                                                                                               .toString(),
+                                                                            .toString(), next.getLocationFlag()
+                                                                                             .toString(),
                                   next.getTypeId(), next.getQuantity(), next.getIsSingleton(), null,
                                   nullSafeBoolean(next.getIsBlueprintCopy(), false));
-      seenAssets.add(nextAsset.getItemID());
+      pageAssets.add(nextAsset.getItemID());
       updates.add(nextAsset);
     }
 
     // Add and record locations
     Map<Long, PostCorporationsCorporationIdAssetsNames200Ok> nameMap =
-        data.getData().assetNames.stream()
-                                 .collect(Collectors.toMap(PostCorporationsCorporationIdAssetsNames200Ok::getItemId,
-                                                           Function.identity()));
+        page.assetNames.stream()
+                       .collect(Collectors.toMap(PostCorporationsCorporationIdAssetsNames200Ok::getItemId,
+                                                 Function.identity()));
     Map<Long, PostCorporationsCorporationIdAssetsLocations200Ok> locationMap =
-        data.getData().assetLocations.stream()
-                                     .collect(
-                                         Collectors.toMap(PostCorporationsCorporationIdAssetsLocations200Ok::getItemId,
-                                                          Function.identity()));
-    for (long itemID : seenAssets) {
+        page.assetLocations.stream()
+                           .collect(Collectors.toMap(PostCorporationsCorporationIdAssetsLocations200Ok::getItemId,
+                                                     Function.identity()));
+    for (long itemID : pageAssets) {
       PostCorporationsCorporationIdAssetsNames200Ok name = nameMap.get(itemID);
       PostCorporationsCorporationIdAssetsLocations200Ok location = locationMap.get(itemID);
       if (name != null && location != null) {
         Location nextLocation = new Location(itemID, name.getName(), location.getPosition()
-                                                                             .getX(), location.getPosition()
-                                                                                              .getY(),
+                                                                           .getX(), location.getPosition()
+                                                                                            .getY(),
                                              location.getPosition()
                                                      .getZ());
         updates.add(nextLocation);
       }
     }
+    seenAssets.addAll(pageAssets);
+  }
 
+  @Override
+  protected void processEndOfLife(long time, List<CachedData> updates) throws IOException {
     // Check for assets that no longer exist and schedule for EOL
-    for (Asset existing : retrieveAll(time,
-                                      (long contid, AttributeSelector at) -> Asset.accessQuery(account, contid, 1000,
-                                                                                               false, at, ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR,
-                                                                                               ANY_SELECTOR))) {
+    for (Asset existing : iterateAll(time,
+                                     (long contid, AttributeSelector at) -> Asset.accessQuery(account, contid,
+                                                                                              retrieveBatchSize(),
+                                                                                              false, at, ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR,
+                                                                                              ANY_SELECTOR))) {
       if (!seenAssets.contains(existing.getItemID())) {
         existing.evolve(null, time);
         updates.add(existing);
@@ -224,15 +268,15 @@ public class ESICorporationAssetsSync extends AbstractESIAccountSync<ESICorporat
     }
 
     // Check for locations that no longer exist and schedule for EOL
-    for (Location existing : retrieveAll(time,
-                                         (long contid, AttributeSelector at) -> Location.accessQuery(account, contid,
-                                                                                                     1000,
-                                                                                                     false, at,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR))) {
+    for (Location existing : iterateAll(time,
+                                        (long contid, AttributeSelector at) -> Location.accessQuery(account, contid,
+                                                                                                    retrieveBatchSize(),
+                                                                                                    false, at,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR))) {
       if (!seenAssets.contains(existing.getItemID())) {
         existing.evolve(null, time);
         updates.add(existing);
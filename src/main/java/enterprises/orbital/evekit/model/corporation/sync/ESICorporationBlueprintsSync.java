@@ -18,6 +18,9 @@ import java.util.logging.Logger;
 public class ESICorporationBlueprintsSync extends AbstractESIAccountSync<List<GetCorporationsCorporationIdBlueprints200Ok>> {
   protected static final Logger log = Logger.getLogger(ESICorporationBlueprintsSync.class.getName());
 
+  // Blueprints seen during the current synchronization
+  private final Set<Long> seenBlueprints = new HashSet<>();
+
   public ESICorporationBlueprintsSync(SynchronizedEveAccount account) {
     super(account);
   }
@@ -27,6 +30,14 @@ public class ESICorporationBlueprintsSync extends AbstractESIAccountSync<List<Ge
     return ESISyncEndpoint.CORP_BLUEPRINTS;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, Blueprint.class, (Blueprint b) -> b.getItemID(), Blueprint::getItemID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         Blueprint.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -34,7 +45,8 @@ public class ESICorporationBlueprintsSync extends AbstractESIAccountSync<List<Ge
     CachedData existing = null;
     if (item.getLifeStart() == 0) {
       // Only need to check for existing item if current item is an update
-      existing = Blueprint.get(account, time, ((Blueprint) item).getItemID());
+      existing = getExisting(Blueprint.class, ((Blueprint) item).getItemID(),
+                             () -> Blueprint.get(account, time, ((Blueprint) item).getItemID()));
     }
     evolveOrAdd(time, existing, item);
   }
@@ -43,7 +55,7 @@ public class ESICorporationBlueprintsSync extends AbstractESIAccountSync<List<Ge
   protected ESIAccountServerResult<List<GetCorporationsCorporationIdBlueprints200Ok>> getServerData(
       ESIAccountClientProvider cp) throws ApiException, IOException {
     CorporationApi apiInstance = cp.getCorporationApi();
-    Pair<Long, List<GetCorporationsCorporationIdBlueprints200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdBlueprints200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdBlueprintsWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -57,14 +69,46 @@ public class ESICorporationBlueprintsSync extends AbstractESIAccountSync<List<Ge
         result.getRight());
   }
 
+  @Override
+  protected boolean supportsStreaming() {
+    return true;
+  }
+
+  @Override
+  protected long streamServerData(ESIAccountClientProvider cp,
+                                  ServerPageConsumer<List<GetCorporationsCorporationIdBlueprints200Ok>> consumer)
+      throws ApiException, IOException {
+    CorporationApi apiInstance = cp.getCorporationApi();
+    seenBlueprints.clear();
+    long expiry = pagedResultStreamer((page) -> {
+      ESIThrottle.throttle(endpoint().name(), account);
+      return apiInstance.getCorporationsCorporationIdBlueprintsWithHttpInfo(
+          (int) account.getEveCorporationID(),
+          null,
+          null,
+          page,
+          accessToken());
+    }, consumer);
+    return expiry > 0 ? expiry : OrbitalProperties.getCurrentTime() + maxDelay();
+  }
+
   @SuppressWarnings("RedundantThrows")
   @Override
   protected void processServerData(long time,
                                    ESIAccountServerResult<List<GetCorporationsCorporationIdBlueprints200Ok>> data,
                                    List<CachedData> updates) throws IOException {
+    seenBlueprints.clear();
+    processServerPage(time, data.getData(), updates);
+    processEndOfLife(time, updates);
+  }
+
+  @SuppressWarnings("RedundantThrows")
+  @Override
+  protected void processServerPage(long time,
+                                   List<GetCorporationsCorporationIdBlueprints200Ok> page,
+                                   List<CachedData> updates) throws IOException {
     // Add and record seen blueprints
-    Set<Long> seenBlueprints = new HashSet<>();
-    for (GetCorporationsCorporationIdBlueprints200Ok next : data.getData()) {
+    for (GetCorporationsCorporationIdBlueprints200Ok next : page) {
       Blueprint nextBlueprint = new Blueprint(next.getItemId(), next.getLocationId(), next.getLocationFlag()
                                                                                           .toString(), next.getTypeId(),
                                               next.getQuantity(), next.getTimeEfficiency(),
@@ -72,20 +116,23 @@ public class ESICorporationBlueprintsSync extends AbstractESIAccountSync<List<Ge
       seenBlueprints.add(nextBlueprint.getItemID());
       updates.add(nextBlueprint);
     }
+  }
 
+  @Override
+  protected void processEndOfLife(long time, List<CachedData> updates) throws IOException {
     // Check for blueprints that no longer exist and schedule for EOL
-    for (Blueprint existing : retrieveAll(time,
-                                          (long contid, AttributeSelector at) -> Blueprint.accessQuery(account, contid,
-                                                                                                       1000,
-                                                                                                       false, at,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR,
-                                                                                                       ANY_SELECTOR))) {
+    for (Blueprint existing : iterateAll(time,
+                                         (long contid, AttributeSelector at) -> Blueprint.accessQuery(account, contid,
+                                                                                                      retrieveBatchSize(),
+                                                                                                      false, at,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR,
+                                                                                                      ANY_SELECTOR))) {
       if (!seenBlueprints.contains(existing.getItemID())) {
         existing.evolve(null, time);
         updates.add(existing);
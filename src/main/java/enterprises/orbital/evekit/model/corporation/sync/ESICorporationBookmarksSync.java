@@ -53,7 +53,7 @@ public class ESICorporationBookmarksSync extends AbstractESIAccountSync<ESICorpo
     BookmarkData data = new BookmarkData();
     BookmarksApi apiInstance = cp.getBookmarksApi();
 
-    Pair<Long, List<GetCorporationsCorporationIdBookmarksFolders200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdBookmarksFolders200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdBookmarksFoldersWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -65,7 +65,7 @@ public class ESICorporationBookmarksSync extends AbstractESIAccountSync<ESICorpo
     long expiry = result.getLeft() > 0 ? result.getLeft() : OrbitalProperties.getCurrentTime() + maxDelay();
     data.folders = result.getRight();
 
-    Pair<Long, List<GetCorporationsCorporationIdBookmarks200Ok>> bkResult = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdBookmarks200Ok>> bkResult = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdBookmarksWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -143,24 +143,24 @@ public class ESICorporationBookmarksSync extends AbstractESIAccountSync<ESICorpo
     }
 
     // Check for bookmarks that no longer exist and schedule for EOL
-    for (Bookmark existing : retrieveAll(time,
-                                         (long contid, AttributeSelector at) -> Bookmark.accessQuery(account, contid,
-                                                                                                     1000,
-                                                                                                     false, at,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR))) {
+    for (Bookmark existing : iterateAll(time,
+                                        (long contid, AttributeSelector at) -> Bookmark.accessQuery(account, contid,
+                                                                                                    retrieveBatchSize(),
+                                                                                                    false, at,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR))) {
       if (!seenBookmarks.contains(Pair.of(existing.getFolderID(), existing.getBookmarkID()))) {
         existing.evolve(null, time);
         updates.add(existing);
@@ -13,9 +13,9 @@ import enterprises.orbital.evekit.model.common.ContactLabel;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Logger;
 
 public class ESICorporationContactsSync extends AbstractESIAccountSync<ESICorporationContactsSync.ContactData> {
@@ -57,7 +57,7 @@ public class ESICorporationContactsSync extends AbstractESIAccountSync<ESICorpor
     ESICorporationContactsSync.ContactData data = new ESICorporationContactsSync.ContactData();
     ContactsApi apiInstance = cp.getContactsApi();
 
-    Pair<Long, List<GetCorporationsCorporationIdContacts200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdContacts200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdContactsWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -86,61 +86,52 @@ public class ESICorporationContactsSync extends AbstractESIAccountSync<ESICorpor
   protected void processServerData(long time,
                                    ESIAccountServerResult<ContactData> data,
                                    List<CachedData> updates) throws IOException {
-    // Map contacts, then look for non-existent contacts
-    Set<Integer> seenContacts = new HashSet<>();
+    // Map contacts.  Only changes are added to the update list to reduce DB contention.  Contacts which no longer
+    // exist are end of lifed.
+    List<Contact> contacts = new ArrayList<>();
     for (GetCorporationsCorporationIdContacts200Ok next : data.getData().contacts) {
-      seenContacts.add(next.getContactId());
-      updates.add(new Contact("corporation",
-                              next.getContactId(),
-                              next.getStanding(),
-                              next.getContactType()
-                                  .toString(),
-                              nullSafeBoolean(next.getIsWatched(), false),
-                              false,
-                              new HashSet<>(next.getLabelIds())));
+      contacts.add(new Contact("corporation",
+                               next.getContactId(),
+                               next.getStanding(),
+                               next.getContactType()
+                                   .toString(),
+                               nullSafeBoolean(next.getIsWatched(), false),
+                               false,
+                               new HashSet<>(next.getLabelIds())));
     }
-
-    // Check for contacts that no longer exist and schedule for EOL
-    for (Contact existing : retrieveAll(time,
-                                        (long contid, AttributeSelector at) -> Contact.accessQuery(account, contid,
-                                                                                                   1000,
-                                                                                                   false, at,
-                                                                                                   AttributeSelector.values(
-                                                                                                       "corporation"),
-                                                                                                   ANY_SELECTOR,
-                                                                                                   ANY_SELECTOR,
-                                                                                                   ANY_SELECTOR,
-                                                                                                   ANY_SELECTOR,
-                                                                                                   ANY_SELECTOR,
-                                                                                                   ANY_SELECTOR))) {
-      if (!seenContacts.contains(existing.getContactID())) {
-        existing.evolve(null, time);
-        updates.add(existing);
-      }
-    }
-
-    // Map contact labels, then look for non-existent contact labels
-    Set<Long> seenLabels = new HashSet<>();
+    KeyedReconciler.reconcile(contacts,
+                              iterateAll(time,
+                                         (contid, at) -> Contact.accessQuery(account, contid,
+                                                                             retrieveBatchSize(),
+                                                                             false, at,
+                                                                             AttributeSelector.values("corporation"),
+                                                                             ANY_SELECTOR,
+                                                                             ANY_SELECTOR,
+                                                                             ANY_SELECTOR,
+                                                                             ANY_SELECTOR,
+                                                                             ANY_SELECTOR,
+                                                                             ANY_SELECTOR)),
+                              Contact::getContactID)
+                   .apply(time, updates);
+
+    // Map contact labels in the same way
+    List<ContactLabel> labels = new ArrayList<>();
     for (GetCorporationsCorporationIdContactsLabels200Ok next : data.getData().labels) {
-      seenLabels.add(next.getLabelId());
-      updates.add(new ContactLabel("corporation",
-                                   next.getLabelId(),
-                                   next.getLabelName()));
+      labels.add(new ContactLabel("corporation",
+                                  next.getLabelId(),
+                                  next.getLabelName()));
     }
-
-    for (ContactLabel existing : CachedData.retrieveAll(time,
-                                                        (contid, at) -> ContactLabel.accessQuery(account, contid, 1000,
-                                                                                                 false, at,
-                                                                                                 AttributeSelector.values(
-                                                                                                     "corporation"),
-                                                                                                 ANY_SELECTOR,
-                                                                                                 ANY_SELECTOR))) {
-      if (!seenLabels.contains(existing.getLabelID())) {
-        existing.evolve(null, time);
-        updates.add(existing);
-      }
-    }
-
+    KeyedReconciler.reconcile(labels,
+                              iterateAll(time,
+                                         (contid, at) -> ContactLabel.accessQuery(account, contid,
+                                                                                  retrieveBatchSize(),
+                                                                                  false, at,
+                                                                                  AttributeSelector.values(
+                                                                                      "corporation"),
+                                                                                  ANY_SELECTOR,
+                                                                                  ANY_SELECTOR)),
+                              ContactLabel::getLabelID)
+                   .apply(time, updates);
   }
 
 }
@@ -44,7 +44,7 @@ public class ESICorporationContainerLogSync extends AbstractESIAccountSync<List<
   protected ESIAccountServerResult<List<GetCorporationsCorporationIdContainersLogs200Ok>> getServerData(
       ESIAccountClientProvider cp) throws ApiException, IOException {
     CorporationApi apiInstance = cp.getCorporationApi();
-    Pair<Long, List<GetCorporationsCorporationIdContainersLogs200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdContainersLogs200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdContainersLogsWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -44,6 +44,22 @@ public class ESICorporationContractsSync extends AbstractESIAccountSync<ESICorpo
     return ESISyncEndpoint.CORP_CONTRACTS;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, Contract.class, (Contract c) -> c.getContractID(), Contract::getContractID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         Contract.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR));
+    prefetchExisting(time, block, ContractItem.class, (ContractItem c) -> Pair.of(c.getContractID(), c.getRecordID()),
+                     ContractItem::getContractID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         ContractItem.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @SuppressWarnings("Duplicates")
   @Override
   protected void commit(long time,
@@ -53,9 +69,13 @@ public class ESICorporationContractsSync extends AbstractESIAccountSync<ESICorpo
     if (item.getLifeStart() == 0) {
       // Only need to check for existing item if current item is an update
       if (item instanceof Contract)
-        existing = Contract.get(account, time, ((Contract) item).getContractID());
+        existing = getExisting(Contract.class, ((Contract) item).getContractID(),
+                               () -> Contract.get(account, time, ((Contract) item).getContractID()));
       else if (item instanceof ContractItem)
-        existing = ContractItem.get(account, time, ((ContractItem) item).getContractID(), ((ContractItem) item).getRecordID());
+        existing = getExisting(ContractItem.class,
+                               Pair.of(((ContractItem) item).getContractID(), ((ContractItem) item).getRecordID()),
+                               () -> ContractItem.get(account, time, ((ContractItem) item).getContractID(),
+                                                      ((ContractItem) item).getRecordID()));
       else
         existing = ContractBid.get(account, time, ((ContractBid) item).getContractID(), ((ContractBid) item).getBidID());
     }
@@ -69,7 +89,7 @@ public class ESICorporationContractsSync extends AbstractESIAccountSync<ESICorpo
     ContractData resultData = new ContractData();
     ContractsApi apiInstance = cp.getContractsApi();
     // Retrieve bases info
-    Pair<Long, List<GetCorporationsCorporationIdContracts200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdContracts200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdContractsWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -112,7 +132,7 @@ public class ESICorporationContractsSync extends AbstractESIAccountSync<ESICorpo
           // If this is an action, also retrieve any bids
           if (nextContract.getType() == GetCorporationsCorporationIdContracts200Ok.TypeEnum.AUCTION) {
             try {
-              Pair<Long, List<GetCorporationsCorporationIdContractsContractIdBids200Ok>> bids = pagedResultRetriever((page) -> {
+              Pair<Long, List<GetCorporationsCorporationIdContractsContractIdBids200Ok>> bids = pagedResultRetriever(cp, (page) -> {
                 ESIThrottle.throttle(endpoint().name(), account);
                 return apiInstance.getCorporationsCorporationIdContractsContractIdBidsWithHttpInfo(
                     nextContract.getContractId(),
@@ -44,7 +44,7 @@ public class ESICorporationCustomsOfficesSync extends AbstractESIAccountSync<Lis
       ESIAccountClientProvider cp) throws ApiException, IOException {
     PlanetaryInteractionApi apiInstance = cp.getPlanetaryInteractionApi();
 
-    Pair<Long, List<GetCorporationsCorporationIdCustomsOffices200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdCustomsOffices200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdCustomsOfficesWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -87,25 +87,25 @@ public class ESICorporationCustomsOfficesSync extends AbstractESIAccountSync<Lis
     }
 
     // Check for offices that no longer exist and schedule for EOL
-    for (CustomsOffice existing : retrieveAll(time,
-                                              (long contid, AttributeSelector at) -> CustomsOffice.accessQuery(
-                                                  account, contid,
-                                                  1000,
-                                                  false, at,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR,
-                                                  ANY_SELECTOR))) {
+    for (CustomsOffice existing : iterateAll(time,
+                                             (long contid, AttributeSelector at) -> CustomsOffice.accessQuery(
+                                                 account, contid,
+                                                 retrieveBatchSize(),
+                                                 false, at,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR,
+                                                 ANY_SELECTOR))) {
       if (!seenOffices.contains(existing.getOfficeID())) {
         existing.evolve(null, time);
         updates.add(existing);
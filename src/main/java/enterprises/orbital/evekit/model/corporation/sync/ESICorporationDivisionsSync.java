@@ -27,6 +27,11 @@ public class ESICorporationDivisionsSync extends AbstractESIAccountSync<GetCorpo
     return ESISyncEndpoint.CORP_DIVISIONS;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
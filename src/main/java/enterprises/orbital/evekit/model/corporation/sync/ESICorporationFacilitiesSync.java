@@ -27,6 +27,11 @@ public class ESICorporationFacilitiesSync extends AbstractESIAccountSync<List<Ge
     return ESISyncEndpoint.CORP_FACILITIES;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -69,14 +74,14 @@ public class ESICorporationFacilitiesSync extends AbstractESIAccountSync<List<Ge
       seenFacilities.add(next.getFacilityId());
     }
 
-    for (Facility existing : retrieveAll(time,
-                                         (long contid, AttributeSelector at) -> Facility.accessQuery(
-                                             account, contid,
-                                             1000,
-                                             false, at,
-                                             ANY_SELECTOR,
-                                             ANY_SELECTOR,
-                                             ANY_SELECTOR))) {
+    for (Facility existing : iterateAll(time,
+                                        (long contid, AttributeSelector at) -> Facility.accessQuery(
+                                            account, contid,
+                                            retrieveBatchSize(),
+                                            false, at,
+                                            ANY_SELECTOR,
+                                            ANY_SELECTOR,
+                                            ANY_SELECTOR))) {
       if (!seenFacilities.contains(existing.getFacilityID())) {
         existing.evolve(null, time);
         updates.add(existing);
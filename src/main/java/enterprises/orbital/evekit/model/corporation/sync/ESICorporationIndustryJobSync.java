@@ -45,7 +45,7 @@ public class ESICorporationIndustryJobSync extends AbstractESIAccountSync<List<G
   protected ESIAccountServerResult<List<GetCorporationsCorporationIdIndustryJobs200Ok>> getServerData(
       ESIAccountClientProvider cp) throws ApiException, IOException {
     IndustryApi apiInstance = cp.getIndustryApi();
-    Pair<Long, List<GetCorporationsCorporationIdIndustryJobs200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdIndustryJobs200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdIndustryJobsWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -97,6 +97,15 @@ public class ESICorporationIndustryJobSync extends AbstractESIAccountSync<List<G
                                             nullSafeInteger(next.getSuccessfulRuns(), 0));
       updates.add(nextJob);
     }
+
+    // Drop jobs which have not changed to reduce DB contention
+    dropUnchanged(time, updates, IndustryJob.class, (IndustryJob j) -> j.getJobID(), IndustryJob::getJobID,
+                  (long contid, AttributeSelector at, AttributeSelector keys) ->
+                      IndustryJob.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                          ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                          ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                          ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                          ANY_SELECTOR, ANY_SELECTOR));
   }
 
 
@@ -72,6 +72,7 @@ public class ESICorporationKillMailSync extends AbstractESIAccountSync<List<GetK
 
     // Retrieve recent kill mails
     Pair<Long, List<GetCorporationsCorporationIdKillmailsRecent200Ok>> result = pagedResultRetriever(
+        cp,
         (page) -> {
           ESIThrottle.throttle(endpoint().name(), account);
           return apiInstance.getCorporationsCorporationIdKillmailsRecentWithHttpInfo(
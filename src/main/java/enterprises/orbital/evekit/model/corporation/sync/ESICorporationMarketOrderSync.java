@@ -36,6 +36,16 @@ public class ESICorporationMarketOrderSync extends AbstractESIAccountSync<ESICor
     return ESISyncEndpoint.CORP_MARKET;
   }
 
+  @Override
+  protected void prefetch(long time, List<CachedData> block) throws IOException {
+    prefetchExisting(time, block, MarketOrder.class, (MarketOrder o) -> o.getOrderID(), MarketOrder::getOrderID,
+                     (long contid, AttributeSelector at, AttributeSelector keys) ->
+                         MarketOrder.accessQuery(account, contid, retrieveBatchSize(), false, at, keys, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR,
+                             ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR, ANY_SELECTOR));
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -43,7 +53,8 @@ public class ESICorporationMarketOrderSync extends AbstractESIAccountSync<ESICor
     CachedData existing = null;
     if (item.getLifeStart() == 0) {
       // Only need to check for existing item if current item is an update
-      existing = MarketOrder.get(account, time, ((MarketOrder) item).getOrderID());
+      existing = getExisting(MarketOrder.class, ((MarketOrder) item).getOrderID(),
+                             () -> MarketOrder.get(account, time, ((MarketOrder) item).getOrderID()));
     }
     evolveOrAdd(time, existing, item);
   }
@@ -55,7 +66,7 @@ public class ESICorporationMarketOrderSync extends AbstractESIAccountSync<ESICor
     MarketApi apiInstance = cp.getMarketApi();
 
     // Retrieve live orders
-    Pair<Long, List<GetCorporationsCorporationIdOrders200Ok>> liveResult = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdOrders200Ok>> liveResult = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdOrdersWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -68,7 +79,7 @@ public class ESICorporationMarketOrderSync extends AbstractESIAccountSync<ESICor
     orders.liveOrders = liveResult.getRight();
 
     // Retrieve historical orders
-    Pair<Long, List<GetCorporationsCorporationIdOrdersHistory200Ok>> histResult = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdOrdersHistory200Ok>> histResult = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdOrdersHistoryWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -125,27 +136,28 @@ public class ESICorporationMarketOrderSync extends AbstractESIAccountSync<ESICor
     Map<Long, MarketOrder> marketHistory = new HashMap<>();
     if (minResult.isPresent()) {
       long minOrderId = minResult.getAsLong();
-      for (MarketOrder hval : retrieveAll(time,
-                                          (contid, at) -> MarketOrder.accessQuery(account, contid, 1000, false, at,
-                                                                                  AttributeSelector.range(minOrderId,
-                                                                                                          Long.MAX_VALUE),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any()))) {
+      for (MarketOrder hval : iterateAll(time,
+                                         (contid, at) -> MarketOrder.accessQuery(account, contid, retrieveBatchSize(),
+                                                                                 false, at,
+                                                                                 AttributeSelector.range(minOrderId,
+                                                                                                         Long.MAX_VALUE),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any()))) {
         marketHistory.put(hval.getOrderID(), hval);
       }
     }
@@ -23,6 +23,12 @@ public class ESICorporationMedalsSync extends AbstractESIAccountSync<ESICorporat
   class MedalsData {
     List<GetCorporationsCorporationIdMedals200Ok> medals;
     List<GetCorporationsCorporationIdMedalsIssued200Ok> issued;
+
+    // Stable string form for payload digests
+    @Override
+    public String toString() {
+      return "MedalsData{medals=" + medals + ", issued=" + issued + "}";
+    }
   }
 
   public ESICorporationMedalsSync(SynchronizedEveAccount account) {
@@ -34,6 +40,11 @@ public class ESICorporationMedalsSync extends AbstractESIAccountSync<ESICorporat
     return ESISyncEndpoint.CORP_MEDALS;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -62,7 +73,7 @@ public class ESICorporationMedalsSync extends AbstractESIAccountSync<ESICorporat
     MedalsData data = new MedalsData();
     CorporationApi apiInstance = cp.getCorporationApi();
 
-    Pair<Long, List<GetCorporationsCorporationIdMedals200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdMedals200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdMedalsWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -74,7 +85,7 @@ public class ESICorporationMedalsSync extends AbstractESIAccountSync<ESICorporat
     long expiry = result.getLeft() > 0 ? result.getLeft() : OrbitalProperties.getCurrentTime() + maxDelay();
     data.medals = result.getRight();
 
-    Pair<Long, List<GetCorporationsCorporationIdMedalsIssued200Ok>> bkResult = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdMedalsIssued200Ok>> bkResult = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdMedalsIssuedWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -120,16 +131,16 @@ public class ESICorporationMedalsSync extends AbstractESIAccountSync<ESICorporat
     }
 
     // Check for medals that no longer exist and schedule for EOL
-    for (CorporationMedal existing : retrieveAll(time,
-                                                 (long contid, AttributeSelector at) -> CorporationMedal.accessQuery(
-                                                     account, contid,
-                                                     1000,
-                                                     false, at,
-                                                     ANY_SELECTOR,
-                                                     ANY_SELECTOR,
-                                                     ANY_SELECTOR,
-                                                     ANY_SELECTOR,
-                                                     ANY_SELECTOR))) {
+    for (CorporationMedal existing : iterateAll(time,
+                                                (long contid, AttributeSelector at) -> CorporationMedal.accessQuery(
+                                                    account, contid,
+                                                    retrieveBatchSize(),
+                                                    false, at,
+                                                    ANY_SELECTOR,
+                                                    ANY_SELECTOR,
+                                                    ANY_SELECTOR,
+                                                    ANY_SELECTOR,
+                                                    ANY_SELECTOR))) {
       if (!seenMedals.contains(existing.getMedalID())) {
         existing.evolve(null, time);
         updates.add(existing);
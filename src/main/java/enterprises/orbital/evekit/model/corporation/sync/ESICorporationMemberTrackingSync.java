@@ -107,18 +107,18 @@ public class ESICorporationMemberTrackingSync extends AbstractESIAccountSync<ESI
     }
 
     // Check for members that no longer exist and schedule for EOL
-    for (MemberTracking existing : retrieveAll(time,
-                                               (long contid, AttributeSelector at) -> MemberTracking.accessQuery(
-                                                   account, contid,
-                                                   1000,
-                                                   false, at,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR,
-                                                   ANY_SELECTOR))) {
+    for (MemberTracking existing : iterateAll(time,
+                                              (long contid, AttributeSelector at) -> MemberTracking.accessQuery(
+                                                  account, contid,
+                                                  retrieveBatchSize(),
+                                                  false, at,
+                                                  ANY_SELECTOR,
+                                                  ANY_SELECTOR,
+                                                  ANY_SELECTOR,
+                                                  ANY_SELECTOR,
+                                                  ANY_SELECTOR,
+                                                  ANY_SELECTOR,
+                                                  ANY_SELECTOR))) {
       if (!seenMembers.contains(existing.getCharacterID())) {
         existing.evolve(null, time);
         updates.add(existing);
@@ -93,7 +93,7 @@ public class ESICorporationMembershipSync extends AbstractESIAccountSync<ESICorp
     }
 
     {
-      Pair<Long, List<GetCorporationsCorporationIdRolesHistory200Ok>> result = pagedResultRetriever((page) -> {
+      Pair<Long, List<GetCorporationsCorporationIdRolesHistory200Ok>> result = pagedResultRetriever(cp, (page) -> {
         ESIThrottle.throttle(endpoint().name(), account);
         return apiInstance.getCorporationsCorporationIdRolesHistoryWithHttpInfo(
             (int) account.getEveCorporationID(),
@@ -232,12 +232,12 @@ public class ESICorporationMembershipSync extends AbstractESIAccountSync<ESICorp
     }
 
     // Check for data that no longer exists and schedule for EOL
-    for (Member existing : retrieveAll(time,
-                                       (long contid, AttributeSelector at) -> Member.accessQuery(
-                                           account, contid,
-                                           1000,
-                                           false, at,
-                                           ANY_SELECTOR))) {
+    for (Member existing : iterateAll(time,
+                                      (long contid, AttributeSelector at) -> Member.accessQuery(
+                                          account, contid,
+                                          retrieveBatchSize(),
+                                          false, at,
+                                          ANY_SELECTOR))) {
       if (!seenMembers.contains(existing.getCharacterID())) {
         // Mark for EOL.
         existing.evolve(null, time);
@@ -245,15 +245,15 @@ public class ESICorporationMembershipSync extends AbstractESIAccountSync<ESICorp
       }
     }
 
-    for (MemberRole existing : retrieveAll(time,
-                                           (contid, at) -> MemberRole.accessQuery(account, contid,
-                                                                                  1000, false, at,
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any()))) {
+    for (MemberRole existing : iterateAll(time,
+                                          (contid, at) -> MemberRole.accessQuery(account, contid,
+                                                                                 retrieveBatchSize(), false, at,
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any(),
+                                                                                 AttributeSelector.any()))) {
       int mask = (existing.isGrantable() ? GRANTABLE : 0) |
           (existing.isAtBase() ? AT_BASE : 0) |
           (existing.isAtHQ() ? AT_HQ : 0) |
@@ -17,7 +17,6 @@ import org.apache.commons.lang3.tuple.Triple;
 import java.io.IOException;
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 public class ESICorporationMiningLedgerSync extends AbstractESIAccountSync<ESICorporationMiningLedgerSync.MiningLedgerData> {
   protected static final Logger log = Logger.getLogger(ESICorporationMiningLedgerSync.class.getName());
@@ -65,7 +64,7 @@ public class ESICorporationMiningLedgerSync extends AbstractESIAccountSync<ESICo
     MiningLedgerData data = new MiningLedgerData();
     IndustryApi apiInstance = cp.getIndustryApi();
 
-    Pair<Long, List<GetCorporationCorporationIdMiningExtractions200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationCorporationIdMiningExtractions200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationCorporationIdMiningExtractionsWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -77,7 +76,7 @@ public class ESICorporationMiningLedgerSync extends AbstractESIAccountSync<ESICo
     long expiry = result.getLeft() > 0 ? result.getLeft() : OrbitalProperties.getCurrentTime() + maxDelay();
     data.extractions = result.getRight();
 
-    Pair<Long, List<GetCorporationCorporationIdMiningObservers200Ok>> bkResult = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationCorporationIdMiningObservers200Ok>> bkResult = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationCorporationIdMiningObserversWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -93,7 +92,7 @@ public class ESICorporationMiningLedgerSync extends AbstractESIAccountSync<ESICo
     Map<Long, List<GetCorporationCorporationIdMiningObserversObserverId200Ok>> observations = new HashMap<>();
     for (GetCorporationCorporationIdMiningObservers200Ok nextObserver : data.observers) {
       Pair<Long, List<GetCorporationCorporationIdMiningObserversObserverId200Ok>> observerResult =
-          pagedResultRetriever((page) -> {
+          pagedResultRetriever(cp, (page) -> {
             ESIThrottle.throttle(endpoint().name(), account);
             return apiInstance.getCorporationCorporationIdMiningObserversObserverIdWithHttpInfo(
                 (int) account.getEveCorporationID(),
@@ -118,157 +117,94 @@ public class ESICorporationMiningLedgerSync extends AbstractESIAccountSync<ESICo
                                    ESIAccountServerResult<MiningLedgerData> data,
                                    List<CachedData> updates) throws IOException {
 
-    // Update extractions
-    Set<Triple<Integer, Long, Long>> seenExtractions = new HashSet<>();
-
-    Map<Triple<Integer, Long, Long>, MiningExtraction> storedExtractions = CachedData.retrieveAll(time,
-                                                                                                  (contid, at) -> MiningExtraction.accessQuery(
-                                                                                                      account, contid,
-                                                                                                      1000, false, at,
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any()))
-                                                                                     .stream()
-                                                                                     .map(
-                                                                                         x -> new AbstractMap.SimpleEntry<>(
-                                                                                             Triple.of(x.getMoonID(),
-                                                                                                       x.getStructureID(),
-                                                                                                       x.getExtractionStartTime()),
-                                                                                             x
-                                                                                         ))
-                                                                                     .collect(Collectors.toMap(
-                                                                                         AbstractMap.SimpleEntry::getKey,
-                                                                                         AbstractMap.SimpleEntry::getValue));
-
+    // Update extractions.  Only changes are added to the update list to reduce DB contention.
+    List<MiningExtraction> extractions = new ArrayList<>();
     for (GetCorporationCorporationIdMiningExtractions200Ok next : data.getData().extractions) {
-      MiningExtraction nextExtraction = new MiningExtraction(next.getMoonId(),
-                                                             next.getStructureId(),
-                                                             next.getExtractionStartTime()
-                                                                 .getMillis(),
-                                                             next.getChunkArrivalTime()
-                                                                 .getMillis(),
-                                                             next.getNaturalDecayTime()
-                                                                 .getMillis());
-      Triple<Integer, Long, Long> key = Triple.of(nextExtraction.getMoonID(),
-                                                  nextExtraction.getStructureID(),
-                                                  nextExtraction.getExtractionStartTime());
-      // Only update if there is a change to reduce DB contention
-      if (!storedExtractions.containsKey(key) ||
-          !nextExtraction.equivalent(storedExtractions.get(key)))
-        updates.add(nextExtraction);
-      seenExtractions.add(key);
-    }
-
-    for (MiningExtraction existing : storedExtractions.values()) {
-      if (!seenExtractions.contains(
-          Triple.of(existing.getMoonID(), existing.getStructureID(), existing.getExtractionStartTime()))) {
-        existing.evolve(null, time);
-        updates.add(existing);
-      }
+      extractions.add(new MiningExtraction(next.getMoonId(),
+                                           next.getStructureId(),
+                                           next.getExtractionStartTime()
+                                               .getMillis(),
+                                           next.getChunkArrivalTime()
+                                               .getMillis(),
+                                           next.getNaturalDecayTime()
+                                               .getMillis()));
     }
+    // Moon, structure and start time don't fit in 128 bits so use object keys
+    KeyedReconciler.reconcileObjects(extractions,
+                                     iterateAll(time,
+                                                (contid, at) -> MiningExtraction.accessQuery(
+                                                    account, contid,
+                                                    retrieveBatchSize(), false, at,
+                                                    AttributeSelector.any(),
+                                                    AttributeSelector.any(),
+                                                    AttributeSelector.any(),
+                                                    AttributeSelector.any(),
+                                                    AttributeSelector.any())),
+                                     x -> Triple.of(x.getMoonID(), x.getStructureID(), x.getExtractionStartTime()))
+                   .apply(time, updates);
 
     // Update observers
-    Set<Long> seenObservers = new HashSet<>();
-
-    Map<Long, MiningObserver> storedObservers = CachedData.retrieveAll(time,
-                                                                       (contid, at) -> MiningObserver.accessQuery(
-                                                                           account, contid,
-                                                                           1000, false, at,
-                                                                           AttributeSelector.any(),
-                                                                           AttributeSelector.any(),
-                                                                           AttributeSelector.any()))
-                                                          .stream()
-                                                          .map(
-                                                              x -> new AbstractMap.SimpleEntry<>(
-                                                                  x.getObserverID(),
-                                                                  x
-                                                              ))
-                                                          .collect(Collectors.toMap(
-                                                              AbstractMap.SimpleEntry::getKey,
-                                                              AbstractMap.SimpleEntry::getValue));
-
+    List<MiningObserver> observers = new ArrayList<>();
     for (GetCorporationCorporationIdMiningObservers200Ok next : data.getData().observers) {
-      MiningObserver nextObserver = new MiningObserver(next.getObserverId(),
-                                                       next.getObserverType()
-                                                           .toString(),
-                                                       next.getLastUpdated()
-                                                           .toDate()
-                                                           .getTime());
-      Long key = nextObserver.getObserverID();
-      // Only update if there is a change to reduce DB contention
-      if (!storedObservers.containsKey(key) ||
-          !nextObserver.equivalent(storedObservers.get(key)))
-        updates.add(nextObserver);
-      seenObservers.add(key);
-    }
-
-    for (MiningObserver existing : storedObservers.values()) {
-      if (!seenObservers.contains(existing.getObserverID())) {
-        existing.evolve(null, time);
-        updates.add(existing);
-      }
+      observers.add(new MiningObserver(next.getObserverId(),
+                                       next.getObserverType()
+                                           .toString(),
+                                       next.getLastUpdated()
+                                           .toDate()
+                                           .getTime()));
     }
+    KeyedReconciler.reconcile(observers,
+                              iterateAll(time,
+                                         (contid, at) -> MiningObserver.accessQuery(
+                                             account, contid,
+                                             retrieveBatchSize(), false, at,
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any())),
+                              MiningObserver::getObserverID)
+                   .apply(time, updates);
 
     // Update observations
-    Set<Triple<Long, Integer, Integer>> seenObservations = new HashSet<>();
-
-    Map<Triple<Long, Integer, Integer>, MiningObservation> storedObservations = CachedData.retrieveAll(time,
-                                                                                                       (contid, at) -> MiningObservation.accessQuery(
-                                                                                                           account,
-                                                                                                           contid,
-                                                                                                           1000, false,
-                                                                                                           at,
-                                                                                                           AttributeSelector.any(),
-                                                                                                           AttributeSelector.any(),
-                                                                                                           AttributeSelector.any(),
-                                                                                                           AttributeSelector.any(),
-                                                                                                           AttributeSelector.any(),
-                                                                                                           AttributeSelector.any()))
-                                                                                          .stream()
-                                                                                          .map(
-                                                                                              x -> new AbstractMap.SimpleEntry<>(
-                                                                                                  Triple.of(
-                                                                                                      x.getObserverID(),
-                                                                                                      x.getCharacterID(),
-                                                                                                      x.getTypeID()),
-                                                                                                  x
-                                                                                              ))
-                                                                                          .collect(Collectors.toMap(
-                                                                                              AbstractMap.SimpleEntry::getKey,
-                                                                                              AbstractMap.SimpleEntry::getValue));
-
+    List<MiningObservation> observations = new ArrayList<>();
     for (Long nextObsKey : data.getData().observations.keySet()) {
       for (GetCorporationCorporationIdMiningObserversObserverId200Ok next : data.getData().observations.get(
           nextObsKey)) {
-        MiningObservation nextObservation = new MiningObservation(nextObsKey,
-                                                                  next.getCharacterId(),
-                                                                  next.getTypeId(),
-                                                                  next.getRecordedCorporationId(),
-                                                                  next.getQuantity(),
-                                                                  next.getLastUpdated()
-                                                                      .toDate()
-                                                                      .getTime());
-        Triple<Long, Integer, Integer> key = Triple.of(nextObservation.getObserverID(),
-                                                       nextObservation.getCharacterID(),
-                                                       nextObservation.getTypeID());
-        // Only update if there is a change to reduce DB contention
-        if (!storedObservations.containsKey(key) ||
-            !nextObservation.equivalent(storedObservations.get(key)))
-          updates.add(nextObservation);
-        seenObservations.add(key);
-      }
-    }
-
-    for (MiningObservation existing : storedObservations.values()) {
-      if (!seenObservations.contains(Triple.of(existing.getObserverID(),
-                                               existing.getCharacterID(),
-                                               existing.getTypeID()))) {
-        existing.evolve(null, time);
-        updates.add(existing);
+        observations.add(new MiningObservation(nextObsKey,
+                                               next.getCharacterId(),
+                                               next.getTypeId(),
+                                               next.getRecordedCorporationId(),
+                                               next.getQuantity(),
+                                               next.getLastUpdated()
+                                                   .toDate()
+                                                   .getTime()));
       }
     }
+    KeyedReconciler.reconcile(observations,
+                              iterateAll(time,
+                                         (contid, at) -> MiningObservation.accessQuery(
+                                             account,
+                                             contid,
+                                             retrieveBatchSize(),
+                                             false,
+                                             at,
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any())),
+                              new KeyedReconciler.WideKey<MiningObservation>() {
+                                @Override
+                                public long high(MiningObservation value) {
+                                  return value.getObserverID();
+                                }
+
+                                @Override
+                                public long low(MiningObservation value) {
+                                  return KeyedReconciler.pack(value.getCharacterID(), value.getTypeID());
+                                }
+                              })
+                   .apply(time, updates);
 
   }
 
@@ -44,7 +44,7 @@ public class ESICorporationShareholdersSync extends AbstractESIAccountSync<List<
       ESIAccountClientProvider cp) throws ApiException, IOException {
     CorporationApi apiInstance = cp.getCorporationApi();
 
-    Pair<Long, List<GetCorporationsCorporationIdShareholders200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdShareholders200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdShareholdersWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -77,14 +77,14 @@ public class ESICorporationShareholdersSync extends AbstractESIAccountSync<List<
     }
 
     // Check for shareholders that no longer exist and schedule for EOL
-    for (Shareholder existing : retrieveAll(time,
-                                            (long contid, AttributeSelector at) -> Shareholder.accessQuery(
-                                                account, contid,
-                                                1000,
-                                                false, at,
-                                                ANY_SELECTOR,
-                                                ANY_SELECTOR,
-                                                ANY_SELECTOR))) {
+    for (Shareholder existing : iterateAll(time,
+                                           (long contid, AttributeSelector at) -> Shareholder.accessQuery(
+                                               account, contid,
+                                               retrieveBatchSize(),
+                                               false, at,
+                                               ANY_SELECTOR,
+                                               ANY_SELECTOR,
+                                               ANY_SELECTOR))) {
       if (!seenShareholders.contains(existing.getShareholderID())) {
         existing.evolve(null, time);
         updates.add(existing);
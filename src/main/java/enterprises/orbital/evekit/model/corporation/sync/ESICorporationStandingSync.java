@@ -27,6 +27,11 @@ public class ESICorporationStandingSync extends AbstractESIAccountSync<List<GetC
     return ESISyncEndpoint.CORP_STANDINGS;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -44,7 +49,7 @@ public class ESICorporationStandingSync extends AbstractESIAccountSync<List<GetC
   protected ESIAccountServerResult<List<GetCorporationsCorporationIdStandings200Ok>> getServerData(
       ESIAccountClientProvider cp) throws ApiException, IOException {
     CorporationApi apiInstance = cp.getCorporationApi();
-    Pair<Long, List<GetCorporationsCorporationIdStandings200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdStandings200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdStandingsWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -74,13 +79,13 @@ public class ESICorporationStandingSync extends AbstractESIAccountSync<List<GetC
     }
 
     // Check for standings that no longer exist and schedule for EOL
-    for (Standing existing : retrieveAll(time,
-                                         (long contid, AttributeSelector at) -> Standing.accessQuery(account, contid,
-                                                                                                     1000,
-                                                                                                     false, at,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR,
-                                                                                                     ANY_SELECTOR))) {
+    for (Standing existing : iterateAll(time,
+                                        (long contid, AttributeSelector at) -> Standing.accessQuery(account, contid,
+                                                                                                    retrieveBatchSize(),
+                                                                                                    false, at,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR,
+                                                                                                    ANY_SELECTOR))) {
       if (!seenStandings.contains(Pair.of(existing.getStandingEntity(), existing.getFromID()))) {
         existing.evolve(null, time);
         updates.add(existing);
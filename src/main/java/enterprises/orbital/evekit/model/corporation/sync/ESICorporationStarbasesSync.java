@@ -59,7 +59,7 @@ public class ESICorporationStarbasesSync extends AbstractESIAccountSync<ESICorpo
     CorporationApi apiInstance = cp.getCorporationApi();
 
     // Retrieve bases info
-    Pair<Long, List<GetCorporationsCorporationIdStarbases200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdStarbases200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdStarbasesWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -93,84 +93,97 @@ public class ESICorporationStarbasesSync extends AbstractESIAccountSync<ESICorpo
   protected void processServerData(long time, ESIAccountServerResult<StarbaseData> data,
                                    List<CachedData> updates) throws IOException {
     // Add bases and fuel
-    Set<Long> seenBases = new HashSet<>();
-    Set<Pair<Long, Integer>> seenFuels = new HashSet<>();
+    List<Starbase> bases = new ArrayList<>();
+    List<Fuel> fuels = new ArrayList<>();
     for (GetCorporationsCorporationIdStarbases200Ok nextBase : data.getData().bases) {
       GetCorporationsCorporationIdStarbasesStarbaseIdOk info = data.getData().baseInfo.get(nextBase.getStarbaseId());
-      updates.add(new Starbase(nextBase.getStarbaseId(),
-                               nextBase.getTypeId(),
-                               nextBase.getSystemId(),
-                               nullSafeInteger(nextBase.getMoonId(), 0),
-                               nullSafeEnum(nextBase.getState(), null),
-                               nullSafeDateTime(nextBase.getUnanchorAt(), new DateTime(new Date(0L))).getMillis(),
-                               nullSafeDateTime(nextBase.getReinforcedUntil(), new DateTime(new Date(0L))).getMillis(),
-                               nullSafeDateTime(nextBase.getOnlinedSince(), new DateTime(new Date(0L))).getMillis(),
-                               info.getFuelBayView()
-                                   .toString(),
-                               info.getFuelBayTake()
-                                   .toString(),
-                               info.getAnchor()
-                                   .toString(),
-                               info.getUnanchor()
-                                   .toString(),
-                               info.getOnline()
-                                   .toString(),
-                               info.getOffline()
-                                   .toString(),
-                               info.getAllowCorporationMembers(),
-                               info.getAllowAllianceMembers(),
-                               info.getUseAllianceStandings(),
-                               nullSafeFloat(info.getAttackStandingThreshold(), 0),
-                               nullSafeFloat(info.getAttackSecurityStatusThreshold(), 0),
-                               info.getAttackIfOtherSecurityStatusDropping(),
-                               info.getAttackIfAtWar()));
-      seenBases.add(nextBase.getStarbaseId());
+      bases.add(new Starbase(nextBase.getStarbaseId(),
+                             nextBase.getTypeId(),
+                             nextBase.getSystemId(),
+                             nullSafeInteger(nextBase.getMoonId(), 0),
+                             nullSafeEnum(nextBase.getState(), null),
+                             nullSafeDateTime(nextBase.getUnanchorAt(), new DateTime(new Date(0L))).getMillis(),
+                             nullSafeDateTime(nextBase.getReinforcedUntil(), new DateTime(new Date(0L))).getMillis(),
+                             nullSafeDateTime(nextBase.getOnlinedSince(), new DateTime(new Date(0L))).getMillis(),
+                             info.getFuelBayView()
+                                 .toString(),
+                             info.getFuelBayTake()
+                                 .toString(),
+                             info.getAnchor()
+                                 .toString(),
+                             info.getUnanchor()
+                                 .toString(),
+                             info.getOnline()
+                                 .toString(),
+                             info.getOffline()
+                                 .toString(),
+                             info.getAllowCorporationMembers(),
+                             info.getAllowAllianceMembers(),
+                             info.getUseAllianceStandings(),
+                             nullSafeFloat(info.getAttackStandingThreshold(), 0),
+                             nullSafeFloat(info.getAttackSecurityStatusThreshold(), 0),
+                             info.getAttackIfOtherSecurityStatusDropping(),
+                             info.getAttackIfAtWar()));
       for (GetCorporationsCorporationIdStarbasesStarbaseIdFuel f : info.getFuels()) {
-        updates.add(new Fuel(nextBase.getStarbaseId(),
-                             f.getTypeId(),
-                             f.getQuantity()));
-        seenFuels.add(Pair.of(nextBase.getStarbaseId(), f.getTypeId()));
+        fuels.add(new Fuel(nextBase.getStarbaseId(),
+                           f.getTypeId(),
+                           f.getQuantity()));
       }
     }
 
-    // Clean up removed starbases and fuels
-    for (Starbase s : CachedData.retrieveAll(time,
-                                             (contid, at) -> Starbase.accessQuery(account, contid, 1000, false, at,
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any(),
-                                                                                  AttributeSelector.any()))) {
-      if (!seenBases.contains(s.getStarbaseID())) {
-        s.evolve(null, time);
-        updates.add(s);
-      }
-    }
-    for (Fuel f : CachedData.retrieveAll(time, (contid, at) -> Fuel.accessQuery(account, contid, 1000, false, at,
-                                                                                AttributeSelector.any(),
-                                                                                AttributeSelector.any(),
-                                                                                AttributeSelector.any()))) {
-      if (!seenFuels.contains(Pair.of(f.getStarbaseID(), f.getTypeID()))) {
-        f.evolve(null, time);
-        updates.add(f);
-      }
-    }
+    // Only changes are added to the update list to reduce DB contention.  Starbases and fuels which no longer
+    // exist are end of lifed.
+    KeyedReconciler.reconcile(bases,
+                              iterateAll(time,
+                                         (contid, at) -> Starbase.accessQuery(
+                                             account, contid,
+                                             retrieveBatchSize(),
+                                             false, at,
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any())),
+                              Starbase::getStarbaseID)
+                   .apply(time, updates);
+
+    KeyedReconciler.reconcile(fuels,
+                              iterateAll(time,
+                                         (contid, at) -> Fuel.accessQuery(
+                                             account, contid,
+                                             retrieveBatchSize(),
+                                             false, at,
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any())),
+                              new KeyedReconciler.WideKey<Fuel>() {
+                                @Override
+                                public long high(Fuel value) {
+                                  return value.getStarbaseID();
+                                }
+
+                                @Override
+                                public long low(Fuel value) {
+                                  return value.getTypeID();
+                                }
+                              })
+                   .apply(time, updates);
 
   }
 
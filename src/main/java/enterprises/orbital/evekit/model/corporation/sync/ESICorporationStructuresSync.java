@@ -13,10 +13,9 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.joda.time.DateTime;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Logger;
 
 public class ESICorporationStructuresSync extends AbstractESIAccountSync<List<GetCorporationsCorporationIdStructures200Ok>> {
@@ -55,7 +54,7 @@ public class ESICorporationStructuresSync extends AbstractESIAccountSync<List<Ge
     CorporationApi apiInstance = cp.getCorporationApi();
 
     // Retrieve structures info
-    Pair<Long, List<GetCorporationsCorporationIdStructures200Ok>> result = pagedResultRetriever((page) -> {
+    Pair<Long, List<GetCorporationsCorporationIdStructures200Ok>> result = pagedResultRetriever(cp, (page) -> {
       ESIThrottle.throttle(endpoint().name(), account);
       return apiInstance.getCorporationsCorporationIdStructuresWithHttpInfo(
           (int) account.getEveCorporationID(),
@@ -77,71 +76,75 @@ public class ESICorporationStructuresSync extends AbstractESIAccountSync<List<Ge
                                    ESIAccountServerResult<List<GetCorporationsCorporationIdStructures200Ok>> data,
                                    List<CachedData> updates) throws IOException {
     // Add structures and structure services
-    Set<Long> seenStructures = new HashSet<>();
-    Set<Pair<Long, String>> seenServices = new HashSet<>();
+    List<Structure> structures = new ArrayList<>();
+    List<StructureService> services = new ArrayList<>();
     for (GetCorporationsCorporationIdStructures200Ok nextStruct : data.getData()) {
-      updates.add(new Structure(nextStruct.getStructureId(),
-                                nextStruct.getCorporationId(),
-                                nullSafeDateTime(nextStruct.getFuelExpires(), new DateTime(new Date(0))).getMillis(),
-                                nullSafeDateTime(nextStruct.getNextReinforceApply(),
-                                                 new DateTime(new Date(0))).getMillis(),
-                                nullSafeInteger(nextStruct.getNextReinforceHour(), -1),
-                                nullSafeInteger(nextStruct.getNextReinforceWeekday(), -1),
-                                nextStruct.getProfileId(),
-                                nextStruct.getReinforceHour(),
-                                nextStruct.getReinforceWeekday(),
-                                nextStruct.getState()
-                                          .toString(),
-                                nullSafeDateTime(nextStruct.getStateTimerEnd(), new DateTime(new Date(0))).getMillis(),
-                                nullSafeDateTime(nextStruct.getStateTimerStart(),
-                                                 new DateTime(new Date(0))).getMillis(),
-                                nextStruct.getSystemId(),
-                                nextStruct.getTypeId(),
-                                nullSafeDateTime(nextStruct.getUnanchorsAt(), new DateTime(new Date(0))).getMillis()));
-      seenStructures.add(nextStruct.getStructureId());
+      structures.add(new Structure(nextStruct.getStructureId(),
+                                   nextStruct.getCorporationId(),
+                                   nullSafeDateTime(nextStruct.getFuelExpires(), new DateTime(new Date(0))).getMillis(),
+                                   nullSafeDateTime(nextStruct.getNextReinforceApply(),
+                                                    new DateTime(new Date(0))).getMillis(),
+                                   nullSafeInteger(nextStruct.getNextReinforceHour(), -1),
+                                   nullSafeInteger(nextStruct.getNextReinforceWeekday(), -1),
+                                   nextStruct.getProfileId(),
+                                   nextStruct.getReinforceHour(),
+                                   nextStruct.getReinforceWeekday(),
+                                   nextStruct.getState()
+                                             .toString(),
+                                   nullSafeDateTime(nextStruct.getStateTimerEnd(),
+                                                    new DateTime(new Date(0))).getMillis(),
+                                   nullSafeDateTime(nextStruct.getStateTimerStart(),
+                                                    new DateTime(new Date(0))).getMillis(),
+                                   nextStruct.getSystemId(),
+                                   nextStruct.getTypeId(),
+                                   nullSafeDateTime(nextStruct.getUnanchorsAt(),
+                                                    new DateTime(new Date(0))).getMillis()));
       for (GetCorporationsCorporationIdStructuresService s : nextStruct.getServices()) {
-        updates.add(new StructureService(nextStruct.getStructureId(),
-                                         s.getName(),
-                                         s.getState()
-                                          .toString()));
-        seenServices.add(Pair.of(nextStruct.getStructureId(), s.getName()));
+        services.add(new StructureService(nextStruct.getStructureId(),
+                                          s.getName(),
+                                          s.getState()
+                                           .toString()));
       }
     }
 
-    // Clean up removed structures and services
-    for (Structure s : CachedData.retrieveAll(time,
-                                              (contid, at) -> Structure.accessQuery(account, contid, 1000, false, at,
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any(),
-                                                                                    AttributeSelector.any()))) {
-      if (!seenStructures.contains(s.getStructureID())) {
-        s.evolve(null, time);
-        updates.add(s);
-      }
-    }
-    for (StructureService s : CachedData.retrieveAll(time,
-                                                     (contid, at) -> StructureService.accessQuery(account, contid, 1000,
-                                                                                                  false, at,
-                                                                                                  AttributeSelector.any(),
-                                                                                                  AttributeSelector.any(),
-                                                                                                  AttributeSelector.any()))) {
-      if (!seenServices.contains(Pair.of(s.getStructureID(), s.getName()))) {
-        s.evolve(null, time);
-        updates.add(s);
-      }
-    }
+    // Only changes are added to the update list to reduce DB contention.  Structures and services which no longer
+    // exist are end of lifed.
+    KeyedReconciler.reconcile(structures,
+                              iterateAll(time,
+                                         (contid, at) -> Structure.accessQuery(
+                                             account, contid,
+                                             retrieveBatchSize(),
+                                             false, at,
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any(),
+                                             AttributeSelector.any())),
+                              Structure::getStructureID)
+                   .apply(time, updates);
+
+    // Service names aren't numeric so use object keys
+    KeyedReconciler.reconcileObjects(services,
+                                     iterateAll(time,
+                                                (contid, at) -> StructureService.accessQuery(
+                                                    account, contid,
+                                                    retrieveBatchSize(),
+                                                    false, at,
+                                                    AttributeSelector.any(),
+                                                    AttributeSelector.any(),
+                                                    AttributeSelector.any())),
+                                     s -> Pair.of(s.getStructureID(), s.getName()))
+                   .apply(time, updates);
 
   }
 
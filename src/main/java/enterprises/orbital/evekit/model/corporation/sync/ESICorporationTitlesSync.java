@@ -26,6 +26,12 @@ public class ESICorporationTitlesSync extends AbstractESIAccountSync<ESICorporat
   static class TitleData {
     List<GetCorporationsCorporationIdTitles200Ok> titles;
     List<GetCorporationsCorporationIdMembersTitles200Ok> members;
+
+    // Stable string form for payload digests
+    @Override
+    public String toString() {
+      return "TitleData{titles=" + titles + ", members=" + members + "}";
+    }
   }
 
   public ESICorporationTitlesSync(SynchronizedEveAccount account) {
@@ -37,6 +43,11 @@ public class ESICorporationTitlesSync extends AbstractESIAccountSync<ESICorporat
     return ESISyncEndpoint.CORP_TITLES;
   }
 
+  @Override
+  protected boolean supportsPayloadDigest() {
+    return true;
+  }
+
   @Override
   protected void commit(long time,
                         CachedData item) throws IOException {
@@ -197,13 +208,13 @@ public class ESICorporationTitlesSync extends AbstractESIAccountSync<ESICorporat
     }
 
     // Check for data that no longer exists and schedule for EOL
-    for (CorporationTitle existing : retrieveAll(time,
-                                                 (long contid, AttributeSelector at) -> CorporationTitle.accessQuery(
-                                                     account, contid,
-                                                     1000,
-                                                     false, at,
-                                                     ANY_SELECTOR,
-                                                     ANY_SELECTOR))) {
+    for (CorporationTitle existing : iterateAll(time,
+                                                (long contid, AttributeSelector at) -> CorporationTitle.accessQuery(
+                                                    account, contid,
+                                                    retrieveBatchSize(),
+                                                    false, at,
+                                                    ANY_SELECTOR,
+                                                    ANY_SELECTOR))) {
       if (!seenTitles.contains(existing.getTitleID())) {
         // Mark for EOL.  Note that role deletion will be handled below.
         existing.evolve(null, time);
@@ -211,15 +222,15 @@ public class ESICorporationTitlesSync extends AbstractESIAccountSync<ESICorporat
       }
     }
 
-    for (CorporationTitleRole existing : retrieveAll(time,
-                                                     (contid, at) -> CorporationTitleRole.accessQuery(account, contid,
-                                                                                                      1000, false, at,
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any(),
-                                                                                                      AttributeSelector.any()))) {
+    for (CorporationTitleRole existing : iterateAll(time,
+                                                    (contid, at) -> CorporationTitleRole.accessQuery(account, contid,
+                                                                                                     retrieveBatchSize(), false, at,
+                                                                                                     AttributeSelector.any(),
+                                                                                                     AttributeSelector.any(),
+                                                                                                     AttributeSelector.any(),
+                                                                                                     AttributeSelector.any(),
+                                                                                                     AttributeSelector.any(),
+                                                                                                     AttributeSelector.any()))) {
       int mask = (existing.isGrantable() ? GRANTABLE : 0) |
           (existing.isAtBase() ? AT_BASE : 0) |
           (existing.isAtHQ() ? AT_HQ : 0) |
@@ -230,13 +241,13 @@ public class ESICorporationTitlesSync extends AbstractESIAccountSync<ESICorporat
       }
     }
 
-    for (MemberTitle existing : retrieveAll(time,
-                                            (long contid, AttributeSelector at) -> MemberTitle.accessQuery(
-                                                account, contid,
-                                                1000,
-                                                false, at,
-                                                ANY_SELECTOR,
-                                                ANY_SELECTOR))) {
+    for (MemberTitle existing : iterateAll(time,
+                                           (long contid, AttributeSelector at) -> MemberTitle.accessQuery(
+                                               account, contid,
+                                               retrieveBatchSize(),
+                                               false, at,
+                                               ANY_SELECTOR,
+                                               ANY_SELECTOR))) {
       if (!seenMembers.contains(Pair.of(existing.getCharacterID(), existing.getTitleID()))) {
         existing.evolve(null, time);
         updates.add(existing);
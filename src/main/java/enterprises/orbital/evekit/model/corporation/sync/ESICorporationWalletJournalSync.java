@@ -61,6 +61,7 @@ public class ESICorporationWalletJournalSync extends AbstractESIAccountSync<Map<
     for (int division = 1; division <= 7; division++) {
       final int nextDivision = division;
       Pair<Long, List<GetCorporationsCorporationIdWalletsDivisionJournal200Ok>> result = pagedResultRetriever(
+          cp,
           (page) -> {
             ESIThrottle.throttle(endpoint().name(), account);
             return apiInstance.getCorporationsCorporationIdWalletsDivisionJournalWithHttpInfo(
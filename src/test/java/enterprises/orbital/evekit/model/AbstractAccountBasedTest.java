@@ -23,6 +23,8 @@ public abstract class AbstractAccountBasedTest {
   public void setUp() throws Exception {
     OrbitalProperties.addPropertyFile("SyncTest.properties");
     PersistentProperty.setProvider(new DBPropertyProvider(OrbitalProperties.getGlobalProperty(EveKitUserAccountProvider.USER_ACCOUNT_PU_PROP)));
+    SyncConfig.invalidate();
+    AccountSnapshotCache.clear();
     userAccount = EveKitUserAccount.createNewUserAccount(true, true);
     userAccount2 = EveKitUserAccount.createNewUserAccount(false, true);
     testAccount = SynchronizedEveAccount.createSynchronizedEveAccount(userAccount, "testaccount", true);
@@ -2,9 +2,11 @@ package enterprises.orbital.evekit.model;
 
 import enterprises.orbital.base.OrbitalProperties;
 import enterprises.orbital.eve.esi.client.invoker.ApiException;
+import enterprises.orbital.eve.esi.client.invoker.ApiResponse;
 import enterprises.orbital.evekit.TestBase;
 import enterprises.orbital.evekit.account.EveKitUserAccountProvider;
 import enterprises.orbital.evekit.model.common.AccountBalance;
+import org.apache.commons.lang3.tuple.Pair;
 import org.easymock.EasyMock;
 import org.junit.After;
 import org.junit.Assert;
@@ -14,7 +16,12 @@ import org.junit.Test;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static enterprises.orbital.evekit.model.AbstractESIAccountSync.ANY_SELECTOR;
 
@@ -282,4 +289,71 @@ public class AbstractESIAccountSyncTest extends SyncTestBase {
                                                                                                     ANY_SELECTOR));
     Assert.assertEquals(testObjs, stored);
   }
+
+  private static ApiResponse<List<Integer>> makePage(int page, int pageCount) {
+    List<Integer> data = new ArrayList<>();
+    for (int i = 0; i < 10; i++) data.add(page * 100 + i);
+    return new ApiResponse<>(200, createHeaders("Expires", "Thu, 17 Mar 2017 18:24:40 GMT",
+                                                "X-Pages", String.valueOf(pageCount)), data);
+  }
+
+  @Test
+  public void testConcurrentPagedResultRetriever() throws Exception {
+    int pageCount = 20;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      // Pages should be returned in page order regardless of the order in which they complete
+      Pair<Long, List<Integer>> result = AbstractESIAccountSync.pagedResultRetriever((page) -> {
+        try {
+          Thread.sleep(TestBase.getRandomInt(20));
+        } catch (InterruptedException e) {
+          // NOP
+        }
+        return makePage(page, pageCount);
+      }, executor, 4);
+
+      List<Integer> expected = new ArrayList<>();
+      for (int i = 1; i <= pageCount; i++) expected.addAll(makePage(i, pageCount).getData());
+      Assert.assertEquals(expected, result.getRight());
+      Assert.assertTrue(result.getLeft() > 0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testConcurrentPagedResultRetrieverFailure() throws Exception {
+    int pageCount = 20;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Integer> retrieved = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch failed = new CountDownLatch(1);
+    try {
+      // A failure on any page should be propagated to the caller.  Later pages wait for the failure so that
+      // workers can't finish all pages first.
+      AbstractESIAccountSync.pagedResultRetriever((page) -> {
+        retrieved.add(page);
+        if (page == 5) {
+          failed.countDown();
+          throw new ApiException();
+        }
+        if (page > 5) {
+          try {
+            failed.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            throw new IOException(e);
+          }
+        }
+        return makePage(page, pageCount);
+      }, executor, 4);
+      Assert.fail("ApiException should have been thrown");
+    } catch (ApiException e) {
+      // expected
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Pages not yet started when the failure occurred are abandoned
+    Assert.assertTrue(retrieved.contains(5));
+    Assert.assertTrue(retrieved.size() < pageCount);
+  }
 }
@@ -0,0 +1,31 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AccountSnapshotCacheTest extends SyncTestBase {
+
+  @Test
+  public void testSnapshotReuse() throws Exception {
+    SynchronizedEveAccount first = AccountSnapshotCache.get(charSyncAccount);
+    Assert.assertEquals(charSyncAccount.getAid(), first.getAid());
+    Assert.assertSame(first, AccountSnapshotCache.get(charSyncAccount));
+
+    // Accounts have separate snapshots
+    Assert.assertEquals(corpSyncAccount.getAid(), AccountSnapshotCache.get(corpSyncAccount)
+                                                                   .getAid());
+
+    // Invalidation forces a refresh
+    AccountSnapshotCache.invalidate(charSyncAccount);
+    SynchronizedEveAccount second = AccountSnapshotCache.get(charSyncAccount);
+    Assert.assertNotSame(first, second);
+    Assert.assertEquals(charSyncAccount.getAid(), second.getAid());
+  }
+
+  @Test
+  public void testExcludedEndpointsCached() {
+    Assert.assertSame(AbstractESIAccountSync.getExcludedEndpoints(), AbstractESIAccountSync.getExcludedEndpoints());
+  }
+
+}
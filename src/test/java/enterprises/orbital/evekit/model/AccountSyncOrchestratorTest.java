@@ -0,0 +1,112 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class AccountSyncOrchestratorTest extends SyncTestBase {
+
+  private static final long SYNC_DELAY = 200L;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  // Endpoints which have finished, in completion order
+  private final List<ESISyncEndpoint> finished = Collections.synchronizedList(new ArrayList<>());
+
+  // Account instance seen by each synchronizer
+  private final Map<ESISyncEndpoint, SynchronizedEveAccount> seenAccounts = new ConcurrentHashMap<>();
+
+  // Pre-requisites for each endpoint
+  private final Map<ESISyncEndpoint, Set<ESISyncEndpoint>> prereqs = new HashMap<>();
+
+  private class TestSync extends AbstractESIAccountSync<Object> {
+    private final ESISyncEndpoint endpoint;
+
+    TestSync(SynchronizedEveAccount account, ESISyncEndpoint endpoint) {
+      super(account);
+      this.endpoint = endpoint;
+    }
+
+    @Override
+    public ESISyncEndpoint endpoint() {
+      return endpoint;
+    }
+
+    @Override
+    protected boolean prereqSatisfied() {
+      return finished.containsAll(prereqs.getOrDefault(endpoint, Collections.emptySet()));
+    }
+
+    @Override
+    public void synch(ESIAccountClientProvider cp) {
+      seenAccounts.put(endpoint, account());
+      try {
+        Thread.sleep(SYNC_DELAY);
+      } catch (InterruptedException e) {
+        Thread.currentThread()
+              .interrupt();
+      }
+      finished.add(endpoint);
+    }
+
+    @Override
+    protected ESIAccountServerResult<Object> getServerData(ESIAccountClientProvider cp) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void processServerData(long time, ESIAccountServerResult<Object> data, List<CachedData> updates) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  @Override
+  @After
+  public void teardown() throws Exception {
+    executor.shutdownNow();
+    super.teardown();
+  }
+
+  @Test
+  public void testConcurrentWithPrereqs() throws Exception {
+    List<ESISyncEndpoint> endpoints = Arrays.asList(ESISyncEndpoint.CHAR_SHEET,
+                                                    ESISyncEndpoint.CHAR_SKILLS,
+                                                    ESISyncEndpoint.CHAR_STANDINGS,
+                                                    ESISyncEndpoint.CHAR_TITLES,
+                                                    ESISyncEndpoint.CHAR_CONTACTS);
+    // Titles can't start until the sheet is done, contacts can never start
+    prereqs.put(ESISyncEndpoint.CHAR_TITLES, Collections.singleton(ESISyncEndpoint.CHAR_SHEET));
+    prereqs.put(ESISyncEndpoint.CHAR_CONTACTS, Collections.singleton(ESISyncEndpoint.CHAR_WALLET_BALANCE));
+
+    AccountSyncOrchestrator orchestrator = new AccountSyncOrchestrator(executor, TestSync::new);
+    long start = System.currentTimeMillis();
+    List<ESISyncEndpoint> notStarted = orchestrator.synch(charSyncAccount, endpoints, null);
+    long elapsed = System.currentTimeMillis() - start;
+
+    Assert.assertEquals(Collections.singletonList(ESISyncEndpoint.CHAR_CONTACTS), notStarted);
+    Assert.assertEquals(4, finished.size());
+    Assert.assertTrue(finished.indexOf(ESISyncEndpoint.CHAR_SHEET) < finished.indexOf(ESISyncEndpoint.CHAR_TITLES));
+
+    // Independent endpoints run concurrently, so elapsed time is the dependent chain rather than the sum
+    Assert.assertTrue("elapsed " + elapsed, elapsed < 4 * SYNC_DELAY);
+
+    // All synchronizers share one refreshed account
+    SynchronizedEveAccount shared = seenAccounts.get(ESISyncEndpoint.CHAR_SHEET);
+    Assert.assertNotSame(charSyncAccount, shared);
+    Assert.assertEquals(charSyncAccount.getAid(), shared.getAid());
+    for (SynchronizedEveAccount next : seenAccounts.values()) Assert.assertSame(shared, next);
+  }
+
+}
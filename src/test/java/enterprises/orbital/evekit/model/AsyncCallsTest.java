@@ -0,0 +1,84 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.eve.esi.client.invoker.ApiException;
+import enterprises.orbital.eve.esi.client.invoker.ApiResponse;
+import enterprises.orbital.evekit.account.SynchronizedEveAccount;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncCallsTest extends SyncTestBase {
+
+  private class TestSync extends AbstractESIAccountSync<Object> {
+    TestSync(SynchronizedEveAccount account) {
+      super(account);
+    }
+
+    @Override
+    public ESISyncEndpoint endpoint() {
+      return ESISyncEndpoint.CHAR_MAIL;
+    }
+
+    @Override
+    protected ESIAccountServerResult<Object> getServerData(ESIAccountClientProvider cp) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected void processServerData(long time, ESIAccountServerResult<Object> data, List<CachedData> updates) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  @Test
+  public void testPagedResultRetrieverAsync() throws Exception {
+    Map<String, List<String>> headers = createHeaders("X-Pages", "3");
+    TestSync sync = new TestSync(charSyncAccount);
+    Pair<Long, List<Integer>> result = AbstractESIAccountSync.awaitAsync(
+        sync.<Integer>pagedResultRetrieverAsync(
+            page -> callback -> callback.onSuccess(Arrays.asList(page * 10, page * 10 + 1), 200, headers)));
+    Assert.assertEquals(Arrays.asList(10, 11, 20, 21, 30, 31), result.getRight());
+  }
+
+  @Test
+  public void testCallAllAsync() throws Exception {
+    // Calls complete later on another thread, as they would with a real client
+    ScheduledExecutorService completer = Executors.newSingleThreadScheduledExecutor();
+    AtomicInteger started = new AtomicInteger(0);
+    try {
+      TestSync sync = new TestSync(charSyncAccount);
+      List<Integer> keys = new ArrayList<>();
+      for (int i = 0; i < 10; i++) keys.add(i);
+      List<Integer> failed = Collections.synchronizedList(new ArrayList<>());
+      Map<Integer, ApiResponse<Integer>> results = sync.callAllAsync(
+          keys,
+          key -> callback -> {
+            started.incrementAndGet();
+            completer.schedule(() -> {
+              if (key == 7) callback.onFailure(new ApiException(500, "test failure"), 500, null);
+              else callback.onSuccess(key * 2, 200, Collections.emptyMap());
+            }, 5, TimeUnit.MILLISECONDS);
+          },
+          (key, e) -> failed.add(key));
+      Assert.assertEquals(10, started.get());
+      Assert.assertEquals(Collections.singletonList(7), failed);
+      Assert.assertEquals(9, results.size());
+      for (Map.Entry<Integer, ApiResponse<Integer>> next : results.entrySet())
+        Assert.assertEquals(next.getKey() * 2, (int) next.getValue()
+                                                         .getData());
+    } finally {
+      completer.shutdownNow();
+    }
+  }
+
+}
@@ -0,0 +1,30 @@
+package enterprises.orbital.evekit.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CommitBatchControllerTest {
+
+  @Test
+  public void testAdjustTowardTarget() {
+    // 2 ms/row with a 1 second target should settle at 500 rows
+    Assert.assertEquals(500, CommitBatchController.adjust(400, 2.0, 1000, 10, 5000));
+    Assert.assertEquals(500, CommitBatchController.adjust(600, 2.0, 1000, 10, 5000));
+  }
+
+  @Test
+  public void testAdjustLimitedToFactorOfTwo() {
+    // Very cheap rows only double the batch size
+    Assert.assertEquals(400, CommitBatchController.adjust(200, 0.01, 1000, 10, 5000));
+    // Very expensive rows only halve the batch size
+    Assert.assertEquals(100, CommitBatchController.adjust(200, 100.0, 1000, 10, 5000));
+  }
+
+  @Test
+  public void testAdjustBounded() {
+    Assert.assertEquals(300, CommitBatchController.adjust(200, 0.01, 1000, 10, 300));
+    Assert.assertEquals(150, CommitBatchController.adjust(200, 100.0, 1000, 150, 5000));
+    Assert.assertEquals(1, CommitBatchController.adjust(1, 1000.0, 10, 0, 5000));
+  }
+
+}
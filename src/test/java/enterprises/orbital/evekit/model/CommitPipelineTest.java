@@ -0,0 +1,74 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.evekit.model.common.AccountBalance;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CommitPipelineTest {
+
+  private static List<CachedData> makeBlock(int division) {
+    return Collections.singletonList(new AccountBalance(division, BigDecimal.valueOf(division)));
+  }
+
+  @Test
+  public void testBlocksCommittedInOrder() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    List<List<CachedData>> committed = Collections.synchronizedList(new ArrayList<>());
+    List<List<CachedData>> expected = new ArrayList<>();
+    try {
+      CommitPipeline pipeline = new CommitPipeline(2, executor, committed::add);
+      for (int i = 0; i < 50; i++) {
+        List<CachedData> next = makeBlock(i);
+        expected.add(next);
+        pipeline.submit(next);
+      }
+      pipeline.finish();
+      Assert.assertEquals(expected, committed);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInlineWithoutExecutor() throws Exception {
+    List<List<CachedData>> committed = new ArrayList<>();
+    CommitPipeline pipeline = new CommitPipeline(2, null, committed::add);
+    List<CachedData> next = makeBlock(1);
+    pipeline.submit(next);
+    // Inline pipelines commit immediately
+    Assert.assertEquals(Collections.singletonList(next), committed);
+    pipeline.finish();
+  }
+
+  @Test
+  public void testFailurePropagated() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CommitPipeline pipeline = new CommitPipeline(2, executor, (block) -> {
+        throw new IOException("test failure");
+      });
+      try {
+        for (int i = 0; i < 50; i++) {
+          pipeline.submit(makeBlock(i));
+        }
+        pipeline.finish();
+        Assert.fail("IOException should have been thrown");
+      } catch (IOException e) {
+        Assert.assertEquals("test failure", e.getMessage());
+      } finally {
+        pipeline.abort();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
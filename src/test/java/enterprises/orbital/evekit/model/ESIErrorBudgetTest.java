@@ -0,0 +1,28 @@
+package enterprises.orbital.evekit.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ESIErrorBudgetTest {
+
+  @Test
+  public void testSpacing() {
+    // No pacing at or above the soft threshold
+    Assert.assertEquals(0, ESIErrorBudget.spacing(100, 50, 5, 1000));
+    Assert.assertEquals(0, ESIErrorBudget.spacing(50, 50, 5, 1000));
+    // Spacing grows smoothly as the budget falls
+    long previous = 0;
+    for (int remain = 49; remain > 5; remain--) {
+      long next = ESIErrorBudget.spacing(remain, 50, 5, 1000);
+      Assert.assertTrue(next >= previous);
+      Assert.assertTrue(next < 1000);
+      previous = next;
+    }
+    // Halfway between thresholds gives a quarter of the maximum spacing
+    Assert.assertEquals(250, ESIErrorBudget.spacing(30, 55, 5, 1000));
+    // Maximum spacing at or below the hard threshold
+    Assert.assertEquals(1000, ESIErrorBudget.spacing(5, 50, 5, 1000));
+    Assert.assertEquals(1000, ESIErrorBudget.spacing(0, 50, 5, 1000));
+  }
+
+}
@@ -0,0 +1,98 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.base.PersistentProperty;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ESIThrottleTest extends SyncTestBase {
+  private static final long ONE_SECOND = TimeUnit.NANOSECONDS.convert(1, TimeUnit.SECONDS);
+
+  private static final String PROP_RATE = "enterprises.orbital.evekit.sync.default_esi_rate";
+  private static final String PROP_GLOBAL_RATE = PROP_RATE + ".global";
+  private static final String PROP_AGGREGATE_RATE = PROP_RATE + ".aggregate";
+  private static final String TEST_CLASS = "throttle_test";
+  private static final String OTHER_CLASS = "throttle_test_other";
+
+  // Rates are first read once a refresh interval has passed since time zero
+  private long testTime = TimeUnit.MILLISECONDS.convert(1, TimeUnit.DAYS);
+
+  @Override
+  @Before
+  public void setup() throws Exception {
+    super.setup();
+    OrbitalProperties.setTimeGenerator(() -> testTime);
+    ESIThrottle.reset();
+  }
+
+  @Override
+  @After
+  public void teardown() throws Exception {
+    PersistentProperty.setProperty(PROP_GLOBAL_RATE, "0");
+    PersistentProperty.setProperty(PROP_AGGREGATE_RATE + "." + TEST_CLASS, "0");
+    PersistentProperty.setProperty(PROP_RATE + "." + TEST_CLASS, "3");
+    SyncConfig.invalidate();
+    ESIThrottle.reset();
+    OrbitalProperties.setTimeGenerator(null);
+    super.teardown();
+  }
+
+  // A time far enough after bucket creation that all buckets start full
+  private static long start() {
+    return System.nanoTime() + 10 * ONE_SECOND;
+  }
+
+  @Test
+  public void testAccountDelayHoldsGlobalPermit() throws Exception {
+    PersistentProperty.setProperty(PROP_RATE + "." + TEST_CLASS, "1");
+    PersistentProperty.setProperty(PROP_GLOBAL_RATE, "2");
+    SyncConfig.invalidate();
+    long now = start();
+
+    // The second call for the same account is delayed a second by the account limit
+    Assert.assertEquals(now, ESIThrottle.reserve(TEST_CLASS, charSyncAccount, now));
+    Assert.assertEquals(now + ONE_SECOND, ESIThrottle.reserve(TEST_CLASS, charSyncAccount, now));
+
+    // The delayed call holds a global permit at the time it runs, so only one more call may run with it
+    long later = now + ONE_SECOND;
+    Assert.assertEquals(later, ESIThrottle.reserve(TEST_CLASS, corpSyncAccount, later));
+    Assert.assertEquals(later + ONE_SECOND / 2, ESIThrottle.reserve(OTHER_CLASS, corpSyncAccount, later));
+  }
+
+  @Test
+  public void testAggregateLimit() throws Exception {
+    PersistentProperty.setProperty(PROP_AGGREGATE_RATE + "." + TEST_CLASS, "1");
+    SyncConfig.invalidate();
+    long now = start();
+
+    // Accounts share the aggregate limit of a class
+    Assert.assertEquals(now, ESIThrottle.reserve(TEST_CLASS, charSyncAccount, now));
+    Assert.assertEquals(now + ONE_SECOND, ESIThrottle.reserve(TEST_CLASS, corpSyncAccount, now));
+
+    // Other classes are not affected
+    Assert.assertEquals(now, ESIThrottle.reserve(OTHER_CLASS, corpSyncAccount, now));
+  }
+
+  @Test
+  public void testAccountRateRefresh() throws Exception {
+    PersistentProperty.setProperty(PROP_RATE + "." + TEST_CLASS, "1");
+    SyncConfig.invalidate();
+    long now = start();
+    Assert.assertEquals(now, ESIThrottle.reserve(TEST_CLASS, charSyncAccount, now));
+    Assert.assertEquals(1, ESIThrottle.get(TEST_CLASS, charSyncAccount)
+                                      .getRate());
+
+    // Existing account buckets pick up a changed rate at the next refresh
+    PersistentProperty.setProperty(PROP_RATE + "." + TEST_CLASS, "4");
+    testTime += TimeUnit.MILLISECONDS.convert(2, TimeUnit.MINUTES);
+    SyncConfig.invalidate();
+    ESIThrottle.reserve(TEST_CLASS, charSyncAccount, now);
+    Assert.assertEquals(4, ESIThrottle.get(TEST_CLASS, charSyncAccount)
+                                      .getRate());
+  }
+
+}
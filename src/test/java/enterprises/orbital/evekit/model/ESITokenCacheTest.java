@@ -0,0 +1,122 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ESITokenCacheTest extends SyncTestBase {
+
+  private final AtomicInteger refreshCount = new AtomicInteger(0);
+  private volatile long testTime = 1234L;
+
+  @Override
+  @Before
+  public void setup() throws Exception {
+    super.setup();
+    OrbitalProperties.setTimeGenerator(() -> testTime);
+    ESITokenCache.setRefresher((account, window, clientID, secretKey) -> {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread()
+              .interrupt();
+      }
+      return "token" + refreshCount.incrementAndGet();
+    });
+  }
+
+  @Override
+  @After
+  public void teardown() throws Exception {
+    ESITokenCache.setRefresher(null);
+    OrbitalProperties.setTimeGenerator(null);
+    super.teardown();
+  }
+
+  @Test
+  public void testReuse() throws Exception {
+    Assert.assertEquals("token1", ESITokenCache.get(charSyncAccount));
+    Assert.assertEquals("token1", ESITokenCache.get(charSyncAccount));
+    // Accounts have separate tokens
+    Assert.assertEquals("token2", ESITokenCache.get(corpSyncAccount));
+    Assert.assertEquals(2, refreshCount.get());
+
+    // Refreshed once the default reuse interval has passed
+    testTime += TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES);
+    Assert.assertEquals("token3", ESITokenCache.get(charSyncAccount));
+
+    ESITokenCache.evict(charSyncAccount);
+    Assert.assertEquals("token4", ESITokenCache.get(charSyncAccount));
+  }
+
+  @Test
+  public void testSingleFlight() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<String>> callers = new ArrayList<>();
+      for (int i = 0; i < 8; i++) callers.add(() -> ESITokenCache.get(charSyncAccount));
+      for (Future<String> next : executor.invokeAll(callers)) Assert.assertEquals("token1", next.get());
+      Assert.assertEquals(1, refreshCount.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testBackgroundRefresh() throws Exception {
+    Assert.assertEquals("token1", ESITokenCache.get(charSyncAccount));
+    // Within the default refresh ahead window the current token is still returned while a refresh starts
+    testTime += TimeUnit.MILLISECONDS.convert(4, TimeUnit.MINUTES) + 1;
+    Assert.assertEquals("token1", ESITokenCache.get(charSyncAccount));
+    long deadline = System.currentTimeMillis() + 5000;
+    String token = ESITokenCache.get(charSyncAccount);
+    while (!"token2".equals(token) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      token = ESITokenCache.get(charSyncAccount);
+    }
+    Assert.assertEquals("token2", token);
+    Assert.assertEquals(2, refreshCount.get());
+  }
+
+  @Test
+  public void testBackgroundRefreshBackoff() throws Exception {
+    AtomicInteger attempts = new AtomicInteger(0);
+    ESITokenCache.setRefresher((account, window, clientID, secretKey) -> {
+      if (attempts.incrementAndGet() > 1) throw new IOException("test failure");
+      return "token";
+    });
+    Assert.assertEquals("token", ESITokenCache.get(charSyncAccount));
+
+    // A failed background refresh is attempted once, not once per caller
+    testTime += TimeUnit.MILLISECONDS.convert(4, TimeUnit.MINUTES) + 1;
+    for (int i = 0; i < 10; i++) Assert.assertEquals("token", ESITokenCache.get(charSyncAccount));
+    awaitAttempts(attempts, 2);
+    for (int i = 0; i < 10; i++) Assert.assertEquals("token", ESITokenCache.get(charSyncAccount));
+    Thread.sleep(100);
+    Assert.assertEquals(2, attempts.get());
+
+    // Retried once the default retry delay has passed
+    testTime += TimeUnit.MILLISECONDS.convert(10, TimeUnit.SECONDS);
+    Assert.assertEquals("token", ESITokenCache.get(charSyncAccount));
+    awaitAttempts(attempts, 3);
+  }
+
+  private static void awaitAttempts(AtomicInteger attempts, int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (attempts.get() < expected && System.currentTimeMillis() < deadline) Thread.sleep(10);
+    Assert.assertEquals(expected, attempts.get());
+  }
+
+}
@@ -0,0 +1,153 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.evekit.TestBase;
+import enterprises.orbital.evekit.model.corporation.MiningObservation;
+import org.apache.commons.lang3.tuple.Triple;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+public class KeyedReconcilerTest {
+  private static final Logger log = Logger.getLogger(KeyedReconcilerTest.class.getName());
+
+  private static final KeyedReconciler.WideKey<MiningObservation> OBSERVATION_KEY =
+      new KeyedReconciler.WideKey<MiningObservation>() {
+        @Override
+        public long high(MiningObservation value) {
+          return value.getObserverID();
+        }
+
+        @Override
+        public long low(MiningObservation value) {
+          return KeyedReconciler.pack(value.getCharacterID(), value.getTypeID());
+        }
+      };
+
+  private static MiningObservation observation(long observerID, int characterID, int typeID, long quantity) {
+    return new MiningObservation(observerID, characterID, typeID, 1234, quantity, 5678L);
+  }
+
+  @Test
+  public void testPack() {
+    Assert.assertEquals(0x0000000100000002L, KeyedReconciler.pack(1, 2));
+    Assert.assertEquals(0xFFFFFFFFFFFFFFFFL, KeyedReconciler.pack(-1, -1));
+    // Negative low values must not bleed into the high half
+    Assert.assertNotEquals(KeyedReconciler.pack(0, -1), KeyedReconciler.pack(-1, -1));
+  }
+
+  @Test
+  public void testReconcile() {
+    List<MiningObservation> stored = new ArrayList<>();
+    stored.add(observation(1L, 10, 100, 5));
+    stored.add(observation(1L, 10, 101, 5));
+    stored.add(observation(2L, 10, 100, 5));
+    List<MiningObservation> incoming = new ArrayList<>();
+    // Unchanged
+    incoming.add(observation(1L, 10, 100, 5));
+    // Changed
+    incoming.add(observation(1L, 10, 101, 6));
+    // Added
+    incoming.add(observation(3L, 10, 100, 5));
+
+    KeyedReconciler.Result<MiningObservation> wide = KeyedReconciler.reconcile(incoming, stored, OBSERVATION_KEY);
+    KeyedReconciler.Result<MiningObservation> boxed = KeyedReconciler.reconcileObjects(
+        incoming, stored, x -> Triple.of(x.getObserverID(), x.getCharacterID(), x.getTypeID()));
+
+    for (KeyedReconciler.Result<MiningObservation> result : Arrays.asList(wide, boxed)) {
+      Assert.assertEquals(1, result.added.size());
+      Assert.assertSame(incoming.get(2), result.added.get(0));
+      Assert.assertEquals(1, result.changed.size());
+      Assert.assertSame(incoming.get(1), result.changed.get(0));
+      Assert.assertEquals(1, result.removed.size());
+      Assert.assertSame(stored.get(2), result.removed.get(0));
+    }
+  }
+
+  @Test
+  public void testReconcileGrowsTable() {
+    // Stored data supplied lazily (not a Collection) forces the table to grow from its default size
+    List<MiningObservation> stored = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) stored.add(observation(i, i, i, i));
+    KeyedReconciler.Result<MiningObservation> result = KeyedReconciler.reconcile(stored.subList(0, 500),
+                                                                                 stored::iterator,
+                                                                                 OBSERVATION_KEY);
+    Assert.assertTrue(result.added.isEmpty());
+    Assert.assertTrue(result.changed.isEmpty());
+    Assert.assertEquals(500, result.removed.size());
+  }
+
+  // The hand rolled pattern used by synchronizers before the reconciler
+  private static int boxedReconcile(List<MiningObservation> incoming, List<MiningObservation> stored) {
+    Map<Triple<Long, Integer, Integer>, MiningObservation> storedMap = new HashMap<>();
+    for (MiningObservation next : stored)
+      storedMap.put(Triple.of(next.getObserverID(), next.getCharacterID(), next.getTypeID()), next);
+    Set<Triple<Long, Integer, Integer>> seen = new HashSet<>();
+    List<CachedData> updates = new ArrayList<>();
+    for (MiningObservation next : incoming) {
+      Triple<Long, Integer, Integer> key = Triple.of(next.getObserverID(), next.getCharacterID(), next.getTypeID());
+      if (!storedMap.containsKey(key) || !next.equivalent(storedMap.get(key))) updates.add(next);
+      seen.add(key);
+    }
+    for (MiningObservation existing : storedMap.values()) {
+      if (!seen.contains(Triple.of(existing.getObserverID(), existing.getCharacterID(), existing.getTypeID())))
+        updates.add(existing);
+    }
+    return updates.size();
+  }
+
+  private static int primitiveReconcile(List<MiningObservation> incoming, List<MiningObservation> stored) {
+    KeyedReconciler.Result<MiningObservation> result = KeyedReconciler.reconcile(incoming, stored,
+                                                                                 OBSERVATION_KEY);
+    return result.added.size() + result.changed.size() + result.removed.size();
+  }
+
+  // Bytes allocated by the current thread, or -1 if not supported
+  private static long allocated() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+    return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread()
+                                                                                  .getId());
+  }
+
+  @Test
+  public void benchmarkAllocationAgainstBoxedKeys() {
+    Assume.assumeTrue(allocated() >= 0);
+    int count = 50000;
+    List<MiningObservation> stored = new ArrayList<>();
+    List<MiningObservation> incoming = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      long observerID = TestBase.getUniqueRandomLong();
+      stored.add(observation(observerID, i, i % 100, 10));
+      // Change every tenth row, drop every hundredth
+      if (i % 100 != 0) incoming.add(observation(observerID, i, i % 100, i % 10 == 0 ? 11 : 10));
+    }
+
+    // Warm up both paths
+    for (int i = 0; i < 5; i++) {
+      Assert.assertEquals(boxedReconcile(incoming, stored), primitiveReconcile(incoming, stored));
+    }
+
+    int rounds = 10;
+    long start = allocated();
+    for (int i = 0; i < rounds; i++) boxedReconcile(incoming, stored);
+    long boxed = (allocated() - start) / rounds;
+    start = allocated();
+    for (int i = 0; i < rounds; i++) primitiveReconcile(incoming, stored);
+    long primitive = (allocated() - start) / rounds;
+
+    log.info("Reconcile " + count + " rows: boxed Triple keys allocate " + boxed + " bytes, primitive keys allocate " +
+                 primitive + " bytes");
+    Assert.assertTrue(primitive < boxed);
+  }
+
+}
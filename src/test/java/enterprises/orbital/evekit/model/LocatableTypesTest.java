@@ -0,0 +1,100 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.evekit.sde.client.model.InvCategory;
+import enterprises.orbital.evekit.sde.client.model.InvGroup;
+import enterprises.orbital.evekit.sde.client.model.InvType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class LocatableTypesTest extends SyncTestBase {
+
+  // In memory SDE which counts type lookups
+  private static class TestSDECache implements SDECache {
+    final Map<Integer, InvType> types = new HashMap<>();
+    final Map<Integer, InvGroup> groups = new HashMap<>();
+    final Map<Integer, InvCategory> categories = new HashMap<>();
+    int typeLookups = 0;
+
+    void addType(int typeID, int groupID) {
+      InvType type = new InvType();
+      type.setTypeID(typeID);
+      type.setGroupID(groupID);
+      types.put(typeID, type);
+    }
+
+    void addGroup(int groupID, String name, int categoryID) {
+      InvGroup group = new InvGroup();
+      group.setGroupID(groupID);
+      group.setGroupName(name);
+      group.setCategoryID(categoryID);
+      groups.put(groupID, group);
+    }
+
+    void addCategory(int categoryID, String name) {
+      InvCategory category = new InvCategory();
+      category.setCategoryID(categoryID);
+      category.setCategoryName(name);
+      categories.put(categoryID, category);
+    }
+
+    @Override
+    public InvType getType(int typeID) {
+      typeLookups++;
+      return types.get(typeID);
+    }
+
+    @Override
+    public InvGroup getGroup(int groupID) {
+      return groups.get(groupID);
+    }
+
+    @Override
+    public InvCategory getCategory(int categoryID) {
+      return categories.get(categoryID);
+    }
+  }
+
+  @Test
+  public void testResolveOnDemand() throws Exception {
+    TestSDECache sde = new TestSDECache();
+    sde.addCategory(6, "Ship");
+    sde.addCategory(4, "Material");
+    sde.addCategory(2, "Celestial");
+    sde.addGroup(25, "Frigate", 6);
+    sde.addGroup(12, "Cargo Container", 2);
+    sde.addGroup(18, "Mineral", 4);
+    sde.addType(587, 25);
+    sde.addType(3467, 12);
+    sde.addType(34, 18);
+    LocatableTypes locatable = new LocatableTypes(sde);
+
+    // Ships and containers are locatable, other types and types missing from the SDE are not
+    BitSet result = locatable.resolve(Arrays.asList(587, 3467, 34, 99999));
+    Assert.assertTrue(result.get(587));
+    Assert.assertTrue(result.get(3467));
+    Assert.assertFalse(result.get(34));
+    Assert.assertFalse(result.get(99999));
+    Assert.assertEquals(3, locatable.size());
+    Assert.assertEquals(4, sde.typeLookups);
+
+    // Resolved types are cached, whether or not they are locatable
+    result = locatable.resolve(Arrays.asList(587, 3467, 34));
+    Assert.assertTrue(result.get(587));
+    Assert.assertFalse(result.get(34));
+    Assert.assertEquals(4, sde.typeLookups);
+
+    // Types which could not be resolved are retried
+    sde.addType(99999, 25);
+    result = locatable.resolve(Collections.singletonList(99999));
+    Assert.assertTrue(result.get(99999));
+    Assert.assertEquals(4, locatable.size());
+    Assert.assertEquals(5, sde.typeLookups);
+  }
+
+}
@@ -0,0 +1,76 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.PersistentProperty;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NextEventPlannerTest extends SyncTestBase {
+
+  @Override
+  @Before
+  public void setup() throws Exception {
+    super.setup();
+    NextEventPlanner.reset();
+  }
+
+  @Override
+  @After
+  public void teardown() throws Exception {
+    PersistentProperty.setProperty("enterprises.orbital.evekit.sync_mgr.next_event_window", "0");
+    SyncConfig.invalidate();
+    NextEventPlanner.reset();
+    super.teardown();
+  }
+
+  @Test
+  public void testDisabledByDefault() {
+    long expiry = 1234567L;
+    Assert.assertEquals(expiry, NextEventPlanner.plan(charSyncAccount, ESISyncEndpoint.CHAR_MAIL, expiry));
+  }
+
+  @Test
+  public void testWithinWindow() throws Exception {
+    PersistentProperty.setProperty("enterprises.orbital.evekit.sync_mgr.next_event_window", "60000");
+    PersistentProperty.setProperty("enterprises.orbital.evekit.sync_mgr.next_event_slot", "1000");
+    SyncConfig.invalidate();
+    long expiry = 1234567L;
+    long next = NextEventPlanner.plan(charSyncAccount, ESISyncEndpoint.CHAR_MAIL, expiry);
+    Assert.assertTrue(next >= expiry);
+    Assert.assertTrue(next < expiry + 61000L);
+
+    // The preferred slot is deterministic
+    NextEventPlanner.reset();
+    Assert.assertEquals(next, NextEventPlanner.plan(charSyncAccount, ESISyncEndpoint.CHAR_MAIL, expiry));
+  }
+
+  @Test
+  public void testSpreading() {
+    // Sixty events with the same expiry and preferred slot fill all sixty slots exactly once
+    long expiry = 1000000L;
+    for (int i = 0; i < 60; i++) {
+      long next = NextEventPlanner.plan(42L, expiry, 60000L, 1000L);
+      Assert.assertTrue(next >= expiry);
+      Assert.assertTrue(next < expiry + 60000L);
+    }
+    for (long slot = expiry; slot < expiry + 60000L; slot += 1000L)
+      Assert.assertEquals(1, NextEventPlanner.scheduled(slot, 1000L));
+  }
+
+  @Test
+  public void testSlotWidthsCountedSeparately() {
+    // An event in the first one second slot does not count against the first two second slot, which starts
+    // at the same time
+    long expiry = 1000000L;
+    long first = NextEventPlanner.plan(40L, expiry, 4000L, 1000L);
+    Assert.assertTrue(first >= expiry);
+    Assert.assertTrue(first < expiry + 1000L);
+    long next = NextEventPlanner.plan(42L, expiry, 4000L, 2000L);
+    Assert.assertTrue(next >= expiry);
+    Assert.assertTrue(next < expiry + 2000L);
+    Assert.assertEquals(1, NextEventPlanner.scheduled(expiry, 1000L));
+    Assert.assertEquals(1, NextEventPlanner.scheduled(expiry, 2000L));
+  }
+
+}
@@ -0,0 +1,41 @@
+package enterprises.orbital.evekit.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class PayloadDigestTest extends SyncTestBase {
+
+  @Test
+  public void testDigestStable() {
+    Assert.assertEquals(PayloadDigest.digest(Arrays.asList(1, 2, 3)), PayloadDigest.digest(Arrays.asList(1, 2, 3)));
+    Assert.assertNotEquals(PayloadDigest.digest(Arrays.asList(1, 2, 3)), PayloadDigest.digest(Arrays.asList(1, 2)));
+    Assert.assertEquals(64, PayloadDigest.digest(null)
+                                         .length());
+  }
+
+  @Test
+  public void testUnchanged() {
+    long now = 1234L;
+    String digest = PayloadDigest.digest(Arrays.asList(1, 2, 3));
+    // Nothing recorded yet
+    Assert.assertFalse(PayloadDigest.unchanged(charSyncAccount, ESISyncEndpoint.CHAR_STANDINGS, digest, now));
+
+    PayloadDigest.record(charSyncAccount, ESISyncEndpoint.CHAR_STANDINGS, digest, now);
+    Assert.assertTrue(PayloadDigest.unchanged(charSyncAccount, ESISyncEndpoint.CHAR_STANDINGS, digest, now + 1));
+    // Different payload, endpoint or account
+    Assert.assertFalse(PayloadDigest.unchanged(charSyncAccount, ESISyncEndpoint.CHAR_STANDINGS,
+                                               PayloadDigest.digest(Arrays.asList(1, 2)), now + 1));
+    Assert.assertFalse(PayloadDigest.unchanged(charSyncAccount, ESISyncEndpoint.CHAR_TITLES, digest, now + 1));
+    Assert.assertFalse(PayloadDigest.unchanged(corpSyncAccount, ESISyncEndpoint.CHAR_STANDINGS, digest, now + 1));
+    // Forced reconcile once the default interval passes
+    Assert.assertFalse(PayloadDigest.unchanged(charSyncAccount, ESISyncEndpoint.CHAR_STANDINGS, digest,
+                                               now + TimeUnit.MILLISECONDS.convert(6, TimeUnit.HOURS)));
+
+    PayloadDigest.evict(charSyncAccount);
+    Assert.assertFalse(PayloadDigest.unchanged(charSyncAccount, ESISyncEndpoint.CHAR_STANDINGS, digest, now + 1));
+  }
+
+}
@@ -0,0 +1,121 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.evekit.sde.client.invoker.ApiException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SDELoadingCacheTest {
+
+  @Test
+  public void testConcurrentMissesLoadOnce() throws Exception {
+    SDELoadingCache<String> cache = new SDELoadingCache<>(100, 1000);
+    AtomicInteger loads = new AtomicInteger(0);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> cache.get(1, (id) -> {
+          loads.incrementAndGet();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new ApiException(e);
+          }
+          return "value" + id;
+        })));
+      }
+      Thread.sleep(100);
+      release.countDown();
+      for (Future<String> next : results) {
+        Assert.assertEquals("value1", next.get());
+      }
+      Assert.assertEquals(1, loads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testNegativeCaching() throws Exception {
+    SDELoadingCache<String> cache = new SDELoadingCache<>(100, 50);
+    AtomicInteger loads = new AtomicInteger(0);
+    SDELoadingCache.Loader<String> loader = (id) -> {
+      loads.incrementAndGet();
+      return null;
+    };
+    Assert.assertNull(cache.get(1, loader));
+    Assert.assertNull(cache.get(1, loader));
+    Assert.assertEquals(1, loads.get());
+    Thread.sleep(100);
+    // Negative entry has expired
+    Assert.assertNull(cache.get(1, loader));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testFailuresNotCached() throws Exception {
+    SDELoadingCache<String> cache = new SDELoadingCache<>(100, 1000);
+    try {
+      cache.get(1, (id) -> {
+        throw new ApiException("test failure");
+      });
+      Assert.fail("ApiException should have been thrown");
+    } catch (ApiException e) {
+      Assert.assertEquals("test failure", e.getMessage());
+    }
+    Assert.assertFalse(cache.contains(1));
+    Assert.assertEquals("value1", cache.get(1, (id) -> "value" + id));
+  }
+
+  @Test
+  public void testErrorReleasesKey() throws Exception {
+    SDELoadingCache<String> cache = new SDELoadingCache<>(100, 1000);
+    try {
+      cache.get(1, (id) -> {
+        throw new AssertionError("test error");
+      });
+      Assert.fail("AssertionError should have been thrown");
+    } catch (AssertionError e) {
+      Assert.assertEquals("test error", e.getMessage());
+    }
+    // A later load is not blocked by the failed load
+    Assert.assertEquals("value1", cache.get(1, (id) -> "value" + id));
+  }
+
+  @Test
+  public void testReloadedKeyKeepsInsertionOrder() throws Exception {
+    SDELoadingCache<String> cache = new SDELoadingCache<>(3, 50);
+    cache.get(1, (id) -> null);
+    cache.get(2, (id) -> "value" + id);
+    Thread.sleep(100);
+    // Reload the expired negative entry so that it is newer than key 2
+    cache.get(1, (id) -> "value" + id);
+    cache.get(3, (id) -> "value" + id);
+    cache.get(4, (id) -> "value" + id);
+    Assert.assertEquals(3, cache.size());
+    Assert.assertFalse(cache.contains(2));
+    Assert.assertTrue(cache.contains(1));
+  }
+
+  @Test
+  public void testBounded() throws Exception {
+    SDELoadingCache<String> cache = new SDELoadingCache<>(10, 1000);
+    for (int i = 0; i < 100; i++) {
+      cache.get(i, (id) -> "value" + id);
+    }
+    Assert.assertEquals(10, cache.size());
+    // Oldest entries are evicted first
+    Assert.assertFalse(cache.contains(0));
+    Assert.assertTrue(cache.contains(99));
+  }
+
+}
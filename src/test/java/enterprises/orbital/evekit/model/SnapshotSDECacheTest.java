@@ -0,0 +1,64 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.evekit.sde.client.model.InvCategory;
+import enterprises.orbital.evekit.sde.client.model.InvGroup;
+import enterprises.orbital.evekit.sde.client.model.InvType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SnapshotSDECacheTest extends SyncTestBase {
+
+  @Test
+  public void testSnapshotRoundTrip() throws Exception {
+    Path snapshot = Files.createTempFile("sde", ".snapshot");
+    Files.delete(snapshot);
+    try {
+      SnapshotSDECache original = new SnapshotSDECache(snapshot);
+      InvType type = new InvType();
+      type.setTypeID(1234);
+      type.setGroupID(5678);
+      type.setTypeName("dummyType");
+      type.setMass(1234D);
+      type.setBasePrice(BigDecimal.ONE);
+      InvGroup group = new InvGroup();
+      group.setGroupID(5678);
+      group.setCategoryID(6);
+      group.setGroupName("Dummy Container");
+      InvCategory category = new InvCategory();
+      category.setCategoryID(6);
+      category.setCategoryName("Ship");
+      original.getTypeCache()
+              .put(1234, type);
+      original.getGroupCache()
+              .put(5678, group);
+      original.getCategoryCache()
+              .put(6, category);
+      original.writeIfChanged();
+      original.shutdown();
+      Assert.assertTrue(Files.exists(snapshot));
+
+      // A new cache should serve these entries without any remote lookups
+      SnapshotSDECache restored = new SnapshotSDECache(snapshot);
+      restored.shutdown();
+      Assert.assertTrue(restored.getTypeCache()
+                                .contains(1234));
+      InvType restoredType = restored.getType(1234);
+      Assert.assertEquals(5678, (int) restoredType.getGroupID());
+      Assert.assertEquals("dummyType", restoredType.getTypeName());
+      Assert.assertNull(restoredType.getDescription());
+      Assert.assertEquals(1234D, restoredType.getMass(), 0D);
+      Assert.assertEquals(BigDecimal.ONE, restoredType.getBasePrice());
+      Assert.assertEquals("Dummy Container", restored.getGroup(5678)
+                                                     .getGroupName());
+      Assert.assertEquals("Ship", restored.getCategory(6)
+                                          .getCategoryName());
+    } finally {
+      Files.deleteIfExists(snapshot);
+    }
+  }
+
+}
@@ -0,0 +1,47 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.PersistentProperty;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SyncConfigTest extends SyncTestBase {
+
+  private static final String TEST_PROP = "enterprises.orbital.evekit.sync_mgr.config_test";
+
+  @Test
+  public void testSnapshotReuse() throws Exception {
+    Assert.assertEquals(5, SyncConfig.getInt(TEST_PROP, 5));
+
+    // Changes are not seen until the snapshot is refreshed
+    PersistentProperty.setProperty(TEST_PROP, "10");
+    Assert.assertEquals(5, SyncConfig.getInt(TEST_PROP, 5));
+    SyncConfig.invalidate();
+    Assert.assertEquals(10, SyncConfig.getInt(TEST_PROP, 5));
+    Assert.assertEquals(10L, SyncConfig.getLong(TEST_PROP, 5L));
+    Assert.assertEquals("10", SyncConfig.get(TEST_PROP, "5"));
+
+    // Unparseable values fall back to the default
+    PersistentProperty.setProperty(TEST_PROP, "bogus");
+    SyncConfig.invalidate();
+    Assert.assertEquals(5, SyncConfig.getInt(TEST_PROP, 5));
+  }
+
+  @Test
+  public void testEndpointFallback() throws Exception {
+    String prop = TEST_PROP + "_endpoint";
+    PersistentProperty.setProperty(prop, "true");
+    PersistentProperty.setProperty(prop + "." + ESISyncEndpoint.CHAR_MAIL.name(), "false");
+    SyncConfig.invalidate();
+    Assert.assertFalse(SyncConfig.getBoolean(prop, ESISyncEndpoint.CHAR_MAIL, true));
+    Assert.assertTrue(SyncConfig.getBoolean(prop, ESISyncEndpoint.CHAR_ASSETS, false));
+    Assert.assertTrue(SyncConfig.getBoolean(prop + "_unset", ESISyncEndpoint.CHAR_ASSETS, true));
+  }
+
+  @Test
+  public void testAccountDefault() {
+    // Accounts without an override use the supplied default
+    Assert.assertEquals(7, SyncConfig.getInt(charSyncAccount, TEST_PROP + "_account", 7));
+    Assert.assertEquals(7, SyncConfig.getInt(null, TEST_PROP + "_account", 7));
+  }
+
+}
@@ -0,0 +1,48 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.OrbitalProperties;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SyncDeadlineTest {
+
+  private volatile long testTime = 1234L;
+
+  @Before
+  public void setup() {
+    OrbitalProperties.setTimeGenerator(() -> testTime);
+  }
+
+  @After
+  public void teardown() {
+    OrbitalProperties.setTimeGenerator(null);
+  }
+
+  @Test
+  public void testExpiry() throws Exception {
+    SyncDeadline deadline = new SyncDeadline(2000L);
+    Assert.assertFalse(deadline.expired());
+    deadline.check();
+
+    testTime = 2000L;
+    Assert.assertTrue(deadline.expired());
+    try {
+      deadline.check();
+      Assert.fail("check should throw after the deadline");
+    } catch (SyncDeadlineExceededException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testCancel() {
+    SyncDeadline deadline = SyncDeadline.none();
+    Assert.assertFalse(deadline.expired());
+    deadline.cancel();
+    Assert.assertTrue(deadline.isCancelled());
+    Assert.assertTrue(deadline.expired());
+  }
+
+}
@@ -0,0 +1,58 @@
+package enterprises.orbital.evekit.model;
+
+import enterprises.orbital.base.PersistentProperty;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+public class SyncExecutorsTest extends SyncTestBase {
+
+  private static final String PROP_VIRTUAL_THREADS = "enterprises.orbital.evekit.sync_mgr.virtual_threads";
+
+  @Override
+  @After
+  public void teardown() throws Exception {
+    PersistentProperty.setProperty(PROP_VIRTUAL_THREADS, "false");
+    SyncConfig.invalidate();
+    super.teardown();
+  }
+
+  private static void runTasks(ExecutorService executor) throws Exception {
+    try {
+      List<Callable<Integer>> tasks = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        final int value = i;
+        tasks.add(() -> {
+          Thread.sleep(10);
+          return value;
+        });
+      }
+      int i = 0;
+      for (Future<Integer> next : executor.invokeAll(tasks)) Assert.assertEquals(i++, (int) next.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testPlatformThreads() throws Exception {
+    Assert.assertFalse(SyncExecutors.useVirtualThreads());
+    runTasks(SyncExecutors.newScheduler("test-sync", 4));
+  }
+
+  @Test
+  public void testVirtualThreads() throws Exception {
+    PersistentProperty.setProperty(PROP_VIRTUAL_THREADS, "true");
+    SyncConfig.invalidate();
+    // Virtual thread mode is ignored on JVMs which don't support it
+    Assert.assertEquals(SyncExecutors.virtualThreadsSupported(), SyncExecutors.useVirtualThreads());
+    runTasks(SyncExecutors.newScheduler("test-sync", 4));
+  }
+
+}
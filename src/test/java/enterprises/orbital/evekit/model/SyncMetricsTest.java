@@ -0,0 +1,48 @@
+package enterprises.orbital.evekit.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SyncMetricsTest {
+
+  @Test
+  public void testHistogramBuckets() {
+    EndpointMetrics.Histogram hist = new EndpointMetrics.Histogram();
+    hist.observe(5);
+    hist.observe(10);
+    hist.observe(75);
+    hist.observe(Long.MAX_VALUE / 2);
+    long[] buckets = hist.cumulative();
+    Assert.assertEquals(EndpointMetrics.BOUNDS.length + 1, buckets.length);
+    // <= 10
+    Assert.assertEquals(2, buckets[0]);
+    // <= 50
+    Assert.assertEquals(2, buckets[1]);
+    // <= 100
+    Assert.assertEquals(3, buckets[2]);
+    // +Inf
+    Assert.assertEquals(4, buckets[buckets.length - 1]);
+    Assert.assertEquals(4, hist.getCount());
+  }
+
+  @Test
+  public void testRender() {
+    EndpointMetrics metrics = SyncMetrics.get("TEST_RENDER_ENDPOINT");
+    metrics.recordSync(120, 100, -1, 20);
+    metrics.esiCall();
+    metrics.esiCall();
+    metrics.rowUnchanged();
+    metrics.error("esi_502");
+    String text = SyncMetrics.render();
+    Assert.assertTrue(text.contains("evekit_sync_esi_calls_total{endpoint=\"TEST_RENDER_ENDPOINT\"} 2\n"));
+    Assert.assertTrue(text.contains("evekit_sync_rows_unchanged_total{endpoint=\"TEST_RENDER_ENDPOINT\"} 1\n"));
+    Assert.assertTrue(
+        text.contains("evekit_sync_errors_total{endpoint=\"TEST_RENDER_ENDPOINT\",type=\"esi_502\"} 1\n"));
+    Assert.assertTrue(text.contains("evekit_sync_total_ms_bucket{endpoint=\"TEST_RENDER_ENDPOINT\",le=\"250\"} 1\n"));
+    Assert.assertTrue(text.contains("evekit_sync_total_ms_sum{endpoint=\"TEST_RENDER_ENDPOINT\"} 120\n"));
+    // Process phase was not recorded
+    Assert.assertTrue(text.contains("evekit_sync_process_ms_count{endpoint=\"TEST_RENDER_ENDPOINT\"} 0\n"));
+    Assert.assertSame(metrics, SyncMetrics.get("TEST_RENDER_ENDPOINT"));
+  }
+
+}
@@ -22,6 +22,8 @@ public class SyncTestBase {
   public void setup() throws Exception {
     OrbitalProperties.addPropertyFile("SyncTest.properties");
     PersistentProperty.setProvider(new DBPropertyProvider(OrbitalProperties.getGlobalProperty(EveKitUserAccountProvider.USER_ACCOUNT_PU_PROP)));
+    SyncConfig.invalidate();
+    AccountSnapshotCache.clear();
     testUserAccount = EveKitUserAccount.createNewUserAccount(true, true);
     charSyncAccount = SynchronizedEveAccount.createSynchronizedEveAccount(testUserAccount, "chartestaccount", true);
     corpSyncAccount = SynchronizedEveAccount.createSynchronizedEveAccount(testUserAccount, "corptestaccount", false);
@@ -0,0 +1,46 @@
+package enterprises.orbital.evekit.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucketTest {
+  private static final long ONE_SECOND = TimeUnit.NANOSECONDS.convert(1, TimeUnit.SECONDS);
+
+  @Test
+  public void testBurstThenPaced() {
+    TokenBucket bucket = new TokenBucket(4);
+    long now = System.nanoTime();
+    // A full bucket allows one second of permits immediately
+    for (int i = 0; i < 4; i++) {
+      Assert.assertEquals(0, bucket.reserve(now));
+    }
+    // Further permits are spaced at the refill rate
+    Assert.assertEquals(ONE_SECOND / 4, bucket.reserve(now));
+    Assert.assertEquals(2 * ONE_SECOND / 4, bucket.reserve(now));
+  }
+
+  @Test
+  public void testRefill() {
+    TokenBucket bucket = new TokenBucket(2);
+    long now = System.nanoTime();
+    Assert.assertEquals(0, bucket.reserve(now));
+    Assert.assertEquals(0, bucket.reserve(now));
+    Assert.assertEquals(ONE_SECOND / 2, bucket.reserve(now));
+    // After two seconds the bucket is full again
+    long later = now + 2 * ONE_SECOND;
+    Assert.assertEquals(0, bucket.reserve(later));
+    Assert.assertEquals(0, bucket.reserve(later));
+    Assert.assertEquals(ONE_SECOND / 2, bucket.reserve(later));
+  }
+
+  @Test
+  public void testSetRate() {
+    TokenBucket bucket = new TokenBucket(1);
+    Assert.assertEquals(1, bucket.getRate());
+    bucket.setRate(10);
+    Assert.assertEquals(10, bucket.getRate());
+  }
+
+}
@@ -25,6 +25,8 @@ import org.junit.Test;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -94,6 +96,13 @@ public class ESICharacterAssetsSyncTest extends SyncTestBase {
 
   }
 
+  // Map every requested SDE ID to the same dummy value
+  private static <V> Map<Integer, V> dummyMap(Object ids, V value) {
+    Map<Integer, V> result = new HashMap<>();
+    for (Object next : (Collection<?>) ids) result.put((Integer) next, value);
+    return result;
+  }
+
   @Override
   @Before
   public void setup() throws Exception {
@@ -245,6 +254,15 @@ public class ESICharacterAssetsSyncTest extends SyncTestBase {
     EasyMock.expect(mockCache.getType(EasyMock.anyInt())).andReturn(dummyType).anyTimes();
     EasyMock.expect(mockCache.getGroup(EasyMock.anyInt())).andReturn(dummyGroup).anyTimes();
     EasyMock.expect(mockCache.getCategory(EasyMock.anyInt())).andReturn(dummyCategory).anyTimes();
+    EasyMock.expect(mockCache.getTypes(EasyMock.anyObject()))
+            .andAnswer(() -> dummyMap(EasyMock.getCurrentArguments()[0], dummyType))
+            .anyTimes();
+    EasyMock.expect(mockCache.getGroups(EasyMock.anyObject()))
+            .andAnswer(() -> dummyMap(EasyMock.getCurrentArguments()[0], dummyGroup))
+            .anyTimes();
+    EasyMock.expect(mockCache.getCategories(EasyMock.anyObject()))
+            .andAnswer(() -> dummyMap(EasyMock.getCurrentArguments()[0], dummyCategory))
+            .anyTimes();
     AbstractESIAccountSync.setCacheCreator(() -> mockCache);
   }
 
@@ -1,6 +1,7 @@
 package enterprises.orbital.evekit.model.character.sync;
 
 import enterprises.orbital.base.OrbitalProperties;
+import enterprises.orbital.base.PersistentProperty;
 import enterprises.orbital.eve.esi.client.api.ClonesApi;
 import enterprises.orbital.eve.esi.client.invoker.ApiResponse;
 import enterprises.orbital.evekit.TestBase;
@@ -18,6 +19,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("Duplicates")
@@ -28,6 +30,9 @@ public class ESICharacterSheetImplantsSyncTest extends SyncTestBase {
   private ClonesApi mockEndpoint;
   private long testTime = 1238L;
 
+  private static final String PROP_PAYLOAD_DIGEST = "enterprises.orbital.evekit.sync_mgr.payload_digest." +
+      ESISyncEndpoint.CHAR_IMPLANTS.name();
+
   private static Object[] implantTestData;
 
   static {
@@ -54,6 +59,9 @@ public class ESICharacterSheetImplantsSyncTest extends SyncTestBase {
   @Override
   @After
   public void teardown() throws Exception {
+    PersistentProperty.setProperty(PROP_PAYLOAD_DIGEST, "false");
+    SyncConfig.invalidate();
+    PayloadDigest.evict(charSyncAccount);
     // Cleanup test specific tables after each test
     EveKitUserAccountProvider.getFactory()
                              .runTransaction(() -> {
@@ -68,6 +76,11 @@ public class ESICharacterSheetImplantsSyncTest extends SyncTestBase {
 
   // Mock up server interface
   private void setupOkMock() throws Exception {
+    setupOkMock(1);
+  }
+
+  // Mock up server interface for the given number of syncs
+  private void setupOkMock(int syncs) throws Exception {
     mockEndpoint = EasyMock.createMock(ClonesApi.class);
 
     // Set up implant list
@@ -83,11 +96,13 @@ public class ESICharacterSheetImplantsSyncTest extends SyncTestBase {
         EasyMock.isNull(),
         EasyMock.isNull(),
         EasyMock.anyString()))
-            .andReturn(apir);
+            .andReturn(apir)
+            .times(syncs);
     // Setup server mock
     mockServer = EasyMock.createMock(ESIAccountClientProvider.class);
     EasyMock.expect(mockServer.getClonesApi())
-            .andReturn(mockEndpoint);
+            .andReturn(mockEndpoint)
+            .times(syncs);
   }
 
   private void verifyDataUpdate() throws Exception {
@@ -197,4 +212,48 @@ public class ESICharacterSheetImplantsSyncTest extends SyncTestBase {
     Assert.assertEquals(schedTime, syncTracker.getScheduled());
   }
 
+  private int countStored() throws Exception {
+    return AbstractESIAccountSync.retrieveAll(testTime,
+                                              (long contid, AttributeSelector at) ->
+                                                  Implant.accessQuery(charSyncAccount, contid, 1000, false, at,
+                                                                      AbstractESIAccountSync.ANY_SELECTOR))
+                                 .size();
+  }
+
+  @Test
+  public void testSyncUnchangedPayload() throws Exception {
+    setupOkMock(3);
+    EasyMock.replay(mockServer, mockEndpoint);
+    PersistentProperty.setProperty(PROP_PAYLOAD_DIGEST, "true");
+    SyncConfig.invalidate();
+    EndpointMetrics metrics = SyncMetrics.get(ESISyncEndpoint.CHAR_IMPLANTS);
+    long skips = metrics.getDigestSkips();
+
+    // First sync processes and stores the payload
+    new ESICharacterSheetImplantsSync(charSyncAccount).synch(mockServer);
+    verifyDataUpdate();
+    Assert.assertEquals(skips, metrics.getDigestSkips());
+
+    // Add a stray implant which a full reconcile would remove
+    testTime += 1;
+    Implant stray = new Implant(TestBase.getUniqueRandomInteger());
+    stray.setup(charSyncAccount, testTime);
+    CachedData.update(stray);
+
+    // The same payload skips processing, so the stray implant is left alone
+    new ESICharacterSheetImplantsSync(charSyncAccount).synch(mockServer);
+    Assert.assertEquals(skips + 1, metrics.getDigestSkips());
+    Assert.assertEquals(implantTestData.length + 1, countStored());
+    ESIEndpointSyncTracker syncTracker = ESIEndpointSyncTracker.getLatestFinishedTracker(charSyncAccount,
+                                                                                         ESISyncEndpoint.CHAR_IMPLANTS);
+    Assert.assertEquals(ESISyncState.FINISHED, syncTracker.getStatus());
+
+    // Once the reconcile interval passes, the same payload is processed in full and the stray implant is removed
+    testTime += TimeUnit.MILLISECONDS.convert(6, TimeUnit.HOURS);
+    new ESICharacterSheetImplantsSync(charSyncAccount).synch(mockServer);
+    EasyMock.verify(mockServer, mockEndpoint);
+    Assert.assertEquals(skips + 1, metrics.getDigestSkips());
+    verifyDataUpdate();
+  }
+
 }
@@ -188,6 +188,20 @@ public class ESICorporationBlueprintsSyncTest extends SyncTestBase {
 
   @Test
   public void testSyncUpdateExisting() throws Exception {
+    checkSyncUpdateExisting(new ESICorporationBlueprintsSync(corpSyncAccount));
+  }
+
+  @Test
+  public void testSyncUpdateExistingStreaming() throws Exception {
+    checkSyncUpdateExisting(new ESICorporationBlueprintsSync(corpSyncAccount) {
+      @Override
+      protected boolean useStreaming() {
+        return true;
+      }
+    });
+  }
+
+  private void checkSyncUpdateExisting(ESICorporationBlueprintsSync sync) throws Exception {
     setupOkMock();
     EasyMock.replay(mockServer, mockEndpoint);
 
@@ -216,7 +230,6 @@ public class ESICorporationBlueprintsSyncTest extends SyncTestBase {
     }
 
     // Perform the sync
-    ESICorporationBlueprintsSync sync = new ESICorporationBlueprintsSync(corpSyncAccount);
     sync.synch(mockServer);
     EasyMock.verify(mockServer, mockEndpoint);
 
@@ -20,6 +20,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -355,4 +356,75 @@ public class ESICorporationIndustryJobSyncTest extends SyncTestBase {
     Assert.assertEquals(schedTime, syncTracker.getScheduled());
   }
 
+  @Test
+  public void testSyncUpdateUnchanged() throws Exception {
+    setupOkMock();
+    EasyMock.replay(mockServer, mockEndpoint);
+
+    // Populate existing.  Jobs at even indices are unchanged, jobs at odd indices differ in runs.
+    for (int i = 0; i < jobTestData.length; i++) {
+      Object[] jobData = jobTestData[i];
+      int delta = i % 2;
+      IndustryJob newEl = new IndustryJob((Integer) jobData[0],
+                                          (Integer) jobData[1],
+                                          (Long) jobData[2],
+                                          (Long) jobData[3],
+                                          (Integer) jobData[4],
+                                          (Long) jobData[5],
+                                          (Integer) jobData[6],
+                                          (Long) jobData[7],
+                                          (Long) jobData[8],
+                                          (Integer) jobData[9] + delta,
+                                          (BigDecimal) jobData[10],
+                                          (Integer) jobData[11],
+                                          (Float) jobData[12],
+                                          (Integer) jobData[13],
+                                          jobData[14].toString(),
+                                          (Integer) jobData[15],
+                                          (Long) jobData[16],
+                                          (Long) jobData[17],
+                                          (Long) jobData[18],
+                                          (Long) jobData[19],
+                                          (Integer) jobData[20],
+                                          (Integer) jobData[21]);
+      newEl.setup(corpSyncAccount, testTime - 1);
+      CachedData.update(newEl);
+    }
+
+    // Perform the sync
+    ESICorporationIndustryJobSync sync = new ESICorporationIndustryJobSync(corpSyncAccount);
+    sync.synch(mockServer);
+    EasyMock.verify(mockServer, mockEndpoint);
+
+    // Unchanged jobs keep their original version, changed jobs are written at the sync time
+    List<IndustryJob> storedData = AbstractESIAccountSync.retrieveAll(testTime, (long contid, AttributeSelector at) ->
+        IndustryJob.accessQuery(corpSyncAccount, contid, 1000, false, at, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR, AbstractESIAccountSync.ANY_SELECTOR,
+                                AbstractESIAccountSync.ANY_SELECTOR));
+    Assert.assertEquals(jobTestData.length, storedData.size());
+    Map<Long, IndustryJob> stored = new HashMap<>();
+    for (IndustryJob next : storedData) stored.put((long) next.getJobID(), next);
+    for (int i = 0; i < jobTestData.length; i++) {
+      IndustryJob nextEl = stored.get((long) (Integer) jobTestData[i][0]);
+      Assert.assertNotNull(nextEl);
+      Assert.assertEquals((int) (Integer) jobTestData[i][9], nextEl.getRuns());
+      Assert.assertEquals(i % 2 == 0 ? testTime - 1 : testTime, nextEl.getLifeStart());
+    }
+
+    // Verify tracker was updated properly
+    ESIEndpointSyncTracker syncTracker = ESIEndpointSyncTracker.getLatestFinishedTracker(corpSyncAccount,
+                                                                                         ESISyncEndpoint.CORP_INDUSTRY);
+    Assert.assertEquals(ESISyncState.FINISHED, syncTracker.getStatus());
+    Assert.assertEquals("Updated successfully", syncTracker.getDetail());
+  }
+
 }